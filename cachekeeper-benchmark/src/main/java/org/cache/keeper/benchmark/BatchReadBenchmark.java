@@ -0,0 +1,96 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.benchmark;
+
+import org.cache.keeper.core.CacheKeeper;
+import org.cache.keeper.core.IBulkCacheReloader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the batch read of the keys all hit, and of the keys half miss
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchReadBenchmark {
+
+    private static final IBulkCacheReloader<String, String> RELOADER = keys -> {
+        Map<String, String> values = new LinkedHashMap<>();
+        keys.forEach(key -> values.put(key, "value"));
+        return values;
+    };
+
+    @Param({"10", "100", "1000"})
+    public int batchSize;
+
+    private final List<String> keys = new ArrayList<>();
+
+    private CacheKeeper<String, String> cacheKeeper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cacheKeeper = BenchmarkBackend.cacheKeeper(BenchmarkBackend.cacheOperator());
+        for (int i = 0; i < batchSize; i++) {
+            keys.add("benchmark:batch:" + i);
+        }
+        cacheKeeper.readCacheAll(keys, RELOADER);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cacheKeeper.close();
+    }
+
+    @Benchmark
+    public Map<String, String> allHit() {
+        return cacheKeeper.readCacheAll(keys, RELOADER);
+    }
+
+    /**
+     * delete half of the keys then read all, the miss keys are leased and written in pipelines
+     */
+    @Benchmark
+    public Map<String, String> halfMiss() {
+        for (int i = 0; i < keys.size(); i += 2) {
+            cacheKeeper.deleteCache(keys.get(i));
+        }
+        return cacheKeeper.readCacheAll(keys, RELOADER);
+    }
+
+}
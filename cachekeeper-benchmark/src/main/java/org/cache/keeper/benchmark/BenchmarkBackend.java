@@ -0,0 +1,108 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.benchmark;
+
+import org.cache.keeper.core.CacheKeeper;
+import org.cache.keeper.core.cacheoperator.ICacheOperator;
+import org.cache.keeper.core.cacheoperator.memory.InMemoryCacheOperator;
+import org.cache.keeper.core.cacheoperator.redis.RedisCacheOperator;
+import org.cache.keeper.core.cacheoperator.redis.jedis.JedisConfiguration;
+import org.cache.keeper.core.config.CacheKeeperConfiguration;
+import org.cache.keeper.core.config.CachePenetrationStrategy;
+import org.cache.keeper.embedded.redis.EmbeddedRedisServer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the cache backend of the benchmark, chosen by the system property cachekeeper.benchmark.backend
+ * local: the in memory cache operator, measure the cache keeper itself
+ * redis: the redis at cachekeeper.benchmark.redisHost and cachekeeper.benchmark.redisPort
+ * embedded: the embedded redis in the benchmark jvm, with the round trip latency cachekeeper.benchmark.latencyMs
+ */
+final class BenchmarkBackend {
+
+    static final String LOCAL = "local";
+
+    static final String REDIS = "redis";
+
+    static final String EMBEDDED = "embedded";
+
+    /**
+     * one embedded redis for the benchmark jvm, started by the first operator
+     */
+    private static EmbeddedRedisServer embeddedRedisServer;
+
+    private BenchmarkBackend() {
+    }
+
+    static String name() {
+        return System.getProperty("cachekeeper.benchmark.backend", LOCAL);
+    }
+
+    static ICacheOperator<String, String> cacheOperator() {
+        return switch (name()) {
+            case LOCAL -> InMemoryCacheOperator.Builder.newBuilder().build();
+            case REDIS -> redisCacheOperator(System.getProperty("cachekeeper.benchmark.redisHost", "127.0.0.1"),
+                    Integer.getInteger("cachekeeper.benchmark.redisPort", 6379));
+            case EMBEDDED -> {
+                EmbeddedRedisServer server = embeddedRedisServer();
+                yield redisCacheOperator(server.getHost(), server.getPort());
+            }
+            default -> throw new IllegalArgumentException("unknown benchmark backend: " + name());
+        };
+    }
+
+    private static ICacheOperator<String, String> redisCacheOperator(String host, int port) {
+        return RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(host)
+                        .standalonePort(port)
+                        .build())
+                .useLuaSha(true)
+                .build();
+    }
+
+    private static synchronized EmbeddedRedisServer embeddedRedisServer() {
+        if (embeddedRedisServer == null) {
+            embeddedRedisServer = EmbeddedRedisServer.Builder.newBuilder()
+                    .latencyMs(Long.getLong("cachekeeper.benchmark.latencyMs", 0L))
+                    .build();
+        }
+        return embeddedRedisServer;
+    }
+
+    static CacheKeeper<String, String> cacheKeeper(ICacheOperator<String, String> cacheOperator) {
+        return cacheKeeper(cacheOperator, true);
+    }
+
+    static CacheKeeper<String, String> cacheKeeper(ICacheOperator<String, String> cacheOperator, boolean singleFlightEnabled) {
+        CacheKeeperConfiguration<String, String> config = CacheKeeperConfiguration.Builder.newBuilder()
+                .cacheExpireTime(10L)
+                .cacheExpireTimeUnit(TimeUnit.MINUTES)
+                .cachePenetrationStrategy(CachePenetrationStrategy.NONE)
+                .singleFlightEnabled(singleFlightEnabled)
+                .cacheOperator(cacheOperator)
+                .build();
+        return CacheKeeper.Builder.newBuilder()
+                .config(config)
+                .build();
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.benchmark;
+
+import org.cache.keeper.core.cacheoperator.ICacheOperator;
+import org.cache.keeper.core.lease.CompactLeaseIdGenerator;
+import org.cache.keeper.core.lease.ILeaseIdGenerator;
+import org.cache.keeper.core.lease.LeaseIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the cost of the lease id generator, alone and with the lease saved and written in the cache
+ * the lease id is generated for each cache miss, and sent to the cache in the lease scripts
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LeaseIdBenchmark {
+
+    private static final String WRITE_KEY = "benchmark:leaseid:write";
+
+    @Param({"uuid", "compact"})
+    public String generator;
+
+    private ILeaseIdGenerator leaseIdGenerator;
+
+    private ICacheOperator<String, String> cacheOperator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        leaseIdGenerator = "uuid".equals(generator) ? LeaseIdGenerator.getInstance() : new CompactLeaseIdGenerator();
+        cacheOperator = BenchmarkBackend.cacheOperator();
+        cacheOperator.deleteCacheAndClearAllLeaseId(WRITE_KEY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cacheOperator.close();
+    }
+
+    @Benchmark
+    public String generate() {
+        return leaseIdGenerator.generateLeaseId();
+    }
+
+    /**
+     * many readers miss at the same time
+     */
+    @Benchmark
+    @Threads(4)
+    public String generateContended() {
+        return leaseIdGenerator.generateLeaseId();
+    }
+
+    /**
+     * acquire a lease and write with it, the id is sent twice
+     * the write expires at once, so the key is still a miss
+     */
+    @Benchmark
+    public boolean acquireLeaseAndWrite() {
+        String id = leaseIdGenerator.generateLeaseId();
+        cacheOperator.readCacheOrAcquireLease(WRITE_KEY, id);
+        return cacheOperator.writeCache(WRITE_KEY, "value", id, 0L, TimeUnit.MILLISECONDS);
+    }
+
+}
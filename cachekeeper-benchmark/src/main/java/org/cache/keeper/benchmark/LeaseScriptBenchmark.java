@@ -0,0 +1,97 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.benchmark;
+
+import org.cache.keeper.core.cacheoperator.ICacheOperator;
+import org.cache.keeper.core.cacheoperator.LeaseReadResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * the cost of the lease scripts when the key already has many lease ids
+ * the lease ids pile up when many readers miss the same key before it is written
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LeaseScriptBenchmark {
+
+    private static final String WRITE_KEY = "benchmark:lease:write";
+
+    private static final String MISS_KEY = "benchmark:lease:miss";
+
+    @Param({"0", "10", "100", "1000"})
+    public int leaseCount;
+
+    private final AtomicLong leaseId = new AtomicLong();
+
+    private ICacheOperator<String, String> cacheOperator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cacheOperator = BenchmarkBackend.cacheOperator();
+        cacheOperator.deleteCacheAndClearAllLeaseId(WRITE_KEY);
+        cacheOperator.deleteCacheAndClearAllLeaseId(MISS_KEY);
+        for (int i = 0; i < leaseCount; i++) {
+            cacheOperator.readCacheOrAcquireLease(WRITE_KEY, "pending-" + i);
+            cacheOperator.readCacheOrAcquireLease(MISS_KEY, "pending-" + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cacheOperator.close();
+    }
+
+    /**
+     * acquire a lease and write with it, the lease set keeps its size
+     * the write expires at once, so the key is still a miss
+     */
+    @Benchmark
+    public boolean acquireLeaseAndWrite() {
+        String id = "lease-" + leaseId.incrementAndGet();
+        cacheOperator.readCacheOrAcquireLease(WRITE_KEY, id);
+        return cacheOperator.writeCache(WRITE_KEY, "value", id, 0L, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * the read script on the miss key, the same lease id is added again so the lease set keeps its size
+     */
+    @Benchmark
+    public LeaseReadResult<String> readOrAcquireLeaseMiss() {
+        return cacheOperator.readCacheOrAcquireLease(MISS_KEY, "pending-0");
+    }
+
+}
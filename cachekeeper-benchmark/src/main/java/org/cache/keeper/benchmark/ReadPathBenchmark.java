@@ -0,0 +1,91 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.benchmark;
+
+import org.cache.keeper.core.CacheKeeper;
+import org.cache.keeper.core.ICacheReloader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * the hit path, the miss and reload path, and the delete path of one key
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReadPathBenchmark {
+
+    private static final String HIT_KEY = "benchmark:hit";
+
+    private static final String DELETE_KEY = "benchmark:delete";
+
+    private static final ICacheReloader<String, String> RELOADER = key -> "value";
+
+    private final AtomicLong missKeyId = new AtomicLong();
+
+    private CacheKeeper<String, String> cacheKeeper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cacheKeeper = BenchmarkBackend.cacheKeeper(BenchmarkBackend.cacheOperator());
+        cacheKeeper.deleteCache(HIT_KEY);
+        cacheKeeper.readCache(HIT_KEY, RELOADER);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cacheKeeper.close();
+    }
+
+    @Benchmark
+    public String hit() {
+        return cacheKeeper.readCache(HIT_KEY, RELOADER);
+    }
+
+    /**
+     * delete the key then read it, the lease is saved and the reloaded value is written
+     */
+    @Benchmark
+    public String missAndReload() {
+        String key = "benchmark:miss:" + missKeyId.incrementAndGet() % 1024;
+        cacheKeeper.deleteCache(key);
+        return cacheKeeper.readCache(key, RELOADER);
+    }
+
+    @Benchmark
+    public void delete() {
+        cacheKeeper.deleteCache(DELETE_KEY);
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.benchmark;
+
+import org.cache.keeper.core.CacheKeeper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * many threads read one hot key, which is deleted periodically
+ * the reloads counter is the db load of the stampede, compare it with and without the single flight
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class StampedeBenchmark {
+
+    private static final String HOT_KEY = "benchmark:stampede";
+
+    /**
+     * the hot key is deleted once in these reads
+     */
+    @Param({"1000"})
+    public int deleteInterval;
+
+    /**
+     * the cpu cost of the reload, in the jmh token
+     */
+    @Param({"10000"})
+    public int reloadTokens;
+
+    @Param({"true", "false"})
+    public boolean singleFlightEnabled;
+
+    private final AtomicLong readCount = new AtomicLong();
+
+    private CacheKeeper<String, String> cacheKeeper;
+
+    /**
+     * the counters of each thread, summed in the result
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long reloads;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cacheKeeper = BenchmarkBackend.cacheKeeper(BenchmarkBackend.cacheOperator(), singleFlightEnabled);
+        cacheKeeper.deleteCache(HOT_KEY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cacheKeeper.close();
+    }
+
+    @Benchmark
+    public String read(Counters counters) {
+        if (readCount.incrementAndGet() % deleteInterval == 0) {
+            cacheKeeper.deleteCache(HOT_KEY);
+        }
+        return cacheKeeper.readCache(HOT_KEY, key -> {
+            counters.reloads++;
+            Blackhole.consumeCPU(reloadTokens);
+            return "value";
+        });
+    }
+
+}
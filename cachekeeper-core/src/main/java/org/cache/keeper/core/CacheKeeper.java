@@ -16,40 +16,79 @@
 
 package org.cache.keeper.core;
 
+import org.cache.keeper.core.async.AsyncSupport;
+import org.cache.keeper.core.cacheoperator.ICacheOperator;
+import org.cache.keeper.core.cacheoperator.LeaseReadResult;
+import org.cache.keeper.core.cacheoperator.SoftExpire;
+import org.cache.keeper.core.cacheoperator.nearcache.NearCache;
+import org.cache.keeper.core.cacheoperator.nearcache.NearCacheOperator;
+import org.cache.keeper.core.cacheoperator.nearcache.NearCacheStats;
+import org.cache.keeper.core.codec.compression.CompressionSerializer;
+import org.cache.keeper.core.codec.compression.CompressionStats;
 import org.cache.keeper.core.config.CacheKeeperConfiguration;
-import org.cache.keeper.core.lease.LeaseIdGenerator;
+import org.cache.keeper.core.config.CachePenetrationStrategy;
+import org.cache.keeper.core.config.NegativeCacheConfiguration;
+import org.cache.keeper.core.singleflight.SingleFlight;
+import org.cache.keeper.core.singleflight.SingleFlightStats;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
  * the core class
  */
-public class CacheKeeper<K, V> {
-
-    @SuppressWarnings("rawtypes")
-    public static final CacheKeeper INSTANCE = new CacheKeeper<>();
+public class CacheKeeper<K, V> implements AutoCloseable {
 
     private CacheKeeper() {}
 
     private CacheKeeperConfiguration<K, V> config;
 
+    /**
+     * coalesce the reload of the same key, null when disabled
+     */
+    private SingleFlight<K, V> singleFlight;
+
+    /**
+     * the keys which the null value is cached, null when disabled
+     */
+    private NearCache<K, Boolean> negativeCache;
+
     public static class Builder {
+        private CacheKeeperConfiguration<?, ?> config;
+
+        private Builder() {
+        }
+
         public static Builder newBuilder() {
             return new Builder();
         }
 
         public <K, V> Builder config(CacheKeeperConfiguration<K,V> config) {
-            INSTANCE.config = config;
+            this.config = config;
             return this;
         }
 
+        /**
+         * each cache keeper is independent, one for each cache region with its own config
+         */
         @SuppressWarnings("unchecked")
         public <K, V> CacheKeeper<K, V> build() {
-            CacheKeeper<K, V> instance = (CacheKeeper<K, V>) INSTANCE;
+            CacheKeeper<K, V> instance = new CacheKeeper<>();
+            instance.config = (CacheKeeperConfiguration<K, V>) config;
             if (instance.config == null) {
                 throw new RuntimeException("cache keeper config is null");
             }
             instance.validConfig();
+            instance.singleFlight = Boolean.TRUE.equals(instance.config.getSingleFlightEnabled())
+                    ? new SingleFlight<>() : null;
+            NegativeCacheConfiguration negativeCacheConfiguration = instance.config.getNegativeCacheConfiguration();
+            instance.negativeCache = negativeCacheConfiguration == null
+                    ? null : new NearCache<>(negativeCacheConfiguration.getMaximumSize());
             return instance;
         }
     }
@@ -71,42 +110,433 @@ public class CacheKeeper<K, V> {
      * @return cache value
      */
     public V readCache(K key, ICacheReloader<K, V> cacheReloader) {
-        // first use the cache operator to read the cache
-        V cache = config.getCacheOperator().readCache(key);
-        if (cache != null) {
-            return cache;
+        if (rejectedByBloomFilter(key) || isNegativeCached(key)) {
+            return null;
         }
         // distribute lease id
-        String leaseId = LeaseIdGenerator.getInstance().generateLeaseId();
-        // write the lease to cache
-        config.getCacheOperator().saveLeaseId(leaseId);
+        String leaseId = config.getLeaseIdGenerator().generateLeaseId();
+        // read the cache, or write the lease to cache when miss, in one round trip
+        LeaseReadResult<V> cache = config.getCacheOperator().readCacheOrAcquireLease(key, leaseId);
+        if (cache.isStale()) {
+            // return the stale value, this one refresh it in the background
+            Thread.ofVirtual().start(() -> {
+                try {
+                    reloadCache(key, cache.getLeaseId(), cacheReloader);
+                } catch (RuntimeException ignored) {
+                    // the stale value is refreshed again after the lease expired
+                }
+            });
+            return cache.getValue();
+        }
+        if (cache.isHit()) {
+            if (cache.getValue() == null) {
+                cacheNegative(key);
+            }
+            return cache.getValue();
+        }
+        if (singleFlight == null) {
+            return reloadCache(key, leaseId, cacheReloader);
+        }
+        // only one reload for the same key in this jvm
+        return singleFlight.execute(key,
+                () -> reloadCache(key, leaseId, cacheReloader),
+                config.getSingleFlightWaitTimeMs(),
+                () -> singleFlightTimeout(key, leaseId, cacheReloader));
+    }
+
+    /**
+     * fallback when wait the in flight reload timeout
+     */
+    private V singleFlightTimeout(K key, String leaseId, ICacheReloader<K, V> cacheReloader) {
+        switch (config.getSingleFlightTimeoutStrategy()) {
+            case RELOAD -> {
+                return reloadCache(key, leaseId, cacheReloader);
+            }
+            case RETURN_NULL -> {
+                return null;
+            }
+            case THROW -> throw new RuntimeException("wait the reload of key timeout: " + key);
+            default -> throw new IllegalStateException("Unexpected value: " + config.getSingleFlightTimeoutStrategy());
+        }
+    }
+
+    /**
+     * reload the cache with the lease
+     * @param key cache key
+     * @param leaseId the lease saved for the key
+     * @param cacheReloader customer reloader
+     * @return cache value
+     */
+    private V reloadCache(K key, String leaseId, ICacheReloader<K, V> cacheReloader) {
         // reload cache
+        long reloadStartTime = System.currentTimeMillis();
         V reloadedCache = cacheReloader.reload(key);
+        long reloadCostMs = System.currentTimeMillis() - reloadStartTime;
         if (reloadedCache == null) {
             switch (config.getCachePenetrationStrategy()) {
-                case NONE -> {
+                case NONE, BLOOM_FILTER -> {
                     return null;
                 }
                 case WRITE_NULL_SOME_TIME -> {
-                    // async update cache
-                    Thread.ofVirtual().start(
-                            () -> config.getCacheOperator().writeCache(key, null, leaseId, config.getMissCacheNullValueTimeMs(), TimeUnit.MILLISECONDS)
-                    );
+                    cacheNegative(key);
+                    // do not wait the null value written
+                    config.getCacheOperator().writeCacheAsync(key, null, leaseId, nullValueExpireTimeMs(key), TimeUnit.MILLISECONDS);
                     return null;
                 }
                 default -> throw new IllegalStateException("Unexpected value: " + config.getCachePenetrationStrategy());
             }
         }
-        config.getCacheOperator().writeCache(key, reloadedCache, leaseId, config.getCacheExpireTime(), config.getCacheExpireTimeUnit());
+        long expireTimeMs = expireTimeMs(key, reloadedCache);
+        config.getCacheOperator().writeCache(key, reloadedCache, leaseId, writeExpireTimeMs(expireTimeMs), TimeUnit.MILLISECONDS,
+                softExpire(expireTimeMs, reloadCostMs));
         return reloadedCache;
     }
 
+    /**
+     * expire time of the value by the ttl policy
+     */
+    private long expireTimeMs(K key, V value) {
+        return config.getTtlPolicy().expireTimeMs(key, value, config.getCacheExpireTimeUnit().toMillis(config.getCacheExpireTime()));
+    }
+
+    /**
+     * expire time of the null value by the ttl policy
+     */
+    private long nullValueExpireTimeMs(K key) {
+        return config.getTtlPolicy().expireTimeMs(key, null, config.getMissCacheNullValueTimeMs());
+    }
+
+    /**
+     * the redis ttl, the cache is kept the stale time after the soft expire when stale while revalidate
+     */
+    private long writeExpireTimeMs(long expireTimeMs) {
+        return config.getStaleWhileRevalidateTimeMs() == null ? expireTimeMs : expireTimeMs + config.getStaleWhileRevalidateTimeMs();
+    }
+
+    /**
+     * the soft expire is the expire time of the value, written when stale while revalidate or early refresh
+     * @return null when both disabled
+     */
+    private SoftExpire softExpire(long expireTimeMs, long reloadCostMs) {
+        if (config.getStaleWhileRevalidateTimeMs() == null && config.getEarlyRefreshBeta() == null) {
+            return null;
+        }
+        return SoftExpire.of(expireTimeMs, reloadCostMs);
+    }
+
+    /**
+     * async version of readCache, no thread is blocked when the cache operator support async
+     * @param key cache key
+     * @param cacheReloader customer async reloader
+     * @return future of the cache value
+     */
+    public CompletableFuture<V> readCacheAsync(K key, IAsyncCacheReloader<K, V> cacheReloader) {
+        if (rejectedByBloomFilter(key) || isNegativeCached(key)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // distribute lease id
+        String leaseId = config.getLeaseIdGenerator().generateLeaseId();
+        return config.getCacheOperator().readCacheOrAcquireLeaseAsync(key, leaseId).thenCompose(cache -> {
+            if (cache.isStale()) {
+                // return the stale value, do not wait the refresh
+                try {
+                    reloadCacheAsync(key, cache.getLeaseId(), cacheReloader);
+                } catch (RuntimeException ignored) {
+                    // the stale value is refreshed again after the lease expired
+                }
+                return CompletableFuture.completedFuture(cache.getValue());
+            }
+            if (cache.isHit()) {
+                if (cache.getValue() == null) {
+                    cacheNegative(key);
+                }
+                return CompletableFuture.completedFuture(cache.getValue());
+            }
+            if (singleFlight == null) {
+                return reloadCacheAsync(key, leaseId, cacheReloader);
+            }
+            // only one reload for the same key in this jvm, shared with the sync readCache
+            return singleFlight.executeAsync(key,
+                    () -> reloadCacheAsync(key, leaseId, cacheReloader),
+                    config.getSingleFlightWaitTimeMs(),
+                    () -> singleFlightTimeoutAsync(key, leaseId, cacheReloader));
+        });
+    }
+
+    /**
+     * async fallback when wait the in flight reload timeout
+     */
+    private CompletableFuture<V> singleFlightTimeoutAsync(K key, String leaseId, IAsyncCacheReloader<K, V> cacheReloader) {
+        return switch (config.getSingleFlightTimeoutStrategy()) {
+            case RELOAD -> reloadCacheAsync(key, leaseId, cacheReloader);
+            case RETURN_NULL -> CompletableFuture.completedFuture(null);
+            case THROW -> CompletableFuture.failedFuture(new RuntimeException("wait the reload of key timeout: " + key));
+        };
+    }
+
+    /**
+     * async reload the cache with the lease
+     * @param key cache key
+     * @param leaseId the lease saved for the key
+     * @param cacheReloader customer async reloader
+     * @return future of the cache value, completed after the cache is written
+     */
+    private CompletableFuture<V> reloadCacheAsync(K key, String leaseId, IAsyncCacheReloader<K, V> cacheReloader) {
+        ICacheOperator<K, V> cacheOperator = config.getCacheOperator();
+        long reloadStartTime = System.currentTimeMillis();
+        return cacheReloader.reload(key).thenCompose(reloadedCache -> {
+            if (reloadedCache == null) {
+                switch (config.getCachePenetrationStrategy()) {
+                    case NONE, BLOOM_FILTER -> {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    case WRITE_NULL_SOME_TIME -> {
+                        cacheNegative(key);
+                        // do not wait the null value written
+                        cacheOperator.writeCacheAsync(key, null, leaseId, nullValueExpireTimeMs(key), TimeUnit.MILLISECONDS);
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    default -> throw new IllegalStateException("Unexpected value: " + config.getCachePenetrationStrategy());
+                }
+            }
+            long expireTimeMs = expireTimeMs(key, reloadedCache);
+            return cacheOperator.writeCacheAsync(key, reloadedCache, leaseId, writeExpireTimeMs(expireTimeMs), TimeUnit.MILLISECONDS,
+                            softExpire(expireTimeMs, System.currentTimeMillis() - reloadStartTime))
+                    .thenApply(written -> reloadedCache);
+        });
+    }
+
+    /**
+     * read the cache in batch, the miss keys are reloaded once by the bulk reloader
+     * the lease of all miss keys is saved in one pipeline, and the reloaded values are written in one pipeline
+     * @param keys cache keys
+     * @param bulkCacheReloader customer bulk reloader
+     * @return cache values, the key not exist is not in the map
+     */
+    public Map<K, V> readCacheAll(Collection<K> keys, IBulkCacheReloader<K, V> bulkCacheReloader) {
+        ICacheOperator<K, V> cacheOperator = config.getCacheOperator();
+        if (config.getCachePenetrationStrategy() == CachePenetrationStrategy.BLOOM_FILTER || negativeCache != null) {
+            keys = keys.stream().filter(key -> !rejectedByBloomFilter(key) && !isNegativeCached(key)).toList();
+            if (keys.isEmpty()) {
+                return new LinkedHashMap<>();
+            }
+        }
+        // first read all keys in batch
+        Map<K, V> result = new LinkedHashMap<>(cacheOperator.readCacheAll(keys));
+        Map<K, String> keyLeaseIds = new LinkedHashMap<>();
+        for (K key : keys) {
+            if (!result.containsKey(key) && !keyLeaseIds.containsKey(key)) {
+                keyLeaseIds.put(key, config.getLeaseIdGenerator().generateLeaseId());
+            }
+        }
+        if (keyLeaseIds.isEmpty()) {
+            return removeNullValue(result);
+        }
+        // read the miss keys again and save the lease, the cache may be written by others
+        Map<K, String> leasedKeys = new LinkedHashMap<>();
+        Map<K, String> staleKeys = new LinkedHashMap<>();
+        cacheOperator.readCacheOrAcquireLeaseAll(keyLeaseIds).forEach((key, cache) -> {
+            if (cache.isStale()) {
+                result.put(key, cache.getValue());
+                staleKeys.put(key, cache.getLeaseId());
+            } else if (cache.isHit()) {
+                result.put(key, cache.getValue());
+            } else {
+                leasedKeys.put(key, cache.getLeaseId());
+            }
+        });
+        if (!staleKeys.isEmpty()) {
+            // return the stale values, refresh them in the background
+            Thread.ofVirtual().start(() -> {
+                try {
+                    reloadCacheAll(staleKeys, bulkCacheReloader, new LinkedHashMap<>());
+                } catch (RuntimeException ignored) {
+                    // the stale values are refreshed again after the lease expired
+                }
+            });
+        }
+        if (leasedKeys.isEmpty()) {
+            return removeNullValue(result);
+        }
+        reloadCacheAll(leasedKeys, bulkCacheReloader, result);
+        return removeNullValue(result);
+    }
+
+    /**
+     * reload all leased keys once, and write them in one pipeline
+     * @param leasedKeys the keys and the lease saved for them
+     * @param bulkCacheReloader customer bulk reloader
+     * @param result the reloaded values are put in it
+     */
+    private void reloadCacheAll(Map<K, String> leasedKeys, IBulkCacheReloader<K, V> bulkCacheReloader, Map<K, V> result) {
+        ICacheOperator<K, V> cacheOperator = config.getCacheOperator();
+        long reloadStartTime = System.currentTimeMillis();
+        Map<K, V> reloadedCache = bulkCacheReloader.reload(new ArrayList<>(leasedKeys.keySet()));
+        long reloadCostMs = System.currentTimeMillis() - reloadStartTime;
+        Map<K, V> values = new LinkedHashMap<>();
+        Map<K, V> nullValues = new LinkedHashMap<>();
+        leasedKeys.keySet().forEach(key -> {
+            V value = reloadedCache == null ? null : reloadedCache.get(key);
+            if (value != null) {
+                values.put(key, value);
+                result.put(key, value);
+            } else {
+                nullValues.put(key, null);
+            }
+        });
+        if (!values.isEmpty()) {
+            // each key has its own expire time by the ttl policy
+            Map<K, Long> expireTimeMs = new LinkedHashMap<>();
+            Map<K, SoftExpire> softExpires = new LinkedHashMap<>();
+            values.forEach((key, value) -> {
+                long keyExpireTimeMs = expireTimeMs(key, value);
+                expireTimeMs.put(key, writeExpireTimeMs(keyExpireTimeMs));
+                softExpires.put(key, softExpire(keyExpireTimeMs, reloadCostMs));
+            });
+            cacheOperator.writeCacheAll(values, leasedKeys, expireTimeMs, softExpires);
+        }
+        if (!nullValues.isEmpty()) {
+            switch (config.getCachePenetrationStrategy()) {
+                case NONE, BLOOM_FILTER -> {
+                }
+                case WRITE_NULL_SOME_TIME -> {
+                    Map<K, Long> expireTimeMs = new LinkedHashMap<>();
+                    nullValues.keySet().forEach(key -> {
+                        cacheNegative(key);
+                        expireTimeMs.put(key, nullValueExpireTimeMs(key));
+                    });
+                    // async update cache, on the executor of the async api as the single key write
+                    AsyncSupport.runBlocking(() -> cacheOperator.writeCacheAll(nullValues, leasedKeys, expireTimeMs, null));
+                }
+                default -> throw new IllegalStateException("Unexpected value: " + config.getCachePenetrationStrategy());
+            }
+        }
+    }
+
+    /**
+     * the null value cached is a hit, but not returned to the customer
+     */
+    private Map<K, V> removeNullValue(Map<K, V> result) {
+        result.forEach((key, value) -> {
+            if (value == null) {
+                cacheNegative(key);
+            }
+        });
+        result.values().removeIf(Objects::isNull);
+        return result;
+    }
+
+    /**
+     * the key which the null value is cached is not read from the redis again, until the negative cache expired
+     */
+    private boolean isNegativeCached(K key) {
+        return negativeCache != null && negativeCache.get(key) != null;
+    }
+
+    /**
+     * remember the null value in process, the expire time is capped by the null value time
+     */
+    private void cacheNegative(K key) {
+        if (negativeCache == null) {
+            return;
+        }
+        long expireTimeMs = nullValueExpireTimeMs(key);
+        Long negativeExpireTimeMs = config.getNegativeCacheConfiguration().getExpireTimeMs();
+        negativeCache.put(key, Boolean.TRUE, negativeExpireTimeMs == null ? expireTimeMs : Math.min(negativeExpireTimeMs, expireTimeMs));
+    }
+
+    /**
+     * the key surely not exist in the db is rejected without the cache and the db read
+     */
+    private boolean rejectedByBloomFilter(K key) {
+        return config.getCachePenetrationStrategy() == CachePenetrationStrategy.BLOOM_FILTER
+                && !config.getBloomFilter().mightContain(key);
+    }
+
     /**
      * when db update, this method must be call
+     * the key is added to the bloom filter, the db update may insert it
      * @param key cache key
      */
     public void deleteCache(K key) {
+        if (config.getCachePenetrationStrategy() == CachePenetrationStrategy.BLOOM_FILTER) {
+            config.getBloomFilter().put(key);
+        }
+        if (negativeCache != null) {
+            negativeCache.invalidate(key);
+        }
         config.getCacheOperator().deleteCacheAndClearAllLeaseId(key);
+        if (negativeCache != null) {
+            // the read between the two step may remember the old null value again
+            negativeCache.invalidate(key);
+        }
+    }
+
+    /**
+     * async version of deleteCache
+     * @param key cache key
+     * @return future of the completion
+     */
+    public CompletableFuture<Void> deleteCacheAsync(K key) {
+        if (config.getCachePenetrationStrategy() == CachePenetrationStrategy.BLOOM_FILTER) {
+            return AsyncSupport.runBlocking(() -> config.getBloomFilter().put(key))
+                    .thenCompose(added -> config.getCacheOperator().deleteCacheAndClearAllLeaseIdAsync(key));
+        }
+        if (negativeCache != null) {
+            negativeCache.invalidate(key);
+            return config.getCacheOperator().deleteCacheAndClearAllLeaseIdAsync(key).thenRun(() -> negativeCache.invalidate(key));
+        }
+        return config.getCacheOperator().deleteCacheAndClearAllLeaseIdAsync(key);
+    }
+
+    /**
+     * close the cache operator of the config and the redis client in it, and the bloom filter
+     * the connection pool shared with other cache keeper is closed by the last one
+     */
+    @Override
+    public void close() {
+        if (config.getBloomFilter() != null) {
+            config.getBloomFilter().close();
+        }
+        config.getCacheOperator().close();
+    }
+
+    /**
+     * counters of the coalesced reload
+     * @return stats, null when single flight disabled
+     */
+    public SingleFlightStats getSingleFlightStats() {
+        return singleFlight == null ? null : singleFlight.getStats();
+    }
+
+    /**
+     * counters of the near cache
+     * @return stats, null when near cache disabled
+     */
+    public NearCacheStats getNearCacheStats() {
+        if (config.getCacheOperator() instanceof NearCacheOperator<K, V> nearCacheOperator) {
+            return nearCacheOperator.getNearCache().getStats();
+        }
+        return null;
+    }
+
+    /**
+     * counters of the negative cache
+     * @return stats, null when negative cache disabled
+     */
+    public NearCacheStats getNegativeCacheStats() {
+        return negativeCache == null ? null : negativeCache.getStats();
+    }
+
+    /**
+     * counters of the value compression
+     * @return stats, null when compression disabled
+     */
+    public CompressionStats getCompressionStats() {
+        if (config.getValueSerializer() instanceof CompressionSerializer<V> compressionSerializer) {
+            return compressionSerializer.getStats();
+        }
+        return null;
     }
 
 }
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * cache reload without blocking
+ */
+public interface IAsyncCacheReloader<K, V> {
+
+    /**
+     * reload the cache for key
+     * @param key cache key
+     * @return future of the cache value
+     */
+    CompletableFuture<V> reload(K key);
+
+}
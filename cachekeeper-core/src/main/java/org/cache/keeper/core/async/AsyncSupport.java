@@ -0,0 +1,69 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.async;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * async support
+ * run the blocking call out of the caller thread, for the client which has no async api
+ */
+public class AsyncSupport {
+
+    /**
+     * the blocking call park the virtual thread, not the carrier thread
+     */
+    private static final ExecutorService BLOCKING_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private AsyncSupport() {}
+
+    /**
+     * run the blocking call async
+     * @param blockingCall blocking call
+     * @return future of the result
+     */
+    public static <T> CompletableFuture<T> supplyBlocking(Supplier<T> blockingCall) {
+        return CompletableFuture.supplyAsync(blockingCall, BLOCKING_EXECUTOR);
+    }
+
+    /**
+     * run the blocking call async
+     * @param blockingCall blocking call
+     * @return future of the completion
+     */
+    public static CompletableFuture<Void> runBlocking(Runnable blockingCall) {
+        return CompletableFuture.runAsync(blockingCall, BLOCKING_EXECUTOR);
+    }
+
+    /**
+     * unwrap the exception of the future
+     * @param throwable exception
+     * @return the real cause
+     */
+    public static Throwable unwrap(Throwable throwable) {
+        while ((throwable instanceof CompletionException || throwable instanceof ExecutionException)
+                && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        return throwable;
+    }
+}
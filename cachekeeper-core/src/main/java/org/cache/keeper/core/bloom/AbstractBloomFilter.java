@@ -0,0 +1,144 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.core.bloom;
+
+import org.cache.keeper.core.codec.ISerializer;
+import org.cache.keeper.core.codec.StringSerializer;
+
+/**
+ * bloom filter sized by the expected insertions and the false positive rate
+ * the bits of the key are chosen by murmur3 of the key serialized by the key serializer of the cache, same as the key in redis
+ */
+public abstract class AbstractBloomFilter<K> implements IBloomFilter<K> {
+
+    private final long numBits;
+
+    private final int numHashFunctions;
+
+    private volatile ISerializer<K> keySerializer = new StringSerializer<>();
+
+    protected AbstractBloomFilter(long expectedInsertions, double falsePositiveRate, long maxNumBits) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1)");
+        }
+        long optimalNumBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.numBits = Math.max(64, Math.min(optimalNumBits, maxNumBits));
+        this.numHashFunctions = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+    }
+
+    // getter start
+    public long getNumBits() {
+        return numBits;
+    }
+
+    public int getNumHashFunctions() {
+        return numHashFunctions;
+    }
+    // getter end
+
+    @Override
+    public void initSerializer(ISerializer<K> keySerializer) {
+        this.keySerializer = keySerializer;
+    }
+
+    /**
+     * the bits of the key, by the double hashing of the 128 bit murmur3
+     * @param key cache key
+     * @return bit indexes in [0, numBits)
+     */
+    protected long[] bitIndexes(K key) {
+        long[] hash = murmur3(keySerializer.serialize(key));
+        long[] indexes = new long[numHashFunctions];
+        long combinedHash = hash[0];
+        for (int i = 0; i < numHashFunctions; i++) {
+            indexes[i] = (combinedHash & Long.MAX_VALUE) % numBits;
+            combinedHash += hash[1];
+        }
+        return indexes;
+    }
+
+    /**
+     * murmur3 x64 128 with seed 0
+     */
+    private static long[] murmur3(byte[] bytes) {
+        final long c1 = 0x87c37b91114253d5L;
+        final long c2 = 0x4cf5ad432745937fL;
+        long h1 = 0;
+        long h2 = 0;
+        int blocks = bytes.length / 16;
+        for (int i = 0; i < blocks; i++) {
+            long k1 = getLongLittleEndian(bytes, i * 16);
+            long k2 = getLongLittleEndian(bytes, i * 16 + 8);
+            h1 ^= mixK1(k1, c1, c2);
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(k2, c1, c2);
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+        long k1 = 0;
+        long k2 = 0;
+        int tail = blocks * 16;
+        for (int i = bytes.length - tail - 1; i >= 8; i--) {
+            k2 ^= (bytes[tail + i] & 0xFFL) << ((i - 8) * 8);
+        }
+        for (int i = Math.min(bytes.length - tail, 8) - 1; i >= 0; i--) {
+            k1 ^= (bytes[tail + i] & 0xFFL) << (i * 8);
+        }
+        h1 ^= mixK1(k1, c1, c2);
+        h2 ^= mixK2(k2, c1, c2);
+        h1 ^= bytes.length;
+        h2 ^= bytes.length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        return new long[]{h1, h2};
+    }
+
+    private static long mixK1(long k1, long c1, long c2) {
+        return Long.rotateLeft(k1 * c1, 31) * c2;
+    }
+
+    private static long mixK2(long k2, long c1, long c2) {
+        return Long.rotateLeft(k2 * c2, 33) * c1;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static long getLongLittleEndian(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | (bytes[offset + i] & 0xFFL);
+        }
+        return value;
+    }
+
+}
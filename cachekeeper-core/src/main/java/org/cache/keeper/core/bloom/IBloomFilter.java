@@ -0,0 +1,69 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.core.bloom;
+
+import org.cache.keeper.core.codec.ISerializer;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * membership filter of the keys exist in the db
+ * the key not in the filter surely not exist, the key in it may not exist by the false positive
+ */
+public interface IBloomFilter<K> extends AutoCloseable {
+
+    /**
+     * init the key serializer, the key is hashed by its serialized bytes
+     * @param keySerializer key serializer of the cache
+     */
+    default void initSerializer(ISerializer<K> keySerializer) {
+    }
+
+    /**
+     * @param key cache key
+     * @return false when the key surely not exist
+     */
+    boolean mightContain(K key);
+
+    /**
+     * add the key, called when the key is written to the db
+     * @param key cache key
+     */
+    void put(K key);
+
+    /**
+     * add the keys in batch
+     * @param keys cache keys
+     */
+    default void putAll(Collection<K> keys) {
+        keys.forEach(this::put);
+    }
+
+    /**
+     * build the filter from all keys exist, replace the old one when finished
+     * the filter can be read and added during the build
+     * @param keys all keys, e.g. streamed from the db
+     */
+    void build(Stream<K> keys);
+
+    @Override
+    default void close() {
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.core.bloom;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * bloom filter in process
+ * the deleted key can not be removed from the filter, rebuild it periodically from the keys exist
+ */
+public final class LocalBloomFilter<K> extends AbstractBloomFilter<K> {
+
+    private volatile AtomicLongArray bits;
+
+    /**
+     * the filter in building, the key added during the build is added to it too
+     */
+    private AtomicLongArray building;
+
+    /**
+     * guard the switch of the building filter, the add hold the read lock
+     */
+    private final ReentrantReadWriteLock buildLock = new ReentrantReadWriteLock();
+
+    private ScheduledExecutorService rebuildExecutor;
+
+    public LocalBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        super(expectedInsertions, falsePositiveRate, (long) Integer.MAX_VALUE * Long.SIZE);
+        this.bits = newBits();
+    }
+
+    @Override
+    public boolean mightContain(K key) {
+        AtomicLongArray current = bits;
+        for (long index : bitIndexes(key)) {
+            if ((current.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void put(K key) {
+        long[] indexes = bitIndexes(key);
+        buildLock.readLock().lock();
+        try {
+            setBits(bits, indexes);
+            if (building != null) {
+                setBits(building, indexes);
+            }
+        } finally {
+            buildLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void build(Stream<K> keys) {
+        AtomicLongArray newBits = newBits();
+        switchBuilding(newBits, null);
+        try {
+            keys.forEach(key -> setBits(newBits, bitIndexes(key)));
+        } catch (RuntimeException e) {
+            switchBuilding(null, null);
+            throw e;
+        }
+        switchBuilding(null, newBits);
+    }
+
+    /**
+     * switch the building filter, and replace the filter when the build finished
+     */
+    private void switchBuilding(AtomicLongArray newBuilding, AtomicLongArray builtBits) {
+        buildLock.writeLock().lock();
+        try {
+            building = newBuilding;
+            if (builtBits != null) {
+                bits = builtBits;
+            }
+        } finally {
+            buildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * build the filter now, and rebuild it periodically in a background thread
+     * @param keySource stream of all keys exist, e.g. from the db
+     * @param rebuildIntervalMs rebuild interval
+     */
+    public synchronized void scheduleRebuild(Supplier<Stream<K>> keySource, long rebuildIntervalMs) {
+        if (rebuildIntervalMs <= 0) {
+            throw new IllegalArgumentException("rebuildIntervalMs must be positive");
+        }
+        if (rebuildExecutor != null) {
+            throw new IllegalStateException("bloom filter rebuild is already scheduled");
+        }
+        try (Stream<K> keys = keySource.get()) {
+            build(keys);
+        }
+        rebuildExecutor = Executors.newSingleThreadScheduledExecutor(runnable ->
+                Thread.ofPlatform().daemon().name("cache-keeper-bloom-filter-rebuild").unstarted(runnable));
+        rebuildExecutor.scheduleWithFixedDelay(() -> {
+            try (Stream<K> keys = keySource.get()) {
+                build(keys);
+            } catch (RuntimeException ignored) {
+                // keep the old filter, rebuild in the next time
+            }
+        }, rebuildIntervalMs, rebuildIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * stop the rebuild
+     */
+    @Override
+    public synchronized void close() {
+        if (rebuildExecutor != null) {
+            rebuildExecutor.shutdownNow();
+            rebuildExecutor = null;
+        }
+    }
+
+    private AtomicLongArray newBits() {
+        return new AtomicLongArray((int) ((getNumBits() + Long.SIZE - 1) / Long.SIZE));
+    }
+
+    private static void setBits(AtomicLongArray bits, long[] indexes) {
+        for (long index : indexes) {
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long old;
+            do {
+                old = bits.get(word);
+                if ((old & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, old, old | mask));
+        }
+    }
+
+}
@@ -16,12 +16,36 @@
 
 package org.cache.keeper.core.cacheoperator;
 
+import org.cache.keeper.core.async.AsyncSupport;
+import org.cache.keeper.core.codec.ISerializer;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
  * cache operator
  */
-public interface ICacheOperator<K, V> {
+public interface ICacheOperator<K, V> extends AutoCloseable {
+
+    /**
+     * set the serializer of the cache key and value, called by the cache keeper configuration
+     * the operator which store the object in process need not serialize
+     * @param keySerializer key serializer
+     * @param valueSerializer value serializer
+     */
+    default void initSerializer(ISerializer<K> keySerializer, ISerializer<V> valueSerializer) {
+    }
+
+    /**
+     * set the beta of the probabilistic early refresh, called by the cache keeper configuration
+     * the value with the soft expire may be read as stale before it expired, the larger beta the earlier
+     * @param beta beta of the early refresh
+     */
+    default void initEarlyRefresh(double beta) {
+    }
 
     /**
      * read cache by key
@@ -30,6 +54,16 @@ public interface ICacheOperator<K, V> {
      */
     V readCache(K key);
 
+    /**
+     * read cache by key, if the cache is not exist, save the lease id for the key
+     * if the cache is stale and no one is refreshing it, save the lease id to refresh it
+     * it must be done in one round trip
+     * @param key cache key
+     * @param leaseId lease id to save when cache miss
+     * @return the cache value or the saved lease id
+     */
+    LeaseReadResult<V> readCacheOrAcquireLease(K key, String leaseId);
+
     /**
      * write cache
      * this method must valid the lease, if the lease is not exist, do not write the expire cache to db
@@ -38,18 +72,122 @@ public interface ICacheOperator<K, V> {
      * @param leaseId lease id
      * @param expireTime expire time
      * @param expireTimeUnit expire time unit
+     * @return true when the lease is valid and the cache is written
      */
-    void writeCache(K key, V value, String leaseId, Long expireTime, TimeUnit expireTimeUnit);
+    boolean writeCache(K key, V value, String leaseId, Long expireTime, TimeUnit expireTimeUnit);
 
     /**
-     * save lease id
+     * write cache with the soft expire
+     * after the soft expire the value is read as stale, and one reader get the lease to refresh it
+     * the default impl ignore the soft expire, the value is fresh until expired
+     * @param key cache key
+     * @param value cache value
      * @param leaseId lease id
+     * @param expireTime expire time, the value can be read as stale until it
+     * @param expireTimeUnit expire time unit
+     * @param softExpire soft expire, null means no soft expire
+     * @return true when the lease is valid and the cache is written
      */
-    void saveLeaseId(String leaseId);
+    default boolean writeCache(K key, V value, String leaseId, Long expireTime, TimeUnit expireTimeUnit, SoftExpire softExpire) {
+        return writeCache(key, value, leaseId, expireTime, expireTimeUnit);
+    }
 
     /**
-     * clear all lease id when cache delete
+     * delete the cache and clear all lease id of the key in one atomic step,
+     * the reload with the lease acquired before it can not write the cache
+     * @param key cache key
      */
     void deleteCacheAndClearAllLeaseId(K key);
 
+    /**
+     * read cache by keys in batch
+     * the stale value is not returned, so it is read again with the lease and refreshed
+     * @param keys cache keys
+     * @return the cache values which exist
+     */
+    Map<K, V> readCacheAll(Collection<K> keys);
+
+    /**
+     * read cache by keys in batch, save the lease id for the key which is not exist
+     * it must be done in one round trip
+     * @param keyLeaseIds cache key and the lease id to save when cache miss
+     * @return the cache value or the saved lease id of each key
+     */
+    Map<K, LeaseReadResult<V>> readCacheOrAcquireLeaseAll(Map<K, String> keyLeaseIds);
+
+    /**
+     * write cache in batch, each key must valid its lease, and has its own expire time and soft expire
+     * the default impl write the keys one by one
+     * @param values cache key and value, the value is nullable
+     * @param leaseIds cache key and lease id
+     * @param expireTimeMs cache key and expire time ms
+     * @param softExpires cache key and soft expire, null means no soft expire
+     * @return cache key and whether the cache is written
+     */
+    default Map<K, Boolean> writeCacheAll(Map<K, V> values, Map<K, String> leaseIds, Map<K, Long> expireTimeMs,
+                                          Map<K, SoftExpire> softExpires) {
+        Map<K, Boolean> result = new LinkedHashMap<>();
+        values.forEach((key, value) -> result.put(key, writeCache(key, value, leaseIds.get(key), expireTimeMs.get(key),
+                TimeUnit.MILLISECONDS, softExpires == null ? null : softExpires.get(key))));
+        return result;
+    }
+
+    /**
+     * async version of readCacheOrAcquireLease
+     * the default impl run the blocking method in a virtual thread
+     * @param key cache key
+     * @param leaseId lease id to save when cache miss
+     * @return future of the cache value or the saved lease id
+     */
+    default CompletableFuture<LeaseReadResult<V>> readCacheOrAcquireLeaseAsync(K key, String leaseId) {
+        return AsyncSupport.supplyBlocking(() -> readCacheOrAcquireLease(key, leaseId));
+    }
+
+    /**
+     * async version of writeCache
+     * the default impl run the blocking method in a virtual thread
+     * @param key cache key
+     * @param value cache value
+     * @param leaseId lease id
+     * @param expireTime expire time
+     * @param expireTimeUnit expire time unit
+     * @return future of whether the cache is written
+     */
+    default CompletableFuture<Boolean> writeCacheAsync(K key, V value, String leaseId, Long expireTime, TimeUnit expireTimeUnit) {
+        return AsyncSupport.supplyBlocking(() -> writeCache(key, value, leaseId, expireTime, expireTimeUnit));
+    }
+
+    /**
+     * async version of writeCache with the soft expire
+     * the default impl run the blocking method in a virtual thread
+     * @param key cache key
+     * @param value cache value
+     * @param leaseId lease id
+     * @param expireTime expire time
+     * @param expireTimeUnit expire time unit
+     * @param softExpire soft expire, null means no soft expire
+     * @return future of whether the cache is written
+     */
+    default CompletableFuture<Boolean> writeCacheAsync(K key, V value, String leaseId, Long expireTime, TimeUnit expireTimeUnit,
+                                                       SoftExpire softExpire) {
+        return AsyncSupport.supplyBlocking(() -> writeCache(key, value, leaseId, expireTime, expireTimeUnit, softExpire));
+    }
+
+    /**
+     * async version of deleteCacheAndClearAllLeaseId
+     * the default impl run the blocking method in a virtual thread
+     * @param key cache key
+     * @return future of the completion
+     */
+    default CompletableFuture<Void> deleteCacheAndClearAllLeaseIdAsync(K key) {
+        return AsyncSupport.runBlocking(() -> deleteCacheAndClearAllLeaseId(key));
+    }
+
+    /**
+     * release the resource of the operator, called when the cache keeper is closed
+     */
+    @Override
+    default void close() {
+    }
+
 }
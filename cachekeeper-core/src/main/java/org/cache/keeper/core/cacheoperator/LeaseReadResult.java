@@ -0,0 +1,88 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator;
+
+/**
+ * result of read the cache or acquire the lease
+ * hit: the cache value
+ * miss: the lease id which is saved
+ * stale: the cache value after the soft expire, and the lease id saved to refresh it
+ */
+public class LeaseReadResult<V> {
+
+    private final boolean hit;
+
+    private final boolean stale;
+
+    private final V value;
+
+    private final String leaseId;
+
+    /**
+     * time the hit value can be served, until its soft expire or its ttl, -1 when unknown
+     */
+    private final long expireTimeMs;
+
+    private LeaseReadResult(boolean hit, boolean stale, V value, String leaseId, long expireTimeMs) {
+        this.hit = hit;
+        this.stale = stale;
+        this.value = value;
+        this.leaseId = leaseId;
+        this.expireTimeMs = expireTimeMs;
+    }
+
+    public static <V> LeaseReadResult<V> hit(V value) {
+        return hit(value, -1L);
+    }
+
+    public static <V> LeaseReadResult<V> hit(V value, long expireTimeMs) {
+        return new LeaseReadResult<>(true, false, value, null, expireTimeMs);
+    }
+
+    public static <V> LeaseReadResult<V> leased(String leaseId) {
+        return new LeaseReadResult<>(false, false, null, leaseId, -1L);
+    }
+
+    /**
+     * the stale value is a hit, the reader which get it must refresh the cache with the lease
+     */
+    public static <V> LeaseReadResult<V> stale(V value, String leaseId) {
+        return new LeaseReadResult<>(true, true, value, leaseId, -1L);
+    }
+
+    // getter start
+    public boolean isHit() {
+        return hit;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public V getValue() {
+        return value;
+    }
+
+    public String getLeaseId() {
+        return leaseId;
+    }
+
+    public long getExpireTimeMs() {
+        return expireTimeMs;
+    }
+    // getter end
+}
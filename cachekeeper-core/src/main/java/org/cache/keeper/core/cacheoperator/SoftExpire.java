@@ -0,0 +1,56 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator;
+
+/**
+ * the soft expire of the cache value
+ * after the soft expire time the value is stale, it is still returned, and only one reader refresh it with the lease
+ */
+public class SoftExpire {
+
+    /**
+     * time from the write to the soft expire
+     */
+    private final long softExpireTimeMs;
+
+    /**
+     * the time spent by the reload of the value
+     */
+    private final long reloadCostMs;
+
+    private SoftExpire(long softExpireTimeMs, long reloadCostMs) {
+        this.softExpireTimeMs = softExpireTimeMs;
+        this.reloadCostMs = reloadCostMs;
+    }
+
+    public static SoftExpire of(long softExpireTimeMs, long reloadCostMs) {
+        if (softExpireTimeMs <= 0) {
+            throw new IllegalArgumentException("soft expire time must be positive");
+        }
+        return new SoftExpire(softExpireTimeMs, Math.max(0, reloadCostMs));
+    }
+
+    // getter start
+    public long getSoftExpireTimeMs() {
+        return softExpireTimeMs;
+    }
+
+    public long getReloadCostMs() {
+        return reloadCostMs;
+    }
+    // getter end
+}
@@ -0,0 +1,429 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.core.cacheoperator.memory;
+
+import org.cache.keeper.core.cacheoperator.ICacheOperator;
+import org.cache.keeper.core.cacheoperator.LeaseReadResult;
+import org.cache.keeper.core.cacheoperator.SoftExpire;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * in process cache operator, same lease semantic as the redis cache operator
+ * the keys are spread over the lock stripes, each key is read and changed atomically under its stripe lock
+ * the value and the lease expire by the time, the expired slot is removed by the timer wheel
+ * the value is kept by reference without the serializer
+ */
+public class InMemoryCacheOperator<K, V> implements ICacheOperator<K, V> {
+
+    private Integer stripeCount;
+
+    private Long leaseExpireTimeMs;
+
+    private Integer wheelSize;
+
+    private Long tickMs;
+
+    private Stripe<K, V>[] stripes;
+
+    private TimerWheel<K> timerWheel;
+
+    private double earlyRefreshBeta = 0;
+
+    private InMemoryCacheOperator() {
+    }
+
+    /**
+     * the keys of one lock stripe
+     */
+    private static final class Stripe<K, V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final HashMap<K, Slot<V>> slots = new HashMap<>();
+    }
+
+    /**
+     * the cache value, the lease ids and the refreshing lease id of one key
+     */
+    private static final class Slot<V> {
+        private V value;
+        private boolean exist;
+        private long expireAt;
+        /**
+         * 0 means no soft expire
+         */
+        private long softExpireAt;
+        private long reloadCostMs;
+        private Map<String, Long> leaseIds;
+        private long leaseExpireAt;
+        private String refreshLeaseId;
+        private long refreshExpireAt;
+        /**
+         * the latest deadline scheduled in the timer wheel
+         */
+        private long scheduledAt;
+
+        private boolean valueExist(long now) {
+            return exist && expireAt > now;
+        }
+
+        private boolean leaseExist(String leaseId, long now) {
+            Long expireAt = leaseIds == null ? null : leaseIds.get(leaseId);
+            return expireAt != null && expireAt > now;
+        }
+
+        private void addLease(String leaseId, long expireAt, long now) {
+            if (leaseIds == null) {
+                leaseIds = new HashMap<>();
+            } else if (leaseExpireAt <= now) {
+                leaseIds.clear();
+            } else {
+                leaseIds.values().removeIf(leaseIdExpireAt -> leaseIdExpireAt <= now);
+            }
+            leaseIds.put(leaseId, expireAt);
+            leaseExpireAt = Math.max(leaseExpireAt, expireAt);
+        }
+
+        private boolean refreshing(long now) {
+            return refreshLeaseId != null && refreshExpireAt > now;
+        }
+
+        /**
+         * the slot can be removed after the deadline
+         */
+        private long deadline() {
+            return Math.max(exist ? expireAt : 0, Math.max(leaseExpireAt, refreshExpireAt));
+        }
+    }
+
+    @Override
+    public void initEarlyRefresh(double beta) {
+        this.earlyRefreshBeta = beta;
+    }
+
+    @Override
+    public V readCache(K key) {
+        long now = advance();
+        Stripe<K, V> stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Slot<V> slot = stripe.slots.get(key);
+            return slot != null && slot.valueExist(now) ? slot.value : null;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public LeaseReadResult<V> readCacheOrAcquireLease(K key, String leaseId) {
+        long now = advance();
+        Stripe<K, V> stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Slot<V> slot = stripe.slots.get(key);
+            if (slot != null && slot.valueExist(now)) {
+                if (refreshDue(slot, now) && !slot.refreshing(now)) {
+                    slot.refreshLeaseId = leaseId;
+                    slot.refreshExpireAt = now + leaseExpireTimeMs;
+                    slot.addLease(leaseId, now + leaseExpireTimeMs, now);
+                    schedule(key, slot);
+                    return LeaseReadResult.stale(slot.value, leaseId);
+                }
+                return LeaseReadResult.hit(slot.value, (slot.softExpireAt > 0 ? Math.min(slot.expireAt, slot.softExpireAt) : slot.expireAt) - now);
+            }
+            if (slot == null) {
+                slot = new Slot<>();
+                stripe.slots.put(key, slot);
+            }
+            slot.addLease(leaseId, now + leaseExpireTimeMs, now);
+            schedule(key, slot);
+            return LeaseReadResult.leased(leaseId);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean writeCache(K key, V value, String leaseId, Long expireTime, TimeUnit expireTimeUnit) {
+        return writeCache(key, value, leaseId, expireTime, expireTimeUnit, null);
+    }
+
+    @Override
+    public boolean writeCache(K key, V value, String leaseId, Long expireTime, TimeUnit expireTimeUnit, SoftExpire softExpire) {
+        long now = advance();
+        Stripe<K, V> stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Slot<V> slot = stripe.slots.get(key);
+            // the lease is cleared by the delete, the value read before the delete is not written
+            if (slot == null || !slot.leaseExist(leaseId, now)) {
+                return false;
+            }
+            slot.value = value;
+            slot.exist = true;
+            slot.expireAt = now + expireTimeUnit.toMillis(expireTime);
+            slot.softExpireAt = softExpire == null ? 0 : now + softExpire.getSoftExpireTimeMs();
+            slot.reloadCostMs = softExpire == null ? 0 : softExpire.getReloadCostMs();
+            slot.leaseIds.remove(leaseId);
+            slot.refreshLeaseId = null;
+            slot.refreshExpireAt = 0;
+            schedule(key, slot);
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteCacheAndClearAllLeaseId(K key) {
+        advance();
+        Stripe<K, V> stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            stripe.slots.remove(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public Map<K, V> readCacheAll(Collection<K> keys) {
+        long now = advance();
+        Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            Stripe<K, V> stripe = stripe(key);
+            stripe.lock.lock();
+            try {
+                Slot<V> slot = stripe.slots.get(key);
+                // the stale value or the value to refresh early is read again with the lease
+                if (slot != null && slot.valueExist(now) && !refreshDue(slot, now)) {
+                    // the null value cached is in the map too
+                    result.put(key, slot.value);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<K, LeaseReadResult<V>> readCacheOrAcquireLeaseAll(Map<K, String> keyLeaseIds) {
+        Map<K, LeaseReadResult<V>> result = new LinkedHashMap<>();
+        keyLeaseIds.forEach((key, leaseId) -> result.put(key, readCacheOrAcquireLease(key, leaseId)));
+        return result;
+    }
+
+    /**
+     * no io, the async method is done in the caller thread
+     */
+    @Override
+    public CompletableFuture<LeaseReadResult<V>> readCacheOrAcquireLeaseAsync(K key, String leaseId) {
+        return CompletableFuture.completedFuture(readCacheOrAcquireLease(key, leaseId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> writeCacheAsync(K key, V value, String leaseId, Long expireTime, TimeUnit expireTimeUnit) {
+        return CompletableFuture.completedFuture(writeCache(key, value, leaseId, expireTime, expireTimeUnit));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> writeCacheAsync(K key, V value, String leaseId, Long expireTime, TimeUnit expireTimeUnit,
+                                                      SoftExpire softExpire) {
+        return CompletableFuture.completedFuture(writeCache(key, value, leaseId, expireTime, expireTimeUnit, softExpire));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteCacheAndClearAllLeaseIdAsync(K key) {
+        deleteCacheAndClearAllLeaseId(key);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * the number of the keys with the value or the lease, the expired one may be counted until it is removed
+     * @return size
+     */
+    public long size() {
+        long size = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.slots.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * remove all keys
+     */
+    @Override
+    public void close() {
+        for (Stripe<K, V> stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.slots.clear();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        timerWheel.clear();
+    }
+
+    /**
+     * the value is stale after the soft expire, or refresh early by the probabilistic early refresh (XFetch)
+     */
+    private boolean refreshDue(Slot<V> slot, long now) {
+        return slot.softExpireAt > 0 && now + slot.reloadCostMs * earlyFactor() >= slot.softExpireAt;
+    }
+
+    /**
+     * same as the redis cache operator, now + reload cost * beta * -ln(random) >= soft expire time
+     */
+    private double earlyFactor() {
+        if (earlyRefreshBeta <= 0) {
+            return 0;
+        }
+        return earlyRefreshBeta * -Math.log(1 - ThreadLocalRandom.current().nextDouble());
+    }
+
+    private Stripe<K, V> stripe(K key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * schedule the slot when its deadline is later than the scheduled one, called under the stripe lock
+     * the timer wheel queue it without lock, so the stripes are not serialized by the wheel
+     */
+    private void schedule(K key, Slot<V> slot) {
+        long deadline = slot.deadline();
+        if (deadline > slot.scheduledAt) {
+            slot.scheduledAt = deadline;
+            timerWheel.schedule(key, deadline);
+        }
+    }
+
+    /**
+     * advance the timer wheel and remove the expired slots
+     * @return now ms
+     */
+    private long advance() {
+        long now = System.currentTimeMillis();
+        timerWheel.advance(now, this::expire);
+        return now;
+    }
+
+    private void expire(K key) {
+        Stripe<K, V> stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Slot<V> slot = stripe.slots.get(key);
+            // the slot may be written again or created again after the delete
+            if (slot != null && slot.deadline() <= System.currentTimeMillis()) {
+                stripe.slots.remove(key);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private void valid() {
+        if (stripeCount == null || stripeCount <= 0) {
+            throw new IllegalArgumentException("stripe count must be positive");
+        }
+        if (leaseExpireTimeMs == null || leaseExpireTimeMs <= 0) {
+            throw new IllegalArgumentException("lease expire time must be positive");
+        }
+        if (wheelSize == null || wheelSize <= 0) {
+            throw new IllegalArgumentException("timer wheel size must be positive");
+        }
+        if (tickMs == null || tickMs <= 0) {
+            throw new IllegalArgumentException("timer wheel tick must be positive");
+        }
+    }
+
+    public static class Builder {
+        private Integer stripeCount = 64;
+        private Long leaseExpireTimeMs = 60_000L;
+        private Integer wheelSize = 512;
+        private Long tickMs = 100L;
+
+        private Builder(){}
+
+        public static Builder newBuilder() {
+            return new Builder();
+        }
+
+        /**
+         * the number of the lock stripes, round up to the power of 2
+         */
+        public Builder stripeCount(Integer stripeCount) {
+            this.stripeCount = stripeCount;
+            return this;
+        }
+
+        public Builder leaseExpireTimeMs(Long leaseExpireTimeMs) {
+            this.leaseExpireTimeMs = leaseExpireTimeMs;
+            return this;
+        }
+
+        /**
+         * the number of the buckets of the timer wheel, round up to the power of 2
+         */
+        public Builder wheelSize(Integer wheelSize) {
+            this.wheelSize = wheelSize;
+            return this;
+        }
+
+        /**
+         * the time of one bucket of the timer wheel
+         */
+        public Builder tickMs(Long tickMs) {
+            this.tickMs = tickMs;
+            return this;
+        }
+
+        public <K, V> InMemoryCacheOperator<K, V> build() {
+            InMemoryCacheOperator<K, V> instance = new InMemoryCacheOperator<>();
+            instance.stripeCount = stripeCount;
+            instance.leaseExpireTimeMs = leaseExpireTimeMs;
+            instance.wheelSize = wheelSize;
+            instance.tickMs = tickMs;
+            instance.valid();
+            int size = Integer.highestOneBit(Math.max(2, stripeCount) - 1) << 1;
+            @SuppressWarnings("unchecked")
+            Stripe<K, V>[] stripes = (Stripe<K, V>[]) new Stripe<?, ?>[size];
+            instance.stripes = stripes;
+            for (int i = 0; i < size; i++) {
+                instance.stripes[i] = new Stripe<>();
+            }
+            instance.timerWheel = new TimerWheel<>(wheelSize, tickMs, System.currentTimeMillis());
+            return instance;
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.core.cacheoperator.memory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * hashed timer wheel of the expire time
+ * the key is put into the bucket of its deadline tick, the timeout of later rounds stay in the bucket until due
+ * it is advanced by the caller, no thread is needed, the expired key is only a hint and must be checked again
+ * the timeout is queued without lock and moved into its bucket by the advance
+ */
+final class TimerWheel<K> {
+
+    private final long tickMs;
+
+    private final int mask;
+
+    private final ArrayDeque<Timeout<K>>[] buckets;
+
+    private final ConcurrentLinkedQueue<Timeout<K>> scheduled = new ConcurrentLinkedQueue<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * the last tick advanced, guarded by the lock
+     */
+    private long currentTick;
+
+    private volatile long nextTickAt;
+
+    private record Timeout<K>(K key, long deadline) {
+    }
+
+    TimerWheel(int wheelSize, long tickMs, long now) {
+        this.tickMs = tickMs;
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.mask = size - 1;
+        @SuppressWarnings("unchecked")
+        ArrayDeque<Timeout<K>>[] buckets = (ArrayDeque<Timeout<K>>[]) new ArrayDeque<?>[size];
+        this.buckets = buckets;
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.currentTick = now / tickMs;
+        this.nextTickAt = (currentTick + 1) * tickMs;
+    }
+
+    /**
+     * schedule the key to expire at the deadline
+     * @param key key
+     * @param deadline deadline ms
+     */
+    void schedule(K key, long deadline) {
+        scheduled.add(new Timeout<>(key, deadline));
+    }
+
+    /**
+     * advance the wheel to now, the key of the due timeout is passed to the consumer outside the lock
+     * skipped when the tick is not reached or another thread is advancing
+     * @param now now ms
+     * @param expire consumer of the expired key
+     */
+    void advance(long now, Consumer<K> expire) {
+        if (now < nextTickAt || !lock.tryLock()) {
+            return;
+        }
+        List<K> expired = new ArrayList<>();
+        try {
+            Timeout<K> scheduledTimeout;
+            while ((scheduledTimeout = scheduled.poll()) != null) {
+                // the bucket is visited after the deadline in its round
+                long tick = Math.max((scheduledTimeout.deadline + tickMs - 1) / tickMs, currentTick + 1);
+                buckets[(int) (tick & mask)].add(scheduledTimeout);
+            }
+            long targetTick = now / tickMs;
+            // every bucket is visited once at most, the timeout is checked by its deadline
+            long ticks = Math.min(targetTick - currentTick, buckets.length);
+            for (long i = 1; i <= ticks; i++) {
+                Iterator<Timeout<K>> iterator = buckets[(int) ((currentTick + i) & mask)].iterator();
+                while (iterator.hasNext()) {
+                    Timeout<K> timeout = iterator.next();
+                    if (timeout.deadline <= now) {
+                        expired.add(timeout.key);
+                        iterator.remove();
+                    }
+                }
+            }
+            currentTick = targetTick;
+            nextTickAt = (targetTick + 1) * tickMs;
+        } finally {
+            lock.unlock();
+        }
+        expired.forEach(expire);
+    }
+
+    /**
+     * remove all timeouts
+     */
+    void clear() {
+        lock.lock();
+        try {
+            scheduled.clear();
+            for (ArrayDeque<Timeout<K>> bucket : buckets) {
+                bucket.clear();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
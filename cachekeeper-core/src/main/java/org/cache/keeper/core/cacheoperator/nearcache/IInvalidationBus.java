@@ -0,0 +1,44 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator.nearcache;
+
+/**
+ * invalidation bus
+ * spread the invalidation of the near cache to the other nodes
+ */
+public interface IInvalidationBus extends AutoCloseable {
+
+    /**
+     * start to receive the invalidation of the other nodes
+     * @param listener invalidation listener
+     */
+    void start(IInvalidationListener listener);
+
+    /**
+     * publish the invalidation of the key to the other nodes
+     * this method must not block, the invalidation can be batched
+     * @param key cache key
+     */
+    void publish(String key);
+
+    /**
+     * stop the bus
+     */
+    @Override
+    void close();
+
+}
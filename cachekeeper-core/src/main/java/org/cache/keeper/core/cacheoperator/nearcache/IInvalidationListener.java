@@ -0,0 +1,38 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator.nearcache;
+
+import java.util.List;
+
+/**
+ * receive the invalidation from the invalidation bus
+ */
+public interface IInvalidationListener {
+
+    /**
+     * the keys are invalidated by other nodes
+     * @param keys cache keys
+     */
+    void onInvalidate(List<String> keys);
+
+    /**
+     * all keys must be invalidated
+     * e.g. the bus is reconnected and the invalidation may be lost, or the redis is flushed
+     */
+    void onInvalidateAll();
+
+}
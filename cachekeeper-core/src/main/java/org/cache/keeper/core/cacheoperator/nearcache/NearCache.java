@@ -0,0 +1,284 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator.nearcache;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * bounded in process cache, W-TinyLFU style
+ * the new entry go to a small LRU window, the entry evicted from the window must have a higher
+ * frequency than the victim of the main segmented LRU (probation + protected) to be admitted
+ * read is lock free, the access order is recorded in a lossy buffer and replayed under the lock
+ */
+public class NearCache<K, V> {
+
+    private static final int READ_BUFFER_SIZE = 256;
+
+    private final long maximumSize;
+
+    private final long windowMaximum;
+
+    private final long protectedMaximum;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+
+    /**
+     * access order of each segment, eldest first, guarded by the lock
+     */
+    private final LinkedHashMap<K, Node<K, V>> window = new LinkedHashMap<>();
+
+    private final LinkedHashMap<K, Node<K, V>> probation = new LinkedHashMap<>();
+
+    private final LinkedHashMap<K, Node<K, V>> protect = new LinkedHashMap<>();
+
+    private final FrequencySketch sketch;
+
+    private final ConcurrentLinkedQueue<Node<K, V>> readBuffer = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger readBufferSize = new AtomicInteger();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final NearCacheStats stats = new NearCacheStats();
+
+    public NearCache(long maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("near cache maximum size must be positive");
+        }
+        this.maximumSize = maximumSize;
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.protectedMaximum = (long) ((maximumSize - windowMaximum) * 0.8);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * get the value
+     * @param key key
+     * @return value, null when not exist or expired
+     */
+    public V get(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            stats.recordMiss();
+            return null;
+        }
+        if (node.expireAtNanos - System.nanoTime() <= 0) {
+            stats.recordMiss();
+            remove(key, node);
+            return null;
+        }
+        stats.recordHit();
+        recordRead(node);
+        return node.value;
+    }
+
+    /**
+     * put the value
+     * @param key key
+     * @param value value
+     * @param expireTimeMs expire time
+     */
+    public void put(K key, V value, long expireTimeMs) {
+        if (expireTimeMs <= 0) {
+            return;
+        }
+        long expireAtNanos = System.nanoTime() + expireTimeMs * 1_000_000L;
+        lock.lock();
+        try {
+            drainReadBuffer();
+            sketch.increment(key);
+            Node<K, V> node = data.get(key);
+            if (node != null) {
+                node.value = value;
+                node.expireAtNanos = expireAtNanos;
+                onAccess(node);
+                return;
+            }
+            node = new Node<>(key, value, expireAtNanos);
+            data.put(key, node);
+            node.segment = window;
+            window.put(key, node);
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * invalidate the key
+     * @param key key
+     */
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            Node<K, V> node = data.remove(key);
+            if (node != null) {
+                unlink(node);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * invalidate all keys
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            data.clear();
+            window.clear();
+            probation.clear();
+            protect.clear();
+            readBuffer.clear();
+            readBufferSize.set(0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long size() {
+        return data.size();
+    }
+
+    public NearCacheStats getStats() {
+        return stats;
+    }
+
+    private void remove(K key, Node<K, V> node) {
+        lock.lock();
+        try {
+            if (data.remove(key, node)) {
+                unlink(node);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordRead(Node<K, V> node) {
+        // lossy, drop the record when the buffer is full
+        if (readBufferSize.incrementAndGet() <= READ_BUFFER_SIZE) {
+            readBuffer.offer(node);
+        } else {
+            readBufferSize.decrementAndGet();
+        }
+        if (lock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffer() {
+        Node<K, V> node;
+        while ((node = readBuffer.poll()) != null) {
+            readBufferSize.decrementAndGet();
+            sketch.increment(node.key);
+            if (data.get(node.key) == node) {
+                onAccess(node);
+            }
+        }
+    }
+
+    private void onAccess(Node<K, V> node) {
+        if (node.segment == probation) {
+            // promote to protected
+            probation.remove(node.key);
+            node.segment = protect;
+            protect.put(node.key, node);
+            while (protect.size() > protectedMaximum) {
+                Node<K, V> demoted = pollEldest(protect);
+                demoted.segment = probation;
+                probation.put(demoted.key, demoted);
+            }
+            return;
+        }
+        // move to the tail of the segment
+        node.segment.remove(node.key);
+        node.segment.put(node.key, node);
+    }
+
+    private void evict() {
+        // the entry evicted from the window become the candidate of the main segment
+        while (window.size() > windowMaximum) {
+            Node<K, V> candidate = pollEldest(window);
+            candidate.segment = probation;
+            probation.put(candidate.key, candidate);
+        }
+        while (data.size() > maximumSize) {
+            Node<K, V> victim = eldest(probation);
+            Node<K, V> candidate = youngest(probation);
+            if (victim == null) {
+                victim = eldest(protect) != null ? eldest(protect) : eldest(window);
+                candidate = victim;
+            }
+            if (victim == null) {
+                return;
+            }
+            Node<K, V> evicted = candidate == victim
+                    || sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate;
+            data.remove(evicted.key, evicted);
+            unlink(evicted);
+            stats.recordEviction();
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (node.segment != null) {
+            node.segment.remove(node.key);
+            node.segment = null;
+        }
+    }
+
+    private Node<K, V> pollEldest(LinkedHashMap<K, Node<K, V>> segment) {
+        return segment.pollFirstEntry().getValue();
+    }
+
+    private Node<K, V> eldest(LinkedHashMap<K, Node<K, V>> segment) {
+        return segment.isEmpty() ? null : segment.firstEntry().getValue();
+    }
+
+    private Node<K, V> youngest(LinkedHashMap<K, Node<K, V>> segment) {
+        return segment.isEmpty() ? null : segment.lastEntry().getValue();
+    }
+
+    private static class Node<K, V> {
+        private final K key;
+
+        private volatile V value;
+
+        private volatile long expireAtNanos;
+
+        /**
+         * the segment this node belong to, guarded by the lock
+         */
+        private LinkedHashMap<K, Node<K, V>> segment;
+
+        private Node(K key, V value, long expireAtNanos) {
+            this.key = key;
+            this.value = value;
+            this.expireAtNanos = expireAtNanos;
+        }
+    }
+}
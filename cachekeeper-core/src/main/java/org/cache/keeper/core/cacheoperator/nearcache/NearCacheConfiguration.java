@@ -0,0 +1,97 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator.nearcache;
+
+/**
+ * config for near cache
+ */
+public class NearCacheConfiguration {
+
+    private NearCacheConfiguration() {}
+
+    /**
+     * max entry count of the near cache
+     */
+    private Long maximumSize = 10_000L;
+
+    /**
+     * expire time of the near cache entry
+     * it is capped by the cache expire time, null means same as the cache expire time
+     */
+    private Long expireTimeMs;
+
+    /**
+     * spread the invalidation to the near cache of other nodes, null means disabled
+     */
+    private IInvalidationBus invalidationBus;
+
+    // getter start
+    public Long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public Long getExpireTimeMs() {
+        return expireTimeMs;
+    }
+
+    public IInvalidationBus getInvalidationBus() {
+        return invalidationBus;
+    }
+    // getter end
+
+    public static class Builder {
+        private Long maximumSize = 10_000L;
+        private Long expireTimeMs;
+        private IInvalidationBus invalidationBus;
+
+        private Builder() {
+        }
+
+        public static Builder newBuilder() {
+            return new Builder();
+        }
+
+        public Builder maximumSize(Long maximumSize) {
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        public Builder expireTimeMs(Long expireTimeMs) {
+            this.expireTimeMs = expireTimeMs;
+            return this;
+        }
+
+        public Builder invalidationBus(IInvalidationBus invalidationBus) {
+            this.invalidationBus = invalidationBus;
+            return this;
+        }
+
+        public NearCacheConfiguration build() {
+            if (maximumSize == null || maximumSize <= 0) {
+                throw new IllegalArgumentException("near cache maximumSize must be positive");
+            }
+            if (expireTimeMs != null && expireTimeMs <= 0) {
+                throw new IllegalArgumentException("near cache expireTimeMs must be positive");
+            }
+            NearCacheConfiguration configuration = new NearCacheConfiguration();
+            configuration.maximumSize = maximumSize;
+            configuration.expireTimeMs = expireTimeMs;
+            configuration.invalidationBus = invalidationBus;
+            return configuration;
+        }
+    }
+}
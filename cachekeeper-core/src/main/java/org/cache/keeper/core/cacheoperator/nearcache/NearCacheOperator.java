@@ -0,0 +1,392 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator.nearcache;
+
+import org.cache.keeper.core.cacheoperator.ICacheOperator;
+import org.cache.keeper.core.cacheoperator.LeaseReadResult;
+import org.cache.keeper.core.cacheoperator.SoftExpire;
+import org.cache.keeper.core.codec.ISerializer;
+import org.cache.keeper.core.codec.StringSerializer;
+import org.cache.keeper.core.ttl.ITtlPolicy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * two level cache operator
+ * the near cache (L1) in process, in front of any cache operator (L2)
+ */
+public class NearCacheOperator<K, V> implements ICacheOperator<K, V> {
+
+    /**
+     * the stripes of the invalidation generation, power of 2
+     */
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final ICacheOperator<K, V> delegate;
+
+    /**
+     * keyed by the serialized cache key, one char for one byte, same as the key in the invalidation
+     */
+    private final NearCache<String, V> nearCache;
+
+    /**
+     * invalidation generation of the key stripes, increased before the key is invalidated
+     * the value filled by the read or the write is dropped when the generation of its key is changed meanwhile
+     */
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    /**
+     * key serializer of the remote cache
+     */
+    private ISerializer<K> keySerializer = new StringSerializer<>();
+
+    private final IInvalidationBus invalidationBus;
+
+    /**
+     * expire time of the near cache entry, capped by the cache expire time
+     */
+    private final long expireTimeMs;
+
+    /**
+     * ttl policy of the cache, applied to the near cache expire time too
+     */
+    private final ITtlPolicy<K, V> ttlPolicy;
+
+    public NearCacheOperator(ICacheOperator<K, V> delegate, NearCacheConfiguration nearCacheConfiguration, long cacheExpireTimeMs) {
+        this(delegate, nearCacheConfiguration, cacheExpireTimeMs, ITtlPolicy.fixed());
+    }
+
+    public NearCacheOperator(ICacheOperator<K, V> delegate, NearCacheConfiguration nearCacheConfiguration, long cacheExpireTimeMs,
+                             ITtlPolicy<K, V> ttlPolicy) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("near cache delegate cache operator is null");
+        }
+        this.delegate = delegate;
+        this.nearCache = new NearCache<>(nearCacheConfiguration.getMaximumSize());
+        this.expireTimeMs = nearCacheConfiguration.getExpireTimeMs() == null
+                ? cacheExpireTimeMs : Math.min(nearCacheConfiguration.getExpireTimeMs(), cacheExpireTimeMs);
+        this.ttlPolicy = ttlPolicy == null ? ITtlPolicy.fixed() : ttlPolicy;
+        this.invalidationBus = nearCacheConfiguration.getInvalidationBus();
+        if (invalidationBus != null) {
+            invalidationBus.start(new IInvalidationListener() {
+                @Override
+                public void onInvalidate(List<String> keys) {
+                    keys.forEach(NearCacheOperator.this::invalidate);
+                }
+
+                @Override
+                public void onInvalidateAll() {
+                    invalidateAll();
+                }
+            });
+        }
+    }
+
+    // getter start
+    public ICacheOperator<K, V> getDelegate() {
+        return delegate;
+    }
+
+    public NearCache<String, V> getNearCache() {
+        return nearCache;
+    }
+    // getter end
+
+    /**
+     * the key in the remote cache as the ISO-8859-1 string, the invalidation by the client side tracking or the pub/sub
+     * carry the key in the same form, so it matches whatever the key serializer is
+     */
+    private String nearKey(K key) {
+        return new String(keySerializer.serialize(key), StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * the near cache expire time by the ttl policy
+     */
+    private long nearExpireTimeMs(K key, V value) {
+        return ttlPolicy.expireTimeMs(key, value, expireTimeMs);
+    }
+
+    /**
+     * the near cache expire time of the hit, capped by the time the remote cache serve it
+     */
+    private long nearExpireTimeMs(K key, LeaseReadResult<V> result) {
+        long nearExpireTimeMs = nearExpireTimeMs(key, result.getValue());
+        return result.getExpireTimeMs() < 0 ? nearExpireTimeMs : Math.min(nearExpireTimeMs, result.getExpireTimeMs());
+    }
+
+    /**
+     * the near cache expire time of the written value, capped by its ttl and soft expire
+     */
+    private long nearExpireTimeMs(K key, V value, long expireTimeMs, SoftExpire softExpire) {
+        long nearExpireTimeMs = Math.min(nearExpireTimeMs(key, value), expireTimeMs);
+        return softExpire == null ? nearExpireTimeMs : Math.min(nearExpireTimeMs, softExpire.getSoftExpireTimeMs());
+    }
+
+    private int generationStripe(String nearKey) {
+        int hash = nearKey.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    /**
+     * @return the generation taken before the read or the write of the remote cache
+     */
+    private long generation(String nearKey) {
+        return generations.get(generationStripe(nearKey));
+    }
+
+    /**
+     * fill the near cache, the value is dropped when the key is invalidated after the generation is taken
+     * the invalidation increase the generation before it remove the key, so either it remove the value,
+     * or the value is removed here by the check after the put
+     */
+    private void fill(String nearKey, long generation, V value, long expireTimeMs) {
+        if (generation(nearKey) != generation) {
+            return;
+        }
+        nearCache.put(nearKey, value, expireTimeMs);
+        if (generation(nearKey) != generation) {
+            nearCache.invalidate(nearKey);
+        }
+    }
+
+    private void invalidate(String nearKey) {
+        generations.incrementAndGet(generationStripe(nearKey));
+        nearCache.invalidate(nearKey);
+    }
+
+    private void invalidateAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        nearCache.invalidateAll();
+    }
+
+    @Override
+    public void initSerializer(ISerializer<K> keySerializer, ISerializer<V> valueSerializer) {
+        this.keySerializer = keySerializer;
+        delegate.initSerializer(keySerializer, valueSerializer);
+    }
+
+    @Override
+    public void initEarlyRefresh(double beta) {
+        delegate.initEarlyRefresh(beta);
+    }
+
+    @Override
+    public V readCache(K key) {
+        String nearKey = nearKey(key);
+        V value = nearCache.get(nearKey);
+        if (value != null) {
+            return value;
+        }
+        long generation = generation(nearKey);
+        value = delegate.readCache(key);
+        if (value != null) {
+            fill(nearKey, generation, value, nearExpireTimeMs(key, value));
+        }
+        return value;
+    }
+
+    @Override
+    public LeaseReadResult<V> readCacheOrAcquireLease(K key, String leaseId) {
+        String nearKey = nearKey(key);
+        V value = nearCache.get(nearKey);
+        if (value != null) {
+            return LeaseReadResult.hit(value);
+        }
+        long generation = generation(nearKey);
+        LeaseReadResult<V> result = delegate.readCacheOrAcquireLease(key, leaseId);
+        // the stale value is not kept in the near cache
+        if (result.isHit() && !result.isStale() && result.getValue() != null) {
+            fill(nearKey, generation, result.getValue(), nearExpireTimeMs(key, result));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean writeCache(K key, V value, String leaseId, Long expireTime, TimeUnit expireTimeUnit) {
+        return writeCache(key, value, leaseId, expireTime, expireTimeUnit, null);
+    }
+
+    @Override
+    public boolean writeCache(K key, V value, String leaseId, Long expireTime, TimeUnit expireTimeUnit, SoftExpire softExpire) {
+        String nearKey = nearKey(key);
+        long generation = generation(nearKey);
+        boolean written = delegate.writeCache(key, value, leaseId, expireTime, expireTimeUnit, softExpire);
+        // only the value accepted by the lease can be seen in the near cache
+        if (written && value != null) {
+            fill(nearKey, generation, value, nearExpireTimeMs(key, value, expireTimeUnit.toMillis(expireTime), softExpire));
+        }
+        return written;
+    }
+
+    @Override
+    public Map<K, V> readCacheAll(Collection<K> keys) {
+        Map<K, V> result = new LinkedHashMap<>();
+        List<K> missKeys = new ArrayList<>();
+        Map<K, Long> missGenerations = new HashMap<>();
+        for (K key : keys) {
+            String nearKey = nearKey(key);
+            V value = nearCache.get(nearKey);
+            if (value != null) {
+                result.put(key, value);
+            } else {
+                missKeys.add(key);
+                missGenerations.put(key, generation(nearKey));
+            }
+        }
+        if (!missKeys.isEmpty()) {
+            delegate.readCacheAll(missKeys).forEach((key, value) -> {
+                if (value != null) {
+                    fill(nearKey(key), missGenerations.get(key), value, nearExpireTimeMs(key, value));
+                }
+                result.put(key, value);
+            });
+        }
+        return result;
+    }
+
+    @Override
+    public Map<K, LeaseReadResult<V>> readCacheOrAcquireLeaseAll(Map<K, String> keyLeaseIds) {
+        Map<K, LeaseReadResult<V>> result = new LinkedHashMap<>();
+        Map<K, String> missKeyLeaseIds = new LinkedHashMap<>();
+        Map<K, Long> missGenerations = new HashMap<>();
+        keyLeaseIds.forEach((key, leaseId) -> {
+            String nearKey = nearKey(key);
+            V value = nearCache.get(nearKey);
+            if (value != null) {
+                result.put(key, LeaseReadResult.hit(value));
+            } else {
+                missKeyLeaseIds.put(key, leaseId);
+                missGenerations.put(key, generation(nearKey));
+            }
+        });
+        if (!missKeyLeaseIds.isEmpty()) {
+            delegate.readCacheOrAcquireLeaseAll(missKeyLeaseIds).forEach((key, readResult) -> {
+                if (readResult.isHit() && !readResult.isStale() && readResult.getValue() != null) {
+                    fill(nearKey(key), missGenerations.get(key), readResult.getValue(), nearExpireTimeMs(key, readResult));
+                }
+                result.put(key, readResult);
+            });
+        }
+        return result;
+    }
+
+    @Override
+    public Map<K, Boolean> writeCacheAll(Map<K, V> values, Map<K, String> leaseIds, Map<K, Long> expireTimeMs,
+                                         Map<K, SoftExpire> softExpires) {
+        Map<K, Long> writeGenerations = generations(values.keySet());
+        Map<K, Boolean> written = delegate.writeCacheAll(values, leaseIds, expireTimeMs, softExpires);
+        written.forEach((key, success) -> {
+            V value = values.get(key);
+            if (Boolean.TRUE.equals(success) && value != null) {
+                fill(nearKey(key), writeGenerations.get(key), value,
+                        nearExpireTimeMs(key, value, expireTimeMs.get(key), softExpires == null ? null : softExpires.get(key)));
+            }
+        });
+        return written;
+    }
+
+    @Override
+    public CompletableFuture<LeaseReadResult<V>> readCacheOrAcquireLeaseAsync(K key, String leaseId) {
+        String nearKey = nearKey(key);
+        V value = nearCache.get(nearKey);
+        if (value != null) {
+            return CompletableFuture.completedFuture(LeaseReadResult.hit(value));
+        }
+        long generation = generation(nearKey);
+        return delegate.readCacheOrAcquireLeaseAsync(key, leaseId).thenApply(result -> {
+            if (result.isHit() && !result.isStale() && result.getValue() != null) {
+                fill(nearKey, generation, result.getValue(), nearExpireTimeMs(key, result));
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> writeCacheAsync(K key, V value, String leaseId, Long expireTime, TimeUnit expireTimeUnit) {
+        return writeCacheAsync(key, value, leaseId, expireTime, expireTimeUnit, null);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> writeCacheAsync(K key, V value, String leaseId, Long expireTime, TimeUnit expireTimeUnit,
+                                                      SoftExpire softExpire) {
+        String nearKey = nearKey(key);
+        long generation = generation(nearKey);
+        return delegate.writeCacheAsync(key, value, leaseId, expireTime, expireTimeUnit, softExpire).thenApply(written -> {
+            if (Boolean.TRUE.equals(written) && value != null) {
+                fill(nearKey, generation, value, nearExpireTimeMs(key, value, expireTimeUnit.toMillis(expireTime), softExpire));
+            }
+            return written;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteCacheAndClearAllLeaseIdAsync(K key) {
+        String nearKey = nearKey(key);
+        nearCache.invalidate(nearKey);
+        return delegate.deleteCacheAndClearAllLeaseIdAsync(key).thenRun(() -> {
+            invalidate(nearKey);
+            if (invalidationBus != null) {
+                invalidationBus.publish(nearKey);
+            }
+        });
+    }
+
+    /**
+     * stop the invalidation bus and close the delegate
+     */
+    @Override
+    public void close() {
+        if (invalidationBus != null) {
+            invalidationBus.close();
+        }
+        nearCache.invalidateAll();
+        delegate.close();
+    }
+
+    private Map<K, Long> generations(Collection<K> keys) {
+        Map<K, Long> keyGenerations = new HashMap<>();
+        for (K key : keys) {
+            keyGenerations.put(key, generation(nearKey(key)));
+        }
+        return keyGenerations;
+    }
+
+    @Override
+    public void deleteCacheAndClearAllLeaseId(K key) {
+        String nearKey = nearKey(key);
+        nearCache.invalidate(nearKey);
+        delegate.deleteCacheAndClearAllLeaseId(key);
+        // the read between the two step may fill the old value again, it is dropped by the generation
+        invalidate(nearKey);
+        if (invalidationBus != null) {
+            invalidationBus.publish(nearKey);
+        }
+    }
+
+}
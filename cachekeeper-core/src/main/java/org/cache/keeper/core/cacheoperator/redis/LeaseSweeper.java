@@ -0,0 +1,125 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * remove the expired leases of all cache keys in the background
+ * the lease keys are found by SCAN batch by batch, the keys of one batch are trimmed by the script in one pipeline,
+ * so the redis only run the short commands and the reads are served between them
+ */
+final class LeaseSweeper implements AutoCloseable {
+
+    private final RedisClient<?, ?> redisClient;
+
+    private final String sweepScript;
+
+    private final String sweepScriptSha;
+
+    private final LeaseSweeperConfiguration configuration;
+
+    private ScheduledExecutorService sweepExecutor;
+
+    /**
+     * @param redisClient redis client
+     * @param sweepScript script to trim one lease key, KEYS[1] is the lease key, ARGV[1] is now
+     * @param sweepScriptSha sha of the script nullable
+     * @param configuration batch and interval of the sweep
+     */
+    LeaseSweeper(RedisClient<?, ?> redisClient, String sweepScript, String sweepScriptSha, LeaseSweeperConfiguration configuration) {
+        this.redisClient = redisClient;
+        this.sweepScript = sweepScript;
+        this.sweepScriptSha = sweepScriptSha;
+        this.configuration = configuration;
+    }
+
+    /**
+     * sweep periodically in a daemon thread
+     */
+    synchronized void start() {
+        if (sweepExecutor != null) {
+            return;
+        }
+        sweepExecutor = Executors.newSingleThreadScheduledExecutor(runnable ->
+                Thread.ofPlatform().daemon().name("cache-keeper-lease-sweeper").unstarted(runnable));
+        sweepExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                sweep();
+            } catch (RuntimeException ignored) {
+                // the rest is swept in the next time
+            }
+        }, configuration.getIntervalMs(), configuration.getIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * one round over all lease keys
+     * @return expired leases removed
+     */
+    long sweep() {
+        byte[][] args = {String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8)};
+        long[] removed = {0};
+        redisClient.scan(RedisKeys.leaseKeyPattern(), configuration.getScanCount(), leaseKeys -> {
+            if (leaseKeys.isEmpty()) {
+                return;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("lease sweeper is closed");
+            }
+            List<byte[][]> keys = new ArrayList<>(leaseKeys.size());
+            for (byte[] leaseKey : leaseKeys) {
+                keys.add(new byte[][]{leaseKey});
+            }
+            for (Object result : redisClient.evalPipelined(sweepScript, sweepScriptSha, keys, Collections.nCopies(keys.size(), args))) {
+                removed[0] += ((Number) result).longValue();
+            }
+            pause();
+        });
+        return removed[0];
+    }
+
+    private void pause() {
+        if (configuration.getBatchPauseMs() <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(configuration.getBatchPauseMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("lease sweeper is closed");
+        }
+    }
+
+    /**
+     * stop the sweep
+     */
+    @Override
+    public synchronized void close() {
+        if (sweepExecutor != null) {
+            sweepExecutor.shutdownNow();
+            sweepExecutor = null;
+        }
+    }
+
+}
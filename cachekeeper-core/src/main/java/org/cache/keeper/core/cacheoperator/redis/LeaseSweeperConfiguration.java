@@ -0,0 +1,101 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator.redis;
+
+/**
+ * config for the lease sweeper of the redis cache operator
+ * the lease keys are scanned periodically and the expired leases in them are removed,
+ * the leases of the reload which crashed or timed out are never written, they are removed by it
+ */
+public class LeaseSweeperConfiguration {
+
+    private LeaseSweeperConfiguration() {}
+
+    /**
+     * time between two sweeps
+     */
+    private Long intervalMs = 60_000L;
+
+    /**
+     * count hint of one SCAN call, the lease keys of one batch are trimmed in one pipeline
+     */
+    private Integer scanCount = 100;
+
+    /**
+     * pause between two batches, so the sweep does not take the redis from the reads
+     */
+    private Long batchPauseMs = 10L;
+
+    // getter start
+    public Long getIntervalMs() {
+        return intervalMs;
+    }
+
+    public Integer getScanCount() {
+        return scanCount;
+    }
+
+    public Long getBatchPauseMs() {
+        return batchPauseMs;
+    }
+    // getter end
+
+    public static class Builder {
+        private Long intervalMs = 60_000L;
+        private Integer scanCount = 100;
+        private Long batchPauseMs = 10L;
+
+        private Builder() {
+        }
+
+        public static Builder newBuilder() {
+            return new Builder();
+        }
+
+        public Builder intervalMs(Long intervalMs) {
+            this.intervalMs = intervalMs;
+            return this;
+        }
+
+        public Builder scanCount(Integer scanCount) {
+            this.scanCount = scanCount;
+            return this;
+        }
+
+        public Builder batchPauseMs(Long batchPauseMs) {
+            this.batchPauseMs = batchPauseMs;
+            return this;
+        }
+
+        public LeaseSweeperConfiguration build() {
+            if (intervalMs == null || intervalMs <= 0) {
+                throw new IllegalArgumentException("lease sweeper intervalMs must be positive");
+            }
+            if (scanCount == null || scanCount <= 0) {
+                throw new IllegalArgumentException("lease sweeper scanCount must be positive");
+            }
+            if (batchPauseMs == null || batchPauseMs < 0) {
+                throw new IllegalArgumentException("lease sweeper batchPauseMs must not be negative");
+            }
+            LeaseSweeperConfiguration configuration = new LeaseSweeperConfiguration();
+            configuration.intervalMs = intervalMs;
+            configuration.scanCount = scanCount;
+            configuration.batchPauseMs = batchPauseMs;
+            return configuration;
+        }
+    }
+}
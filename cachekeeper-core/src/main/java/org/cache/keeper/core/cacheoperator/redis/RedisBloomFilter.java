@@ -0,0 +1,192 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.core.cacheoperator.redis;
+
+import org.cache.keeper.core.bloom.AbstractBloomFilter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * bloom filter in the redis bitmap, shared by all nodes
+ * the filter key and its building key are in the same hash slot
+ */
+public class RedisBloomFilter<K> extends AbstractBloomFilter<K> {
+
+    /**
+     * the max bits of the redis bitmap is 2^32
+     */
+    private static final long MAX_NUM_BITS = 1L << 32;
+
+    /**
+     * the keys added in one pipeline when build
+     */
+    private static final int BUILD_BATCH_SIZE = 1000;
+
+    private static final byte[] BUILDING_KEY_SUFFIX = ":cache_keeper_building".getBytes(StandardCharsets.UTF_8);
+
+    private static final String MIGHT_CONTAIN_LUA_SCRIPT = """
+            -- check all bits of the key
+            local filterKey = KEYS[1]      -- bitmap of the filter
+            
+            for i = 1, #ARGV do
+                if redis.call('GETBIT', filterKey, ARGV[i]) == 0 then
+                    return 0
+                end
+            end
+            return 1
+            """;
+
+    private static final String PUT_LUA_SCRIPT = """
+            -- set all bits of the key, to the building filter too
+            local filterKey = KEYS[1]      -- bitmap of the filter
+            local buildingKey = KEYS[2]    -- bitmap of the building filter
+            
+            local building = redis.call('EXISTS', buildingKey) == 1
+            for i = 1, #ARGV do
+                redis.call('SETBIT', filterKey, ARGV[i], 1)
+                if building then
+                    redis.call('SETBIT', buildingKey, ARGV[i], 1)
+                end
+            end
+            return 1
+            """;
+
+    private static final String START_BUILD_LUA_SCRIPT = """
+            -- restart the building filter, it exists from now on so no put during the build is lost
+            local buildingKey = KEYS[1]    -- bitmap of the building filter
+            
+            redis.call('DEL', buildingKey)
+            redis.call('SETBIT', buildingKey, 0, 0)
+            return 1
+            """;
+
+    private static final String BUILD_LUA_SCRIPT = """
+            -- set all bits of the key to the building filter
+            local buildingKey = KEYS[1]    -- bitmap of the building filter
+            
+            for i = 1, #ARGV do
+                redis.call('SETBIT', buildingKey, ARGV[i], 1)
+            end
+            return 1
+            """;
+
+    private static final String REPLACE_LUA_SCRIPT = """
+            -- replace the filter by the building filter
+            local filterKey = KEYS[1]      -- bitmap of the filter
+            local buildingKey = KEYS[2]    -- bitmap of the building filter
+            
+            if redis.call('EXISTS', buildingKey) == 1 then
+                redis.call('RENAME', buildingKey, filterKey)
+            else
+                redis.call('DEL', filterKey)
+            end
+            return 1
+            """;
+
+    private final RedisClient<?, ?> redisClient;
+
+    private final byte[] filterKey;
+
+    private final byte[] buildingKey;
+
+    private final String mightContainScriptSha;
+
+    private final String putScriptSha;
+
+    /**
+     * @param redisClient redis client, e.g. of the redis cache operator, it is not closed by the filter
+     * @param filterKey key of the bitmap, it is wrapped in the hash tag when it has none
+     * @param expectedInsertions expected count of the keys
+     * @param falsePositiveRate false positive rate
+     */
+    public RedisBloomFilter(RedisClient<?, ?> redisClient, String filterKey, long expectedInsertions, double falsePositiveRate) {
+        super(expectedInsertions, falsePositiveRate, MAX_NUM_BITS);
+        if (redisClient == null) {
+            throw new IllegalArgumentException("redis bloom filter redis client is null");
+        }
+        if (filterKey == null || filterKey.isEmpty()) {
+            throw new IllegalArgumentException("redis bloom filter key is empty");
+        }
+        this.redisClient = redisClient;
+        byte[] key = filterKey.getBytes(StandardCharsets.UTF_8);
+        this.filterKey = RedisKeys.hasHashTag(key) ? key : ("{" + filterKey + "}").getBytes(StandardCharsets.UTF_8);
+        this.buildingKey = RedisKeys.slotKey(this.filterKey, BUILDING_KEY_SUFFIX);
+        this.mightContainScriptSha = redisClient.loadLuaScript(MIGHT_CONTAIN_LUA_SCRIPT);
+        this.putScriptSha = redisClient.loadLuaScript(PUT_LUA_SCRIPT);
+    }
+
+    @Override
+    public boolean mightContain(K key) {
+        Object result = redisClient.eval(MIGHT_CONTAIN_LUA_SCRIPT, mightContainScriptSha, new byte[][]{filterKey}, bitArgs(key));
+        return ((Number) result).longValue() == 1L;
+    }
+
+    @Override
+    public void put(K key) {
+        redisClient.eval(PUT_LUA_SCRIPT, putScriptSha, new byte[][]{filterKey, buildingKey}, bitArgs(key));
+    }
+
+    @Override
+    public void putAll(Collection<K> keys) {
+        List<byte[][]> scriptKeys = new ArrayList<>(keys.size());
+        List<byte[][]> args = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            scriptKeys.add(new byte[][]{filterKey, buildingKey});
+            args.add(bitArgs(key));
+        }
+        if (!args.isEmpty()) {
+            redisClient.evalPipelined(PUT_LUA_SCRIPT, putScriptSha, scriptKeys, args);
+        }
+    }
+
+    /**
+     * the keys are added to the building filter in pipelines, then it replace the filter
+     */
+    @Override
+    public void build(Stream<K> keys) {
+        redisClient.eval(START_BUILD_LUA_SCRIPT, null, new byte[][]{buildingKey}, new byte[0][]);
+        List<byte[][]> scriptKeys = new ArrayList<>(BUILD_BATCH_SIZE);
+        List<byte[][]> args = new ArrayList<>(BUILD_BATCH_SIZE);
+        Iterator<K> iterator = keys.iterator();
+        while (iterator.hasNext()) {
+            scriptKeys.add(new byte[][]{buildingKey});
+            args.add(bitArgs(iterator.next()));
+            if (args.size() == BUILD_BATCH_SIZE || !iterator.hasNext()) {
+                redisClient.evalPipelined(BUILD_LUA_SCRIPT, null, scriptKeys, args);
+                scriptKeys.clear();
+                args.clear();
+            }
+        }
+        redisClient.eval(REPLACE_LUA_SCRIPT, null, new byte[][]{filterKey, buildingKey}, new byte[0][]);
+    }
+
+    private byte[][] bitArgs(K key) {
+        long[] indexes = bitIndexes(key);
+        byte[][] args = new byte[indexes.length][];
+        for (int i = 0; i < indexes.length; i++) {
+            args[i] = String.valueOf(indexes[i]).getBytes(StandardCharsets.UTF_8);
+        }
+        return args;
+    }
+
+}
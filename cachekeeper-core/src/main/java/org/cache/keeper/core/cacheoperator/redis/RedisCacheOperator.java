@@ -17,37 +17,145 @@
 package org.cache.keeper.core.cacheoperator.redis;
 
 import org.cache.keeper.core.cacheoperator.ICacheOperator;
+import org.cache.keeper.core.cacheoperator.LeaseReadResult;
+import org.cache.keeper.core.cacheoperator.SoftExpire;
+import org.cache.keeper.core.codec.ISerializer;
+import org.cache.keeper.core.codec.StringSerializer;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * cache operator Redis impl
  */
 public class RedisCacheOperator<K, V> implements ICacheOperator<K, V> {
 
-    private static final RedisCacheOperator<?, ?> INSTANCE = new RedisCacheOperator<>();
+    /**
+     * the null value cached, the serializer never output the single byte 0xFF
+     */
+    private static final byte[] TOMBSTONE = new byte[]{(byte) 0xFF};
 
-    private static final String LEASE_ID_QUEUE_NAME = "cache_keeper_lease_list";
+    private static final String READ_CACHE_OR_SAVE_LEASE_LUA_SCRIPT = """
+            -- read cache, save leaseId when miss, or when stale and no one is refreshing it
+            local cacheKey = KEYS[1]       -- key
+            local leaseKey = KEYS[2]       -- lease sorted set of the cache key, scored by the lease expire time
+            local refreshKey = KEYS[3]     -- leaseId which is refreshing the stale cache
+            local versionKey = KEYS[4]     -- fencing token of the cache key, increased by the delete
+            local leaseId = ARGV[1]        -- leaseId
+            local leaseExpireTime = tonumber(ARGV[2])  -- lease expire time ms
+            local now = tonumber(ARGV[3])  -- now ms
+            local earlyFactor = tonumber(ARGV[4])  -- refresh early by reload cost * earlyFactor
+            
+            local function saveLease()
+                -- the expired leases are trimmed, the lease set of the old version is dropped
+                if type(redis.pcall('ZREMRANGEBYSCORE', leaseKey, '-inf', now)) == 'table' then
+                    redis.call('DEL', leaseKey)
+                end
+                -- the lease is saved with the token, it is invalid after the token is increased
+                redis.call('ZADD', leaseKey, now + leaseExpireTime, (redis.call('GET', versionKey) or '0') .. ':' .. leaseId)
+                -- the token is kept until the lease expired, or the lease is read with the token reset to 0
+                local versionTtl = redis.call('PTTL', versionKey)
+                if versionTtl >= 0 and versionTtl < leaseExpireTime then
+                    redis.call('PEXPIRE', versionKey, leaseExpireTime)
+                end
+                redis.call('PEXPIRE', leaseKey, leaseExpireTime)
+            end
+            
+            local value = redis.call('GET', cacheKey)
+            if value then
+                -- the envelope: 0xFE, flags with 0x80, soft expire time 8 bytes, reload cost 4 bytes with 0x40
+                local envelope = string.len(value) >= 10 and string.byte(value, 1) == 254 and string.byte(value, 2) >= 128
+                local hasReloadCost = envelope and math.floor(string.byte(value, 2) / 64) % 2 == 1
+                if envelope and (not hasReloadCost or string.len(value) >= 14) then
+                    local softExpireAt = 0
+                    for i = 3, 10 do
+                        softExpireAt = softExpireAt * 256 + string.byte(value, i)
+                    end
+                    local reloadCost = 0
+                    if hasReloadCost then
+                        for i = 11, 14 do
+                            reloadCost = reloadCost * 256 + string.byte(value, i)
+                        end
+                    end
+                    if now + reloadCost * earlyFactor >= softExpireAt and redis.call('SET', refreshKey, leaseId, 'NX', 'PX', leaseExpireTime) then
+                        saveLease()
+                        return {2, value}
+                    end
+                end
+                return {1, value, redis.call('PTTL', cacheKey)}
+            end
+            saveLease()
+            return {0}
+            """;
 
     private static final String WRITE_CACHE_CHECK_LUA_SCRIPT = """
             -- check leaseId
-            local queueKey = KEYS[1]       -- queue key
+            local cacheKey = KEYS[1]       -- key
+            local leaseKey = KEYS[2]       -- lease sorted set of the cache key, scored by the lease expire time
+            local refreshKey = KEYS[3]     -- leaseId which is refreshing the stale cache
+            local versionKey = KEYS[4]     -- fencing token of the cache key, increased by the delete
             local leaseId = ARGV[1]        -- leaseId
-            local cacheKey = ARGV[2]       -- key
-            local cacheValue = ARGV[3]     -- value
-            local expireTime = tonumber(ARGV[4])  -- expire time
-            
-            local exists = redis.call('LPOS', queueKey, leaseId)
+            local cacheValue = ARGV[2]     -- value
+            local expireTime = tonumber(ARGV[3])  -- expire time ms
+            local now = tonumber(ARGV[4])  -- now ms
             
-            if exists ~= nil then
-                redis.call('SET', cacheKey, cacheValue)
-                redis.call('EXPIRE', cacheKey, expireTime)
+            -- only the lease of the current token is found, the lease acquired before the delete is rejected in O(1)
+            -- the expired lease is invalid even it is not trimmed yet, the lease set of the old version is invalid
+            local lease = (redis.call('GET', versionKey) or '0') .. ':' .. leaseId
+            local leaseExpireAt = redis.pcall('ZSCORE', leaseKey, lease)
+            if type(leaseExpireAt) == 'string' and tonumber(leaseExpireAt) > now then
+                if expireTime > 0 then
+                    redis.call('SET', cacheKey, cacheValue, 'PX', expireTime)
+                else
+                    redis.call('DEL', cacheKey)
+                end
+                redis.call('ZREM', leaseKey, lease)
+                redis.call('DEL', refreshKey)
                 return 1
             else
                 return 0
             end
             """;
 
+    private static final String DELETE_CACHE_LUA_SCRIPT = """
+            -- delete cache and invalidate all leases
+            local cacheKey = KEYS[1]       -- key
+            local refreshKey = KEYS[3]     -- leaseId which is refreshing the stale cache
+            local versionKey = KEYS[4]     -- fencing token of the cache key
+            local leaseExpireTime = tonumber(ARGV[1])  -- lease expire time ms
+            
+            redis.call('DEL', cacheKey, refreshKey)
+            -- the leases of the old token are left to expire, the delete does not depend on the lease count
+            redis.call('INCR', versionKey)
+            -- the token is kept until all leases of the old token expired
+            if redis.call('PTTL', versionKey) < leaseExpireTime then
+                redis.call('PEXPIRE', versionKey, leaseExpireTime)
+            end
+            return 1
+            """;
+
+    private static final String SWEEP_LEASE_LUA_SCRIPT = """
+            -- remove the expired leases
+            local leaseKey = KEYS[1]       -- lease sorted set of the cache key
+            local now = ARGV[1]            -- now ms
+            
+            local removed = redis.pcall('ZREMRANGEBYSCORE', leaseKey, '-inf', now)
+            if type(removed) == 'table' then
+                return 0
+            end
+            return removed
+            """;
+
     /**
      * redis client type
      */
@@ -65,22 +173,72 @@ public class RedisCacheOperator<K, V> implements ICacheOperator<K, V> {
 
     private Boolean useLuaSha;
 
+    /**
+     * lease expire time, the reload longer than it can not write the cache
+     */
+    private Long leaseExpireTimeMs;
+
+    private ISerializer<K> keySerializer = new StringSerializer<>();
+
+    private ISerializer<V> valueSerializer = new StringSerializer<>();
+
+    private String readCacheOrSaveLeaseScriptSha = null;
+
     private String writeCacheScriptSha = null;
 
+    private String deleteCacheScriptSha = null;
+
+    private String sweepLeaseScriptSha = null;
+
+    /**
+     * beta of the early refresh, 0 means disabled
+     */
+    private double earlyRefreshBeta = 0;
+
+    /**
+     * null means the write is sent by itself
+     */
+    private WriteCoalescingConfiguration writeCoalescingConfiguration;
+
+    private WriteCoalescer writeCoalescer;
+
+    /**
+     * null means the expired leases are only trimmed when the lease of the same key is saved
+     */
+    private LeaseSweeperConfiguration leaseSweeperConfiguration;
+
+    private LeaseSweeper leaseSweeper;
+
     private RedisCacheOperator(){}
 
     private void valid() {
         if (redisClientType == null) {
             throw new RuntimeException("redis client type is null");
         }
+        if (leaseExpireTimeMs == null || leaseExpireTimeMs <= 0) {
+            throw new IllegalArgumentException("lease expire time must be positive");
+        }
     }
 
     @SuppressWarnings("unchecked")
     public void initClient() {
+        close();
         redisClient = RedisClientFactory.getInstance().createClient(redisClientType);
         redisClient.initClient(redisConfiguration);
         if (Boolean.TRUE.equals(useLuaSha)) {
+            readCacheOrSaveLeaseScriptSha = redisClient.loadLuaScript(READ_CACHE_OR_SAVE_LEASE_LUA_SCRIPT);
             writeCacheScriptSha = redisClient.loadLuaScript(WRITE_CACHE_CHECK_LUA_SCRIPT);
+            deleteCacheScriptSha = redisClient.loadLuaScript(DELETE_CACHE_LUA_SCRIPT);
+            sweepLeaseScriptSha = redisClient.loadLuaScript(SWEEP_LEASE_LUA_SCRIPT);
+        }
+        if (writeCoalescingConfiguration != null) {
+            writeCoalescer = new WriteCoalescer((keys, args) -> redisClient.evalPipelined(WRITE_CACHE_CHECK_LUA_SCRIPT,
+                    writeCacheScriptSha, keys, args), writeCoalescingConfiguration);
+        }
+        leaseSweeper = new LeaseSweeper(redisClient, SWEEP_LEASE_LUA_SCRIPT, sweepLeaseScriptSha,
+                leaseSweeperConfiguration == null ? LeaseSweeperConfiguration.Builder.newBuilder().build() : leaseSweeperConfiguration);
+        if (leaseSweeperConfiguration != null) {
+            leaseSweeper.start();
         }
     }
 
@@ -88,12 +246,31 @@ public class RedisCacheOperator<K, V> implements ICacheOperator<K, V> {
     public RedisClient<K, V> getRedisClient() {
         return redisClient;
     }
+
+    /**
+     * @return stats of the write coalescing, null when it is disabled
+     */
+    public WriteCoalescingStats getWriteCoalescingStats() {
+        return writeCoalescer == null ? null : writeCoalescer.getStats();
+    }
     // getter end
 
+    /**
+     * remove the expired leases of all cache keys now, by SCAN batch by batch
+     * the background sweeper does the same periodically when it is enabled
+     * @return expired leases removed
+     */
+    public long sweepExpiredLeases() {
+        return leaseSweeper.sweep();
+    }
+
     public static class Builder {
         private RedisClientType redisClientType;
         private RedisConfiguration redisConfiguration;
         private Boolean useLuaSha;
+        private Long leaseExpireTimeMs = 60_000L;
+        private WriteCoalescingConfiguration writeCoalescingConfiguration;
+        private LeaseSweeperConfiguration leaseSweeperConfiguration;
 
         private Builder(){}
 
@@ -116,49 +293,299 @@ public class RedisCacheOperator<K, V> implements ICacheOperator<K, V> {
             return this;
         }
 
-        @SuppressWarnings("unchecked")
+        public Builder leaseExpireTimeMs(Long leaseExpireTimeMs) {
+            this.leaseExpireTimeMs = leaseExpireTimeMs;
+            return this;
+        }
+
+        /**
+         * batch the lease checked writes into one pipeline, null means disabled
+         */
+        public Builder writeCoalescing(WriteCoalescingConfiguration writeCoalescingConfiguration) {
+            this.writeCoalescingConfiguration = writeCoalescingConfiguration;
+            return this;
+        }
+
+        /**
+         * remove the expired leases of all cache keys in the background, null means disabled
+         */
+        public Builder leaseSweeper(LeaseSweeperConfiguration leaseSweeperConfiguration) {
+            this.leaseSweeperConfiguration = leaseSweeperConfiguration;
+            return this;
+        }
+
         public <K, V> RedisCacheOperator<K, V> build() {
-            RedisCacheOperator<K, V> instance = (RedisCacheOperator<K, V>) INSTANCE;
+            RedisCacheOperator<K, V> instance = new RedisCacheOperator<>();
             instance.redisClientType = redisClientType;
             instance.redisConfiguration = redisConfiguration;
             instance.useLuaSha = useLuaSha;
+            instance.leaseExpireTimeMs = leaseExpireTimeMs;
+            instance.writeCoalescingConfiguration = writeCoalescingConfiguration;
+            instance.leaseSweeperConfiguration = leaseSweeperConfiguration;
             instance.valid();
             instance.initClient();
             return instance;
         }
     }
 
+    /**
+     * release the redis client
+     */
+    @Override
+    public void close() {
+        // the queued writes are flushed before the client is closed
+        if (writeCoalescer != null) {
+            writeCoalescer.close();
+            writeCoalescer = null;
+        }
+        if (leaseSweeper != null) {
+            leaseSweeper.close();
+            leaseSweeper = null;
+        }
+        if (redisClient != null) {
+            redisClient.close();
+            redisClient = null;
+        }
+    }
+
+    @Override
+    public void initSerializer(ISerializer<K> keySerializer, ISerializer<V> valueSerializer) {
+        if (redisClient != null && !redisClient.supportBinaryKey() && !(keySerializer instanceof StringSerializer)) {
+            // the binary key is changed by the UTF-8 decoding, the cache is missed and the wrong key is deleted
+            throw new IllegalArgumentException("redis client " + redisClientType + " only support the UTF-8 key, the key serializer must be StringSerializer");
+        }
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+    }
+
+    @Override
+    public void initEarlyRefresh(double beta) {
+        this.earlyRefreshBeta = beta;
+    }
+
     @Override
     public V readCache(K key) {
-        return redisClient.get(key);
+        return deserializeValue(redisClient.get(cacheKey(key)));
+    }
+
+    @Override
+    public LeaseReadResult<V> readCacheOrAcquireLease(K key, String leaseId) {
+        Object result = redisClient.eval(READ_CACHE_OR_SAVE_LEASE_LUA_SCRIPT, readCacheOrSaveLeaseScriptSha,
+                scriptKeys(key), readCacheOrSaveLeaseArgs(leaseId));
+        return toLeaseReadResult(result, leaseId);
+    }
+
+    @Override
+    public boolean writeCache(K key, V value, String leaseId, Long expireTime, TimeUnit expireTimeUnit) {
+        return writeCache(key, value, leaseId, expireTime, expireTimeUnit, null);
+    }
+
+    @Override
+    public boolean writeCache(K key, V value, String leaseId, Long expireTime, TimeUnit expireTimeUnit, SoftExpire softExpire) {
+        if (writeCoalescer != null) {
+            try {
+                // the write is not waited forever if the batch is stuck in the io of the flush
+                return writeCacheAsync(key, value, leaseId, expireTime, expireTimeUnit, softExpire)
+                        .orTimeout(writeCoalescingConfiguration.getMaxWaitMillis(), TimeUnit.MILLISECONDS).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof TimeoutException) {
+                    throw new RuntimeException("write coalescing wait timeout", e.getCause());
+                }
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        Object result = redisClient.eval(WRITE_CACHE_CHECK_LUA_SCRIPT, writeCacheScriptSha,
+                scriptKeys(key), writeCacheArgs(value, leaseId, expireTime, expireTimeUnit, softExpire));
+        return ((Number) result).longValue() == 1L;
     }
 
     @Override
-    public void writeCache(K key, V value, String leaseId, Long expireTime, TimeUnit expireTimeUnit) {
-        String[] keys = {LEASE_ID_QUEUE_NAME};
-        String[] args = {leaseId,
-                key.toString(),
-                value == null ? "" :value.toString(),
-                String.valueOf(expireTimeUnit.toSeconds(expireTime))};
-        if (writeCacheScriptSha != null && !writeCacheScriptSha.isEmpty()) {
-            redisClient.evalSha(writeCacheScriptSha, keys, args);
-            return;
+    public Map<K, V> readCacheAll(Collection<K> keys) {
+        List<K> keyList = new ArrayList<>(keys);
+        List<byte[]> values = redisClient.mGet(keyList.stream().map(this::cacheKey).toArray(byte[][]::new));
+        long now = System.currentTimeMillis();
+        Map<K, V> result = new LinkedHashMap<>();
+        for (int i = 0; i < keyList.size(); i++) {
+            byte[] value = values.get(i);
+            // the stale value or the value to refresh early is read again with the lease
+            if (value != null && !(ValueEnvelope.isEnvelope(value)
+                    && now + ValueEnvelope.reloadCostMs(value) * earlyFactor() >= ValueEnvelope.softExpireAt(value))) {
+                // the null value cached is in the map too
+                result.put(keyList.get(i), deserializeValue(values.get(i)));
+            }
         }
-        redisClient.evalLua(WRITE_CACHE_CHECK_LUA_SCRIPT, keys, args);
+        return result;
     }
 
     @Override
-    public void saveLeaseId(String leaseId) {
-        // save the lease id to list?
+    public Map<K, LeaseReadResult<V>> readCacheOrAcquireLeaseAll(Map<K, String> keyLeaseIds) {
+        List<K> keyList = new ArrayList<>(keyLeaseIds.keySet());
+        List<byte[][]> keys = new ArrayList<>(keyList.size());
+        List<byte[][]> args = new ArrayList<>(keyList.size());
+        for (K key : keyList) {
+            keys.add(scriptKeys(key));
+            args.add(readCacheOrSaveLeaseArgs(keyLeaseIds.get(key)));
+        }
+        List<Object> results = redisClient.evalPipelined(READ_CACHE_OR_SAVE_LEASE_LUA_SCRIPT, readCacheOrSaveLeaseScriptSha, keys, args);
+        Map<K, LeaseReadResult<V>> result = new LinkedHashMap<>();
+        for (int i = 0; i < keyList.size(); i++) {
+            result.put(keyList.get(i), toLeaseReadResult(results.get(i), keyLeaseIds.get(keyList.get(i))));
+        }
+        return result;
+    }
+
+    @Override
+    public Map<K, Boolean> writeCacheAll(Map<K, V> values, Map<K, String> leaseIds, Map<K, Long> expireTimeMs,
+                                         Map<K, SoftExpire> softExpires) {
+        List<K> keyList = new ArrayList<>(values.keySet());
+        List<byte[][]> keys = new ArrayList<>(keyList.size());
+        List<byte[][]> args = new ArrayList<>(keyList.size());
+        for (K key : keyList) {
+            keys.add(scriptKeys(key));
+            args.add(writeCacheArgs(values.get(key), leaseIds.get(key), expireTimeMs.get(key), TimeUnit.MILLISECONDS,
+                    softExpires == null ? null : softExpires.get(key)));
+        }
+        List<Object> results = redisClient.evalPipelined(WRITE_CACHE_CHECK_LUA_SCRIPT, writeCacheScriptSha, keys, args);
+        Map<K, Boolean> result = new LinkedHashMap<>();
+        for (int i = 0; i < keyList.size(); i++) {
+            result.put(keyList.get(i), ((Number) results.get(i)).longValue() == 1L);
+        }
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<LeaseReadResult<V>> readCacheOrAcquireLeaseAsync(K key, String leaseId) {
+        return redisClient.evalAsync(READ_CACHE_OR_SAVE_LEASE_LUA_SCRIPT, readCacheOrSaveLeaseScriptSha,
+                        scriptKeys(key), readCacheOrSaveLeaseArgs(leaseId))
+                .thenApply(result -> toLeaseReadResult(result, leaseId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> writeCacheAsync(K key, V value, String leaseId, Long expireTime, TimeUnit expireTimeUnit) {
+        return writeCacheAsync(key, value, leaseId, expireTime, expireTimeUnit, null);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> writeCacheAsync(K key, V value, String leaseId, Long expireTime, TimeUnit expireTimeUnit,
+                                                      SoftExpire softExpire) {
+        // the writes of the concurrent reloads are sent in one pipeline
+        CompletableFuture<Object> future = writeCoalescer != null
+                ? writeCoalescer.submit(scriptKeys(key), writeCacheArgs(value, leaseId, expireTime, expireTimeUnit, softExpire))
+                : redisClient.evalAsync(WRITE_CACHE_CHECK_LUA_SCRIPT, writeCacheScriptSha,
+                        scriptKeys(key), writeCacheArgs(value, leaseId, expireTime, expireTimeUnit, softExpire));
+        return future.thenApply(result -> ((Number) result).longValue() == 1L);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteCacheAndClearAllLeaseIdAsync(K key) {
+        return redisClient.evalAsync(DELETE_CACHE_LUA_SCRIPT, deleteCacheScriptSha, scriptKeys(key), deleteCacheArgs())
+                .thenApply(result -> null);
+    }
+
+    /**
+     * cache key, lease key, refresh key and version key, all in the same hash slot
+     */
+    private byte[][] scriptKeys(K key) {
+        byte[] cacheKey = cacheKey(key);
+        return new byte[][]{cacheKey, leaseKey(cacheKey), RedisKeys.refreshKey(cacheKey), RedisKeys.versionKey(cacheKey)};
+    }
+
+    private byte[][] deleteCacheArgs() {
+        return new byte[][]{utf8(String.valueOf(leaseExpireTimeMs))};
+    }
+
+    private byte[][] readCacheOrSaveLeaseArgs(String leaseId) {
         if (leaseId == null || leaseId.isEmpty()) {
             throw new RuntimeException("lease id is null");
         }
-        redisClient.lPush(LEASE_ID_QUEUE_NAME, leaseId);
+        return new byte[][]{utf8(leaseId), utf8(String.valueOf(leaseExpireTimeMs)), utf8(String.valueOf(System.currentTimeMillis())),
+                utf8(String.valueOf(earlyFactor()))};
+    }
+
+    /**
+     * the probabilistic early refresh (XFetch), refresh when now + reload cost * beta * -ln(random) >= soft expire time
+     * the closer to the expire time and the slower the reload, the more likely to refresh
+     */
+    private double earlyFactor() {
+        if (earlyRefreshBeta <= 0) {
+            return 0;
+        }
+        // random in (0, 1]
+        return earlyRefreshBeta * -Math.log(1 - ThreadLocalRandom.current().nextDouble());
+    }
+
+    @SuppressWarnings("unchecked")
+    private LeaseReadResult<V> toLeaseReadResult(Object scriptResult, String leaseId) {
+        List<Object> result = (List<Object>) scriptResult;
+        long code = ((Number) result.get(0)).longValue();
+        if (code == 1L) {
+            byte[] value = (byte[]) result.get(1);
+            long ttlMs = result.size() > 2 ? ((Number) result.get(2)).longValue() : -1L;
+            // the value is served until the soft expire of the envelope or the ttl of the key
+            long expireTimeMs = ValueEnvelope.isEnvelope(value)
+                    ? Math.max(0L, ValueEnvelope.softExpireAt(value) - System.currentTimeMillis()) : -1L;
+            if (ttlMs >= 0) {
+                expireTimeMs = expireTimeMs < 0 ? ttlMs : Math.min(expireTimeMs, ttlMs);
+            }
+            return LeaseReadResult.hit(deserializeValue(value), expireTimeMs);
+        }
+        if (code == 2L) {
+            return LeaseReadResult.stale(deserializeValue((byte[]) result.get(1)), leaseId);
+        }
+        return LeaseReadResult.leased(leaseId);
+    }
+
+    private byte[][] writeCacheArgs(V value, String leaseId, Long expireTime, TimeUnit expireTimeUnit, SoftExpire softExpire) {
+        byte[] serializedValue = serializeValue(value);
+        if (softExpire != null) {
+            serializedValue = ValueEnvelope.wrap(serializedValue,
+                    System.currentTimeMillis() + softExpire.getSoftExpireTimeMs(), softExpire.getReloadCostMs());
+        }
+        return new byte[][]{utf8(leaseId),
+                serializedValue,
+                utf8(String.valueOf(expireTimeUnit.toMillis(expireTime))),
+                utf8(String.valueOf(System.currentTimeMillis()))};
     }
 
     @Override
     public void deleteCacheAndClearAllLeaseId(K key) {
-        redisClient.delete(key.toString());
+        redisClient.eval(DELETE_CACHE_LUA_SCRIPT, deleteCacheScriptSha, scriptKeys(key), deleteCacheArgs());
+    }
+
+    private byte[] cacheKey(K key) {
+        return keySerializer.serialize(key);
+    }
+
+    /**
+     * in the same hash slot of the cache key
+     */
+    private byte[] leaseKey(byte[] cacheKey) {
+        return RedisKeys.leaseKey(cacheKey);
+    }
+
+    /**
+     * the null value is written as the tombstone, the empty bytes is a real value e.g. the empty string
+     */
+    private byte[] serializeValue(V value) {
+        return value == null ? TOMBSTONE : valueSerializer.serialize(value);
+    }
+
+    /**
+     * @return null when the cache is not exist or the tombstone is cached
+     */
+    private V deserializeValue(byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        int offset = ValueEnvelope.valueOffset(value);
+        if (value.length - offset == TOMBSTONE.length && value[offset] == TOMBSTONE[0]) {
+            return null;
+        }
+        return valueSerializer.deserialize(ByteBuffer.wrap(value, offset, value.length - offset));
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
     }
 
     public enum RedisClientType {
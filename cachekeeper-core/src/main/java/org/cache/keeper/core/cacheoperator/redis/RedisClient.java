@@ -16,7 +16,13 @@
 
 package org.cache.keeper.core.cacheoperator.redis;
 
-public interface RedisClient<K, V> {
+import org.cache.keeper.core.async.AsyncSupport;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+public interface RedisClient<K, V> extends AutoCloseable {
 
     /**
      * init redis client
@@ -26,14 +32,37 @@ public interface RedisClient<K, V> {
     void initClient(RedisConfiguration redisConfiguration);
 
     /**
-     * get value by key
+     * get string value by key
      * @param key key
      * @return value
      */
     V get(K key);
 
     /**
-     * normal set
+     * get binary value by binary key
+     * @param key key
+     * @return value, null when not exist
+     */
+    byte[] get(byte[] key);
+
+    /**
+     * get string values by keys
+     * in cluster mode the keys are split by slot
+     * @param keys keys
+     * @return values in the order of the keys, null when not exist
+     */
+    List<V> mGet(List<K> keys);
+
+    /**
+     * get binary values by binary keys
+     * in cluster mode the keys are split by slot
+     * @param keys keys
+     * @return values in the order of the keys, null when not exist
+     */
+    List<byte[]> mGet(byte[][] keys);
+
+    /**
+     * normal set of string value
      * @param key key
      * @param value value
      */
@@ -48,30 +77,121 @@ public interface RedisClient<K, V> {
 
     /**
      * execute the lua script
+     * the bulk reply is byte[], the integer reply is Long, the array reply is List
      * @param luaScript lua script
      * @param keys keys
      * @param args args
+     * @return script result
      */
-    void evalLua(String luaScript, String[] keys, String[] args);
+    Object evalLua(String luaScript, byte[][] keys, byte[][] args);
 
     /**
      * execute the lua sha
      * @param luaSha lua sha
      * @param keys keys
      * @param args args
+     * @return script result
      */
-    void evalSha(String luaSha, String[] keys, String[] args);
+    Object evalSha(String luaSha, byte[][] keys, byte[][] args);
 
     /**
-     * push data to queue
-     * @param queueName key name
-     * @param value value
+     * execute the lua sha in one round trip
+     * if the sha is null or not loaded in the server, execute the lua script
+     * @param luaScript lua script
+     * @param luaSha lua sha nullable
+     * @param keys keys
+     * @param args args
+     * @return script result
      */
-    void lPush(String queueName, String value);
+    Object eval(String luaScript, String luaSha, byte[][] keys, byte[][] args);
 
     /**
-     * delete data by key
-     * @param key key
+     * execute the lua script for many keys in one pipeline
+     * if the sha is null or not loaded in the server, execute the lua script
+     * @param luaScript lua script
+     * @param luaSha lua sha nullable
+     * @param keys keys of each execution
+     * @param args args of each execution
+     * @return script results in the order of the executions
+     */
+    List<Object> evalPipelined(String luaScript, String luaSha, List<byte[][]> keys, List<byte[][]> args);
+
+    /**
+     * delete data by keys
+     * @param keys keys
+     */
+    void delete(byte[]... keys);
+
+    /**
+     * scan the keys matching the pattern, one SCAN call for each batch, so the redis is never blocked for long
+     * in cluster mode all master nodes are scanned
+     * @param pattern match pattern
+     * @param count count hint of one SCAN call
+     * @param batchConsumer called with the keys of each SCAN call, in the calling thread
+     */
+    void scan(String pattern, int count, Consumer<List<byte[]>> batchConsumer);
+
+    /**
+     * publish message to the channel
+     * @param channel channel
+     * @param message message
+     */
+    void publish(String channel, String message);
+
+    /**
+     * subscribe the channel in a background thread, it will reconnect when the connection is broken
+     * @param channel channel
+     * @param listener message listener, called in the background thread
+     * @param onReconnect called when reconnected, the message may be lost during the broken
+     * @return handle to unsubscribe
+     */
+    AutoCloseable subscribe(String channel, Consumer<String> listener, Runnable onReconnect);
+
+    /**
+     * receive the invalidation of the keys by client side tracking (CLIENT TRACKING BCAST) in a background thread
+     * @param keyPrefix only track the keys with the prefix, empty means all keys
+     * @param listener invalidated keys listener, called in the background thread, the key bytes as the ISO-8859-1 string
+     * @param onInvalidateAll called when reconnected or the redis is flushed
+     * @return handle to stop the tracking, null when the client or the redis do not support it
+     */
+    AutoCloseable trackInvalidation(String keyPrefix, Consumer<List<String>> listener, Runnable onInvalidateAll);
+
+    /**
+     * whether the key of any bytes is supported
+     * the client which name the key by the UTF-8 string need the key serializer produce the UTF-8 key
+     * @return true when the key is sent as it is
+     */
+    default boolean supportBinaryKey() {
+        return true;
+    }
+
+    /**
+     * async version of eval
+     * the default impl run the blocking method in a virtual thread, the client with async api should override it
+     * @param luaScript lua script
+     * @param luaSha lua sha nullable
+     * @param keys keys
+     * @param args args
+     * @return future of the script result
+     */
+    default CompletableFuture<Object> evalAsync(String luaScript, String luaSha, byte[][] keys, byte[][] args) {
+        return AsyncSupport.supplyBlocking(() -> eval(luaScript, luaSha, keys, args));
+    }
+
+    /**
+     * async version of delete
+     * the default impl run the blocking method in a virtual thread, the client with async api should override it
+     * @param keys keys
+     * @return future of the completion
+     */
+    default CompletableFuture<Void> deleteAsync(byte[]... keys) {
+        return AsyncSupport.runBlocking(() -> delete(keys));
+    }
+
+    /**
+     * release the connection of the client
+     * the connection pool shared with other clients is closed by the last one
      */
-    void delete(String key);
+    @Override
+    void close();
 }
@@ -17,6 +17,8 @@
 package org.cache.keeper.core.cacheoperator.redis;
 
 import org.cache.keeper.core.cacheoperator.redis.jedis.JedisImpl;
+import org.cache.keeper.core.cacheoperator.redis.lettuce.LettuceImpl;
+import org.cache.keeper.core.cacheoperator.redis.redisson.RedissonImpl;
 
 public class RedisClientFactory {
 
@@ -32,7 +34,13 @@ public class RedisClientFactory {
     RedisClient createClient(RedisCacheOperator.RedisClientType redisClientType) {
         switch (redisClientType) {
             case JEDIS -> {
-                return JedisImpl.getInstance();
+                return new JedisImpl<>();
+            }
+            case LETTUCE -> {
+                return new LettuceImpl<>();
+            }
+            case REDISSON -> {
+                return new RedissonImpl<>();
             }
             default -> throw new IllegalArgumentException("redis client type is not support");
         }
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator.redis;
+
+import org.cache.keeper.core.cacheoperator.nearcache.IInvalidationBus;
+import org.cache.keeper.core.cacheoperator.nearcache.IInvalidationListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * invalidation bus Redis impl
+ * TRACKING: redis push the invalidation of the changed keys by client side tracking, nothing need to publish
+ * the tracking is in BCAST mode, so it need the key prefix, or every write of the redis is pushed to every node
+ * PUBSUB: the deleted keys are batched and published to a channel
+ */
+public class RedisInvalidationBus implements IInvalidationBus {
+
+    private static final String DEFAULT_CHANNEL = "cache_keeper_invalidation";
+
+    private final RedisClient<?, ?> redisClient;
+
+    private final InvalidationMode invalidationMode;
+
+    /**
+     * pub/sub channel
+     */
+    private final String channel;
+
+    /**
+     * tracking key prefix, empty means no tracking
+     */
+    private final String keyPrefix;
+
+    private final Integer maxBatchSize;
+
+    private final Long batchIntervalMs;
+
+    /**
+     * max keys wait to publish, the key is dropped when full
+     */
+    private final Integer maxPendingSize;
+
+    /**
+     * skip the message published by this node
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ConcurrentLinkedQueue<String> pendingKeys = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pendingSize = new AtomicInteger();
+
+    private volatile boolean tracking = false;
+
+    private AutoCloseable subscription;
+
+    private ScheduledExecutorService publisher;
+
+    private RedisInvalidationBus(Builder builder) {
+        this.redisClient = builder.redisClient;
+        this.invalidationMode = builder.invalidationMode;
+        this.channel = builder.channel;
+        this.keyPrefix = builder.keyPrefix;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.batchIntervalMs = builder.batchIntervalMs;
+        this.maxPendingSize = builder.maxPendingSize;
+    }
+
+    @Override
+    public synchronized void start(IInvalidationListener listener) {
+        if (subscription != null) {
+            throw new IllegalStateException("invalidation bus is started");
+        }
+        if (invalidationMode == InvalidationMode.TRACKING
+                || (invalidationMode == InvalidationMode.AUTO && !keyPrefix.isEmpty())) {
+            subscription = redisClient.trackInvalidation(keyPrefix, listener::onInvalidate, listener::onInvalidateAll);
+            if (subscription != null) {
+                tracking = true;
+                return;
+            }
+            if (invalidationMode == InvalidationMode.TRACKING) {
+                throw new IllegalStateException("client side tracking is not supported");
+            }
+        }
+        // fallback to pub/sub
+        subscription = redisClient.subscribe(channel, message -> {
+            List<String> keys = decode(message);
+            if (keys != null) {
+                listener.onInvalidate(keys);
+            }
+        }, listener::onInvalidateAll);
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable ->
+                Thread.ofPlatform().daemon().name("cache-keeper-invalidation-publisher").unstarted(runnable));
+        publisher.scheduleWithFixedDelay(this::flush, batchIntervalMs, batchIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(String key) {
+        if (tracking) {
+            // the redis push the invalidation by itself
+            return;
+        }
+        if (pendingSize.incrementAndGet() > maxPendingSize) {
+            // the redis is not available, the near cache of other nodes will expire by ttl
+            pendingSize.decrementAndGet();
+            return;
+        }
+        pendingKeys.offer(key);
+    }
+
+    /**
+     * publish the pending keys in batch
+     */
+    private void flush() {
+        while (!pendingKeys.isEmpty()) {
+            List<String> keys = new ArrayList<>(maxBatchSize);
+            String key;
+            while (keys.size() < maxBatchSize && (key = pendingKeys.poll()) != null) {
+                keys.add(key);
+            }
+            pendingSize.addAndGet(-keys.size());
+            try {
+                redisClient.publish(channel, encode(keys));
+            } catch (Exception e) {
+                // drop the batch, the near cache of other nodes will expire by ttl
+            }
+        }
+    }
+
+    /**
+     * message: nodeId|len:keylen:key...
+     */
+    private String encode(List<String> keys) {
+        StringBuilder message = new StringBuilder(nodeId).append('|');
+        for (String key : keys) {
+            message.append(key.length()).append(':').append(key);
+        }
+        return message.toString();
+    }
+
+    /**
+     * @return keys, null when the message is published by this node or malformed
+     */
+    private List<String> decode(String message) {
+        int separator = message.indexOf('|');
+        if (separator < 0 || message.startsWith(nodeId + "|")) {
+            return null;
+        }
+        List<String> keys = new ArrayList<>();
+        int position = separator + 1;
+        while (position < message.length()) {
+            int colon = message.indexOf(':', position);
+            if (colon < 0) {
+                return null;
+            }
+            int length = Integer.parseInt(message, position, colon, 10);
+            keys.add(message.substring(colon + 1, colon + 1 + length));
+            position = colon + 1 + length;
+        }
+        return keys;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (publisher != null) {
+            publisher.shutdown();
+            flush();
+            publisher = null;
+        }
+        if (subscription != null) {
+            try {
+                subscription.close();
+            } catch (Exception e) {
+                // ignore
+            }
+            subscription = null;
+        }
+        tracking = false;
+    }
+
+    public static class Builder {
+        private RedisClient<?, ?> redisClient;
+        private InvalidationMode invalidationMode = InvalidationMode.AUTO;
+        private String channel = DEFAULT_CHANNEL;
+        private String keyPrefix = "";
+        private Integer maxBatchSize = 128;
+        private Long batchIntervalMs = 5L;
+        private Integer maxPendingSize = 100_000;
+
+        private Builder() {
+        }
+
+        public static Builder newBuilder() {
+            return new Builder();
+        }
+
+        public Builder redisClient(RedisClient<?, ?> redisClient) {
+            this.redisClient = redisClient;
+            return this;
+        }
+
+        public Builder invalidationMode(InvalidationMode invalidationMode) {
+            this.invalidationMode = invalidationMode;
+            return this;
+        }
+
+        public Builder channel(String channel) {
+            this.channel = channel;
+            return this;
+        }
+
+        public Builder keyPrefix(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+            return this;
+        }
+
+        public Builder maxBatchSize(Integer maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        public Builder batchIntervalMs(Long batchIntervalMs) {
+            this.batchIntervalMs = batchIntervalMs;
+            return this;
+        }
+
+        public Builder maxPendingSize(Integer maxPendingSize) {
+            this.maxPendingSize = maxPendingSize;
+            return this;
+        }
+
+        public RedisInvalidationBus build() {
+            if (redisClient == null) {
+                throw new IllegalArgumentException("redis client is null");
+            }
+            if (invalidationMode == null) {
+                throw new IllegalArgumentException("invalidation mode is null");
+            }
+            if (channel == null || channel.isEmpty()) {
+                throw new IllegalArgumentException("invalidation channel is empty");
+            }
+            if (keyPrefix == null) {
+                throw new IllegalArgumentException("invalidation key prefix is null");
+            }
+            if (invalidationMode == InvalidationMode.TRACKING && keyPrefix.isEmpty()) {
+                throw new IllegalArgumentException("invalidation key prefix is empty, the tracking push every key of the redis");
+            }
+            if (maxBatchSize == null || maxBatchSize <= 0
+                    || batchIntervalMs == null || batchIntervalMs <= 0
+                    || maxPendingSize == null || maxPendingSize <= 0) {
+                throw new IllegalArgumentException("invalidation batch config must be positive");
+            }
+            return new RedisInvalidationBus(this);
+        }
+    }
+
+    public enum InvalidationMode {
+        /**
+         * use client side tracking when the key prefix is set and the client and redis support it, else pub/sub
+         */
+        AUTO,
+        TRACKING,
+        PUBSUB,
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator.redis;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * the keys of the cache keeper in redis
+ * the data of one cache key is saved in the keys with the same hash slot, so the script can declare all of them in KEYS,
+ * and the lease traffic is spread to all shards of the cluster with the cache keys
+ */
+public final class RedisKeys {
+
+    /**
+     * the lease of one cache key is saved in the sorted set named {key} + suffix, scored by the time the lease expires
+     */
+    private static final byte[] LEASE_KEY_SUFFIX = ":cache_keeper_lease".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * the lease id which is refreshing the stale cache is saved in the key named {key} + suffix
+     */
+    private static final byte[] REFRESH_KEY_SUFFIX = ":cache_keeper_refresh".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * the fencing token of the lease is saved in the key named {key} + suffix, increased by each delete
+     */
+    private static final byte[] VERSION_KEY_SUFFIX = ":cache_keeper_version".getBytes(StandardCharsets.UTF_8);
+
+    private RedisKeys() {
+    }
+
+    /**
+     * the lease key in the same hash slot of the cache key
+     * if the cache key has a hash tag, the lease key is cache key + suffix, it has the same hash tag
+     * or else the lease key is {cache key} + suffix, the hash tag is the whole cache key
+     * @param cacheKey cache key
+     * @return lease key
+     */
+    public static byte[] leaseKey(byte[] cacheKey) {
+        return slotKey(cacheKey, LEASE_KEY_SUFFIX);
+    }
+
+    /**
+     * the glob pattern of all lease keys, for the SCAN of the lease sweeper
+     * @return pattern
+     */
+    public static String leaseKeyPattern() {
+        return "*" + new String(LEASE_KEY_SUFFIX, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * the refresh key in the same hash slot of the cache key
+     * @param cacheKey cache key
+     * @return refresh key
+     */
+    public static byte[] refreshKey(byte[] cacheKey) {
+        return slotKey(cacheKey, REFRESH_KEY_SUFFIX);
+    }
+
+    /**
+     * the version key in the same hash slot of the cache key
+     * @param cacheKey cache key
+     * @return version key
+     */
+    public static byte[] versionKey(byte[] cacheKey) {
+        return slotKey(cacheKey, VERSION_KEY_SUFFIX);
+    }
+
+    /**
+     * the key with the suffix in the same hash slot of the cache key
+     * the cache key contains '}' but no hash tag can not be co-located, the suffix is appended only
+     * @param cacheKey cache key
+     * @param suffix suffix
+     * @return key
+     */
+    static byte[] slotKey(byte[] cacheKey, byte[] suffix) {
+        if (hasHashTag(cacheKey) || indexOf(cacheKey, (byte) '}', 0) >= 0) {
+            return concat(new byte[0], cacheKey, suffix, new byte[0]);
+        }
+        return concat(new byte[]{'{'}, cacheKey, new byte[]{'}'}, suffix);
+    }
+
+    /**
+     * same rule of the redis cluster: the bytes between the first '{' and the next '}' and it is not empty
+     * @param key key
+     * @return whether the slot of the key is decided by the hash tag
+     */
+    public static boolean hasHashTag(byte[] key) {
+        int start = indexOf(key, (byte) '{', 0);
+        if (start < 0) {
+            return false;
+        }
+        int end = indexOf(key, (byte) '}', start + 1);
+        return end > start + 1;
+    }
+
+    /**
+     * the hash slot of the key in the redis cluster, CRC16 of the hash tag or the whole key mod 16384
+     * @param key key
+     * @return slot
+     */
+    public static int slot(byte[] key) {
+        int start = 0;
+        int end = key.length;
+        if (hasHashTag(key)) {
+            start = indexOf(key, (byte) '{', 0) + 1;
+            end = indexOf(key, (byte) '}', start);
+        }
+        int crc = 0;
+        for (int i = start; i < end; i++) {
+            crc ^= (key[i] & 0xFF) << 8;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+        }
+        return crc & 0x3FFF;
+    }
+
+    private static int indexOf(byte[] bytes, byte target, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] concat(byte[] first, byte[] second, byte[] third, byte[] fourth) {
+        byte[] result = new byte[first.length + second.length + third.length + fourth.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        System.arraycopy(third, 0, result, first.length + second.length, third.length);
+        System.arraycopy(fourth, 0, result, first.length + second.length + third.length, fourth.length);
+        return result;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator.redis;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * the connection pool shared by the redis clients built with the same configuration
+ * it is created by the first client, and closed when the last client is closed
+ */
+public class SharedResourceRegistry {
+
+    public static final SharedResourceRegistry INSTANCE = new SharedResourceRegistry();
+
+    private SharedResourceRegistry() {
+    }
+
+    public static SharedResourceRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * keyed by the configuration instance
+     */
+    private final Map<Object, SharedResource<?>> resources = new IdentityHashMap<>();
+
+    /**
+     * get the shared resource of the configuration, create it if not exist
+     * @param configuration the configuration which the resource created from
+     * @param creator create the resource
+     * @param closer close the resource when the last reference released
+     * @return the shared resource
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T acquire(Object configuration, Supplier<T> creator, Consumer<T> closer) {
+        SharedResource<T> resource = (SharedResource<T>) resources.get(configuration);
+        if (resource == null) {
+            resource = new SharedResource<>(creator.get(), closer);
+            resources.put(configuration, resource);
+        }
+        resource.referenceCount++;
+        return resource.resource;
+    }
+
+    /**
+     * release one reference of the shared resource, the last one close it
+     * @param configuration the configuration which the resource created from
+     */
+    public void release(Object configuration) {
+        SharedResource<?> resource;
+        synchronized (this) {
+            resource = resources.get(configuration);
+            if (resource == null || --resource.referenceCount > 0) {
+                return;
+            }
+            resources.remove(configuration);
+        }
+        resource.close();
+    }
+
+    /**
+     * @param configuration the configuration which the resource created from
+     * @return count of the clients using the resource, 0 when not exist
+     */
+    public synchronized int referenceCount(Object configuration) {
+        SharedResource<?> resource = resources.get(configuration);
+        return resource == null ? 0 : resource.referenceCount;
+    }
+
+    private static class SharedResource<T> {
+
+        private final T resource;
+
+        private final Consumer<T> closer;
+
+        private int referenceCount;
+
+        SharedResource(T resource, Consumer<T> closer) {
+            this.resource = resource;
+            this.closer = closer;
+        }
+
+        void close() {
+            closer.accept(resource);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator.redis;
+
+/**
+ * the envelope of the cache value with the soft expire
+ * header byte 0xFE, flags, soft expire time 8 bytes, reload cost 4 bytes when the flag is set, the serialized value
+ * the flags always has the bit 0x80, so it is not conflict with the header of the compression (algorithm id less than 0x80)
+ * the value without the soft expire is written as it is
+ * the lua script read the soft expire time with the same layout
+ */
+final class ValueEnvelope {
+
+    static final byte HEADER = (byte) 0xFE;
+
+    static final int SOFT_EXPIRE_FLAG = 0x80;
+
+    static final int RELOAD_COST_FLAG = 0x40;
+
+    private static final int SOFT_EXPIRE_OFFSET = 2;
+
+    private static final int RELOAD_COST_OFFSET = 10;
+
+    private ValueEnvelope() {
+    }
+
+    /**
+     * @param value serialized value
+     * @param softExpireAt epoch ms of the soft expire
+     * @param reloadCostMs reload cost ms
+     * @return value in the envelope
+     */
+    static byte[] wrap(byte[] value, long softExpireAt, long reloadCostMs) {
+        byte flags = (byte) (SOFT_EXPIRE_FLAG | RELOAD_COST_FLAG);
+        int offset = headerLength(flags);
+        byte[] envelope = new byte[offset + value.length];
+        envelope[0] = HEADER;
+        envelope[1] = flags;
+        writeLong(envelope, SOFT_EXPIRE_OFFSET, softExpireAt, 8);
+        writeLong(envelope, RELOAD_COST_OFFSET, Math.min(reloadCostMs, Integer.MAX_VALUE), 4);
+        System.arraycopy(value, 0, envelope, offset, value.length);
+        return envelope;
+    }
+
+    /**
+     * the value shorter than the header of its flags is not an envelope, it is read as the plain value
+     */
+    static boolean isEnvelope(byte[] value) {
+        return value.length >= RELOAD_COST_OFFSET && value[0] == HEADER && (value[1] & SOFT_EXPIRE_FLAG) != 0
+                && value.length >= headerLength(value[1]);
+    }
+
+    /**
+     * @param flags flags of the envelope
+     * @return the length of the header, the offset of the serialized value
+     */
+    private static int headerLength(byte flags) {
+        return (flags & RELOAD_COST_FLAG) != 0 ? RELOAD_COST_OFFSET + 4 : RELOAD_COST_OFFSET;
+    }
+
+    /**
+     * @param value value in the envelope or not
+     * @return the offset of the serialized value
+     */
+    static int valueOffset(byte[] value) {
+        return isEnvelope(value) ? headerLength(value[1]) : 0;
+    }
+
+    /**
+     * @param value value in the envelope
+     * @return epoch ms of the soft expire
+     */
+    static long softExpireAt(byte[] value) {
+        return readLong(value, SOFT_EXPIRE_OFFSET, 8);
+    }
+
+    /**
+     * @param value value in the envelope
+     * @return reload cost ms, 0 when not recorded
+     */
+    static long reloadCostMs(byte[] value) {
+        return (value[1] & RELOAD_COST_FLAG) != 0 ? readLong(value, RELOAD_COST_OFFSET, 4) : 0;
+    }
+
+    private static void writeLong(byte[] bytes, int offset, long value, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            bytes[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static long readLong(byte[] bytes, int offset, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+}
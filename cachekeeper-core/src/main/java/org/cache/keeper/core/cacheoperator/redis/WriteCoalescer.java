@@ -0,0 +1,160 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.core.cacheoperator.redis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * batch the lease checked writes into one script pipeline
+ * one thread collect the batch, bounded by the size and the delay of the first write, and flush it in place
+ * only one pipeline is in flight, so the writes of a key are run in the submit order, and the writes queued
+ * during the flush are sent together in the next batch
+ */
+final class WriteCoalescer implements AutoCloseable {
+
+    private static final long CLOSE_TIMEOUT_MS = 5000;
+
+    private final BiFunction<List<byte[][]>, List<byte[][]>, List<Object>> pipeline;
+
+    private final int maxBatchSize;
+
+    private final long maxDelayNanos;
+
+    private final LinkedBlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+
+    private final WriteCoalescingStats stats = new WriteCoalescingStats();
+
+    private final Thread collector;
+
+    private volatile boolean closed;
+
+    private record PendingWrite(byte[][] keys, byte[][] args, CompletableFuture<Object> future) {
+    }
+
+    /**
+     * @param pipeline run the scripts of the keys and args in one pipeline, return the result of each
+     * @param configuration size and delay bound of the batch
+     */
+    WriteCoalescer(BiFunction<List<byte[][]>, List<byte[][]>, List<Object>> pipeline, WriteCoalescingConfiguration configuration) {
+        this.pipeline = pipeline;
+        this.maxBatchSize = configuration.getMaxBatchSize();
+        this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(configuration.getMaxDelayMicros());
+        this.collector = Thread.ofPlatform().daemon().name("cache-keeper-write-coalescer").start(this::collect);
+    }
+
+    WriteCoalescingStats getStats() {
+        return stats;
+    }
+
+    /**
+     * queue the write
+     * @param keys script keys
+     * @param args script args
+     * @return future of the script result
+     */
+    CompletableFuture<Object> submit(byte[][] keys, byte[][] args) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new RuntimeException("write coalescer is closed"));
+            return future;
+        }
+        PendingWrite write = new PendingWrite(keys, args, future);
+        queue.add(write);
+        // the close may drain the queue before the add, the write is failed by the one who take it out of the queue
+        if (closed && queue.remove(write)) {
+            future.completeExceptionally(new RuntimeException("write coalescer is closed"));
+        }
+        return future;
+    }
+
+    private void collect() {
+        while (!closed || !queue.isEmpty()) {
+            List<PendingWrite> batch = new ArrayList<>();
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // flush what is collected, the rest is flushed by the next loop until the queue is empty
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        List<byte[][]> keys = new ArrayList<>(batch.size());
+        List<byte[][]> args = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            keys.add(write.keys());
+            args.add(write.args());
+        }
+        List<Object> results;
+        try {
+            results = pipeline.apply(keys, args);
+        } catch (RuntimeException e) {
+            stats.recordFailedFlush();
+            batch.forEach(write -> write.future().completeExceptionally(e));
+            return;
+        }
+        stats.recordFlush(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future().complete(results.get(i));
+        }
+    }
+
+    /**
+     * flush the queued writes and stop the collector
+     * the collector is not interrupted, it may be in the io of the flush, it see the close in the next poll
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            collector.join(CLOSE_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PendingWrite write;
+        while ((write = queue.poll()) != null) {
+            write.future().completeExceptionally(new RuntimeException("write coalescer is closed"));
+        }
+    }
+
+}
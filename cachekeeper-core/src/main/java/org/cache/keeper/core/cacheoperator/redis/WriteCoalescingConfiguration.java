@@ -0,0 +1,102 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.core.cacheoperator.redis;
+
+/**
+ * config for the write coalescing of the redis cache operator
+ * the lease checked writes of the concurrent reloads are sent in one pipeline
+ * the batch is flushed when it is full or the first write waited for the max delay
+ */
+public class WriteCoalescingConfiguration {
+
+    private WriteCoalescingConfiguration() {}
+
+    /**
+     * max writes in one pipeline
+     */
+    private Integer maxBatchSize = 64;
+
+    /**
+     * max time the first write of the batch wait for the others
+     */
+    private Long maxDelayMicros = 200L;
+
+    /**
+     * max time the sync write wait for its batch to be flushed
+     */
+    private Long maxWaitMillis = 5000L;
+
+    // getter start
+    public Integer getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public Long getMaxDelayMicros() {
+        return maxDelayMicros;
+    }
+
+    public Long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+    // getter end
+
+    public static class Builder {
+        private Integer maxBatchSize = 64;
+        private Long maxDelayMicros = 200L;
+        private Long maxWaitMillis = 5000L;
+
+        private Builder() {
+        }
+
+        public static Builder newBuilder() {
+            return new Builder();
+        }
+
+        public Builder maxBatchSize(Integer maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        public Builder maxDelayMicros(Long maxDelayMicros) {
+            this.maxDelayMicros = maxDelayMicros;
+            return this;
+        }
+
+        public Builder maxWaitMillis(Long maxWaitMillis) {
+            this.maxWaitMillis = maxWaitMillis;
+            return this;
+        }
+
+        public WriteCoalescingConfiguration build() {
+            if (maxBatchSize == null || maxBatchSize <= 0) {
+                throw new IllegalArgumentException("write coalescing maxBatchSize must be positive");
+            }
+            if (maxDelayMicros == null || maxDelayMicros < 0) {
+                throw new IllegalArgumentException("write coalescing maxDelayMicros must not be negative");
+            }
+            if (maxWaitMillis == null || maxWaitMillis <= 0) {
+                throw new IllegalArgumentException("write coalescing maxWaitMillis must be positive");
+            }
+            WriteCoalescingConfiguration configuration = new WriteCoalescingConfiguration();
+            configuration.maxBatchSize = maxBatchSize;
+            configuration.maxDelayMicros = maxDelayMicros;
+            configuration.maxWaitMillis = maxWaitMillis;
+            return configuration;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.core.cacheoperator.redis;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * counters of the write coalescing
+ */
+public class WriteCoalescingStats {
+
+    /**
+     * the lease checked writes sent by the pipeline
+     */
+    private final LongAdder writeCount = new LongAdder();
+
+    /**
+     * the pipelines flushed
+     */
+    private final LongAdder flushCount = new LongAdder();
+
+    /**
+     * the pipelines failed, all writes of it are failed
+     */
+    private final LongAdder failedFlushCount = new LongAdder();
+
+    void recordFlush(int batchSize) {
+        flushCount.increment();
+        writeCount.add(batchSize);
+    }
+
+    void recordFailedFlush() {
+        failedFlushCount.increment();
+    }
+
+    // getter start
+    public long getWriteCount() {
+        return writeCount.sum();
+    }
+
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    public long getFailedFlushCount() {
+        return failedFlushCount.sum();
+    }
+    // getter end
+
+    /**
+     * average writes of one pipeline
+     * @return write count / flush count, 0 when nothing flushed
+     */
+    public double averageBatchSize() {
+        long flush = getFlushCount();
+        return flush == 0 ? 0 : (double) getWriteCount() / flush;
+    }
+
+    @Override
+    public String toString() {
+        return "WriteCoalescingStats{" +
+                "writeCount=" + getWriteCount() +
+                ", flushCount=" + getFlushCount() +
+                ", failedFlushCount=" + getFailedFlushCount() +
+                ", averageBatchSize=" + averageBatchSize() +
+                '}';
+    }
+}
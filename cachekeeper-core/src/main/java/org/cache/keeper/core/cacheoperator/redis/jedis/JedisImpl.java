@@ -18,22 +18,40 @@ package org.cache.keeper.core.cacheoperator.redis.jedis;
 
 import org.cache.keeper.core.cacheoperator.redis.RedisClient;
 import org.cache.keeper.core.cacheoperator.redis.RedisConfiguration;
+import org.cache.keeper.core.cacheoperator.redis.SharedResourceRegistry;
 import redis.clients.jedis.*;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+import redis.clients.jedis.util.JedisClusterCRC16;
 import redis.clients.jedis.util.Pool;
+import redis.clients.jedis.util.SafeEncoder;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class JedisImpl<K, V> implements RedisClient<K, V> {
 
-    public static final JedisImpl<? ,?> INSTANCE = new JedisImpl<>();
-    private JedisImpl() {}
+    /**
+     * the channel which the invalidation of client side tracking is redirected to
+     */
+    private static final String TRACKING_INVALIDATE_CHANNEL = "__redis__:invalidate";
 
-    @SuppressWarnings("unchecked")
-    public static <K, V> JedisImpl<K, V> getInstance() {
-        return (JedisImpl<K, V>)INSTANCE;
-    }
+    /**
+     * marker of the pipelined script result which need to be executed again by the script
+     */
+    private static final Object NO_SCRIPT = new Object();
+
+    public JedisImpl() {}
 
     private JedisConfiguration config = null;
 
@@ -44,52 +62,90 @@ public class JedisImpl<K, V> implements RedisClient<K, V> {
     @Override
     public void initClient(RedisConfiguration redisConfiguration) {
         if (redisConfiguration instanceof JedisConfiguration jedisConfiguration) {
-            this.config = jedisConfiguration;
             JedisConfiguration.ConnectionMode connectionMode = jedisConfiguration.getConnectionMode();
             if (connectionMode == null) {
                 throw new IllegalArgumentException("connection mode is not set");
             }
-            switch (connectionMode) {
-                case STANDALONE -> {
-                    JedisPoolConfig jedisPoolConfig = new JedisPoolConfig();
-                    jedisPoolConfig.setMaxTotal(jedisConfiguration.getStandaloneMaxTotal());
-                    jedisPoolConfig.setMaxIdle(jedisConfiguration.getStandaloneMaxIdle());
-                    jedis = new JedisPool(jedisPoolConfig,
-                            jedisConfiguration.getStandaloneHost(),
-                            jedisConfiguration.getStandalonePort(),
-                            jedisConfiguration.getStandaloneTimeout(),
-                            jedisConfiguration.getStandalonePassword(),
-                            jedisConfiguration.getStandaloneDatabase());
-                }
-                case SENTINEL -> {
-                    JedisPoolConfig jedisPoolConfig = new JedisPoolConfig();
-                    jedisPoolConfig.setMaxTotal(jedisConfiguration.getSentinelMaxTotal());
-                    jedisPoolConfig.setMaxIdle(jedisConfiguration.getSentinelMaxIdle());
-                    jedis = new JedisSentinelPool(jedisConfiguration.getSentinelMasterName(),
-                            Set.of(jedisConfiguration.getSentinelHosts()),
-                            jedisPoolConfig,
-                            jedisConfiguration.getSentinelTimeout(),
-                            jedisConfiguration.getSentinelPassword()
-                            );
-                }
-                case CLUSTER -> {
-                    Set<HostAndPort> nodes = Arrays.stream(jedisConfiguration.getClusterNodes())
-                            .map(HostAndPort::from)
-                            .collect(Collectors.toSet());
-                    int timeout = jedisConfiguration.getClusterTimeout();
-                    int maxAttempts = jedisConfiguration.getClusterMaxAttempts();
-                    ConnectionPoolConfig jedisPoolConfig = new ConnectionPoolConfig();
-                    jedisPoolConfig.setMaxTotal(jedisConfiguration.getClusterMaxTotal());
-                    jedisPoolConfig.setMaxIdle(jedisConfiguration.getClusterMaxIdle());
-                    jedisCluster = new JedisCluster(nodes, timeout, maxAttempts, jedisPoolConfig);
-                }
-                default -> throw new IllegalArgumentException("Unsupported connection mode: " + connectionMode);
-            }
+            close();
+            // the clients of the same configuration share one pool
+            JedisResource resource = SharedResourceRegistry.getInstance()
+                    .acquire(jedisConfiguration, () -> createResource(jedisConfiguration), JedisResource::close);
+            this.config = jedisConfiguration;
+            this.jedis = resource.pool();
+            this.jedisCluster = resource.cluster();
         } else {
             throw new IllegalArgumentException("redis configuration is not JedisConfiguration");
         }
     }
 
+    private static JedisResource createResource(JedisConfiguration jedisConfiguration) {
+        JedisConfiguration.ConnectionMode connectionMode = jedisConfiguration.getConnectionMode();
+        switch (connectionMode) {
+            case STANDALONE -> {
+                JedisPoolConfig jedisPoolConfig = new JedisPoolConfig();
+                jedisPoolConfig.setMaxTotal(jedisConfiguration.getStandaloneMaxTotal());
+                jedisPoolConfig.setMaxIdle(jedisConfiguration.getStandaloneMaxIdle());
+                return new JedisResource(new JedisPool(jedisPoolConfig,
+                        jedisConfiguration.getStandaloneHost(),
+                        jedisConfiguration.getStandalonePort(),
+                        jedisConfiguration.getStandaloneTimeout(),
+                        jedisConfiguration.getStandalonePassword(),
+                        jedisConfiguration.getStandaloneDatabase()), null);
+            }
+            case SENTINEL -> {
+                JedisPoolConfig jedisPoolConfig = new JedisPoolConfig();
+                jedisPoolConfig.setMaxTotal(jedisConfiguration.getSentinelMaxTotal());
+                jedisPoolConfig.setMaxIdle(jedisConfiguration.getSentinelMaxIdle());
+                return new JedisResource(new JedisSentinelPool(jedisConfiguration.getSentinelMasterName(),
+                        Set.of(jedisConfiguration.getSentinelHosts()),
+                        jedisPoolConfig,
+                        jedisConfiguration.getSentinelTimeout(),
+                        jedisConfiguration.getSentinelPassword()
+                        ), null);
+            }
+            case CLUSTER -> {
+                Set<HostAndPort> nodes = Arrays.stream(jedisConfiguration.getClusterNodes())
+                        .map(HostAndPort::from)
+                        .collect(Collectors.toSet());
+                int timeout = jedisConfiguration.getClusterTimeout();
+                int maxAttempts = jedisConfiguration.getClusterMaxAttempts();
+                ConnectionPoolConfig jedisPoolConfig = new ConnectionPoolConfig();
+                jedisPoolConfig.setMaxTotal(jedisConfiguration.getClusterMaxTotal());
+                jedisPoolConfig.setMaxIdle(jedisConfiguration.getClusterMaxIdle());
+                return new JedisResource(null, new JedisCluster(nodes, timeout, maxAttempts, jedisPoolConfig));
+            }
+            default -> throw new IllegalArgumentException("Unsupported connection mode: " + connectionMode);
+        }
+    }
+
+    /**
+     * release the pool, the last client of the configuration close it
+     */
+    @Override
+    public void close() {
+        if (config == null) {
+            return;
+        }
+        SharedResourceRegistry.getInstance().release(config);
+        config = null;
+        jedis = null;
+        jedisCluster = null;
+    }
+
+    /**
+     * the pool of standalone and sentinel, or the cluster
+     */
+    private record JedisResource(Pool<Jedis> pool, JedisCluster cluster) {
+        void close() {
+            if (pool != null) {
+                pool.close();
+            }
+            if (cluster != null) {
+                cluster.close();
+            }
+        }
+    }
+
     @Override
     public V get(K key) {
         if (config.getConnectionMode() == JedisConfiguration.ConnectionMode.CLUSTER) {
@@ -101,6 +157,52 @@ public class JedisImpl<K, V> implements RedisClient<K, V> {
         }
     }
 
+    @Override
+    public byte[] get(byte[] key) {
+        if (config.getConnectionMode() == JedisConfiguration.ConnectionMode.CLUSTER) {
+            return jedisCluster.get(key);
+        }
+        try (Jedis resource = jedis.getResource()) {
+            return resource.get(key);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<V> mGet(List<K> keys) {
+        byte[][] binaryKeys = keys.stream().map(key -> SafeEncoder.encode(key.toString())).toArray(byte[][]::new);
+        List<V> values = new ArrayList<>(keys.size());
+        for (byte[] value : mGet(binaryKeys)) {
+            values.add(value == null ? null : (V) SafeEncoder.encode(value));
+        }
+        return values;
+    }
+
+    @Override
+    public List<byte[]> mGet(byte[][] keys) {
+        if (keys.length == 0) {
+            return List.of();
+        }
+        if (config.getConnectionMode() == JedisConfiguration.ConnectionMode.CLUSTER) {
+            // mget can not cross slot, split the keys by slot
+            Map<Integer, List<Integer>> slotIndexes = new HashMap<>();
+            for (int i = 0; i < keys.length; i++) {
+                slotIndexes.computeIfAbsent(JedisClusterCRC16.getSlot(keys[i]), slot -> new ArrayList<>()).add(i);
+            }
+            byte[][] values = new byte[keys.length][];
+            for (List<Integer> indexes : slotIndexes.values()) {
+                List<byte[]> slotValues = jedisCluster.mget(indexes.stream().map(i -> keys[i]).toArray(byte[][]::new));
+                for (int i = 0; i < indexes.size(); i++) {
+                    values[indexes.get(i)] = slotValues.get(i);
+                }
+            }
+            return Arrays.asList(values);
+        }
+        try (Jedis resource = jedis.getResource()) {
+            return resource.mget(keys);
+        }
+    }
+
     @Override
     public void set(K key, V value) {
         if (config.getConnectionMode() == JedisConfiguration.ConnectionMode.CLUSTER) {
@@ -123,44 +225,287 @@ public class JedisImpl<K, V> implements RedisClient<K, V> {
     }
 
     @Override
-    public void evalLua(String luaScript, String[] keys, String[] args) {
+    public Object evalLua(String luaScript, byte[][] keys, byte[][] args) {
         if (config.getConnectionMode() == JedisConfiguration.ConnectionMode.CLUSTER) {
-            jedisCluster.eval(luaScript, Arrays.stream(keys).toList(), Arrays.stream(args).toList());
-            return;
+            return jedisCluster.eval(SafeEncoder.encode(luaScript), Arrays.asList(keys), Arrays.asList(args));
         }
         try (Jedis resource = jedis.getResource()) {
-            resource.eval(luaScript, Arrays.stream(keys).toList(), Arrays.stream(args).toList());
+            return resource.eval(SafeEncoder.encode(luaScript), Arrays.asList(keys), Arrays.asList(args));
         }
     }
 
     @Override
-    public void evalSha(String luaSha, String[] keys, String[] args) {
+    public Object evalSha(String luaSha, byte[][] keys, byte[][] args) {
         if (config.getConnectionMode() == JedisConfiguration.ConnectionMode.CLUSTER) {
-            jedisCluster.evalsha(luaSha, Arrays.stream(keys).toList(), Arrays.stream(args).toList());
-            return;
+            return jedisCluster.evalsha(SafeEncoder.encode(luaSha), Arrays.asList(keys), Arrays.asList(args));
         }
         try (Jedis resource = jedis.getResource()) {
-            resource.evalsha(luaSha, Arrays.stream(keys).toList(), Arrays.stream(args).toList());
+            return resource.evalsha(SafeEncoder.encode(luaSha), Arrays.asList(keys), Arrays.asList(args));
         }
     }
 
     @Override
-    public void lPush(String queueName, String value) {
+    public Object eval(String luaScript, String luaSha, byte[][] keys, byte[][] args) {
+        if (luaSha == null || luaSha.isEmpty()) {
+            return evalLua(luaScript, keys, args);
+        }
+        try {
+            return evalSha(luaSha, keys, args);
+        } catch (JedisNoScriptException e) {
+            // the script cache of the server is flushed or failover
+            return evalLua(luaScript, keys, args);
+        }
+    }
+
+    @Override
+    public List<Object> evalPipelined(String luaScript, String luaSha, List<byte[][]> keys, List<byte[][]> args) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Object> results;
         if (config.getConnectionMode() == JedisConfiguration.ConnectionMode.CLUSTER) {
-            jedisCluster.lpush(queueName, value);
+            try (ClusterPipeline pipeline = jedisCluster.pipelined()) {
+                results = evalPipelined(pipeline, luaScript, luaSha, keys, args);
+            }
+        } else {
+            try (Jedis resource = jedis.getResource(); Pipeline pipeline = resource.pipelined()) {
+                results = evalPipelined(pipeline, luaScript, luaSha, keys, args);
+            }
+        }
+        // the script cache of the server is flushed or failover, execute the script after the pipeline connection is released
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == NO_SCRIPT) {
+                results.set(i, evalLua(luaScript, keys.get(i), args.get(i)));
+            }
+        }
+        return results;
+    }
+
+    private List<Object> evalPipelined(AbstractPipeline pipeline, String luaScript, String luaSha, List<byte[][]> keys, List<byte[][]> args) {
+        boolean useSha = luaSha != null && !luaSha.isEmpty();
+        byte[] script = SafeEncoder.encode(useSha ? luaSha : luaScript);
+        List<Response<Object>> responses = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            List<byte[]> executionKeys = Arrays.asList(keys.get(i));
+            List<byte[]> executionArgs = Arrays.asList(args.get(i));
+            responses.add(useSha
+                    ? pipeline.evalsha(script, executionKeys, executionArgs)
+                    : pipeline.eval(script, executionKeys, executionArgs));
+        }
+        pipeline.sync();
+        List<Object> results = new ArrayList<>(responses.size());
+        for (Response<Object> response : responses) {
+            try {
+                results.add(response.get());
+            } catch (JedisNoScriptException e) {
+                results.add(NO_SCRIPT);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void delete(byte[]... keys) {
+        if (config.getConnectionMode() == JedisConfiguration.ConnectionMode.CLUSTER) {
+            // the keys may be in different slots, the cache key and its lease key are deleted together
+            Map<Integer, List<byte[]>> slotKeys = new HashMap<>();
+            for (byte[] key : keys) {
+                slotKeys.computeIfAbsent(JedisClusterCRC16.getSlot(key), slot -> new ArrayList<>()).add(key);
+            }
+            for (List<byte[]> sameSlotKeys : slotKeys.values()) {
+                jedisCluster.del(sameSlotKeys.toArray(byte[][]::new));
+            }
+            return;
         }
         try (Jedis resource = jedis.getResource()) {
-            resource.lpush(queueName, value);
+            resource.del(keys);
+        }
+    }
+
+    @Override
+    public void scan(String pattern, int count, Consumer<List<byte[]>> batchConsumer) {
+        ScanParams params = new ScanParams().match(SafeEncoder.encode(pattern)).count(count);
+        if (config.getConnectionMode() == JedisConfiguration.ConnectionMode.CLUSTER) {
+            // the master nodes are scanned one by one, the replica has the same keys
+            for (ConnectionPool pool : jedisCluster.getClusterNodes().values()) {
+                try (Jedis resource = new Jedis(pool.getResource())) {
+                    if (!"master".equals(resource.role().get(0))) {
+                        continue;
+                    }
+                }
+                scan(() -> new Jedis(pool.getResource()), params, batchConsumer);
+            }
+            return;
         }
+        scan(jedis::getResource, params, batchConsumer);
+    }
+
+    private void scan(Supplier<Jedis> resourceSupplier, ScanParams params, Consumer<List<byte[]>> batchConsumer) {
+        byte[] cursor = ScanParams.SCAN_POINTER_START_BINARY;
+        do {
+            ScanResult<byte[]> result;
+            // the connection is returned between the batches
+            try (Jedis resource = resourceSupplier.get()) {
+                result = resource.scan(cursor, params);
+            }
+            batchConsumer.accept(result.getResult());
+            cursor = result.getCursorAsBytes();
+        } while (!Arrays.equals(cursor, ScanParams.SCAN_POINTER_START_BINARY));
     }
 
     @Override
-    public void delete(String key) {
+    public void publish(String channel, String message) {
         if (config.getConnectionMode() == JedisConfiguration.ConnectionMode.CLUSTER) {
-            jedisCluster.del(key);
+            jedisCluster.publish(channel, message);
+            return;
         }
         try (Jedis resource = jedis.getResource()) {
-            resource.del(key);
+            resource.publish(channel, message);
+        }
+    }
+
+    @Override
+    public AutoCloseable subscribe(String channel, Consumer<String> listener, Runnable onReconnect) {
+        JedisSubscription subscription = new JedisSubscription(onReconnect) {
+            private volatile Jedis connection;
+
+            private volatile JedisPubSub pubSub;
+
+            @Override
+            void subscribe(Runnable subscribed) {
+                JedisPubSub jedisPubSub = new JedisPubSub() {
+                    @Override
+                    public void onSubscribe(String subscribedChannel, int subscribedChannels) {
+                        subscribed.run();
+                    }
+
+                    @Override
+                    public void onMessage(String messageChannel, String message) {
+                        listener.accept(message);
+                    }
+                };
+                pubSub = jedisPubSub;
+                if (config.getConnectionMode() == JedisConfiguration.ConnectionMode.CLUSTER) {
+                    jedisCluster.subscribe(jedisPubSub, channel);
+                    return;
+                }
+                // the subscription hold the connection, do not use the pool
+                try (Jedis dedicated = newDedicatedConnection()) {
+                    connection = dedicated;
+                    if (!closed) {
+                        dedicated.subscribe(jedisPubSub, channel);
+                    }
+                } finally {
+                    connection = null;
+                }
+            }
+
+            @Override
+            void interrupt() {
+                JedisPubSub jedisPubSub = pubSub;
+                if (jedisPubSub != null && jedisPubSub.isSubscribed()) {
+                    jedisPubSub.unsubscribe();
+                }
+                Jedis dedicated = connection;
+                if (dedicated != null) {
+                    dedicated.disconnect();
+                }
+            }
+        };
+        subscription.start("cache-keeper-subscribe-" + channel);
+        return subscription;
+    }
+
+    @Override
+    public AutoCloseable trackInvalidation(String keyPrefix, Consumer<List<String>> listener, Runnable onInvalidateAll) {
+        if (config.getConnectionMode() == JedisConfiguration.ConnectionMode.CLUSTER) {
+            // every master need its own tracking connection, not support now
+            return null;
+        }
+        try (Jedis probe = newDedicatedConnection()) {
+            probe.sendCommand(Protocol.Command.CLIENT, "TRACKING", "OFF");
+        } catch (JedisDataException e) {
+            // the redis is older than 6.0
+            return null;
+        }
+        JedisSubscription subscription = new JedisSubscription(onInvalidateAll) {
+            private volatile Jedis connection;
+
+            @Override
+            void subscribe(Runnable subscribed) {
+                try (Jedis redirect = newDedicatedConnection(); Jedis tracking = newDedicatedConnection()) {
+                    connection = redirect;
+                    if (closed) {
+                        return;
+                    }
+                    // the invalidation message is pushed to the redirect connection by pub/sub (RESP2)
+                    Connection redirectConnection = redirect.getConnection();
+                    long redirectClientId = redirect.clientId();
+                    redirectConnection.setTimeoutInfinite();
+                    redirectConnection.sendCommand(Protocol.Command.SUBSCRIBE, TRACKING_INVALIDATE_CHANNEL);
+                    redirectConnection.getObjectMultiBulkReply();
+                    tracking.sendCommand(Protocol.Command.CLIENT, trackingArgs(redirectClientId, keyPrefix));
+                    subscribed.run();
+                    while (!closed) {
+                        if (!(redirectConnection.getUnflushedObject() instanceof List<?> reply)
+                                || reply.size() < 3 || !"message".equals(SafeEncoder.encode((byte[]) reply.get(0)))) {
+                            continue;
+                        }
+                        if (reply.get(2) instanceof List<?> keys) {
+                            listener.accept(keys.stream().map(key -> new String((byte[]) key, StandardCharsets.ISO_8859_1)).toList());
+                        } else {
+                            // null keys means the redis is flushed
+                            onInvalidateAll.run();
+                        }
+                    }
+                } finally {
+                    connection = null;
+                }
+            }
+
+            @Override
+            void interrupt() {
+                Jedis redirect = connection;
+                if (redirect != null) {
+                    redirect.disconnect();
+                }
+            }
+        };
+        subscription.start("cache-keeper-tracking");
+        return subscription;
+    }
+
+    private static String[] trackingArgs(long redirectClientId, String keyPrefix) {
+        List<String> args = new ArrayList<>(List.of("TRACKING", "ON", "REDIRECT", String.valueOf(redirectClientId), "BCAST"));
+        if (keyPrefix != null && !keyPrefix.isEmpty()) {
+            args.add("PREFIX");
+            args.add(keyPrefix);
+        }
+        return args.toArray(new String[0]);
+    }
+
+    /**
+     * create a connection out of the pool, for the long time blocking command
+     * @return connection
+     */
+    private Jedis newDedicatedConnection() {
+        switch (config.getConnectionMode()) {
+            case STANDALONE -> {
+                return new Jedis(new HostAndPort(config.getStandaloneHost(), config.getStandalonePort()),
+                        DefaultJedisClientConfig.builder()
+                                .timeoutMillis(config.getStandaloneTimeout())
+                                .password(config.getStandalonePassword())
+                                .database(config.getStandaloneDatabase())
+                                .build());
+            }
+            case SENTINEL -> {
+                HostAndPort master = ((JedisSentinelPool) jedis).getCurrentHostMaster();
+                return new Jedis(master, DefaultJedisClientConfig.builder()
+                        .timeoutMillis(config.getSentinelTimeout())
+                        .password(config.getSentinelPassword())
+                        .build());
+            }
+            default -> throw new IllegalStateException("dedicated connection is not support in mode: " + config.getConnectionMode());
         }
     }
 }
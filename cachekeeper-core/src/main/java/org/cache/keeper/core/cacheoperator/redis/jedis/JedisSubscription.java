@@ -0,0 +1,85 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator.redis.jedis;
+
+import java.time.Duration;
+
+/**
+ * subscription run in a background thread
+ * the subscribe block the thread until the connection is broken, then it will reconnect
+ */
+abstract class JedisSubscription implements AutoCloseable {
+
+    private static final Duration RECONNECT_INTERVAL = Duration.ofSeconds(1);
+
+    /**
+     * called when subscribed again after the connection is broken
+     */
+    private final Runnable onReconnect;
+
+    protected volatile boolean closed = false;
+
+    private boolean reconnect = false;
+
+    JedisSubscription(Runnable onReconnect) {
+        this.onReconnect = onReconnect;
+    }
+
+    /**
+     * subscribe and block until the connection is broken or closed
+     * @param subscribed must be called when the subscription is ready
+     * @throws Exception connection error
+     */
+    abstract void subscribe(Runnable subscribed) throws Exception;
+
+    /**
+     * break the blocking subscribe
+     */
+    abstract void interrupt();
+
+    void start(String threadName) {
+        Thread.ofPlatform().daemon().name(threadName).start(this::loop);
+    }
+
+    private void loop() {
+        while (!closed) {
+            try {
+                subscribe(() -> {
+                    if (reconnect && onReconnect != null) {
+                        onReconnect.run();
+                    }
+                });
+            } catch (Exception e) {
+                // the connection is broken, reconnect later
+            }
+            reconnect = true;
+            if (!closed) {
+                try {
+                    Thread.sleep(RECONNECT_INTERVAL);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        interrupt();
+    }
+}
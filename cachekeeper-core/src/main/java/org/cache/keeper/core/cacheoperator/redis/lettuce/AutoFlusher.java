@@ -0,0 +1,67 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator.redis.lettuce;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * auto pipelining
+ * the connection do not flush each command, the commands dispatched by all threads are queued
+ * and flushed to the socket together by one task, or at once when the queue reach the max batch size
+ */
+class AutoFlusher {
+
+    private final Runnable flushCommands;
+
+    private final int maxBatchSize;
+
+    private final Executor executor;
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    AutoFlusher(Runnable flushCommands, int maxBatchSize, Executor executor) {
+        this.flushCommands = flushCommands;
+        this.maxBatchSize = maxBatchSize;
+        this.executor = executor;
+    }
+
+    /**
+     * must be called after each command is dispatched
+     */
+    void dispatched() {
+        if (pending.incrementAndGet() >= maxBatchSize) {
+            flush();
+            return;
+        }
+        // the commands dispatched before the task run are flushed by it
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                scheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    void flush() {
+        pending.set(0);
+        flushCommands.run();
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator.redis.lettuce;
+
+import org.cache.keeper.core.cacheoperator.redis.RedisConfiguration;
+
+public class LettuceConfiguration implements RedisConfiguration {
+
+    private LettuceConfiguration(){}
+
+    private ConnectionMode connectionMode;
+
+    private String standaloneHost = "127.0.0.1";
+
+    private Integer standalonePort = 6379;
+
+    private String standalonePassword;
+
+    private Integer standaloneDatabase = 0;
+
+    private String sentinelMasterName;
+
+    private String[] sentinelHosts;
+
+    private String sentinelPassword;
+
+    private Integer sentinelDatabase = 0;
+
+    private String[] clusterNodes;
+
+    private String clusterPassword;
+
+    /**
+     * command timeout ms
+     */
+    private Integer timeout = 2000;
+
+    /**
+     * the commands of all threads are queued and flushed to the socket together
+     */
+    private Boolean autoPipelining = true;
+
+    /**
+     * flush at once when the queued commands reach the size
+     */
+    private Integer autoPipeliningMaxBatchSize = 64;
+
+    // getter start
+    public ConnectionMode getConnectionMode() {
+        return connectionMode;
+    }
+
+    public String getStandaloneHost() {
+        return standaloneHost;
+    }
+
+    public Integer getStandalonePort() {
+        return standalonePort;
+    }
+
+    public String getStandalonePassword() {
+        return standalonePassword;
+    }
+
+    public Integer getStandaloneDatabase() {
+        return standaloneDatabase;
+    }
+
+    public String getSentinelMasterName() {
+        return sentinelMasterName;
+    }
+
+    public String[] getSentinelHosts() {
+        return sentinelHosts;
+    }
+
+    public String getSentinelPassword() {
+        return sentinelPassword;
+    }
+
+    public Integer getSentinelDatabase() {
+        return sentinelDatabase;
+    }
+
+    public String[] getClusterNodes() {
+        return clusterNodes;
+    }
+
+    public String getClusterPassword() {
+        return clusterPassword;
+    }
+
+    public Integer getTimeout() {
+        return timeout;
+    }
+
+    public Boolean getAutoPipelining() {
+        return autoPipelining;
+    }
+
+    public Integer getAutoPipeliningMaxBatchSize() {
+        return autoPipeliningMaxBatchSize;
+    }
+
+    // getter end
+
+
+    public static class Builder {
+        private ConnectionMode connectionMode;
+
+        private String standaloneHost = "127.0.0.1";
+
+        private Integer standalonePort = 6379;
+
+        private String standalonePassword;
+
+        private Integer standaloneDatabase = 0;
+
+        private String sentinelMasterName;
+
+        private String[] sentinelHosts;
+
+        private String sentinelPassword;
+
+        private Integer sentinelDatabase = 0;
+
+        private String[] clusterNodes;
+
+        private String clusterPassword;
+
+        private Integer timeout = 2000;
+
+        private Boolean autoPipelining = true;
+
+        private Integer autoPipeliningMaxBatchSize = 64;
+
+        private Builder() {
+        }
+
+        public static Builder newBuilder() {
+            return new Builder();
+        }
+
+        public Builder connectionMode(ConnectionMode connectionMode) {
+            this.connectionMode = connectionMode;
+            return this;
+        }
+
+        public Builder standaloneHost(String standaloneHost) {
+            this.standaloneHost = standaloneHost;
+            return this;
+        }
+
+        public Builder standalonePort(Integer standalonePort) {
+            this.standalonePort = standalonePort;
+            return this;
+        }
+
+        public Builder standalonePassword(String standalonePassword) {
+            this.standalonePassword = standalonePassword;
+            return this;
+        }
+
+        public Builder standaloneDatabase(Integer standaloneDatabase) {
+            this.standaloneDatabase = standaloneDatabase;
+            return this;
+        }
+
+        public Builder sentinelMasterName(String sentinelMasterName) {
+            this.sentinelMasterName = sentinelMasterName;
+            return this;
+        }
+
+        public Builder sentinelHosts(String[] sentinelHosts) {
+            this.sentinelHosts = sentinelHosts;
+            return this;
+        }
+
+        public Builder sentinelPassword(String sentinelPassword) {
+            this.sentinelPassword = sentinelPassword;
+            return this;
+        }
+
+        public Builder sentinelDatabase(Integer sentinelDatabase) {
+            this.sentinelDatabase = sentinelDatabase;
+            return this;
+        }
+
+        public Builder clusterNodes(String[] clusterNodes) {
+            this.clusterNodes = clusterNodes;
+            return this;
+        }
+
+        public Builder clusterPassword(String clusterPassword) {
+            this.clusterPassword = clusterPassword;
+            return this;
+        }
+
+        public Builder timeout(Integer timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        public Builder autoPipelining(Boolean autoPipelining) {
+            this.autoPipelining = autoPipelining;
+            return this;
+        }
+
+        public Builder autoPipeliningMaxBatchSize(Integer autoPipeliningMaxBatchSize) {
+            this.autoPipeliningMaxBatchSize = autoPipeliningMaxBatchSize;
+            return this;
+        }
+
+        public LettuceConfiguration build() {
+            if (timeout == null || timeout <= 0) {
+                throw new IllegalArgumentException("timeout must be positive");
+            }
+            if (Boolean.TRUE.equals(autoPipelining) && (autoPipeliningMaxBatchSize == null || autoPipeliningMaxBatchSize <= 0)) {
+                throw new IllegalArgumentException("auto pipelining max batch size must be positive");
+            }
+            LettuceConfiguration configuration = new LettuceConfiguration();
+            configuration.connectionMode = connectionMode;
+            configuration.standaloneHost = standaloneHost;
+            configuration.standalonePort = standalonePort;
+            configuration.standalonePassword = standalonePassword;
+            configuration.standaloneDatabase = standaloneDatabase;
+            configuration.sentinelMasterName = sentinelMasterName;
+            configuration.sentinelHosts = sentinelHosts;
+            configuration.sentinelPassword = sentinelPassword;
+            configuration.sentinelDatabase = sentinelDatabase;
+            configuration.clusterNodes = clusterNodes;
+            configuration.clusterPassword = clusterPassword;
+            configuration.timeout = timeout;
+            configuration.autoPipelining = autoPipelining;
+            configuration.autoPipeliningMaxBatchSize = autoPipeliningMaxBatchSize;
+            return configuration;
+        }
+    }
+
+    public static enum ConnectionMode {
+        STANDALONE, CLUSTER, SENTINEL
+    }
+
+}
@@ -0,0 +1,472 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator.redis.lettuce;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import org.cache.keeper.core.async.AsyncSupport;
+import org.cache.keeper.core.cacheoperator.redis.RedisClient;
+import org.cache.keeper.core.cacheoperator.redis.RedisConfiguration;
+import org.cache.keeper.core.cacheoperator.redis.SharedResourceRegistry;
+
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * redis client Lettuce impl
+ * all threads share one multiplexed connection (one per node in cluster mode), no pool is needed
+ */
+public class LettuceImpl<K, V> implements RedisClient<K, V> {
+
+    /**
+     * type of the RESP3 push message of client side tracking
+     */
+    private static final String TRACKING_INVALIDATE_TYPE = "invalidate";
+
+    /**
+     * the command to the new cluster node may be dispatched after the flush, flush it periodically
+     */
+    private static final long CLUSTER_FLUSH_INTERVAL_MS = 10;
+
+    /**
+     * marker of the pipelined script result which need to be executed again by the script
+     */
+    private static final Object NO_SCRIPT = new Object();
+
+    public LettuceImpl() {}
+
+    private LettuceConfiguration config = null;
+
+    private AbstractRedisClient client = null;
+
+    /**
+     * binary connection, the string command is encoded by UTF-8
+     */
+    private StatefulConnection<byte[], byte[]> connection = null;
+
+    private RedisClusterAsyncCommands<byte[], byte[]> commands = null;
+
+    /**
+     * null when auto pipelining disabled
+     */
+    private AutoFlusher autoFlusher = null;
+
+    @Override
+    public void initClient(RedisConfiguration redisConfiguration) {
+        if (!(redisConfiguration instanceof LettuceConfiguration lettuceConfiguration)) {
+            throw new IllegalArgumentException("redis configuration is not LettuceConfiguration");
+        }
+        if (lettuceConfiguration.getConnectionMode() == null) {
+            throw new IllegalArgumentException("connection mode is not set");
+        }
+        close();
+        // the connection is thread safe, the clients of the same configuration share one connection and its pipeline
+        LettuceResource resource = SharedResourceRegistry.getInstance()
+                .acquire(lettuceConfiguration, () -> createResource(lettuceConfiguration), LettuceResource::close);
+        this.config = lettuceConfiguration;
+        this.client = resource.client();
+        this.connection = resource.connection();
+        this.commands = resource.commands();
+        this.autoFlusher = resource.autoFlusher();
+    }
+
+    private static LettuceResource createResource(LettuceConfiguration lettuceConfiguration) {
+        Duration timeout = Duration.ofMillis(lettuceConfiguration.getTimeout());
+        switch (lettuceConfiguration.getConnectionMode()) {
+            case STANDALONE -> {
+                RedisURI.Builder uri = RedisURI.Builder
+                        .redis(lettuceConfiguration.getStandaloneHost(), lettuceConfiguration.getStandalonePort())
+                        .withDatabase(lettuceConfiguration.getStandaloneDatabase())
+                        .withTimeout(timeout);
+                if (lettuceConfiguration.getStandalonePassword() != null) {
+                    uri.withPassword(lettuceConfiguration.getStandalonePassword().toCharArray());
+                }
+                return connectStandalone(io.lettuce.core.RedisClient.create(uri.build()), lettuceConfiguration);
+            }
+            case SENTINEL -> {
+                RedisURI.Builder uri = RedisURI.builder()
+                        .withSentinelMasterId(lettuceConfiguration.getSentinelMasterName())
+                        .withDatabase(lettuceConfiguration.getSentinelDatabase())
+                        .withTimeout(timeout);
+                for (String sentinelHost : lettuceConfiguration.getSentinelHosts()) {
+                    int separator = sentinelHost.lastIndexOf(':');
+                    uri.withSentinel(sentinelHost.substring(0, separator), Integer.parseInt(sentinelHost.substring(separator + 1)));
+                }
+                if (lettuceConfiguration.getSentinelPassword() != null) {
+                    uri.withPassword(lettuceConfiguration.getSentinelPassword().toCharArray());
+                }
+                return connectStandalone(io.lettuce.core.RedisClient.create(uri.build()), lettuceConfiguration);
+            }
+            case CLUSTER -> {
+                List<RedisURI> nodes = new ArrayList<>();
+                for (String clusterNode : lettuceConfiguration.getClusterNodes()) {
+                    int separator = clusterNode.lastIndexOf(':');
+                    RedisURI.Builder uri = RedisURI.Builder
+                            .redis(clusterNode.substring(0, separator), Integer.parseInt(clusterNode.substring(separator + 1)))
+                            .withTimeout(timeout);
+                    if (lettuceConfiguration.getClusterPassword() != null) {
+                        uri.withPassword(lettuceConfiguration.getClusterPassword().toCharArray());
+                    }
+                    nodes.add(uri.build());
+                }
+                RedisClusterClient clusterClient = RedisClusterClient.create(nodes);
+                StatefulRedisClusterConnection<byte[], byte[]> clusterConnection = clusterClient.connect(ByteArrayCodec.INSTANCE);
+                return withAutoPipelining(new LettuceResource(clusterClient, clusterConnection, clusterConnection.async(), null, null),
+                        lettuceConfiguration);
+            }
+            default -> throw new IllegalArgumentException("Unsupported connection mode: " + lettuceConfiguration.getConnectionMode());
+        }
+    }
+
+    private static LettuceResource connectStandalone(io.lettuce.core.RedisClient redisClient, LettuceConfiguration lettuceConfiguration) {
+        StatefulRedisConnection<byte[], byte[]> standaloneConnection = redisClient.connect(ByteArrayCodec.INSTANCE);
+        return withAutoPipelining(new LettuceResource(redisClient, standaloneConnection, standaloneConnection.async(), null, null),
+                lettuceConfiguration);
+    }
+
+    private static LettuceResource withAutoPipelining(LettuceResource resource, LettuceConfiguration lettuceConfiguration) {
+        if (!Boolean.TRUE.equals(lettuceConfiguration.getAutoPipelining())) {
+            return resource;
+        }
+        AbstractRedisClient client = resource.client();
+        StatefulConnection<byte[], byte[]> connection = resource.connection();
+        connection.setAutoFlushCommands(false);
+        AutoFlusher autoFlusher = new AutoFlusher(connection::flushCommands, lettuceConfiguration.getAutoPipeliningMaxBatchSize(),
+                client.getResources().eventExecutorGroup());
+        ScheduledFuture<?> flushTask = null;
+        if (lettuceConfiguration.getConnectionMode() == LettuceConfiguration.ConnectionMode.CLUSTER) {
+            flushTask = client.getResources().eventExecutorGroup().scheduleWithFixedDelay(() -> {
+                if (connection.isOpen()) {
+                    connection.flushCommands();
+                }
+            }, CLUSTER_FLUSH_INTERVAL_MS, CLUSTER_FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+        return new LettuceResource(client, connection, resource.commands(), autoFlusher, flushTask);
+    }
+
+    /**
+     * release the connection, the last client of the configuration close it
+     */
+    @Override
+    public void close() {
+        if (config == null) {
+            return;
+        }
+        SharedResourceRegistry.getInstance().release(config);
+        config = null;
+        client = null;
+        connection = null;
+        commands = null;
+        autoFlusher = null;
+    }
+
+    /**
+     * the client and the connection shared by the clients of the same configuration
+     * flushTask: the periodic flush of the cluster auto pipelining, null when not scheduled
+     */
+    private record LettuceResource(AbstractRedisClient client, StatefulConnection<byte[], byte[]> connection,
+                                   RedisClusterAsyncCommands<byte[], byte[]> commands, AutoFlusher autoFlusher,
+                                   ScheduledFuture<?> flushTask) {
+        void close() {
+            if (flushTask != null) {
+                flushTask.cancel(false);
+            }
+            connection.close();
+            client.shutdown();
+        }
+    }
+
+    /**
+     * dispatch the command to the shared connection
+     * @param command command
+     * @return future of the command
+     */
+    private <T> RedisFuture<T> dispatch(Function<RedisClusterAsyncCommands<byte[], byte[]>, RedisFuture<T>> command) {
+        RedisFuture<T> future = command.apply(commands);
+        if (autoFlusher != null) {
+            autoFlusher.dispatched();
+        }
+        return future;
+    }
+
+    private <T> T await(RedisFuture<T> future) {
+        return LettuceFutures.awaitOrCancel(future, config.getTimeout(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        return (V) decode(get(encode(key.toString())));
+    }
+
+    @Override
+    public byte[] get(byte[] key) {
+        return await(dispatch(c -> c.get(key)));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<V> mGet(List<K> keys) {
+        List<V> values = new ArrayList<>(keys.size());
+        for (byte[] value : mGet(keys.stream().map(key -> encode(key.toString())).toArray(byte[][]::new))) {
+            values.add((V) decode(value));
+        }
+        return values;
+    }
+
+    @Override
+    public List<byte[]> mGet(byte[][] keys) {
+        if (keys.length == 0) {
+            return new ArrayList<>();
+        }
+        // the cluster commands split the keys by slot
+        List<KeyValue<byte[], byte[]>> values = await(dispatch(c -> c.mget(keys)));
+        List<byte[]> result = new ArrayList<>(values.size());
+        for (KeyValue<byte[], byte[]> value : values) {
+            result.add(value.getValueOrElse(null));
+        }
+        return result;
+    }
+
+    @Override
+    public void set(K key, V value) {
+        await(dispatch(c -> c.set(encode(key.toString()), encode(value.toString()))));
+    }
+
+    @Override
+    public String loadLuaScript(String luaScript) {
+        return await(dispatch(c -> c.scriptLoad(luaScript)));
+    }
+
+    @Override
+    public Object evalLua(String luaScript, byte[][] keys, byte[][] args) {
+        return await(dispatchEval(luaScript, keys, args));
+    }
+
+    @Override
+    public Object evalSha(String luaSha, byte[][] keys, byte[][] args) {
+        return await(dispatchEvalSha(luaSha, keys, args));
+    }
+
+    @Override
+    public Object eval(String luaScript, String luaSha, byte[][] keys, byte[][] args) {
+        if (luaSha == null || luaSha.isEmpty()) {
+            return evalLua(luaScript, keys, args);
+        }
+        try {
+            return evalSha(luaSha, keys, args);
+        } catch (RedisNoScriptException e) {
+            // the script cache of the server is flushed or failover
+            return evalLua(luaScript, keys, args);
+        }
+    }
+
+    @Override
+    public List<Object> evalPipelined(String luaScript, String luaSha, List<byte[][]> keys, List<byte[][]> args) {
+        boolean useSha = luaSha != null && !luaSha.isEmpty();
+        // dispatch all before wait, they are flushed together
+        List<RedisFuture<Object>> futures = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            futures.add(useSha
+                    ? dispatchEvalSha(luaSha, keys.get(i), args.get(i))
+                    : dispatchEval(luaScript, keys.get(i), args.get(i)));
+        }
+        List<Object> results = new ArrayList<>(futures.size());
+        for (RedisFuture<Object> future : futures) {
+            try {
+                results.add(await(future));
+            } catch (RedisNoScriptException e) {
+                results.add(NO_SCRIPT);
+            }
+        }
+        // the script cache of the server is flushed or failover
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == NO_SCRIPT) {
+                results.set(i, evalLua(luaScript, keys.get(i), args.get(i)));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public CompletableFuture<Object> evalAsync(String luaScript, String luaSha, byte[][] keys, byte[][] args) {
+        if (luaSha == null || luaSha.isEmpty()) {
+            return dispatchEval(luaScript, keys, args).toCompletableFuture();
+        }
+        return dispatchEvalSha(luaSha, keys, args).toCompletableFuture().exceptionallyCompose(error -> {
+            if (AsyncSupport.unwrap(error) instanceof RedisNoScriptException) {
+                return dispatchEval(luaScript, keys, args).toCompletableFuture();
+            }
+            return CompletableFuture.failedFuture(error);
+        });
+    }
+
+    private RedisFuture<Object> dispatchEval(String luaScript, byte[][] keys, byte[][] args) {
+        return dispatch(c -> c.dispatch(CommandType.EVAL, new ScriptOutput(), scriptArgs(luaScript, keys, args)));
+    }
+
+    private RedisFuture<Object> dispatchEvalSha(String luaSha, byte[][] keys, byte[][] args) {
+        return dispatch(c -> c.dispatch(CommandType.EVALSHA, new ScriptOutput(), scriptArgs(luaSha, keys, args)));
+    }
+
+    /**
+     * the keys are marked in the args, the cluster commands route the script by the first key
+     */
+    private static CommandArgs<byte[], byte[]> scriptArgs(String script, byte[][] keys, byte[][] args) {
+        return new CommandArgs<>(ByteArrayCodec.INSTANCE).add(script).add(keys.length).addKeys(keys).addValues(args);
+    }
+
+    private static byte[] encode(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String decode(byte[] value) {
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void delete(byte[]... keys) {
+        // the cluster commands split the keys by slot
+        await(dispatch(c -> c.del(keys)));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(byte[]... keys) {
+        return dispatch(c -> c.del(keys)).toCompletableFuture().thenApply(count -> null);
+    }
+
+    @Override
+    public void scan(String pattern, int count, Consumer<List<byte[]>> batchConsumer) {
+        // the cluster commands walk the master nodes one by one with the same cursor
+        ScanArgs args = ScanArgs.Builder.matches(pattern).limit(count);
+        KeyScanCursor<byte[]> cursor = await(dispatch(c -> c.scan(args)));
+        batchConsumer.accept(cursor.getKeys());
+        while (!cursor.isFinished()) {
+            KeyScanCursor<byte[]> previous = cursor;
+            cursor = await(dispatch(c -> c.scan(previous, args)));
+            batchConsumer.accept(cursor.getKeys());
+        }
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        await(dispatch(c -> c.publish(encode(channel), encode(message))));
+    }
+
+    @Override
+    public AutoCloseable subscribe(String channel, Consumer<String> listener, Runnable onReconnect) {
+        StatefulRedisPubSubConnection<String, String> pubSubConnection = client instanceof RedisClusterClient clusterClient
+                ? clusterClient.connectPubSub()
+                : ((io.lettuce.core.RedisClient) client).connectPubSub();
+        AtomicBoolean subscribed = new AtomicBoolean(false);
+        pubSubConnection.addListener(new RedisPubSubAdapter<>() {
+            @Override
+            public void message(String messageChannel, String message) {
+                if (channel.equals(messageChannel)) {
+                    listener.accept(message);
+                }
+            }
+
+            @Override
+            public void subscribed(String subscribedChannel, long count) {
+                // lettuce subscribe again after the connection is reconnected
+                if (!subscribed.compareAndSet(false, true) && onReconnect != null) {
+                    onReconnect.run();
+                }
+            }
+        });
+        pubSubConnection.sync().subscribe(channel);
+        return pubSubConnection::close;
+    }
+
+    @Override
+    public AutoCloseable trackInvalidation(String keyPrefix, Consumer<List<String>> listener, Runnable onInvalidateAll) {
+        if (!(client instanceof io.lettuce.core.RedisClient redisClient)) {
+            // every master need its own tracking connection, not support now
+            return null;
+        }
+        TrackingArgs trackingArgs = TrackingArgs.Builder.enabled().bcast();
+        if (keyPrefix != null && !keyPrefix.isEmpty()) {
+            trackingArgs.prefixes(keyPrefix);
+        }
+        // the invalidation message is pushed to the tracking connection itself (RESP3)
+        StatefulRedisConnection<String, String> trackingConnection = redisClient.connect();
+        trackingConnection.addListener(message -> {
+            if (!TRACKING_INVALIDATE_TYPE.equals(message.getType())) {
+                return;
+            }
+            List<Object> content = message.getContent(buffer -> StandardCharsets.ISO_8859_1.decode(buffer).toString());
+            if (content.size() > 1 && content.get(1) instanceof List<?> keys) {
+                listener.accept(keys.stream().map(Object::toString).toList());
+            } else {
+                // null keys means the redis is flushed
+                onInvalidateAll.run();
+            }
+        });
+        try {
+            trackingConnection.sync().clientTracking(trackingArgs);
+        } catch (RedisCommandExecutionException e) {
+            // the redis is older than 6.0
+            trackingConnection.close();
+            return null;
+        }
+        RedisConnectionStateListener reconnectListener = new RedisConnectionStateListener() {
+            @Override
+            public void onRedisConnected(RedisChannelHandler<?, ?> reconnected, SocketAddress socketAddress) {
+                if (reconnected == trackingConnection) {
+                    // the tracking is lost with the old connection, the invalidation during the broken is lost too
+                    trackingConnection.async().clientTracking(trackingArgs);
+                    onInvalidateAll.run();
+                }
+            }
+        };
+        redisClient.addListener(reconnectListener);
+        return () -> {
+            redisClient.removeListener(reconnectListener);
+            trackingConnection.close();
+        };
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator.redis.lettuce;
+
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.output.CommandOutput;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * script result in the same shape as jedis binary commands
+ * integer to Long, bulk to byte[], status to String, array to List, nil and false to null
+ */
+class ScriptOutput extends CommandOutput<byte[], byte[], Object> {
+
+    /**
+     * the arrays which are not filled, the innermost first
+     */
+    private final Deque<Frame> frames = new ArrayDeque<>();
+
+    ScriptOutput() {
+        super(ByteArrayCodec.INSTANCE, null);
+    }
+
+    @Override
+    public void set(ByteBuffer bytes) {
+        add(bytes == null ? null : codec.decodeValue(bytes));
+    }
+
+    @Override
+    public void setSingle(ByteBuffer bytes) {
+        add(bytes == null ? null : StringCodec.UTF8.decodeValue(bytes));
+    }
+
+    @Override
+    public void set(long integer) {
+        add(integer);
+    }
+
+    @Override
+    public void set(double number) {
+        add(number);
+    }
+
+    @Override
+    public void set(boolean value) {
+        // the lua true is integer 1, false is nil in RESP2
+        add(value ? 1L : null);
+    }
+
+    @Override
+    public void multi(int count) {
+        List<Object> array = new ArrayList<>(Math.max(count, 0));
+        add(array);
+        if (count > 0) {
+            frames.push(new Frame(array, count));
+        }
+    }
+
+    private void add(Object value) {
+        Frame frame = frames.peek();
+        if (frame == null) {
+            output = value;
+            return;
+        }
+        frame.array.add(value);
+        while (frame != null && frame.array.size() == frame.count) {
+            frames.pop();
+            frame = frames.peek();
+        }
+    }
+
+    private record Frame(List<Object> array, int count) {
+    }
+}
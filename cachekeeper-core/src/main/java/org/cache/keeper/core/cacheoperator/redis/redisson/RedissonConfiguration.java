@@ -0,0 +1,60 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator.redis.redisson;
+
+import org.cache.keeper.core.cacheoperator.redis.RedisConfiguration;
+import org.redisson.api.RedissonClient;
+
+public class RedissonConfiguration implements RedisConfiguration {
+
+    private RedissonConfiguration(){}
+
+    /**
+     * the redisson client of the application, its connections are reused
+     * the connection mode (single, sentinel, cluster...) is decided by the config of it
+     */
+    private RedissonClient redissonClient;
+
+    // getter start
+    public RedissonClient getRedissonClient() {
+        return redissonClient;
+    }
+    // getter end
+
+    public static class Builder {
+        private RedissonClient redissonClient;
+
+        private Builder() {
+        }
+
+        public static Builder newBuilder() {
+            return new Builder();
+        }
+
+        public Builder redissonClient(RedissonClient redissonClient) {
+            this.redissonClient = redissonClient;
+            return this;
+        }
+
+        public RedissonConfiguration build() {
+            RedissonConfiguration configuration = new RedissonConfiguration();
+            configuration.redissonClient = redissonClient;
+            return configuration;
+        }
+    }
+
+}
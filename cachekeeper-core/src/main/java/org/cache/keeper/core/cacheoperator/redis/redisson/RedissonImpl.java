@@ -0,0 +1,303 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.cacheoperator.redis.redisson;
+
+import org.cache.keeper.core.async.AsyncSupport;
+import org.cache.keeper.core.cacheoperator.redis.RedisClient;
+import org.cache.keeper.core.cacheoperator.redis.RedisConfiguration;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RScript;
+import org.redisson.api.RScriptAsync;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.StatusListener;
+import org.redisson.api.options.KeysScanOptions;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.StringCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * redis client Redisson impl
+ * it reuses the redisson client of the application, so no more connection is created
+ */
+public class RedissonImpl<K, V> implements RedisClient<K, V> {
+
+    /**
+     * marker of the batched script result which need to be executed again by the script
+     */
+    private static final Object NO_SCRIPT = new Object();
+
+    public RedissonImpl() {}
+
+    private RedissonClient redisson = null;
+
+    /**
+     * binary script
+     */
+    private RScript script = null;
+
+    @Override
+    public void initClient(RedisConfiguration redisConfiguration) {
+        if (!(redisConfiguration instanceof RedissonConfiguration redissonConfiguration)) {
+            throw new IllegalArgumentException("redis configuration is not RedissonConfiguration");
+        }
+        if (redissonConfiguration.getRedissonClient() == null) {
+            throw new IllegalArgumentException("redisson client is not set");
+        }
+        // the client is owned by the application, it is not shutdown here
+        this.redisson = redissonConfiguration.getRedissonClient();
+        this.script = redisson.getScript(ByteArrayCodec.INSTANCE);
+    }
+
+    /**
+     * the client is owned by the application, nothing to release
+     */
+    @Override
+    public void close() {
+        this.redisson = null;
+        this.script = null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        return (V) redisson.getBucket(key.toString(), StringCodec.INSTANCE).get();
+    }
+
+    @Override
+    public byte[] get(byte[] key) {
+        return (byte[]) redisson.getBucket(stringKey(key), ByteArrayCodec.INSTANCE).get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<V> mGet(List<K> keys) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // redisson split the keys by slot in cluster mode, the not exist key is not in the map
+        Map<String, Object> values = redisson.getBuckets(StringCodec.INSTANCE)
+                .get(keys.stream().map(Object::toString).toArray(String[]::new));
+        List<V> result = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            result.add((V) values.get(key.toString()));
+        }
+        return result;
+    }
+
+    @Override
+    public List<byte[]> mGet(byte[][] keys) {
+        if (keys.length == 0) {
+            return new ArrayList<>();
+        }
+        String[] stringKeys = Arrays.stream(keys).map(RedissonImpl::stringKey).toArray(String[]::new);
+        Map<String, Object> values = redisson.getBuckets(ByteArrayCodec.INSTANCE).get(stringKeys);
+        List<byte[]> result = new ArrayList<>(keys.length);
+        for (String key : stringKeys) {
+            result.add((byte[]) values.get(key));
+        }
+        return result;
+    }
+
+    @Override
+    public void set(K key, V value) {
+        redisson.getBucket(key.toString(), StringCodec.INSTANCE).set(value.toString());
+    }
+
+    @Override
+    public String loadLuaScript(String luaScript) {
+        // loaded to all masters
+        return script.scriptLoad(luaScript);
+    }
+
+    @Override
+    public Object evalLua(String luaScript, byte[][] keys, byte[][] args) {
+        return script.eval(RScript.Mode.READ_WRITE, luaScript, RScript.ReturnType.MULTI, scriptKeys(keys), (Object[]) args);
+    }
+
+    @Override
+    public Object evalSha(String luaSha, byte[][] keys, byte[][] args) {
+        return script.evalSha(RScript.Mode.READ_WRITE, luaSha, RScript.ReturnType.MULTI, scriptKeys(keys), (Object[]) args);
+    }
+
+    @Override
+    public Object eval(String luaScript, String luaSha, byte[][] keys, byte[][] args) {
+        if (luaSha == null || luaSha.isEmpty()) {
+            return evalLua(luaScript, keys, args);
+        }
+        try {
+            return evalSha(luaSha, keys, args);
+        } catch (RedisException e) {
+            if (!isNoScript(e)) {
+                throw e;
+            }
+            // the script cache of the server is flushed or failover
+            return evalLua(luaScript, keys, args);
+        }
+    }
+
+    @Override
+    public List<Object> evalPipelined(String luaScript, String luaSha, List<byte[][]> keys, List<byte[][]> args) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        boolean useSha = luaSha != null && !luaSha.isEmpty();
+        // the batch is sent as one pipeline per node
+        RBatch batch = redisson.createBatch(BatchOptions.defaults());
+        RScriptAsync batchScript = batch.getScript(ByteArrayCodec.INSTANCE);
+        List<RFuture<Object>> futures = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            futures.add(useSha
+                    ? batchScript.evalShaAsync(RScript.Mode.READ_WRITE, luaSha, RScript.ReturnType.MULTI, scriptKeys(keys.get(i)), (Object[]) args.get(i))
+                    : batchScript.evalAsync(RScript.Mode.READ_WRITE, luaScript, RScript.ReturnType.MULTI, scriptKeys(keys.get(i)), (Object[]) args.get(i)));
+        }
+        try {
+            batch.execute();
+        } catch (RedisException e) {
+            // the result of each execution is checked below
+        }
+        List<Object> results = new ArrayList<>(futures.size());
+        for (RFuture<Object> future : futures) {
+            try {
+                results.add(future.toCompletableFuture().join());
+            } catch (Exception e) {
+                if (!isNoScript(e)) {
+                    throw e;
+                }
+                results.add(NO_SCRIPT);
+            }
+        }
+        // the script cache of the server is flushed or failover
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == NO_SCRIPT) {
+                results.set(i, evalLua(luaScript, keys.get(i), args.get(i)));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public CompletableFuture<Object> evalAsync(String luaScript, String luaSha, byte[][] keys, byte[][] args) {
+        if (luaSha == null || luaSha.isEmpty()) {
+            return evalLuaAsync(luaScript, keys, args);
+        }
+        return script.<Object>evalShaAsync(RScript.Mode.READ_WRITE, luaSha, RScript.ReturnType.MULTI, scriptKeys(keys), (Object[]) args)
+                .toCompletableFuture()
+                .exceptionallyCompose(error -> isNoScript(error)
+                        ? evalLuaAsync(luaScript, keys, args)
+                        : CompletableFuture.failedFuture(error));
+    }
+
+    private CompletableFuture<Object> evalLuaAsync(String luaScript, byte[][] keys, byte[][] args) {
+        return script.<Object>evalAsync(RScript.Mode.READ_WRITE, luaScript, RScript.ReturnType.MULTI, scriptKeys(keys), (Object[]) args)
+                .toCompletableFuture();
+    }
+
+    /**
+     * the script is routed by the first key in cluster mode
+     */
+    private static List<Object> scriptKeys(byte[][] keys) {
+        return Arrays.asList((Object[]) keys);
+    }
+
+    /**
+     * the name of the redisson object and the key of the scan are the UTF-8 string,
+     * the key which is not UTF-8 is rejected by supportBinaryKey when the serializer is set
+     */
+    private static String stringKey(byte[] key) {
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isNoScript(Throwable throwable) {
+        Throwable cause = AsyncSupport.unwrap(throwable);
+        return cause instanceof RedisException && cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT");
+    }
+
+    @Override
+    public boolean supportBinaryKey() {
+        return false;
+    }
+
+    @Override
+    public void delete(byte[]... keys) {
+        // redisson split the keys by slot in cluster mode
+        redisson.getKeys().delete(Arrays.stream(keys).map(RedissonImpl::stringKey).toArray(String[]::new));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAsync(byte[]... keys) {
+        return redisson.getKeys().deleteAsync(Arrays.stream(keys).map(RedissonImpl::stringKey).toArray(String[]::new))
+                .toCompletableFuture().thenApply(count -> null);
+    }
+
+    @Override
+    public void scan(String pattern, int count, Consumer<List<byte[]>> batchConsumer) {
+        // the iterable sends the next SCAN when the keys of the last one are consumed, all master nodes in cluster mode
+        List<byte[]> batch = new ArrayList<>(count);
+        for (String key : redisson.getKeys().getKeys(KeysScanOptions.defaults().pattern(pattern).chunkSize(count))) {
+            batch.add(key.getBytes(StandardCharsets.UTF_8));
+            if (batch.size() >= count) {
+                batchConsumer.accept(batch);
+                batch = new ArrayList<>(count);
+            }
+        }
+        batchConsumer.accept(batch);
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        redisson.getTopic(channel, StringCodec.INSTANCE).publish(message);
+    }
+
+    @Override
+    public AutoCloseable subscribe(String channel, Consumer<String> listener, Runnable onReconnect) {
+        RTopic topic = redisson.getTopic(channel, StringCodec.INSTANCE);
+        AtomicBoolean subscribed = new AtomicBoolean(false);
+        int statusListenerId = topic.addListener(new StatusListener() {
+            @Override
+            public void onSubscribe(String subscribedChannel) {
+                // redisson subscribe again after the connection is reconnected
+                if (!subscribed.compareAndSet(false, true) && onReconnect != null) {
+                    onReconnect.run();
+                }
+            }
+
+            @Override
+            public void onUnsubscribe(String unsubscribedChannel) {
+            }
+        });
+        int messageListenerId = topic.addListener(String.class, (messageChannel, message) -> listener.accept(message));
+        return () -> topic.removeListener(messageListenerId, statusListenerId);
+    }
+
+    @Override
+    public AutoCloseable trackInvalidation(String keyPrefix, Consumer<List<String>> listener, Runnable onInvalidateAll) {
+        // redisson only track the single object, the broadcast tracking of the key prefix is not support
+        return null;
+    }
+}
@@ -0,0 +1,434 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * compact binary serializer
+ * each value is one type tag byte and the payload, the integer is zigzag varint, the string is varint length and UTF-8
+ * support the primitive wrapper, String, byte[], BigInteger, BigDecimal, UUID, Instant, Enum, List, Set, Map and the nest of them,
+ * the other Serializable object fallback to java serialization only if it is enabled by the builder with an allowlist filter,
+ * otherwise it is rejected, the java deserialization of the untrusted bytes in the redis can run any code
+ * the type tag is always less than 0x80, so it never conflict with the header byte of the cache keeper
+ */
+public class CompactBinarySerializer<T> implements ISerializer<T> {
+
+    private static final byte NULL = 0x00;
+    private static final byte TRUE = 0x01;
+    private static final byte FALSE = 0x02;
+    private static final byte INT = 0x03;
+    private static final byte LONG = 0x04;
+    private static final byte DOUBLE = 0x05;
+    private static final byte FLOAT = 0x06;
+    private static final byte SHORT = 0x07;
+    private static final byte BYTE = 0x08;
+    private static final byte CHAR = 0x09;
+    private static final byte STRING = 0x0A;
+    private static final byte BYTES = 0x0B;
+    private static final byte LIST = 0x0C;
+    private static final byte SET = 0x0D;
+    private static final byte MAP = 0x0E;
+    private static final byte BIG_INTEGER = 0x0F;
+    private static final byte BIG_DECIMAL = 0x10;
+    private static final byte UUID_TYPE = 0x11;
+    private static final byte INSTANT = 0x12;
+    private static final byte ENUM = 0x13;
+    private static final byte JAVA = 0x7F;
+
+    /**
+     * filter of the java deserialization, null means the java serialization fallback is disabled
+     */
+    private final ObjectInputFilter javaSerializationFilter;
+
+    public CompactBinarySerializer() {
+        this(null);
+    }
+
+    private CompactBinarySerializer(ObjectInputFilter javaSerializationFilter) {
+        this.javaSerializationFilter = javaSerializationFilter;
+    }
+
+    @Override
+    public byte[] serialize(T object) {
+        Output output = new Output();
+        write(output, object);
+        return output.toByteArray();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T deserialize(ByteBuffer buffer) {
+        return (T) read(buffer);
+    }
+
+    private void write(Output output, Object object) {
+        switch (object) {
+            case null -> output.writeByte(NULL);
+            case Boolean value -> output.writeByte(value ? TRUE : FALSE);
+            case Integer value -> {
+                output.writeByte(INT);
+                output.writeVarLong(zigzag(value));
+            }
+            case Long value -> {
+                output.writeByte(LONG);
+                output.writeVarLong(zigzag(value));
+            }
+            case Double value -> {
+                output.writeByte(DOUBLE);
+                output.writeLong(Double.doubleToLongBits(value));
+            }
+            case Float value -> {
+                output.writeByte(FLOAT);
+                output.writeInt(Float.floatToIntBits(value));
+            }
+            case Short value -> {
+                output.writeByte(SHORT);
+                output.writeVarLong(zigzag(value));
+            }
+            case Byte value -> {
+                output.writeByte(BYTE);
+                output.writeByte(value);
+            }
+            case Character value -> {
+                output.writeByte(CHAR);
+                output.writeVarLong(value);
+            }
+            case String value -> {
+                output.writeByte(STRING);
+                output.writeSized(value.getBytes(StandardCharsets.UTF_8));
+            }
+            case byte[] value -> {
+                output.writeByte(BYTES);
+                output.writeSized(value);
+            }
+            case List<?> value -> writeCollection(output, LIST, value);
+            case Set<?> value -> writeCollection(output, SET, value);
+            case Map<?, ?> value -> {
+                output.writeByte(MAP);
+                output.writeVarLong(value.size());
+                for (Map.Entry<?, ?> entry : value.entrySet()) {
+                    write(output, entry.getKey());
+                    write(output, entry.getValue());
+                }
+            }
+            case BigInteger value -> {
+                output.writeByte(BIG_INTEGER);
+                output.writeSized(value.toByteArray());
+            }
+            case BigDecimal value -> {
+                output.writeByte(BIG_DECIMAL);
+                output.writeVarLong(zigzag(value.scale()));
+                output.writeSized(value.unscaledValue().toByteArray());
+            }
+            case UUID value -> {
+                output.writeByte(UUID_TYPE);
+                output.writeLong(value.getMostSignificantBits());
+                output.writeLong(value.getLeastSignificantBits());
+            }
+            case Instant value -> {
+                output.writeByte(INSTANT);
+                output.writeVarLong(zigzag(value.getEpochSecond()));
+                output.writeVarLong(value.getNano());
+            }
+            case Enum<?> value -> {
+                output.writeByte(ENUM);
+                output.writeSized(value.getDeclaringClass().getName().getBytes(StandardCharsets.UTF_8));
+                output.writeSized(value.name().getBytes(StandardCharsets.UTF_8));
+            }
+            case Serializable value when javaSerializationFilter != null -> {
+                output.writeByte(JAVA);
+                output.writeSized(javaSerialize(value));
+            }
+            default -> throw new IllegalArgumentException("not support to serialize type: " + object.getClass().getName());
+        }
+    }
+
+    private void writeCollection(Output output, byte type, Collection<?> collection) {
+        output.writeByte(type);
+        output.writeVarLong(collection.size());
+        for (Object element : collection) {
+            write(output, element);
+        }
+    }
+
+    private Object read(ByteBuffer buffer) {
+        byte type = buffer.get();
+        switch (type) {
+            case NULL -> {
+                return null;
+            }
+            case TRUE -> {
+                return Boolean.TRUE;
+            }
+            case FALSE -> {
+                return Boolean.FALSE;
+            }
+            case INT -> {
+                return (int) unzigzag(readVarLong(buffer));
+            }
+            case LONG -> {
+                return unzigzag(readVarLong(buffer));
+            }
+            case DOUBLE -> {
+                return Double.longBitsToDouble(buffer.getLong());
+            }
+            case FLOAT -> {
+                return Float.intBitsToFloat(buffer.getInt());
+            }
+            case SHORT -> {
+                return (short) unzigzag(readVarLong(buffer));
+            }
+            case BYTE -> {
+                return buffer.get();
+            }
+            case CHAR -> {
+                return (char) readVarLong(buffer);
+            }
+            case STRING -> {
+                return readString(buffer);
+            }
+            case BYTES -> {
+                return readSized(buffer);
+            }
+            case LIST -> {
+                int size = readSize(buffer);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(read(buffer));
+                }
+                return list;
+            }
+            case SET -> {
+                int size = readSize(buffer);
+                Set<Object> set = new LinkedHashSet<>();
+                for (int i = 0; i < size; i++) {
+                    set.add(read(buffer));
+                }
+                return set;
+            }
+            case MAP -> {
+                int size = readSize(buffer);
+                Map<Object, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    map.put(read(buffer), read(buffer));
+                }
+                return map;
+            }
+            case BIG_INTEGER -> {
+                return new BigInteger(readSized(buffer));
+            }
+            case BIG_DECIMAL -> {
+                int scale = (int) unzigzag(readVarLong(buffer));
+                return new BigDecimal(new BigInteger(readSized(buffer)), scale);
+            }
+            case UUID_TYPE -> {
+                return new UUID(buffer.getLong(), buffer.getLong());
+            }
+            case INSTANT -> {
+                long epochSecond = unzigzag(readVarLong(buffer));
+                return Instant.ofEpochSecond(epochSecond, readVarLong(buffer));
+            }
+            case ENUM -> {
+                String className = readString(buffer);
+                return readEnum(className, readString(buffer));
+            }
+            case JAVA -> {
+                if (javaSerializationFilter == null) {
+                    throw new IllegalArgumentException("java serialization is disabled");
+                }
+                return javaDeserialize(readSized(buffer), javaSerializationFilter);
+            }
+            default -> throw new IllegalArgumentException("unknown type tag: " + type);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object readEnum(String className, String name) {
+        try {
+            Class enumClass = Class.forName(className, false, Thread.currentThread().getContextClassLoader());
+            return Enum.valueOf(enumClass, name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("enum class not found: " + className, e);
+        }
+    }
+
+    private static byte[] javaSerialize(Serializable object) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(object);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("java serialize fail: " + object.getClass().getName(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object javaDeserialize(byte[] bytes, ObjectInputFilter filter) {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            input.setObjectInputFilter(filter);
+            return input.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalArgumentException("java deserialize fail", e);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int size = readSize(buffer);
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), size, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + size);
+        } else {
+            byte[] bytes = new byte[size];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    private static byte[] readSized(ByteBuffer buffer) {
+        byte[] bytes = new byte[readSize(buffer)];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static int readSize(ByteBuffer buffer) {
+        long size = readVarLong(buffer);
+        if (size < 0 || size > buffer.remaining()) {
+            throw new IllegalArgumentException("malformed size: " + size);
+        }
+        return (int) size;
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint");
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * growable byte array, not synchronized
+     */
+    private static class Output {
+        private byte[] bytes = new byte[64];
+
+        private int size;
+
+        private void ensure(int length) {
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, size + length));
+            }
+        }
+
+        void writeByte(byte value) {
+            ensure(1);
+            bytes[size++] = value;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeInt(int value) {
+            ensure(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeSized(byte[] value) {
+            writeVarLong(value.length);
+            ensure(value.length);
+            System.arraycopy(value, 0, bytes, size, value.length);
+            size += value.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+
+    public static class Builder {
+        private ObjectInputFilter javaSerializationFilter;
+
+        private Builder() {
+        }
+
+        public static Builder newBuilder() {
+            return new Builder();
+        }
+
+        /**
+         * enable the java serialization fallback, only the class allowed by the filter can be deserialized,
+         * for example ObjectInputFilter.Config.createFilter("com.example.model.*;java.base/*;!*")
+         */
+        public Builder javaSerializationFilter(ObjectInputFilter javaSerializationFilter) {
+            this.javaSerializationFilter = javaSerializationFilter;
+            return this;
+        }
+
+        public <T> CompactBinarySerializer<T> build() {
+            return new CompactBinarySerializer<>(javaSerializationFilter);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * serializer of the cache key or value
+ * the value of the single byte 0xFF and the value start with 0xFE are reserved by the cache keeper, see serialize
+ */
+public interface ISerializer<T> {
+
+    /**
+     * serialize the object
+     * the bytes must not be the single byte 0xFF, it is the tombstone of the null value cached
+     * the bytes must not start with 0xFE, it is the header of the soft expire envelope and the compressed value
+     * @param object not null object
+     * @return bytes
+     */
+    byte[] serialize(T object);
+
+    /**
+     * deserialize the object
+     * @param buffer the remaining bytes of the buffer are the serialized object
+     * @return object
+     */
+    T deserialize(ByteBuffer buffer);
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.codec.compression;
+
+/**
+ * the compression algorithm, the id is saved in the header of the compressed value
+ * so the value written by another algorithm can always be read
+ */
+public enum CompressionAlgorithm {
+
+    /**
+     * LZ4 block format, the fastest, good for the repeat field name of the json or object
+     */
+    LZ4(1, new Lz4Compressor()),
+
+    /**
+     * raw deflate with the fastest level, better ratio but slower than LZ4
+     */
+    DEFLATE(2, new DeflateCompressor()),
+    ;
+
+    private final int id;
+
+    private final ICompressor compressor;
+
+    CompressionAlgorithm(int id, ICompressor compressor) {
+        this.id = id;
+        this.compressor = compressor;
+    }
+
+    // getter start
+    public int getId() {
+        return id;
+    }
+
+    public ICompressor getCompressor() {
+        return compressor;
+    }
+    // getter end
+
+    /**
+     * @param id id in the header
+     * @return algorithm
+     */
+    public static CompressionAlgorithm of(int id) {
+        for (CompressionAlgorithm algorithm : values()) {
+            if (algorithm.id == id) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("unknown compression algorithm id: " + id);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.codec.compression;
+
+/**
+ * config for the value compression
+ */
+public class CompressionConfiguration {
+
+    private CompressionConfiguration() {}
+
+    /**
+     * algorithm of the new written value
+     */
+    private CompressionAlgorithm algorithm = CompressionAlgorithm.LZ4;
+
+    /**
+     * the serialized value shorter than it is written as it is, no header and no compression
+     */
+    private Integer thresholdBytes = 1024;
+
+    /**
+     * the value whose original length in the header is longer than it is rejected before the buffer is allocated
+     */
+    private Integer maxDecompressedBytes = 64 * 1024 * 1024;
+
+    // getter start
+    public CompressionAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public Integer getThresholdBytes() {
+        return thresholdBytes;
+    }
+
+    public Integer getMaxDecompressedBytes() {
+        return maxDecompressedBytes;
+    }
+    // getter end
+
+    public static class Builder {
+        private CompressionAlgorithm algorithm = CompressionAlgorithm.LZ4;
+        private Integer thresholdBytes = 1024;
+        private Integer maxDecompressedBytes = 64 * 1024 * 1024;
+
+        private Builder() {
+        }
+
+        public static Builder newBuilder() {
+            return new Builder();
+        }
+
+        public Builder algorithm(CompressionAlgorithm algorithm) {
+            this.algorithm = algorithm;
+            return this;
+        }
+
+        public Builder thresholdBytes(Integer thresholdBytes) {
+            this.thresholdBytes = thresholdBytes;
+            return this;
+        }
+
+        public Builder maxDecompressedBytes(Integer maxDecompressedBytes) {
+            this.maxDecompressedBytes = maxDecompressedBytes;
+            return this;
+        }
+
+        public CompressionConfiguration build() {
+            if (algorithm == null) {
+                throw new IllegalArgumentException("compression algorithm is null");
+            }
+            if (thresholdBytes == null || thresholdBytes <= 0) {
+                throw new IllegalArgumentException("compression thresholdBytes must be positive");
+            }
+            if (maxDecompressedBytes == null || maxDecompressedBytes <= 0) {
+                throw new IllegalArgumentException("compression maxDecompressedBytes must be positive");
+            }
+            CompressionConfiguration configuration = new CompressionConfiguration();
+            configuration.algorithm = algorithm;
+            configuration.thresholdBytes = thresholdBytes;
+            configuration.maxDecompressedBytes = maxDecompressedBytes;
+            return configuration;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.codec.compression;
+
+import org.cache.keeper.core.codec.ISerializer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * compress the bytes of the value serializer
+ * the value shorter than the threshold is written as it is, so the small value pay nothing
+ * the compressed value is: header byte 0xFE, algorithm id, varint original length, compressed block
+ * 0xFE is never the first byte of UTF-8 or the compact binary, the value written before can always be read
+ */
+public class CompressionSerializer<T> implements ISerializer<T> {
+
+    /**
+     * the first byte of the value with header
+     */
+    public static final byte HEADER = (byte) 0xFE;
+
+    /**
+     * the algorithm id of the value not compressed, only used when the raw value start with the header byte
+     */
+    private static final int STORED = 0;
+
+    private final ISerializer<T> delegate;
+
+    private final CompressionAlgorithm algorithm;
+
+    private final int thresholdBytes;
+
+    private final int maxDecompressedBytes;
+
+    private final CompressionStats stats = new CompressionStats();
+
+    public CompressionSerializer(ISerializer<T> delegate, CompressionConfiguration compressionConfiguration) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("compression delegate serializer is null");
+        }
+        this.delegate = delegate;
+        this.algorithm = compressionConfiguration.getAlgorithm();
+        this.thresholdBytes = compressionConfiguration.getThresholdBytes();
+        this.maxDecompressedBytes = compressionConfiguration.getMaxDecompressedBytes();
+    }
+
+    // getter start
+    public ISerializer<T> getDelegate() {
+        return delegate;
+    }
+
+    public CompressionStats getStats() {
+        return stats;
+    }
+    // getter end
+
+    @Override
+    public byte[] serialize(T object) {
+        byte[] raw = delegate.serialize(object);
+        if (raw.length < thresholdBytes) {
+            stats.recordSkipped();
+            return stored(raw);
+        }
+        int headerLength = 2 + varIntLength(raw.length);
+        // only worth to write the compressed shorter than the raw
+        int maxLength = raw.length - headerLength - 1;
+        byte[] value = new byte[raw.length];
+        int compressedLength = maxLength <= 0 ? -1 : algorithm.getCompressor().compress(raw, value, headerLength, maxLength);
+        if (compressedLength < 0) {
+            stats.recordIncompressible();
+            return stored(raw);
+        }
+        value[0] = HEADER;
+        value[1] = (byte) algorithm.getId();
+        writeVarInt(value, 2, raw.length);
+        value = Arrays.copyOf(value, headerLength + compressedLength);
+        stats.recordCompressed(raw.length, value.length);
+        return value;
+    }
+
+    @Override
+    public T deserialize(ByteBuffer buffer) {
+        if (!buffer.hasRemaining() || buffer.get(buffer.position()) != HEADER) {
+            return delegate.deserialize(buffer);
+        }
+        buffer.get();
+        int algorithmId = buffer.get() & 0xFF;
+        int originalLength = readVarInt(buffer);
+        if (algorithmId == STORED) {
+            return delegate.deserialize(buffer);
+        }
+        // the length is read from the redis, it is not trusted to allocate the buffer
+        if (originalLength > maxDecompressedBytes) {
+            throw new IllegalArgumentException("compressed value original length " + originalLength
+                    + " exceed the max " + maxDecompressedBytes);
+        }
+        byte[] raw = CompressionAlgorithm.of(algorithmId).getCompressor().decompress(buffer, originalLength);
+        stats.recordDecompressed();
+        return delegate.deserialize(ByteBuffer.wrap(raw));
+    }
+
+    /**
+     * the raw value start with the header byte is wrapped, or it is read as compressed
+     */
+    private static byte[] stored(byte[] raw) {
+        if (raw.length == 0 || raw[0] != HEADER) {
+            return raw;
+        }
+        int headerLength = 2 + varIntLength(raw.length);
+        byte[] value = new byte[headerLength + raw.length];
+        value[0] = HEADER;
+        value[1] = STORED;
+        writeVarInt(value, 2, raw.length);
+        System.arraycopy(raw, 0, value, headerLength, raw.length);
+        return value;
+    }
+
+    private static int varIntLength(int value) {
+        int length = 1;
+        while ((value >>>= 7) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    private static void writeVarInt(byte[] dst, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            dst[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        dst[offset] = (byte) value;
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed compression header");
+    }
+}
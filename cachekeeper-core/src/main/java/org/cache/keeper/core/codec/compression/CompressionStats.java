@@ -0,0 +1,125 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.codec.compression;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * counters of the value compression
+ */
+public class CompressionStats {
+
+    /**
+     * the value written compressed
+     */
+    private final LongAdder compressedCount = new LongAdder();
+
+    /**
+     * the value shorter than the threshold, written as it is
+     */
+    private final LongAdder skippedCount = new LongAdder();
+
+    /**
+     * the value not shorter after compressed, written as it is
+     */
+    private final LongAdder incompressibleCount = new LongAdder();
+
+    private final LongAdder decompressedCount = new LongAdder();
+
+    /**
+     * total length of the compressed value before compression
+     */
+    private final LongAdder originalBytes = new LongAdder();
+
+    /**
+     * total length of the compressed value after compression, header included
+     */
+    private final LongAdder compressedBytes = new LongAdder();
+
+    void recordCompressed(int originalLength, int compressedLength) {
+        compressedCount.increment();
+        originalBytes.add(originalLength);
+        compressedBytes.add(compressedLength);
+    }
+
+    void recordSkipped() {
+        skippedCount.increment();
+    }
+
+    void recordIncompressible() {
+        incompressibleCount.increment();
+    }
+
+    void recordDecompressed() {
+        decompressedCount.increment();
+    }
+
+    // getter start
+    public long getCompressedCount() {
+        return compressedCount.sum();
+    }
+
+    public long getSkippedCount() {
+        return skippedCount.sum();
+    }
+
+    public long getIncompressibleCount() {
+        return incompressibleCount.sum();
+    }
+
+    public long getDecompressedCount() {
+        return decompressedCount.sum();
+    }
+
+    public long getOriginalBytes() {
+        return originalBytes.sum();
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+    // getter end
+
+    /**
+     * bytes saved on the network and in redis by the written value
+     * @return original bytes - compressed bytes
+     */
+    public long bytesSaved() {
+        return getOriginalBytes() - getCompressedBytes();
+    }
+
+    /**
+     * ratio of the compressed value
+     * @return compressed bytes / original bytes, 1 when nothing compressed
+     */
+    public double compressionRatio() {
+        long original = getOriginalBytes();
+        return original == 0 ? 1 : (double) getCompressedBytes() / original;
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionStats{" +
+                "compressedCount=" + getCompressedCount() +
+                ", skippedCount=" + getSkippedCount() +
+                ", incompressibleCount=" + getIncompressibleCount() +
+                ", decompressedCount=" + getDecompressedCount() +
+                ", bytesSaved=" + bytesSaved() +
+                ", compressionRatio=" + compressionRatio() +
+                '}';
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.codec.compression;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * raw deflate (no zlib header and checksum) with the fastest level
+ */
+public class DeflateCompressor implements ICompressor {
+
+    /**
+     * the max compression ratio of deflate, 258 bytes by the match of 2 bits at best
+     */
+    private static final int MAX_RATIO = 1032;
+
+    @Override
+    public int compress(byte[] src, byte[] dst, int dstOffset, int maxLength) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(src);
+            deflater.finish();
+            int length = deflater.deflate(dst, dstOffset, maxLength);
+            // the output is full before all input compressed
+            return deflater.finished() ? length : -1;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decompress(ByteBuffer src, int originalLength) {
+        if (originalLength < 0 || originalLength > (long) src.remaining() * MAX_RATIO) {
+            throw new IllegalArgumentException("malformed deflate block, original length " + originalLength
+                    + " out of bound of " + src.remaining() + " bytes");
+        }
+        byte[] dst = new byte[originalLength];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(src);
+            int length = 0;
+            while (length < originalLength) {
+                int inflated = inflater.inflate(dst, length, originalLength - length);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != originalLength) {
+                throw new IllegalArgumentException("malformed deflate block, length " + length + " expect " + originalLength);
+            }
+            return dst;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("malformed deflate block", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
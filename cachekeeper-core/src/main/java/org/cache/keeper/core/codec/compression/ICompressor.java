@@ -0,0 +1,46 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.codec.compression;
+
+import java.nio.ByteBuffer;
+
+/**
+ * block compressor of the cache value
+ * the whole value is compressed in one block, the original length is saved by the caller
+ */
+public interface ICompressor {
+
+    /**
+     * compress the source into the destination
+     * @param src source bytes
+     * @param dst destination buffer
+     * @param dstOffset start offset of the destination
+     * @param maxLength max compressed length can be written
+     * @return compressed length, -1 when the compressed is longer than maxLength
+     */
+    int compress(byte[] src, byte[] dst, int dstOffset, int maxLength);
+
+    /**
+     * decompress the remaining bytes of the source
+     * the original length beyond the max ratio of the algorithm to the compressed length is rejected before allocated
+     * @param src compressed bytes
+     * @param originalLength length of the source before compressed
+     * @return original bytes
+     */
+    byte[] decompress(ByteBuffer src, int originalLength);
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.codec.compression;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * LZ4 block format, compatible with the block of the LZ4 library
+ * greedy match with one hash table, the miss of the incompressible data is skipped faster and faster
+ */
+public class Lz4Compressor implements ICompressor {
+
+    private static final int MIN_MATCH = 4;
+
+    /**
+     * the last match must start 12 bytes before the end
+     */
+    private static final int MF_LIMIT = 12;
+
+    /**
+     * the last 5 bytes are always literals
+     */
+    private static final int LAST_LITERALS = 5;
+
+    private static final int MAX_DISTANCE = 65535;
+
+    private static final int RUN_MASK = 15;
+
+    private static final int HASH_LOG = 14;
+
+    /**
+     * one byte of the block is decompressed to 255 bytes at most, by the length extension of the match
+     */
+    private static final int MAX_RATIO = 255;
+
+    private static final int SKIP_TRIGGER = 6;
+
+    @Override
+    public int compress(byte[] src, byte[] dst, int dstOffset, int maxLength) {
+        int srcLength = src.length;
+        int dstEnd = dstOffset + maxLength;
+        int op = dstOffset;
+        int anchor = 0;
+        if (srcLength > MF_LIMIT) {
+            // position + 1 of the last 4 bytes with the same hash, 0 is empty
+            int[] table = new int[1 << HASH_LOG];
+            int limit = srcLength - MF_LIMIT;
+            int matchLimit = srcLength - LAST_LITERALS;
+            int ip = 0;
+            int searchCount = 1 << SKIP_TRIGGER;
+            while (ip < limit) {
+                int sequence = readInt(src, ip);
+                int hash = (sequence * -1640531535) >>> (32 - HASH_LOG);
+                int ref = table[hash] - 1;
+                table[hash] = ip + 1;
+                if (ref < 0 || ip - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                    ip += searchCount++ >>> SKIP_TRIGGER;
+                    continue;
+                }
+                searchCount = 1 << SKIP_TRIGGER;
+                // extend the match backward into the literals
+                while (ip > anchor && ref > 0 && src[ip - 1] == src[ref - 1]) {
+                    ip--;
+                    ref--;
+                }
+                int matchLength = MIN_MATCH;
+                while (ip + matchLength < matchLimit && src[ip + matchLength] == src[ref + matchLength]) {
+                    matchLength++;
+                }
+                op = writeSequence(src, anchor, ip - anchor, ip - ref, matchLength, dst, op, dstEnd);
+                if (op < 0) {
+                    return -1;
+                }
+                ip += matchLength;
+                anchor = ip;
+            }
+        }
+        // the last literals
+        int literalLength = srcLength - anchor;
+        if (op + 2 + literalLength / 255 + literalLength > dstEnd) {
+            return -1;
+        }
+        dst[op++] = (byte) (Math.min(literalLength, RUN_MASK) << 4);
+        op = writeLength(literalLength, dst, op);
+        System.arraycopy(src, anchor, dst, op, literalLength);
+        op += literalLength;
+        return op - dstOffset;
+    }
+
+    private static int writeSequence(byte[] src, int anchor, int literalLength, int offset, int matchLength,
+                                     byte[] dst, int op, int dstEnd) {
+        int extraMatchLength = matchLength - MIN_MATCH;
+        // token, literal length, literals, offset and match length
+        if (op + 1 + literalLength / 255 + 1 + literalLength + 2 + extraMatchLength / 255 + 1 > dstEnd) {
+            return -1;
+        }
+        dst[op++] = (byte) (Math.min(literalLength, RUN_MASK) << 4 | Math.min(extraMatchLength, RUN_MASK));
+        op = writeLength(literalLength, dst, op);
+        System.arraycopy(src, anchor, dst, op, literalLength);
+        op += literalLength;
+        dst[op++] = (byte) offset;
+        dst[op++] = (byte) (offset >>> 8);
+        return writeLength(extraMatchLength, dst, op);
+    }
+
+    /**
+     * the length not less than 15 is continued by bytes of 255 and the rest
+     */
+    private static int writeLength(int length, byte[] dst, int op) {
+        if (length >= RUN_MASK) {
+            length -= RUN_MASK;
+            while (length >= 255) {
+                dst[op++] = (byte) 255;
+                length -= 255;
+            }
+            dst[op++] = (byte) length;
+        }
+        return op;
+    }
+
+    private static int readInt(byte[] src, int index) {
+        return (src[index] & 0xFF) | (src[index + 1] & 0xFF) << 8 | (src[index + 2] & 0xFF) << 16 | (src[index + 3] & 0xFF) << 24;
+    }
+
+    @Override
+    public byte[] decompress(ByteBuffer src, int originalLength) {
+        if (originalLength < 0 || originalLength > (long) src.remaining() * MAX_RATIO) {
+            throw new IllegalArgumentException("malformed lz4 block, original length " + originalLength
+                    + " out of bound of " + src.remaining() + " bytes");
+        }
+        byte[] dst = new byte[originalLength];
+        int op = 0;
+        try {
+            while (true) {
+                int token = src.get() & 0xFF;
+                int literalLength = readLength(src, token >>> 4);
+                if (literalLength > originalLength - op) {
+                    throw new IllegalArgumentException("malformed lz4 block, literals out of bound");
+                }
+                src.get(dst, op, literalLength);
+                op += literalLength;
+                if (op == originalLength) {
+                    // the last sequence has no match
+                    return dst;
+                }
+                int offset = (src.get() & 0xFF) | (src.get() & 0xFF) << 8;
+                if (offset == 0 || offset > op) {
+                    throw new IllegalArgumentException("malformed lz4 block, offset out of bound");
+                }
+                int matchLength = readLength(src, token & RUN_MASK) + MIN_MATCH;
+                if (matchLength > originalLength - op) {
+                    throw new IllegalArgumentException("malformed lz4 block, match out of bound");
+                }
+                int ref = op - offset;
+                if (offset >= matchLength) {
+                    System.arraycopy(dst, ref, dst, op, matchLength);
+                    op += matchLength;
+                } else {
+                    // the match overlap itself, copy byte by byte
+                    for (int i = 0; i < matchLength; i++) {
+                        dst[op++] = dst[ref++];
+                    }
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("malformed lz4 block, unexpected end", e);
+        }
+    }
+
+    private static int readLength(ByteBuffer src, int length) {
+        if (length == RUN_MASK) {
+            int b;
+            do {
+                b = src.get() & 0xFF;
+                length += b;
+            } while (b == 255 && length > 0);
+            if (length < 0) {
+                throw new IllegalArgumentException("malformed lz4 block, length overflow");
+            }
+        }
+        return length;
+    }
+}
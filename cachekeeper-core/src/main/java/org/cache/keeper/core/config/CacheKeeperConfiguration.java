@@ -16,7 +16,17 @@
 
 package org.cache.keeper.core.config;
 
+import org.cache.keeper.core.bloom.IBloomFilter;
 import org.cache.keeper.core.cacheoperator.ICacheOperator;
+import org.cache.keeper.core.cacheoperator.nearcache.NearCacheConfiguration;
+import org.cache.keeper.core.cacheoperator.nearcache.NearCacheOperator;
+import org.cache.keeper.core.codec.ISerializer;
+import org.cache.keeper.core.codec.StringSerializer;
+import org.cache.keeper.core.codec.compression.CompressionConfiguration;
+import org.cache.keeper.core.codec.compression.CompressionSerializer;
+import org.cache.keeper.core.lease.CompactLeaseIdGenerator;
+import org.cache.keeper.core.lease.ILeaseIdGenerator;
+import org.cache.keeper.core.ttl.ITtlPolicy;
 
 import java.util.concurrent.TimeUnit;
 
@@ -51,6 +61,76 @@ public class CacheKeeperConfiguration<K, V> {
      */
     private TimeUnit cacheExpireTimeUnit;
 
+    /**
+     * only one reload run for the same key in this jvm
+     */
+    private Boolean singleFlightEnabled = true;
+
+    /**
+     * max time to wait the in flight reload
+     */
+    private Long singleFlightWaitTimeMs = 3000L;
+
+    /**
+     * what to do when wait the in flight reload timeout
+     */
+    private SingleFlightTimeoutStrategy singleFlightTimeoutStrategy = SingleFlightTimeoutStrategy.RELOAD;
+
+    /**
+     * in process near cache in front of the cache operator, null means disabled
+     */
+    private NearCacheConfiguration nearCacheConfiguration;
+
+    /**
+     * serializer of the cache key, the key in redis
+     */
+    private ISerializer<K> keySerializer;
+
+    /**
+     * serializer of the cache value
+     */
+    private ISerializer<V> valueSerializer;
+
+    /**
+     * compress the large value after serialized, null means disabled
+     */
+    private CompressionConfiguration compressionConfiguration;
+
+    /**
+     * stale while revalidate time, null means disabled
+     * the cache is kept this time longer than the cache expire time,
+     * after the cache expire time the stale value is returned and only one refresh run in the background
+     */
+    private Long staleWhileRevalidateTimeMs;
+
+    /**
+     * beta of the probabilistic early refresh (XFetch), null means disabled
+     * the read may refresh the cache before it expired, more likely when the reload is slow and the expire time is close,
+     * only one refresh run with the lease, 1.0 is the usual value
+     */
+    private Double earlyRefreshBeta;
+
+    /**
+     * ttl policy of the cache, the null value and the near cache, default is the fixed expire time
+     */
+    private ITtlPolicy<K, V> ttlPolicy;
+
+    /**
+     * filter of the keys exist in the db, used when cachePenetrationStrategy is BLOOM_FILTER
+     */
+    private IBloomFilter<K> bloomFilter;
+
+    /**
+     * in process cache of the keys which the null value is cached, used when cachePenetrationStrategy is WRITE_NULL_SOME_TIME,
+     * null means disabled
+     */
+    private NegativeCacheConfiguration negativeCacheConfiguration;
+
+    /**
+     * generator of the lease id, default is the node prefix and the counter
+     */
+    private ILeaseIdGenerator leaseIdGenerator;
+
     // getter start
     private CacheKeeperConfiguration() {
     }
@@ -74,6 +154,58 @@ public class CacheKeeperConfiguration<K, V> {
     public TimeUnit getCacheExpireTimeUnit() {
         return cacheExpireTimeUnit;
     }
+
+    public Boolean getSingleFlightEnabled() {
+        return singleFlightEnabled;
+    }
+
+    public Long getSingleFlightWaitTimeMs() {
+        return singleFlightWaitTimeMs;
+    }
+
+    public SingleFlightTimeoutStrategy getSingleFlightTimeoutStrategy() {
+        return singleFlightTimeoutStrategy;
+    }
+
+    public NearCacheConfiguration getNearCacheConfiguration() {
+        return nearCacheConfiguration;
+    }
+
+    public ISerializer<K> getKeySerializer() {
+        return keySerializer;
+    }
+
+    public ISerializer<V> getValueSerializer() {
+        return valueSerializer;
+    }
+
+    public CompressionConfiguration getCompressionConfiguration() {
+        return compressionConfiguration;
+    }
+
+    public Long getStaleWhileRevalidateTimeMs() {
+        return staleWhileRevalidateTimeMs;
+    }
+
+    public Double getEarlyRefreshBeta() {
+        return earlyRefreshBeta;
+    }
+
+    public ITtlPolicy<K, V> getTtlPolicy() {
+        return ttlPolicy;
+    }
+
+    public IBloomFilter<K> getBloomFilter() {
+        return bloomFilter;
+    }
+
+    public NegativeCacheConfiguration getNegativeCacheConfiguration() {
+        return negativeCacheConfiguration;
+    }
+
+    public ILeaseIdGenerator getLeaseIdGenerator() {
+        return leaseIdGenerator;
+    }
     // getter end
 
     /**
@@ -84,12 +216,40 @@ public class CacheKeeperConfiguration<K, V> {
                 && this.missCacheNullValueTimeMs == null) {
             throw new IllegalArgumentException("missCacheNullValueTimeMs must be set when cachePenetrationStrategy is WRITE_NULL_SOME_TIME");
         }
+        if (this.cachePenetrationStrategy == CachePenetrationStrategy.BLOOM_FILTER && this.bloomFilter == null) {
+            throw new IllegalArgumentException("bloomFilter must be set when cachePenetrationStrategy is BLOOM_FILTER");
+        }
+        if (this.negativeCacheConfiguration != null && this.cachePenetrationStrategy != CachePenetrationStrategy.WRITE_NULL_SOME_TIME) {
+            throw new IllegalArgumentException("negativeCache can only be set when cachePenetrationStrategy is WRITE_NULL_SOME_TIME");
+        }
         if (this.cacheExpireTime == null) {
             throw new IllegalArgumentException("cacheExpireTime must be set");
         }
         if (this.cacheExpireTimeUnit == null) {
             throw new IllegalArgumentException("cacheExpireTimeUnit must be set");
         }
+        if (Boolean.TRUE.equals(this.singleFlightEnabled)
+                && (this.singleFlightWaitTimeMs == null || this.singleFlightWaitTimeMs <= 0)) {
+            throw new IllegalArgumentException("singleFlightWaitTimeMs must be positive when singleFlightEnabled");
+        }
+        if (Boolean.TRUE.equals(this.singleFlightEnabled) && this.singleFlightTimeoutStrategy == null) {
+            throw new IllegalArgumentException("singleFlightTimeoutStrategy must be set when singleFlightEnabled");
+        }
+        if (this.keySerializer == null || this.valueSerializer == null) {
+            throw new IllegalArgumentException("keySerializer and valueSerializer must be set");
+        }
+        if (this.staleWhileRevalidateTimeMs != null && this.staleWhileRevalidateTimeMs <= 0) {
+            throw new IllegalArgumentException("staleWhileRevalidateTimeMs must be positive");
+        }
+        if (this.earlyRefreshBeta != null && !(this.earlyRefreshBeta > 0)) {
+            throw new IllegalArgumentException("earlyRefreshBeta must be positive");
+        }
+        if (this.ttlPolicy == null) {
+            throw new IllegalArgumentException("ttlPolicy must be set");
+        }
+        if (this.leaseIdGenerator == null) {
+            throw new IllegalArgumentException("leaseIdGenerator must be set");
+        }
     }
 
     public static class Builder {
@@ -98,6 +258,19 @@ public class CacheKeeperConfiguration<K, V> {
         private Long missCacheNullValueTimeMs;
         private Long cacheExpireTime;
         private TimeUnit cacheExpireTimeUnit;
+        private Boolean singleFlightEnabled = true;
+        private Long singleFlightWaitTimeMs = 3000L;
+        private SingleFlightTimeoutStrategy singleFlightTimeoutStrategy = SingleFlightTimeoutStrategy.RELOAD;
+        private NearCacheConfiguration nearCacheConfiguration;
+        private ISerializer<?> keySerializer = new StringSerializer<>();
+        private ISerializer<?> valueSerializer = new StringSerializer<>();
+        private CompressionConfiguration compressionConfiguration;
+        private Long staleWhileRevalidateTimeMs;
+        private Double earlyRefreshBeta;
+        private ITtlPolicy<?, ?> ttlPolicy = ITtlPolicy.fixed();
+        private IBloomFilter<?> bloomFilter;
+        private NegativeCacheConfiguration negativeCacheConfiguration;
+        private ILeaseIdGenerator leaseIdGenerator = CompactLeaseIdGenerator.getInstance();
 
         private Builder() {
         }
@@ -131,6 +304,86 @@ public class CacheKeeperConfiguration<K, V> {
             return this;
         }
 
+        public Builder singleFlightEnabled(Boolean singleFlightEnabled) {
+            this.singleFlightEnabled = singleFlightEnabled;
+            return this;
+        }
+
+        public Builder singleFlightWaitTimeMs(Long singleFlightWaitTimeMs) {
+            this.singleFlightWaitTimeMs = singleFlightWaitTimeMs;
+            return this;
+        }
+
+        public Builder singleFlightTimeoutStrategy(SingleFlightTimeoutStrategy singleFlightTimeoutStrategy) {
+            this.singleFlightTimeoutStrategy = singleFlightTimeoutStrategy;
+            return this;
+        }
+
+        public Builder nearCache(NearCacheConfiguration nearCacheConfiguration) {
+            this.nearCacheConfiguration = nearCacheConfiguration;
+            return this;
+        }
+
+        /**
+         * default is the string of the key
+         */
+        public <K> Builder keySerializer(ISerializer<K> keySerializer) {
+            this.keySerializer = keySerializer;
+            return this;
+        }
+
+        /**
+         * default is the string of the value, only the string value can be read back
+         */
+        public <V> Builder valueSerializer(ISerializer<V> valueSerializer) {
+            this.valueSerializer = valueSerializer;
+            return this;
+        }
+
+        public Builder compression(CompressionConfiguration compressionConfiguration) {
+            this.compressionConfiguration = compressionConfiguration;
+            return this;
+        }
+
+        public Builder staleWhileRevalidateTimeMs(Long staleWhileRevalidateTimeMs) {
+            this.staleWhileRevalidateTimeMs = staleWhileRevalidateTimeMs;
+            return this;
+        }
+
+        public Builder earlyRefreshBeta(Double earlyRefreshBeta) {
+            this.earlyRefreshBeta = earlyRefreshBeta;
+            return this;
+        }
+
+        /**
+         * default is the fixed expire time, e.g. JitterTtlPolicy to spread the expire time
+         */
+        public <K, V> Builder ttlPolicy(ITtlPolicy<K, V> ttlPolicy) {
+            this.ttlPolicy = ttlPolicy;
+            return this;
+        }
+
+        /**
+         * e.g. LocalBloomFilter rebuilt periodically, or RedisBloomFilter shared by all nodes
+         */
+        public <K> Builder bloomFilter(IBloomFilter<K> bloomFilter) {
+            this.bloomFilter = bloomFilter;
+            return this;
+        }
+
+        public Builder negativeCache(NegativeCacheConfiguration negativeCacheConfiguration) {
+            this.negativeCacheConfiguration = negativeCacheConfiguration;
+            return this;
+        }
+
+        /**
+         * default is CompactLeaseIdGenerator, LeaseIdGenerator for the uuid
+         */
+        public Builder leaseIdGenerator(ILeaseIdGenerator leaseIdGenerator) {
+            this.leaseIdGenerator = leaseIdGenerator;
+            return this;
+        }
+
         @SuppressWarnings("unchecked")
         public <K, V> CacheKeeperConfiguration<K, V> build() {
             CacheKeeperConfiguration<K, V> config = new CacheKeeperConfiguration<>();
@@ -139,7 +392,38 @@ public class CacheKeeperConfiguration<K, V> {
             config.missCacheNullValueTimeMs = this.missCacheNullValueTimeMs;
             config.cacheExpireTime = this.cacheExpireTime;
             config.cacheExpireTimeUnit = this.cacheExpireTimeUnit;
+            config.singleFlightEnabled = this.singleFlightEnabled;
+            config.singleFlightWaitTimeMs = this.singleFlightWaitTimeMs;
+            config.singleFlightTimeoutStrategy = this.singleFlightTimeoutStrategy;
+            config.nearCacheConfiguration = this.nearCacheConfiguration;
+            config.keySerializer = (ISerializer<K>) this.keySerializer;
+            config.valueSerializer = (ISerializer<V>) this.valueSerializer;
+            config.compressionConfiguration = this.compressionConfiguration;
+            config.staleWhileRevalidateTimeMs = this.staleWhileRevalidateTimeMs;
+            config.earlyRefreshBeta = this.earlyRefreshBeta;
+            config.ttlPolicy = (ITtlPolicy<K, V>) this.ttlPolicy;
+            config.bloomFilter = (IBloomFilter<K>) this.bloomFilter;
+            config.negativeCacheConfiguration = this.negativeCacheConfiguration;
+            config.leaseIdGenerator = this.leaseIdGenerator;
             config.checkConfig();
+            if (config.compressionConfiguration != null) {
+                // the compression wrap the value serializer
+                config.valueSerializer = new CompressionSerializer<>(config.valueSerializer, config.compressionConfiguration);
+            }
+            if (config.nearCacheConfiguration != null && config.cacheOperator != null) {
+                // the near cache wrap the cache operator before the serializer is set, it key the entry by the serialized key too
+                config.cacheOperator = new NearCacheOperator<>(config.cacheOperator, config.nearCacheConfiguration,
+                        config.cacheExpireTimeUnit.toMillis(config.cacheExpireTime), config.ttlPolicy);
+            }
+            if (config.bloomFilter != null) {
+                config.bloomFilter.initSerializer(config.keySerializer);
+            }
+            if (config.cacheOperator != null) {
+                config.cacheOperator.initSerializer(config.keySerializer, config.valueSerializer);
+                if (config.earlyRefreshBeta != null) {
+                    config.cacheOperator.initEarlyRefresh(config.earlyRefreshBeta);
+                }
+            }
             return config;
         }
     }
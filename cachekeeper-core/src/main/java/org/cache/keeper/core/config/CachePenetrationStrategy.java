@@ -18,5 +18,9 @@ package org.cache.keeper.core.config;
 
 public enum CachePenetrationStrategy {
     NONE,
-    WRITE_NULL_SOME_TIME
+    WRITE_NULL_SOME_TIME,
+    /**
+     * the key not in the bloom filter is not read from the cache and the db
+     */
+    BLOOM_FILTER
 }
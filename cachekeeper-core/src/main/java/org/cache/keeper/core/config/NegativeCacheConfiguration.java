@@ -0,0 +1,84 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.core.config;
+
+/**
+ * config for the in process negative cache
+ * the key which the null value is cached is remembered in process, so the repeated read of it need not read the redis
+ */
+public class NegativeCacheConfiguration {
+
+    private NegativeCacheConfiguration() {}
+
+    /**
+     * max key count of the negative cache
+     */
+    private Long maximumSize = 10_000L;
+
+    /**
+     * expire time of the negative cache entry
+     * it is capped by the null value time, null means same as the null value time
+     * the delete on other nodes is not seen until expired
+     */
+    private Long expireTimeMs;
+
+    // getter start
+    public Long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public Long getExpireTimeMs() {
+        return expireTimeMs;
+    }
+    // getter end
+
+    public static class Builder {
+        private Long maximumSize = 10_000L;
+        private Long expireTimeMs;
+
+        private Builder() {
+        }
+
+        public static Builder newBuilder() {
+            return new Builder();
+        }
+
+        public Builder maximumSize(Long maximumSize) {
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        public Builder expireTimeMs(Long expireTimeMs) {
+            this.expireTimeMs = expireTimeMs;
+            return this;
+        }
+
+        public NegativeCacheConfiguration build() {
+            if (maximumSize == null || maximumSize <= 0) {
+                throw new IllegalArgumentException("negative cache maximumSize must be positive");
+            }
+            if (expireTimeMs != null && expireTimeMs <= 0) {
+                throw new IllegalArgumentException("negative cache expireTimeMs must be positive");
+            }
+            NegativeCacheConfiguration configuration = new NegativeCacheConfiguration();
+            configuration.maximumSize = maximumSize;
+            configuration.expireTimeMs = expireTimeMs;
+            return configuration;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.core.lease;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * lease id of the node prefix and the counter, the default lease id generator
+ * the prefix is 64 random bits chosen once for the process, unique in the cluster by the chance,
+ * the counter is increased for each id, so no random and no lock for each id
+ * both encoded in the url safe base64, about 14 chars instead of the 32 chars of the uuid
+ */
+public class CompactLeaseIdGenerator implements ILeaseIdGenerator {
+
+    private static final char[] DIGITS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+
+    /**
+     * between the prefix and the counter, not in the digits, so the prefix of any length can not be mixed up
+     */
+    private static final char SEPARATOR = '.';
+
+    /**
+     * 64 bits in 6 bits per char
+     */
+    private static final int LONG_CHARS = 11;
+
+    private static final CompactLeaseIdGenerator INSTANCE = new CompactLeaseIdGenerator();
+
+    private final char[] prefix;
+
+    private final AtomicLong counter = new AtomicLong();
+
+    /**
+     * random node prefix
+     */
+    public CompactLeaseIdGenerator() {
+        this(new SecureRandom().nextLong());
+    }
+
+    /**
+     * fixed node prefix, e.g. the node id assigned by the deployment, it must be unique in the cluster
+     * and must be changed after the restart, or the id of the last run may be generated again
+     * @param nodePrefix node prefix, not empty
+     */
+    public CompactLeaseIdGenerator(String nodePrefix) {
+        if (nodePrefix == null || nodePrefix.isEmpty()) {
+            throw new IllegalArgumentException("lease id node prefix is empty");
+        }
+        if (nodePrefix.indexOf(SEPARATOR) >= 0) {
+            throw new IllegalArgumentException("lease id node prefix must not contain " + SEPARATOR);
+        }
+        this.prefix = (nodePrefix + SEPARATOR).toCharArray();
+    }
+
+    private CompactLeaseIdGenerator(long randomPrefix) {
+        this(encode(randomPrefix));
+    }
+
+    public static CompactLeaseIdGenerator getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public String generateLeaseId() {
+        long count = counter.getAndIncrement();
+        char[] id = new char[prefix.length + LONG_CHARS];
+        System.arraycopy(prefix, 0, id, 0, prefix.length);
+        int length = prefix.length;
+        do {
+            id[length++] = DIGITS[(int) (count & 63)];
+            count >>>= 6;
+        } while (count != 0);
+        return new String(id, 0, length);
+    }
+
+    /**
+     * all 64 bits of the random prefix
+     */
+    private static String encode(long value) {
+        char[] chars = new char[LONG_CHARS];
+        for (int i = 0; i < LONG_CHARS; i++) {
+            chars[i] = DIGITS[(int) (value & 63)];
+            value >>>= 6;
+        }
+        return new String(chars);
+    }
+
+}
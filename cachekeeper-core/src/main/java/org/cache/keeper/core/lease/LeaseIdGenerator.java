@@ -19,9 +19,9 @@ package org.cache.keeper.core.lease;
 import java.util.UUID;
 
 /**
- * lease id generator
+ * lease id generator of the random uuid
  */
-public class LeaseIdGenerator {
+public class LeaseIdGenerator implements ILeaseIdGenerator {
 
     /**
      * static class single instance
@@ -34,10 +34,7 @@ public class LeaseIdGenerator {
         return INSTANCE;
     }
 
-    /**
-     * generate one lease id
-     * @return id
-     */
+    @Override
     public String generateLeaseId() {
         return UUID.randomUUID().toString().replaceAll("-", "");
     }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.singleflight;
+
+import org.cache.keeper.core.async.AsyncSupport;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * single flight
+ * only one loader run for the same key in this jvm, the other callers wait the result of it
+ * the waiter park on a future, no monitor is held, so it is friendly to virtual thread
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * the loading key and the future of the loader
+     */
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final SingleFlightStats stats = new SingleFlightStats();
+
+    /**
+     * execute the loader, or wait the loader which is running for the same key
+     * @param key key
+     * @param loader the loader
+     * @param waitTimeMs max time to wait the running loader
+     * @param timeoutFallback call when wait timeout
+     * @return value
+     */
+    public V execute(K key, Supplier<V> loader, long waitTimeMs, Supplier<V> timeoutFallback) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, future);
+        if (running == null) {
+            // this caller is the leader
+            stats.recordLeader();
+            try {
+                V value = loader.get();
+                future.complete(value);
+                return value;
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, future);
+            }
+        }
+        // wait the leader
+        stats.recordCoalesced();
+        try {
+            return running.get(waitTimeMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            stats.recordTimeout();
+            return timeoutFallback.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted when wait the reload of key: " + key, e);
+        }
+    }
+
+    /**
+     * execute the async loader, or join the loader which is running for the same key
+     * the sync and async callers of the same key share the loader
+     * @param key key
+     * @param loader the async loader
+     * @param waitTimeMs max time to wait the running loader
+     * @param timeoutFallback call when wait timeout
+     * @return future of the value
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> loader, long waitTimeMs,
+                                             Supplier<CompletableFuture<V>> timeoutFallback) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, future);
+        if (running == null) {
+            // this caller is the leader
+            stats.recordLeader();
+            CompletableFuture<V> loading;
+            try {
+                loading = loader.get();
+            } catch (Throwable e) {
+                loading = CompletableFuture.failedFuture(e);
+            }
+            loading.whenComplete((value, error) -> {
+                inFlight.remove(key, future);
+                if (error != null) {
+                    future.completeExceptionally(AsyncSupport.unwrap(error));
+                } else {
+                    future.complete(value);
+                }
+            });
+            // the caller can not complete the shared future
+            return future.copy();
+        }
+        // join the leader
+        stats.recordCoalesced();
+        return running.copy()
+                .orTimeout(waitTimeMs, TimeUnit.MILLISECONDS)
+                .exceptionallyCompose(error -> {
+                    if (AsyncSupport.unwrap(error) instanceof TimeoutException) {
+                        stats.recordTimeout();
+                        return timeoutFallback.get();
+                    }
+                    return CompletableFuture.failedFuture(error);
+                });
+    }
+
+    /**
+     * count of the key in flight
+     * @return count
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    public SingleFlightStats getStats() {
+        return stats;
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.core.singleflight;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * counters of single flight
+ */
+public class SingleFlightStats {
+
+    /**
+     * calls which run the loader
+     */
+    private final LongAdder leaderCount = new LongAdder();
+
+    /**
+     * calls which wait the result of another call
+     */
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * calls which wait timeout and go to the fallback
+     */
+    private final LongAdder timeoutCount = new LongAdder();
+
+    void recordLeader() {
+        leaderCount.increment();
+    }
+
+    void recordCoalesced() {
+        coalescedCount.increment();
+    }
+
+    void recordTimeout() {
+        timeoutCount.increment();
+    }
+
+    // getter start
+    public long getLeaderCount() {
+        return leaderCount.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+    // getter end
+
+    @Override
+    public String toString() {
+        return "SingleFlightStats{" +
+                "leaderCount=" + getLeaderCount() +
+                ", coalescedCount=" + getCoalescedCount() +
+                ", timeoutCount=" + getTimeoutCount() +
+                '}';
+    }
+}
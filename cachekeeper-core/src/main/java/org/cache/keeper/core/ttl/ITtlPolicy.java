@@ -0,0 +1,44 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.core.ttl;
+
+/**
+ * ttl policy of the cache
+ * decide the expire time of each cache when it is written, by the key or the value
+ * e.g. the hot key live longer, or jitter the expire time so the keys written together do not expire together
+ */
+@FunctionalInterface
+public interface ITtlPolicy<K, V> {
+
+    /**
+     * expire time of the cache
+     * @param key cache key
+     * @param value cache value, null when the null value is cached
+     * @param baseExpireTimeMs the configured expire time, the cache expire time or the null value time
+     * @return expire time ms, must be positive
+     */
+    long expireTimeMs(K key, V value, long baseExpireTimeMs);
+
+    /**
+     * the default policy, always the configured expire time
+     */
+    static <K, V> ITtlPolicy<K, V> fixed() {
+        return (key, value, baseExpireTimeMs) -> baseExpireTimeMs;
+    }
+
+}
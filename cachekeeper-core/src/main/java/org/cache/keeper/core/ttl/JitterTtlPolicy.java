@@ -0,0 +1,76 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.core.ttl;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * uniform jitter of the expire time
+ * the expire time is random in [ttl, ttl * (1 + jitterRatio)], never earlier than the ttl of the delegate policy
+ */
+public class JitterTtlPolicy<K, V> implements ITtlPolicy<K, V> {
+
+    private final double jitterRatio;
+
+    private final ITtlPolicy<K, V> delegate;
+
+    /**
+     * jitter the configured expire time
+     * @param jitterRatio the max extra ratio of the expire time, e.g. 0.1 is at most 10% longer
+     */
+    public JitterTtlPolicy(double jitterRatio) {
+        this(jitterRatio, ITtlPolicy.fixed());
+    }
+
+    /**
+     * jitter the expire time of the delegate policy, e.g. the per key policy
+     * @param jitterRatio the max extra ratio of the expire time
+     * @param delegate the policy to jitter
+     */
+    public JitterTtlPolicy(double jitterRatio, ITtlPolicy<K, V> delegate) {
+        if (!(jitterRatio > 0)) {
+            throw new IllegalArgumentException("jitterRatio must be positive");
+        }
+        if (delegate == null) {
+            throw new IllegalArgumentException("jitter ttl policy delegate is null");
+        }
+        this.jitterRatio = jitterRatio;
+        this.delegate = delegate;
+    }
+
+    // getter start
+    public double getJitterRatio() {
+        return jitterRatio;
+    }
+
+    public ITtlPolicy<K, V> getDelegate() {
+        return delegate;
+    }
+    // getter end
+
+    @Override
+    public long expireTimeMs(K key, V value, long baseExpireTimeMs) {
+        long expireTimeMs = delegate.expireTimeMs(key, value, baseExpireTimeMs);
+        long maxJitterMs = (long) (expireTimeMs * jitterRatio);
+        if (maxJitterMs <= 0) {
+            return expireTimeMs;
+        }
+        return expireTimeMs + ThreadLocalRandom.current().nextLong(maxJitterMs + 1);
+    }
+
+}
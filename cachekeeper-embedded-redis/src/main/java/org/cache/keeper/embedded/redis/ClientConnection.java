@@ -0,0 +1,208 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.embedded.redis;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * one client connection of the embedded redis, served by its own thread
+ * the replies of the pipeline are flushed together when no more command is buffered
+ */
+final class ClientConnection implements Runnable {
+
+    private final long id;
+
+    private final Socket socket;
+
+    private final EmbeddedRedisServer server;
+
+    private final InputStream in;
+
+    private final OutputStream out;
+
+    /**
+     * the reply and the push from other connection are written under the lock
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile int protocol = 2;
+
+    /**
+     * the selected database, guarded by the server lock
+     */
+    private int database;
+
+    private volatile boolean closed;
+
+    /**
+     * the subscribed channels, guarded by the server lock
+     */
+    private final Set<String> channels = new LinkedHashSet<>();
+
+    /**
+     * the prefixes of the BCAST tracking, null means tracking off, guarded by the server lock
+     */
+    private List<String> trackingPrefixes;
+
+    /**
+     * the client id to receive the invalidation, 0 means this connection
+     */
+    private long trackingRedirect;
+
+    ClientConnection(long id, Socket socket, EmbeddedRedisServer server) throws IOException {
+        this.id = id;
+        this.socket = socket;
+        this.server = server;
+        this.in = new BufferedInputStream(socket.getInputStream());
+        this.out = new BufferedOutputStream(socket.getOutputStream());
+    }
+
+    @Override
+    public void run() {
+        boolean roundTrip = true;
+        try {
+            while (!closed) {
+                List<byte[]> command = RespCodec.readCommand(in);
+                if (command == null) {
+                    break;
+                }
+                if (command.isEmpty()) {
+                    continue;
+                }
+                // the latency is injected once for each round trip, not for each command of the pipeline
+                if (roundTrip) {
+                    server.injectedLatency();
+                    roundTrip = false;
+                }
+                EmbeddedRedisServer.FailureMode failure = server.injectedFailure();
+                if (failure == EmbeddedRedisServer.FailureMode.DISCONNECT) {
+                    break;
+                }
+                if (failure == EmbeddedRedisServer.FailureMode.TIMEOUT) {
+                    // never reply, the client give up the connection by its timeout
+                    while (in.read() != -1) {
+                        in.skip(in.available());
+                    }
+                    break;
+                }
+                Object reply = failure == EmbeddedRedisServer.FailureMode.ERROR
+                        ? new RespReply.Error("ERR injected failure") : server.execute(this, command);
+                if ("QUIT".equalsIgnoreCase(Keyspace.key(command.get(0)))) {
+                    write(reply, true);
+                    break;
+                }
+                boolean flush = in.available() == 0;
+                write(reply, flush);
+                roundTrip = flush;
+            }
+        } catch (IOException e) {
+            // the connection is closed by the client
+        } finally {
+            close();
+        }
+    }
+
+    private void write(Object reply, boolean flush) throws IOException {
+        writeLock.lock();
+        try {
+            RespCodec.write(out, reply, protocol);
+            if (flush) {
+                out.flush();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * write the out of band message, the pub/sub message or the invalidation
+     * @param push message
+     */
+    void push(RespReply.Push push) {
+        if (closed) {
+            return;
+        }
+        try {
+            write(push, true);
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // ignore
+        }
+        server.remove(this);
+    }
+
+    // getter start
+    long getId() {
+        return id;
+    }
+
+    int getProtocol() {
+        return protocol;
+    }
+
+    void setProtocol(int protocol) {
+        this.protocol = protocol;
+    }
+
+    int getDatabase() {
+        return database;
+    }
+
+    void setDatabase(int database) {
+        this.database = database;
+    }
+
+    Set<String> getChannels() {
+        return channels;
+    }
+
+    List<String> getTrackingPrefixes() {
+        return trackingPrefixes;
+    }
+
+    long getTrackingRedirect() {
+        return trackingRedirect;
+    }
+
+    void setTracking(List<String> trackingPrefixes, long trackingRedirect) {
+        this.trackingPrefixes = trackingPrefixes;
+        this.trackingRedirect = trackingRedirect;
+    }
+    // getter end
+
+}
@@ -0,0 +1,585 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.embedded.redis;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * redis protocol server in the jvm, for the integration test and the load test without the redis
+ * it speaks RESP2 and RESP3 (HELLO), and support the commands used by the cache keeper:
+ * the string, set and list commands of 16 databases, the bitmap, EVAL / EVALSHA / SCRIPT by lua, pub/sub and BCAST client side tracking
+ * the commands are run one at a time like the redis, each connection is served by its own thread
+ * the latency and the failure can be injected at runtime
+ */
+public class EmbeddedRedisServer implements AutoCloseable {
+
+    private static final String TRACKING_INVALIDATE_CHANNEL = "__redis__:invalidate";
+
+    private static final String VERSION = "7.2.0";
+
+    private String host;
+
+    private Integer port;
+
+    private ServerSocket serverSocket;
+
+    private static final int DATABASE_COUNT = 16;
+
+    private final Keyspace[] databases = new Keyspace[DATABASE_COUNT];
+
+    private final LuaScripting luaScripting = new LuaScripting();
+
+    /**
+     * all commands are run under the lock, same as the single thread of the redis
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Map<Long, ClientConnection> connections = new ConcurrentHashMap<>();
+
+    private final AtomicLong clientId = new AtomicLong();
+
+    private final LongAdder commandCount = new LongAdder();
+
+    private volatile long latencyMs;
+
+    private volatile FailureMode failureMode;
+
+    private volatile double failureRate;
+
+    private volatile boolean closed;
+
+    private EmbeddedRedisServer() {
+        for (int i = 0; i < DATABASE_COUNT; i++) {
+            databases[i] = new Keyspace();
+        }
+    }
+
+    /**
+     * the failure injected to the command
+     */
+    public enum FailureMode {
+        /**
+         * reply the error instead of running the command
+         */
+        ERROR,
+        /**
+         * close the connection without reply
+         */
+        DISCONNECT,
+        /**
+         * never reply, the client wait until its timeout
+         */
+        TIMEOUT
+    }
+
+    // getter start
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public long getCommandCount() {
+        return commandCount.sum();
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+    // getter end
+
+    /**
+     * delay each round trip, the pipeline is delayed once
+     * @param latencyMs latency ms, 0 means no latency
+     */
+    public void injectLatency(long latencyMs) {
+        if (latencyMs < 0) {
+            throw new IllegalArgumentException("injected latency must not be negative");
+        }
+        this.latencyMs = latencyMs;
+    }
+
+    /**
+     * fail the command by the rate
+     * @param failureMode how the command fail
+     * @param failureRate rate in [0, 1]
+     */
+    public void injectFailure(FailureMode failureMode, double failureRate) {
+        if (failureMode == null) {
+            throw new IllegalArgumentException("injected failure mode is null");
+        }
+        if (failureRate < 0 || failureRate > 1) {
+            throw new IllegalArgumentException("injected failure rate must be in [0, 1]");
+        }
+        this.failureMode = failureMode;
+        this.failureRate = failureRate;
+    }
+
+    /**
+     * remove the injected latency and failure
+     */
+    public void clearFaults() {
+        this.latencyMs = 0;
+        this.failureMode = null;
+        this.failureRate = 0;
+    }
+
+    /**
+     * remove all keys and scripts
+     */
+    public void flushAll() {
+        execute(null, List.of("FLUSHALL".getBytes(StandardCharsets.US_ASCII)));
+        lock.lock();
+        try {
+            luaScripting.flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void injectedLatency() {
+        long latency = latencyMs;
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    FailureMode injectedFailure() {
+        FailureMode mode = failureMode;
+        if (mode == null || failureRate <= 0) {
+            return null;
+        }
+        return ThreadLocalRandom.current().nextDouble() < failureRate ? mode : null;
+    }
+
+    /**
+     * run the command, the out of band messages are pushed after the lock
+     * @param connection the connection of the command, null for the server itself
+     * @param command command name and arguments
+     * @return reply
+     */
+    Object execute(ClientConnection connection, List<byte[]> command) {
+        commandCount.increment();
+        String name = Keyspace.key(command.get(0)).toUpperCase(Locale.ROOT);
+        List<Delivery> deliveries = new ArrayList<>();
+        Object reply;
+        lock.lock();
+        try {
+            Keyspace keyspace = databases[connection == null ? 0 : connection.getDatabase()];
+            reply = dispatch(connection, keyspace, name, command.subList(1, command.size()), command, deliveries);
+        } catch (RespReply.RespException e) {
+            reply = new RespReply.Error(e.getMessage());
+        } finally {
+            try {
+                for (Keyspace keyspace : databases) {
+                    if (keyspace.hasModifiedKeys()) {
+                        invalidate(keyspace.drainModifiedKeys(), deliveries);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        for (Delivery delivery : deliveries) {
+            delivery.connection.push(delivery.push);
+        }
+        return reply;
+    }
+
+    private record Delivery(ClientConnection connection, RespReply.Push push) {
+    }
+
+    private Object dispatch(ClientConnection connection, Keyspace keyspace, String name, List<byte[]> args, List<byte[]> command,
+                            List<Delivery> deliveries) {
+        return switch (name) {
+            case "HELLO" -> hello(connection, args);
+            case "AUTH", "READONLY", "READWRITE" -> RespReply.OK;
+            case "SELECT" -> {
+                long database = args.size() == 1 ? Keyspace.parseLong(args.get(0)) : -1;
+                if (database < 0 || database >= DATABASE_COUNT) {
+                    throw new RespReply.RespException("ERR DB index is out of range");
+                }
+                connection.setDatabase((int) database);
+                yield RespReply.OK;
+            }
+            case "FLUSHALL" -> {
+                for (Keyspace database : databases) {
+                    database.execute(command);
+                }
+                yield RespReply.OK;
+            }
+            case "QUIT" -> RespReply.OK;
+            case "CLIENT" -> client(connection, args);
+            case "COMMAND" -> List.of();
+            case "CONFIG" -> connection != null && connection.getProtocol() == 3 ? Map.of() : List.of();
+            case "INFO" -> ("# Server\r\nredis_version:" + VERSION + "\r\nredis_mode:standalone\r\n"
+                    + "# Replication\r\nrole:master\r\n").getBytes(StandardCharsets.US_ASCII);
+            case "SUBSCRIBE" -> subscribe(connection, args);
+            case "UNSUBSCRIBE" -> unsubscribe(connection, args);
+            case "PUBLISH" -> publish(args, deliveries);
+            case "EVAL", "EVALSHA" -> eval(keyspace, name, args);
+            case "SCRIPT" -> script(args);
+            case "PING" -> {
+                // the pong of the RESP2 subscriber is a message
+                if (connection != null && connection.getProtocol() == 2 && !connection.getChannels().isEmpty()) {
+                    yield new RespReply.Push(List.of("pong", args.isEmpty() ? new byte[0] : args.get(0)));
+                }
+                yield keyspace.execute(command);
+            }
+            default -> keyspace.execute(command);
+        };
+    }
+
+    /**
+     * HELLO [protover [AUTH username password] [SETNAME clientname]]
+     */
+    private Object hello(ClientConnection connection, List<byte[]> args) {
+        if (!args.isEmpty()) {
+            long protocol = Keyspace.parseLong(args.get(0));
+            if (protocol != 2 && protocol != 3) {
+                throw new RespReply.RespException("NOPROTO unsupported protocol version");
+            }
+            connection.setProtocol((int) protocol);
+        }
+        Map<Object, Object> info = new LinkedHashMap<>();
+        info.put("server", "redis");
+        info.put("version", VERSION);
+        info.put("proto", (long) connection.getProtocol());
+        info.put("id", connection.getId());
+        info.put("mode", "standalone");
+        info.put("role", "master");
+        info.put("modules", List.of());
+        return info;
+    }
+
+    /**
+     * CLIENT ID, CLIENT TRACKING, and the client name and info which are accepted and ignored
+     */
+    private Object client(ClientConnection connection, List<byte[]> args) {
+        if (args.isEmpty()) {
+            throw new RespReply.RespException("ERR wrong number of arguments for 'client' command");
+        }
+        String subcommand = Keyspace.key(args.get(0)).toUpperCase(Locale.ROOT);
+        return switch (subcommand) {
+            case "ID" -> connection.getId();
+            case "SETNAME", "SETINFO" -> RespReply.OK;
+            case "GETNAME" -> null;
+            case "TRACKING" -> tracking(connection, args.subList(1, args.size()));
+            default -> throw new RespReply.RespException("ERR unknown subcommand '" + subcommand.toLowerCase(Locale.ROOT) + "'");
+        };
+    }
+
+    /**
+     * CLIENT TRACKING ON|OFF [REDIRECT client-id] [PREFIX prefix ...] BCAST
+     * only the BCAST mode is supported
+     */
+    private Object tracking(ClientConnection connection, List<byte[]> args) {
+        if (args.isEmpty()) {
+            throw new RespReply.RespException("ERR syntax error");
+        }
+        String onOff = Keyspace.key(args.get(0)).toUpperCase(Locale.ROOT);
+        if ("OFF".equals(onOff)) {
+            connection.setTracking(null, 0);
+            return RespReply.OK;
+        }
+        if (!"ON".equals(onOff)) {
+            throw new RespReply.RespException("ERR syntax error");
+        }
+        boolean bcast = false;
+        long redirect = 0;
+        List<String> prefixes = new ArrayList<>();
+        for (int i = 1; i < args.size(); i++) {
+            String option = Keyspace.key(args.get(i)).toUpperCase(Locale.ROOT);
+            switch (option) {
+                case "BCAST" -> bcast = true;
+                case "REDIRECT" -> {
+                    if (++i >= args.size()) {
+                        throw new RespReply.RespException("ERR syntax error");
+                    }
+                    redirect = Keyspace.parseLong(args.get(i));
+                    if (!connections.containsKey(redirect)) {
+                        throw new RespReply.RespException("ERR The client ID you want redirect to does not exist");
+                    }
+                }
+                case "PREFIX" -> {
+                    if (++i >= args.size()) {
+                        throw new RespReply.RespException("ERR syntax error");
+                    }
+                    prefixes.add(Keyspace.key(args.get(i)));
+                }
+                case "NOLOOP" -> {
+                }
+                default -> throw new RespReply.RespException("ERR syntax error");
+            }
+        }
+        if (!bcast) {
+            throw new RespReply.RespException("ERR only the BCAST tracking is supported by the embedded redis");
+        }
+        connection.setTracking(prefixes, redirect);
+        return RespReply.OK;
+    }
+
+    /**
+     * push the invalidation to the tracking clients
+     * @param keys changed keys, null means flushed
+     */
+    private void invalidate(List<String> keys, List<Delivery> deliveries) {
+        for (ClientConnection connection : connections.values()) {
+            List<String> prefixes = connection.getTrackingPrefixes();
+            if (prefixes == null) {
+                continue;
+            }
+            Object invalidated = null;
+            if (keys != null) {
+                List<byte[]> matched = keys.stream().distinct()
+                        .filter(key -> prefixes.isEmpty() || prefixes.stream().anyMatch(key::startsWith))
+                        .map(Keyspace::bytes).toList();
+                if (matched.isEmpty()) {
+                    continue;
+                }
+                invalidated = matched;
+            }
+            long redirect = connection.getTrackingRedirect();
+            if (redirect == 0) {
+                if (connection.getProtocol() == 3) {
+                    deliveries.add(new Delivery(connection, new RespReply.Push(Arrays.asList("invalidate", invalidated))));
+                }
+                continue;
+            }
+            ClientConnection target = connections.get(redirect);
+            if (target != null && target.getChannels().contains(TRACKING_INVALIDATE_CHANNEL)) {
+                deliveries.add(new Delivery(target, new RespReply.Push(
+                        Arrays.asList("message", TRACKING_INVALIDATE_CHANNEL, invalidated))));
+            }
+        }
+    }
+
+    private Object subscribe(ClientConnection connection, List<byte[]> args) {
+        if (args.isEmpty()) {
+            throw new RespReply.RespException("ERR wrong number of arguments for 'subscribe' command");
+        }
+        List<Object> replies = new ArrayList<>();
+        for (byte[] channel : args) {
+            connection.getChannels().add(Keyspace.key(channel));
+            replies.add(new RespReply.Push(List.of("subscribe", channel, (long) connection.getChannels().size())));
+        }
+        return new RespReply.Multi(replies);
+    }
+
+    private Object unsubscribe(ClientConnection connection, List<byte[]> args) {
+        List<String> channels = args.isEmpty() ? new ArrayList<>(connection.getChannels())
+                : args.stream().map(Keyspace::key).toList();
+        if (channels.isEmpty()) {
+            return new RespReply.Push(Arrays.asList("unsubscribe", null, 0L));
+        }
+        List<Object> replies = new ArrayList<>();
+        for (String channel : channels) {
+            connection.getChannels().remove(channel);
+            replies.add(new RespReply.Push(List.of("unsubscribe", Keyspace.bytes(channel), (long) connection.getChannels().size())));
+        }
+        return new RespReply.Multi(replies);
+    }
+
+    private long publish(List<byte[]> args, List<Delivery> deliveries) {
+        if (args.size() != 2) {
+            throw new RespReply.RespException("ERR wrong number of arguments for 'publish' command");
+        }
+        String channel = Keyspace.key(args.get(0));
+        long receivers = 0;
+        for (ClientConnection connection : connections.values()) {
+            if (connection.getChannels().contains(channel)) {
+                deliveries.add(new Delivery(connection, new RespReply.Push(List.of("message", args.get(0), args.get(1)))));
+                receivers++;
+            }
+        }
+        return receivers;
+    }
+
+    /**
+     * EVAL script numkeys [key ...] [arg ...], EVALSHA sha1 numkeys [key ...] [arg ...]
+     */
+    private Object eval(Keyspace keyspace, String name, List<byte[]> args) {
+        if (args.size() < 2) {
+            throw new RespReply.RespException("ERR wrong number of arguments for '" + name.toLowerCase(Locale.ROOT) + "' command");
+        }
+        long numKeys = Keyspace.parseLong(args.get(1));
+        if (numKeys < 0 || numKeys > args.size() - 2) {
+            throw new RespReply.RespException("ERR Number of keys can't be greater than number of args");
+        }
+        String sha = "EVAL".equals(name) ? luaScripting.load(new String(args.get(0), StandardCharsets.UTF_8))
+                : Keyspace.key(args.get(0));
+        List<byte[]> keys = args.subList(2, 2 + (int) numKeys);
+        List<byte[]> argv = args.subList(2 + (int) numKeys, args.size());
+        return luaScripting.evalSha(sha, keys, argv, call -> {
+            String callName = Keyspace.key(call.get(0)).toUpperCase(Locale.ROOT);
+            if (!Keyspace.isKeyspaceCommand(callName)) {
+                return new RespReply.Error("ERR This Redis command is not allowed from script");
+            }
+            try {
+                return keyspace.execute(call);
+            } catch (RespReply.RespException e) {
+                return new RespReply.Error(e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * SCRIPT LOAD script, SCRIPT EXISTS sha1 [sha1 ...], SCRIPT FLUSH
+     */
+    private Object script(List<byte[]> args) {
+        if (args.isEmpty()) {
+            throw new RespReply.RespException("ERR wrong number of arguments for 'script' command");
+        }
+        String subcommand = Keyspace.key(args.get(0)).toUpperCase(Locale.ROOT);
+        return switch (subcommand) {
+            case "LOAD" -> {
+                if (args.size() != 2) {
+                    throw new RespReply.RespException("ERR wrong number of arguments for 'script|load' command");
+                }
+                yield luaScripting.load(new String(args.get(1), StandardCharsets.UTF_8)).getBytes(StandardCharsets.US_ASCII);
+            }
+            case "EXISTS" -> args.subList(1, args.size()).stream()
+                    .map(sha -> luaScripting.exists(Keyspace.key(sha)) ? 1L : 0L).toList();
+            case "FLUSH" -> {
+                luaScripting.flush();
+                yield RespReply.OK;
+            }
+            default -> throw new RespReply.RespException("ERR unknown subcommand '" + subcommand.toLowerCase(Locale.ROOT) + "'");
+        };
+    }
+
+    private void start() {
+        try {
+            serverSocket = new ServerSocket(port, 128, InetAddress.getByName(host));
+        } catch (IOException e) {
+            throw new RuntimeException("embedded redis start failed: " + host + ":" + port, e);
+        }
+        Thread.ofPlatform().daemon().name("cache-keeper-embedded-redis").start(this::accept);
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                ClientConnection connection = new ClientConnection(clientId.incrementAndGet(), socket, this);
+                connections.put(connection.getId(), connection);
+                // not the virtual thread, the client under test may occupy all carriers while waiting for the server
+                Thread.ofPlatform().daemon().name("cache-keeper-embedded-redis-client-" + connection.getId()).start(connection);
+            } catch (IOException e) {
+                // the server socket is closed
+            }
+        }
+    }
+
+    void remove(ClientConnection connection) {
+        lock.lock();
+        try {
+            connections.remove(connection.getId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * stop the server and close all connections
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // ignore
+        }
+        new ArrayList<>(connections.values()).forEach(ClientConnection::close);
+    }
+
+    public static class Builder {
+        private String host = "127.0.0.1";
+        private Integer port = 0;
+        private Long latencyMs = 0L;
+
+        private Builder(){}
+
+        public static Builder newBuilder() {
+            return new Builder();
+        }
+
+        public Builder host(String host) {
+            this.host = host;
+            return this;
+        }
+
+        /**
+         * 0 means a random free port, get it by getPort
+         */
+        public Builder port(Integer port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * the latency of each round trip, can be changed by injectLatency
+         */
+        public Builder latencyMs(Long latencyMs) {
+            this.latencyMs = latencyMs;
+            return this;
+        }
+
+        /**
+         * build and start the server
+         */
+        public EmbeddedRedisServer build() {
+            if (host == null || host.isEmpty()) {
+                throw new IllegalArgumentException("embedded redis host is empty");
+            }
+            if (port == null || port < 0) {
+                throw new IllegalArgumentException("embedded redis port must not be negative");
+            }
+            EmbeddedRedisServer instance = new EmbeddedRedisServer();
+            instance.host = host;
+            instance.port = port;
+            instance.injectLatency(latencyMs == null ? 0 : latencyMs);
+            instance.start();
+            return instance;
+        }
+    }
+
+}
@@ -0,0 +1,873 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.embedded.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * the data of the embedded redis and the commands on it
+ * not thread safe, the server run one command at a time
+ * the key and the set member is kept as the ISO-8859-1 string, one char for one byte
+ */
+final class Keyspace {
+
+    private static final long SWEEP_INTERVAL_MS = 100;
+
+    private static final String WRONG_TYPE = "WRONGTYPE Operation against a key holding the wrong kind of value";
+
+    private final HashMap<String, Entry> data = new HashMap<>();
+
+    /**
+     * the keys changed by the commands, for the client side tracking
+     */
+    private final List<String> modifiedKeys = new ArrayList<>();
+
+    private boolean flushed;
+
+    private long nextSweepAt;
+
+    /**
+     * value: byte[] for the string, Set for the set, LinkedList for the list, ZSet for the sorted set
+     * expireAt: 0 means no expire
+     */
+    private static final class Entry {
+        private Object value;
+        private long expireAt;
+
+        private Entry(Object value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * the member is ordered by the score then the member
+     */
+    private static final class ZSet {
+        private final HashMap<String, Double> scores = new HashMap<>();
+        private final TreeSet<ScoredMember> ordered = new TreeSet<>();
+
+        private boolean add(String member, double score) {
+            Double old = scores.put(member, score);
+            if (old != null) {
+                ordered.remove(new ScoredMember(old, member));
+            }
+            ordered.add(new ScoredMember(score, member));
+            return old == null;
+        }
+
+        private boolean remove(String member) {
+            Double old = scores.remove(member);
+            if (old == null) {
+                return false;
+            }
+            ordered.remove(new ScoredMember(old, member));
+            return true;
+        }
+    }
+
+    private record ScoredMember(double score, String member) implements Comparable<ScoredMember> {
+        @Override
+        public int compareTo(ScoredMember other) {
+            int compare = Double.compare(score, other.score);
+            return compare != 0 ? compare : member.compareTo(other.member);
+        }
+    }
+
+    static String key(byte[] bytes) {
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    static byte[] bytes(String key) {
+        return key.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * run the command on the data
+     * @param command command name and arguments
+     * @return reply
+     */
+    Object execute(List<byte[]> command) {
+        long now = System.currentTimeMillis();
+        if (now >= nextSweepAt) {
+            sweep(now);
+            nextSweepAt = now + SWEEP_INTERVAL_MS;
+        }
+        String name = key(command.get(0)).toUpperCase(Locale.ROOT);
+        List<byte[]> args = command.subList(1, command.size());
+        return switch (name) {
+            case "PING" -> args.isEmpty() ? new RespReply.Status("PONG") : args.get(0);
+            case "ECHO" -> arg(name, args, 1, 1).get(0);
+            case "GET" -> string(key(arg(name, args, 1, 1).get(0)), now);
+            case "MGET" -> mGet(arg(name, args, 1, Integer.MAX_VALUE), now);
+            case "SET" -> set(arg(name, args, 2, Integer.MAX_VALUE), now);
+            case "INCR" -> incrBy(arg(name, args, 1, 1).get(0), 1, now);
+            case "INCRBY" -> incrBy(arg(name, args, 2, 2).get(0), parseLong(args.get(1)), now);
+            case "DEL", "UNLINK" -> delete(arg(name, args, 1, Integer.MAX_VALUE), now);
+            case "EXISTS" -> exists(arg(name, args, 1, Integer.MAX_VALUE), now);
+            case "EXPIRE" -> expire(arg(name, args, 2, 3), 1000, now);
+            case "PEXPIRE" -> expire(arg(name, args, 2, 3), 1, now);
+            case "TTL" -> ttl(arg(name, args, 1, 1), 1000, now);
+            case "PTTL" -> ttl(arg(name, args, 1, 1), 1, now);
+            case "PERSIST" -> persist(arg(name, args, 1, 1), now);
+            case "TYPE" -> new RespReply.Status(type(live(key(arg(name, args, 1, 1).get(0)), now)));
+            case "RENAME" -> rename(arg(name, args, 2, 2), now);
+            case "SADD" -> sAdd(arg(name, args, 2, Integer.MAX_VALUE), now);
+            case "SREM" -> sRem(arg(name, args, 2, Integer.MAX_VALUE), now);
+            case "SISMEMBER" -> {
+                Set<String> set = set(key(arg(name, args, 2, 2).get(0)), false, now);
+                yield set != null && set.contains(key(args.get(1))) ? 1L : 0L;
+            }
+            case "SMEMBERS" -> {
+                Set<String> set = set(key(arg(name, args, 1, 1).get(0)), false, now);
+                yield set == null ? List.of() : set.stream().map(Keyspace::bytes).toList();
+            }
+            case "SCARD" -> {
+                Set<String> set = set(key(arg(name, args, 1, 1).get(0)), false, now);
+                yield set == null ? 0L : (long) set.size();
+            }
+            case "ZADD" -> zAdd(arg(name, args, 3, Integer.MAX_VALUE), now);
+            case "ZREM" -> zRem(arg(name, args, 2, Integer.MAX_VALUE), now);
+            case "ZSCORE" -> {
+                ZSet zset = zset(key(arg(name, args, 2, 2).get(0)), false, now);
+                Double score = zset == null ? null : zset.scores.get(key(args.get(1)));
+                yield score == null ? null : formatScore(score);
+            }
+            case "ZCARD" -> {
+                ZSet zset = zset(key(arg(name, args, 1, 1).get(0)), false, now);
+                yield zset == null ? 0L : (long) zset.scores.size();
+            }
+            case "ZRANGEBYSCORE" -> zRangeByScore(arg(name, args, 3, 3), now);
+            case "ZREMRANGEBYSCORE" -> zRemRangeByScore(arg(name, args, 3, 3), now);
+            case "LPUSH" -> lPush(arg(name, args, 2, Integer.MAX_VALUE), now);
+            case "LPOS" -> lPos(arg(name, args, 2, Integer.MAX_VALUE), now);
+            case "LRANGE" -> lRange(arg(name, args, 3, 3), now);
+            case "LLEN" -> {
+                LinkedList<byte[]> list = list(key(arg(name, args, 1, 1).get(0)), false, now);
+                yield list == null ? 0L : (long) list.size();
+            }
+            case "GETBIT" -> getBit(arg(name, args, 2, 2), now);
+            case "SETBIT" -> setBit(arg(name, args, 3, 3), now);
+            case "DBSIZE" -> {
+                sweep(now);
+                yield (long) data.size();
+            }
+            case "KEYS" -> keys(arg(name, args, 1, 1), now);
+            case "SCAN" -> scan(arg(name, args, 1, Integer.MAX_VALUE), now);
+            case "FLUSHALL", "FLUSHDB" -> {
+                data.clear();
+                flushed = true;
+                yield RespReply.OK;
+            }
+            default -> throw new RespReply.RespException("ERR unknown command '" + name.toLowerCase(Locale.ROOT) + "'");
+        };
+    }
+
+    /**
+     * whether the command is run by the keyspace
+     */
+    static boolean isKeyspaceCommand(String name) {
+        return switch (name) {
+            case "PING", "ECHO", "GET", "MGET", "SET", "INCR", "INCRBY", "DEL", "UNLINK", "EXISTS", "EXPIRE", "PEXPIRE",
+                 "TTL", "PTTL", "PERSIST", "TYPE", "RENAME", "SADD", "SREM", "SISMEMBER", "SMEMBERS", "SCARD", "ZADD", "ZREM",
+                 "ZSCORE", "ZCARD", "ZRANGEBYSCORE", "ZREMRANGEBYSCORE", "LPUSH", "LPOS", "LRANGE", "LLEN", "GETBIT", "SETBIT",
+                 "DBSIZE", "KEYS", "SCAN", "FLUSHALL", "FLUSHDB" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * the keys changed since the last drain
+     * @return the changed keys, null when the data is flushed
+     */
+    List<String> drainModifiedKeys() {
+        if (flushed) {
+            flushed = false;
+            modifiedKeys.clear();
+            return null;
+        }
+        List<String> keys = new ArrayList<>(modifiedKeys);
+        modifiedKeys.clear();
+        return keys;
+    }
+
+    boolean hasModifiedKeys() {
+        return flushed || !modifiedKeys.isEmpty();
+    }
+
+    private static List<byte[]> arg(String name, List<byte[]> args, int min, int max) {
+        if (args.size() < min || args.size() > max) {
+            throw new RespReply.RespException("ERR wrong number of arguments for '" + name.toLowerCase(Locale.ROOT) + "' command");
+        }
+        return args;
+    }
+
+    static long parseLong(byte[] value) {
+        try {
+            return Long.parseLong(key(value));
+        } catch (NumberFormatException e) {
+            throw new RespReply.RespException("ERR value is not an integer or out of range");
+        }
+    }
+
+    private void sweep(long now) {
+        Iterator<Map.Entry<String, Entry>> iterator = data.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> entry = iterator.next();
+            if (entry.getValue().expireAt != 0 && entry.getValue().expireAt <= now) {
+                iterator.remove();
+                modifiedKeys.add(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * the entry which is not expired, the expired one is removed
+     */
+    private Entry live(String key, long now) {
+        Entry entry = data.get(key);
+        if (entry != null && entry.expireAt != 0 && entry.expireAt <= now) {
+            data.remove(key);
+            modifiedKeys.add(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private static String type(Entry entry) {
+        if (entry == null) {
+            return "none";
+        }
+        return switch (entry.value) {
+            case byte[] ignored -> "string";
+            case Set<?> ignored -> "set";
+            case ZSet ignored -> "zset";
+            default -> "list";
+        };
+    }
+
+    private byte[] string(String key, long now) {
+        Entry entry = live(key, now);
+        if (entry == null) {
+            return null;
+        }
+        if (!(entry.value instanceof byte[] value)) {
+            throw new RespReply.RespException(WRONG_TYPE);
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> set(String key, boolean create, long now) {
+        Entry entry = live(key, now);
+        if (entry == null) {
+            if (!create) {
+                return null;
+            }
+            entry = new Entry(new LinkedHashSet<String>());
+            data.put(key, entry);
+        }
+        if (!(entry.value instanceof Set<?>)) {
+            throw new RespReply.RespException(WRONG_TYPE);
+        }
+        return (Set<String>) entry.value;
+    }
+
+    private ZSet zset(String key, boolean create, long now) {
+        Entry entry = live(key, now);
+        if (entry == null) {
+            if (!create) {
+                return null;
+            }
+            entry = new Entry(new ZSet());
+            data.put(key, entry);
+        }
+        if (!(entry.value instanceof ZSet zset)) {
+            throw new RespReply.RespException(WRONG_TYPE);
+        }
+        return zset;
+    }
+
+    @SuppressWarnings("unchecked")
+    private LinkedList<byte[]> list(String key, boolean create, long now) {
+        Entry entry = live(key, now);
+        if (entry == null) {
+            if (!create) {
+                return null;
+            }
+            entry = new Entry(new LinkedList<byte[]>());
+            data.put(key, entry);
+        }
+        if (!(entry.value instanceof LinkedList<?>)) {
+            throw new RespReply.RespException(WRONG_TYPE);
+        }
+        return (LinkedList<byte[]>) entry.value;
+    }
+
+    private List<Object> mGet(List<byte[]> keys, long now) {
+        List<Object> values = new ArrayList<>(keys.size());
+        for (byte[] key : keys) {
+            Entry entry = live(key(key), now);
+            values.add(entry != null && entry.value instanceof byte[] value ? value : null);
+        }
+        return values;
+    }
+
+    /**
+     * SET key value [NX | XX] [GET] [EX seconds | PX milliseconds | KEEPTTL]
+     */
+    private Object set(List<byte[]> args, long now) {
+        String key = key(args.get(0));
+        boolean nx = false;
+        boolean xx = false;
+        boolean get = false;
+        boolean keepTtl = false;
+        long expireAt = 0;
+        for (int i = 2; i < args.size(); i++) {
+            String option = key(args.get(i)).toUpperCase(Locale.ROOT);
+            switch (option) {
+                case "NX" -> nx = true;
+                case "XX" -> xx = true;
+                case "GET" -> get = true;
+                case "KEEPTTL" -> keepTtl = true;
+                case "EX", "PX" -> {
+                    if (++i >= args.size()) {
+                        throw new RespReply.RespException("ERR syntax error");
+                    }
+                    long time = parseLong(args.get(i));
+                    if (time <= 0) {
+                        throw new RespReply.RespException("ERR invalid expire time in 'set' command");
+                    }
+                    expireAt = now + ("EX".equals(option) ? time * 1000 : time);
+                }
+                default -> throw new RespReply.RespException("ERR syntax error");
+            }
+        }
+        if (nx && xx) {
+            throw new RespReply.RespException("ERR syntax error");
+        }
+        Entry old = live(key, now);
+        byte[] oldValue = get ? string(key, now) : null;
+        if ((nx && old != null) || (xx && old == null)) {
+            return get ? oldValue : null;
+        }
+        Entry entry = new Entry(args.get(1));
+        entry.expireAt = keepTtl && old != null ? old.expireAt : expireAt;
+        data.put(key, entry);
+        modifiedKeys.add(key);
+        return get ? oldValue : RespReply.OK;
+    }
+
+    /**
+     * the value is kept as the decimal string, the ttl is kept
+     */
+    private long incrBy(byte[] keyBytes, long increment, long now) {
+        String key = key(keyBytes);
+        byte[] old = string(key, now);
+        long value;
+        try {
+            value = Math.addExact(old == null ? 0 : Long.parseLong(key(old)), increment);
+        } catch (NumberFormatException e) {
+            throw new RespReply.RespException("ERR value is not an integer or out of range");
+        } catch (ArithmeticException e) {
+            throw new RespReply.RespException("ERR increment or decrement would overflow");
+        }
+        Entry entry = live(key, now);
+        if (entry == null) {
+            entry = new Entry(null);
+            data.put(key, entry);
+        }
+        entry.value = String.valueOf(value).getBytes(StandardCharsets.US_ASCII);
+        modifiedKeys.add(key);
+        return value;
+    }
+
+    private long delete(List<byte[]> keys, long now) {
+        long count = 0;
+        for (byte[] key : keys) {
+            String name = key(key);
+            if (live(name, now) != null) {
+                data.remove(name);
+                modifiedKeys.add(name);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long exists(List<byte[]> keys, long now) {
+        long count = 0;
+        for (byte[] key : keys) {
+            if (live(key(key), now) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * EXPIRE key seconds [NX | XX | GT | LT], the non positive time delete the key
+     */
+    private long expire(List<byte[]> args, long unitMs, long now) {
+        String key = key(args.get(0));
+        Entry entry = live(key, now);
+        if (entry == null) {
+            return 0;
+        }
+        long expireAt = now + parseLong(args.get(1)) * unitMs;
+        if (args.size() == 3) {
+            String option = key(args.get(2)).toUpperCase(Locale.ROOT);
+            boolean accepted = switch (option) {
+                case "NX" -> entry.expireAt == 0;
+                case "XX" -> entry.expireAt != 0;
+                case "GT" -> entry.expireAt != 0 && expireAt > entry.expireAt;
+                case "LT" -> entry.expireAt == 0 || expireAt < entry.expireAt;
+                default -> throw new RespReply.RespException("ERR Unsupported option " + option);
+            };
+            if (!accepted) {
+                return 0;
+            }
+        }
+        if (expireAt <= now) {
+            data.remove(key);
+        } else {
+            entry.expireAt = expireAt;
+        }
+        modifiedKeys.add(key);
+        return 1;
+    }
+
+    private long ttl(List<byte[]> args, long unitMs, long now) {
+        Entry entry = live(key(args.get(0)), now);
+        if (entry == null) {
+            return -2;
+        }
+        if (entry.expireAt == 0) {
+            return -1;
+        }
+        return (entry.expireAt - now + unitMs - 1) / unitMs;
+    }
+
+    private long persist(List<byte[]> args, long now) {
+        Entry entry = live(key(args.get(0)), now);
+        if (entry == null || entry.expireAt == 0) {
+            return 0;
+        }
+        entry.expireAt = 0;
+        return 1;
+    }
+
+    private Object rename(List<byte[]> args, long now) {
+        String source = key(args.get(0));
+        String target = key(args.get(1));
+        Entry entry = live(source, now);
+        if (entry == null) {
+            throw new RespReply.RespException("ERR no such key");
+        }
+        data.remove(source);
+        data.put(target, entry);
+        modifiedKeys.add(source);
+        modifiedKeys.add(target);
+        return RespReply.OK;
+    }
+
+    private long sAdd(List<byte[]> args, long now) {
+        String key = key(args.get(0));
+        Set<String> set = set(key, true, now);
+        long count = 0;
+        for (byte[] member : args.subList(1, args.size())) {
+            if (set.add(key(member))) {
+                count++;
+            }
+        }
+        modifiedKeys.add(key);
+        return count;
+    }
+
+    private long sRem(List<byte[]> args, long now) {
+        String key = key(args.get(0));
+        Set<String> set = set(key, false, now);
+        if (set == null) {
+            return 0;
+        }
+        long count = 0;
+        for (byte[] member : args.subList(1, args.size())) {
+            if (set.remove(key(member))) {
+                count++;
+            }
+        }
+        if (set.isEmpty()) {
+            data.remove(key);
+        }
+        modifiedKeys.add(key);
+        return count;
+    }
+
+    /**
+     * ZADD key [NX | XX] score member [score member ...]
+     */
+    private long zAdd(List<byte[]> args, long now) {
+        String key = key(args.get(0));
+        boolean nx = false;
+        boolean xx = false;
+        int index = 1;
+        for (; index < args.size(); index++) {
+            String option = key(args.get(index)).toUpperCase(Locale.ROOT);
+            if ("NX".equals(option)) {
+                nx = true;
+            } else if ("XX".equals(option)) {
+                xx = true;
+            } else {
+                break;
+            }
+        }
+        if ((nx && xx) || index >= args.size() || (args.size() - index) % 2 != 0) {
+            throw new RespReply.RespException("ERR syntax error");
+        }
+        List<Double> scores = new ArrayList<>();
+        for (int i = index; i < args.size(); i += 2) {
+            scores.add(parseScore(args.get(i)));
+        }
+        ZSet zset = zset(key, !xx, now);
+        if (zset == null) {
+            return 0;
+        }
+        long count = 0;
+        for (int i = index; i < args.size(); i += 2) {
+            String member = key(args.get(i + 1));
+            boolean exists = zset.scores.containsKey(member);
+            if ((nx && exists) || (xx && !exists)) {
+                continue;
+            }
+            if (zset.add(member, scores.get((i - index) / 2))) {
+                count++;
+            }
+        }
+        if (zset.scores.isEmpty()) {
+            data.remove(key);
+        }
+        modifiedKeys.add(key);
+        return count;
+    }
+
+    private long zRem(List<byte[]> args, long now) {
+        String key = key(args.get(0));
+        ZSet zset = zset(key, false, now);
+        if (zset == null) {
+            return 0;
+        }
+        long count = 0;
+        for (byte[] member : args.subList(1, args.size())) {
+            if (zset.remove(key(member))) {
+                count++;
+            }
+        }
+        if (zset.scores.isEmpty()) {
+            data.remove(key);
+        }
+        modifiedKeys.add(key);
+        return count;
+    }
+
+    /**
+     * ZRANGEBYSCORE key min max, the bound is -inf, +inf, the score, or ( with the score for the exclusive
+     */
+    private List<byte[]> zRangeByScore(List<byte[]> args, long now) {
+        ZSet zset = zset(key(args.get(0)), false, now);
+        if (zset == null) {
+            return List.of();
+        }
+        return inRange(zset, args.get(1), args.get(2)).stream().map(member -> bytes(member.member())).toList();
+    }
+
+    private long zRemRangeByScore(List<byte[]> args, long now) {
+        String key = key(args.get(0));
+        ZSet zset = zset(key, false, now);
+        if (zset == null) {
+            return 0;
+        }
+        List<ScoredMember> removed = inRange(zset, args.get(1), args.get(2));
+        removed.forEach(member -> zset.remove(member.member()));
+        if (zset.scores.isEmpty()) {
+            data.remove(key);
+        }
+        if (!removed.isEmpty()) {
+            modifiedKeys.add(key);
+        }
+        return removed.size();
+    }
+
+    private static List<ScoredMember> inRange(ZSet zset, byte[] minArg, byte[] maxArg) {
+        String min = key(minArg);
+        String max = key(maxArg);
+        boolean minExclusive = min.startsWith("(");
+        boolean maxExclusive = max.startsWith("(");
+        double minScore = parseScore(bytes(minExclusive ? min.substring(1) : min));
+        double maxScore = parseScore(bytes(maxExclusive ? max.substring(1) : max));
+        List<ScoredMember> members = new ArrayList<>();
+        for (ScoredMember member : zset.ordered) {
+            if (member.score() < minScore || (minExclusive && member.score() == minScore)) {
+                continue;
+            }
+            if (member.score() > maxScore || (maxExclusive && member.score() == maxScore)) {
+                break;
+            }
+            members.add(member);
+        }
+        return members;
+    }
+
+    private static double parseScore(byte[] value) {
+        String score = key(value).toLowerCase(Locale.ROOT);
+        switch (score) {
+            case "-inf" -> {
+                return Double.NEGATIVE_INFINITY;
+            }
+            case "+inf", "inf" -> {
+                return Double.POSITIVE_INFINITY;
+            }
+            default -> {
+                try {
+                    double parsed = Double.parseDouble(score);
+                    if (!Double.isNaN(parsed)) {
+                        return parsed;
+                    }
+                } catch (NumberFormatException ignored) {
+                    // the error below
+                }
+                throw new RespReply.RespException("ERR value is not a valid float");
+            }
+        }
+    }
+
+    /**
+     * the integral score is written without the fraction, same as the redis
+     */
+    private static byte[] formatScore(double score) {
+        if (score == Math.rint(score) && Math.abs(score) < 1e17) {
+            return String.valueOf((long) score).getBytes(StandardCharsets.US_ASCII);
+        }
+        if (Double.isInfinite(score)) {
+            return (score > 0 ? "inf" : "-inf").getBytes(StandardCharsets.US_ASCII);
+        }
+        return String.valueOf(score).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private long lPush(List<byte[]> args, long now) {
+        String key = key(args.get(0));
+        LinkedList<byte[]> list = list(key, true, now);
+        for (byte[] value : args.subList(1, args.size())) {
+            list.addFirst(value);
+        }
+        modifiedKeys.add(key);
+        return list.size();
+    }
+
+    /**
+     * LPOS key element [RANK rank] [COUNT num-matches] [MAXLEN len], only the positive rank
+     */
+    private Object lPos(List<byte[]> args, long now) {
+        LinkedList<byte[]> list = list(key(args.get(0)), false, now);
+        long rank = 1;
+        Long count = null;
+        long maxLen = 0;
+        for (int i = 2; i + 1 < args.size(); i += 2) {
+            String option = key(args.get(i)).toUpperCase(Locale.ROOT);
+            long value = parseLong(args.get(i + 1));
+            switch (option) {
+                case "RANK" -> rank = value;
+                case "COUNT" -> count = value;
+                case "MAXLEN" -> maxLen = value;
+                default -> throw new RespReply.RespException("ERR syntax error");
+            }
+        }
+        if (rank <= 0) {
+            throw new RespReply.RespException("ERR only the positive RANK is supported by the embedded redis");
+        }
+        List<Object> positions = new ArrayList<>();
+        if (list != null) {
+            long index = 0;
+            long matched = 0;
+            for (byte[] value : list) {
+                if (maxLen > 0 && index >= maxLen) {
+                    break;
+                }
+                if (Arrays.equals(value, args.get(1)) && ++matched >= rank) {
+                    positions.add(index);
+                    if (count == null || (count > 0 && positions.size() >= count)) {
+                        break;
+                    }
+                }
+                index++;
+            }
+        }
+        if (count == null) {
+            return positions.isEmpty() ? null : positions.get(0);
+        }
+        return positions;
+    }
+
+    private List<byte[]> lRange(List<byte[]> args, long now) {
+        LinkedList<byte[]> list = list(key(args.get(0)), false, now);
+        if (list == null) {
+            return List.of();
+        }
+        int size = list.size();
+        long start = parseLong(args.get(1));
+        long stop = parseLong(args.get(2));
+        start = start < 0 ? Math.max(0, size + start) : start;
+        stop = stop < 0 ? size + stop : Math.min(stop, size - 1);
+        if (start > stop) {
+            return List.of();
+        }
+        return new ArrayList<>(list.subList((int) start, (int) stop + 1));
+    }
+
+    /**
+     * the bit 0 is the most significant bit of the first byte, same as the redis
+     */
+    private long getBit(List<byte[]> args, long now) {
+        byte[] value = string(key(args.get(0)), now);
+        long offset = parseLong(args.get(1));
+        if (offset < 0) {
+            throw new RespReply.RespException("ERR bit offset is not an integer or out of range");
+        }
+        int index = (int) (offset >>> 3);
+        if (value == null || index >= value.length) {
+            return 0;
+        }
+        return (value[index] >> (7 - (offset & 7))) & 1;
+    }
+
+    private long setBit(List<byte[]> args, long now) {
+        String key = key(args.get(0));
+        long offset = parseLong(args.get(1));
+        long bit = parseLong(args.get(2));
+        if (offset < 0 || offset >= 1L << 32) {
+            throw new RespReply.RespException("ERR bit offset is not an integer or out of range");
+        }
+        if (bit != 0 && bit != 1) {
+            throw new RespReply.RespException("ERR bit is not an integer or out of range");
+        }
+        byte[] value = string(key, now);
+        int index = (int) (offset >>> 3);
+        Entry entry = data.get(key);
+        if (value == null) {
+            entry = new Entry(new byte[index + 1]);
+            data.put(key, entry);
+        } else if (index >= value.length) {
+            entry.value = Arrays.copyOf(value, index + 1);
+        }
+        byte[] bits = (byte[]) entry.value;
+        int mask = 1 << (7 - (offset & 7));
+        long old = (bits[index] & mask) == 0 ? 0 : 1;
+        bits[index] = (byte) (bit == 1 ? bits[index] | mask : bits[index] & ~mask);
+        modifiedKeys.add(key);
+        return old;
+    }
+
+    private List<byte[]> keys(List<byte[]> args, long now) {
+        sweep(now);
+        Pattern pattern = glob(key(args.get(0)));
+        return data.keySet().stream().filter(key -> pattern.matcher(key).matches()).sorted().map(Keyspace::bytes).toList();
+    }
+
+    /**
+     * SCAN cursor [MATCH pattern] [COUNT count] [TYPE type]
+     * the cursor is the position in the sorted keys, the key added during the scan may be missed
+     */
+    private List<Object> scan(List<byte[]> args, long now) {
+        long cursor = parseLong(args.get(0));
+        Pattern pattern = null;
+        long count = 10;
+        String type = null;
+        for (int i = 1; i + 1 < args.size(); i += 2) {
+            String option = key(args.get(i)).toUpperCase(Locale.ROOT);
+            switch (option) {
+                case "MATCH" -> pattern = glob(key(args.get(i + 1)));
+                case "COUNT" -> count = Math.max(1, parseLong(args.get(i + 1)));
+                case "TYPE" -> type = key(args.get(i + 1)).toLowerCase(Locale.ROOT);
+                default -> throw new RespReply.RespException("ERR syntax error");
+            }
+        }
+        sweep(now);
+        List<String> keys = data.keySet().stream().sorted().toList();
+        List<byte[]> matched = new ArrayList<>();
+        int index = (int) Math.min(Math.max(cursor, 0), keys.size());
+        int end = (int) Math.min(keys.size(), index + count);
+        for (; index < end; index++) {
+            String key = keys.get(index);
+            if ((pattern == null || pattern.matcher(key).matches()) && (type == null || type.equals(type(data.get(key))))) {
+                matched.add(bytes(key));
+            }
+        }
+        long next = index >= keys.size() ? 0 : index;
+        return List.of(String.valueOf(next).getBytes(StandardCharsets.US_ASCII), matched);
+    }
+
+    /**
+     * the glob style pattern of the redis, * ? [abc] and the escape
+     */
+    private static Pattern glob(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            switch (c) {
+                case '*' -> regex.append(".*");
+                case '?' -> regex.append('.');
+                case '[' -> {
+                    int end = glob.indexOf(']', i + 1);
+                    if (end < 0) {
+                        regex.append("\\[");
+                    } else {
+                        regex.append('[');
+                        for (int j = i + 1; j < end; j++) {
+                            char b = glob.charAt(j);
+                            if ((b == '^' && j == i + 1) || b == '-' || Character.isLetterOrDigit(b)) {
+                                regex.append(b);
+                            } else {
+                                regex.append('\\').append(b);
+                            }
+                        }
+                        regex.append(']');
+                        i = end;
+                    }
+                }
+                case '\\' -> {
+                    if (i + 1 < glob.length()) {
+                        regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+                    }
+                }
+                default -> regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+}
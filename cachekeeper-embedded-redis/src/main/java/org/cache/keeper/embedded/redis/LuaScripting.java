@@ -0,0 +1,263 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.embedded.redis;
+
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LuaString;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+import org.luaj.vm2.lib.OneArgFunction;
+import org.luaj.vm2.lib.VarArgFunction;
+import org.luaj.vm2.lib.jse.JsePlatform;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * the lua scripting of the embedded redis, EVAL, EVALSHA and SCRIPT
+ * the script is compiled once and cached by its sha1, the conversion between the lua and the reply is same as the redis
+ * not thread safe, the server run one script at a time
+ */
+final class LuaScripting {
+
+    private final Globals globals = JsePlatform.standardGlobals();
+
+    private final Map<String, LuaValue> scripts = new HashMap<>();
+
+    /**
+     * the redis.call of the running script
+     */
+    private Function<List<byte[]>, Object> call;
+
+    LuaScripting() {
+        LuaTable redis = new LuaTable();
+        redis.set("call", new VarArgFunction() {
+            @Override
+            public Varargs invoke(Varargs args) {
+                Object reply = call.apply(toCommand(args));
+                if (reply instanceof RespReply.Error error) {
+                    throw new LuaError(error.message());
+                }
+                return toLua(reply);
+            }
+        });
+        redis.set("pcall", new VarArgFunction() {
+            @Override
+            public Varargs invoke(Varargs args) {
+                return toLua(call.apply(toCommand(args)));
+            }
+        });
+        redis.set("error_reply", new OneArgFunction() {
+            @Override
+            public LuaValue call(LuaValue message) {
+                LuaTable table = new LuaTable();
+                table.set("err", message);
+                return table;
+            }
+        });
+        redis.set("status_reply", new OneArgFunction() {
+            @Override
+            public LuaValue call(LuaValue message) {
+                LuaTable table = new LuaTable();
+                table.set("ok", message);
+                return table;
+            }
+        });
+        redis.set("sha1hex", new OneArgFunction() {
+            @Override
+            public LuaValue call(LuaValue script) {
+                return LuaValue.valueOf(sha1(script.tojstring()));
+            }
+        });
+        redis.set("log", new VarArgFunction() {
+            @Override
+            public Varargs invoke(Varargs args) {
+                return LuaValue.NONE;
+            }
+        });
+        globals.set("redis", redis);
+    }
+
+    static String sha1(String script) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(script.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * compile and cache the script
+     * @param script lua script
+     * @return sha1 of the script
+     */
+    String load(String script) {
+        String sha = sha1(script);
+        if (!scripts.containsKey(sha)) {
+            try {
+                scripts.put(sha, globals.load(script, "@user_script"));
+            } catch (LuaError e) {
+                throw new RespReply.RespException("ERR Error compiling script (new function): " + e.getMessage());
+            }
+        }
+        return sha;
+    }
+
+    boolean exists(String sha) {
+        return scripts.containsKey(sha.toLowerCase());
+    }
+
+    void flush() {
+        scripts.clear();
+    }
+
+    /**
+     * run the cached script
+     * @param sha sha1 of the script
+     * @param keys KEYS
+     * @param args ARGV
+     * @param call run the command of redis.call
+     * @return reply
+     */
+    Object evalSha(String sha, List<byte[]> keys, List<byte[]> args, Function<List<byte[]>, Object> call) {
+        LuaValue function = scripts.get(sha.toLowerCase());
+        if (function == null) {
+            return new RespReply.Error("NOSCRIPT No matching script. Please use EVAL.");
+        }
+        globals.set("KEYS", toTable(keys));
+        globals.set("ARGV", toTable(args));
+        this.call = call;
+        try {
+            return toReply(function.call());
+        } catch (LuaError e) {
+            String message = e.getMessage();
+            return new RespReply.Error(message != null && message.startsWith("ERR") ? message : "ERR Error running script: " + message);
+        } finally {
+            this.call = null;
+        }
+    }
+
+    private static LuaTable toTable(List<byte[]> values) {
+        LuaTable table = new LuaTable();
+        for (int i = 0; i < values.size(); i++) {
+            table.set(i + 1, LuaString.valueOf(values.get(i)));
+        }
+        return table;
+    }
+
+    private static List<byte[]> toCommand(Varargs args) {
+        if (args.narg() == 0) {
+            throw new LuaError("Please specify at least one argument for this redis lib call");
+        }
+        List<byte[]> command = new ArrayList<>(args.narg());
+        for (int i = 1; i <= args.narg(); i++) {
+            LuaValue arg = args.arg(i);
+            if (arg.type() != LuaValue.TSTRING && arg.type() != LuaValue.TNUMBER) {
+                throw new LuaError("Lua redis lib command arguments must be strings or integers");
+            }
+            command.add(toBytes(arg.checkstring()));
+        }
+        return command;
+    }
+
+    private static byte[] toBytes(LuaString value) {
+        byte[] bytes = new byte[value.length()];
+        value.copyInto(0, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    /**
+     * redis reply to lua: integer to number, bulk to string, nil to false, status to {ok}, error to {err}
+     */
+    private static LuaValue toLua(Object reply) {
+        switch (reply) {
+            case null -> {
+                return LuaValue.FALSE;
+            }
+            case Long value -> {
+                return LuaValue.valueOf(value.doubleValue());
+            }
+            case byte[] value -> {
+                return LuaString.valueOf(value);
+            }
+            case RespReply.Status status -> {
+                LuaTable table = new LuaTable();
+                table.set("ok", status.message());
+                return table;
+            }
+            case RespReply.Error error -> {
+                LuaTable table = new LuaTable();
+                table.set("err", error.message());
+                return table;
+            }
+            case List<?> values -> {
+                LuaTable table = new LuaTable();
+                for (int i = 0; i < values.size(); i++) {
+                    table.set(i + 1, toLua(values.get(i)));
+                }
+                return table;
+            }
+            default -> throw new LuaError("unsupported reply type: " + reply.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * lua to redis reply: number to integer, string to bulk, true to 1, false and nil to nil, table to array until the first nil
+     */
+    private static Object toReply(LuaValue value) {
+        switch (value.type()) {
+            case LuaValue.TNUMBER -> {
+                return value.tolong();
+            }
+            case LuaValue.TSTRING -> {
+                return toBytes(value.checkstring());
+            }
+            case LuaValue.TBOOLEAN -> {
+                return value.toboolean() ? 1L : null;
+            }
+            case LuaValue.TTABLE -> {
+                LuaValue error = value.get("err");
+                if (error.isstring()) {
+                    return new RespReply.Error(error.tojstring());
+                }
+                LuaValue status = value.get("ok");
+                if (status.isstring()) {
+                    return new RespReply.Status(status.tojstring());
+                }
+                List<Object> values = new ArrayList<>();
+                for (int i = 1; !value.get(i).isnil(); i++) {
+                    values.add(toReply(value.get(i)));
+                }
+                return values;
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+}
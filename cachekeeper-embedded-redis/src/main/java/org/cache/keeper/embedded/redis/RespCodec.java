@@ -0,0 +1,146 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.embedded.redis;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * encode and decode of the redis serialization protocol, RESP2 and RESP3
+ */
+final class RespCodec {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private RespCodec() {
+    }
+
+    /**
+     * read one command, the array of bulk strings or the inline command
+     * @param in input
+     * @return the command and its arguments, null at the end of the stream
+     */
+    static List<byte[]> readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type == -1) {
+            return null;
+        }
+        if (type != '*') {
+            // inline command, split by the space
+            String line = ((char) type) + readLine(in);
+            List<byte[]> command = new ArrayList<>();
+            for (String part : line.trim().split(" +")) {
+                if (!part.isEmpty()) {
+                    command.add(part.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            return command;
+        }
+        int count = Integer.parseInt(readLine(in));
+        List<byte[]> command = new ArrayList<>(Math.max(count, 0));
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$') {
+                throw new IOException("protocol error, expect bulk string");
+            }
+            int length = Integer.parseInt(readLine(in));
+            command.add(in.readNBytes(length));
+            if (in.read() != '\r' || in.read() != '\n') {
+                throw new IOException("protocol error, expect CRLF");
+            }
+        }
+        return command;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b == -1) {
+                throw new EOFException();
+            }
+            line.write(b);
+        }
+        in.read();
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * write the reply
+     * @param out output
+     * @param reply reply
+     * @param protocol 2 or 3
+     */
+    static void write(OutputStream out, Object reply, int protocol) throws IOException {
+        switch (reply) {
+            case null -> out.write(protocol == 3 ? "_\r\n".getBytes(StandardCharsets.US_ASCII) : "$-1\r\n".getBytes(StandardCharsets.US_ASCII));
+            case RespReply.Status status -> writeLine(out, '+', status.message());
+            case RespReply.Error error -> writeLine(out, '-', error.message());
+            case Long value -> writeLine(out, ':', String.valueOf(value));
+            case Integer value -> writeLine(out, ':', String.valueOf(value));
+            case byte[] value -> {
+                writeLine(out, '$', String.valueOf(value.length));
+                out.write(value);
+                out.write(CRLF);
+            }
+            case String value -> write(out, value.getBytes(StandardCharsets.UTF_8), protocol);
+            case List<?> values -> {
+                writeLine(out, '*', String.valueOf(values.size()));
+                for (Object value : values) {
+                    write(out, value, protocol);
+                }
+            }
+            case Map<?, ?> values -> {
+                if (protocol == 3) {
+                    writeLine(out, '%', String.valueOf(values.size()));
+                } else {
+                    writeLine(out, '*', String.valueOf(values.size() * 2));
+                }
+                for (Map.Entry<?, ?> entry : values.entrySet()) {
+                    write(out, entry.getKey(), protocol);
+                    write(out, entry.getValue(), protocol);
+                }
+            }
+            case RespReply.Push push -> {
+                writeLine(out, protocol == 3 ? '>' : '*', String.valueOf(push.items().size()));
+                for (Object item : push.items()) {
+                    write(out, item, protocol);
+                }
+            }
+            case RespReply.Multi multi -> {
+                for (Object value : multi.replies()) {
+                    write(out, value, protocol);
+                }
+            }
+            default -> throw new IllegalArgumentException("unknown reply type: " + reply.getClass());
+        }
+    }
+
+    private static void writeLine(OutputStream out, char type, String line) throws IOException {
+        out.write(type);
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write(CRLF);
+    }
+
+}
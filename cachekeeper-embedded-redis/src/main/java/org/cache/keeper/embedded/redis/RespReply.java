@@ -0,0 +1,66 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.embedded.redis;
+
+import java.util.List;
+
+/**
+ * the reply of the command, besides the java type of the plain reply
+ * byte[]: bulk string, Long: integer, null: nil, List: array, Map: map (RESP3) or flat array (RESP2)
+ */
+final class RespReply {
+
+    static final Status OK = new Status("OK");
+
+    private RespReply() {
+    }
+
+    /**
+     * simple string
+     */
+    record Status(String message) {
+    }
+
+    /**
+     * error, the message start with the error code
+     */
+    record Error(String message) {
+    }
+
+    /**
+     * out of band message, push (RESP3) or array (RESP2)
+     */
+    record Push(List<Object> items) {
+    }
+
+    /**
+     * several replies of one command, such as the subscribe of several channels
+     */
+    record Multi(List<Object> replies) {
+    }
+
+    /**
+     * the command is failed, replied as the error
+     */
+    static final class RespException extends RuntimeException {
+        RespException(String message) {
+            super(message);
+        }
+    }
+
+}
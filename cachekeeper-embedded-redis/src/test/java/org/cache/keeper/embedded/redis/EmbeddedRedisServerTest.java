@@ -0,0 +1,255 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.embedded.redis;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+public class EmbeddedRedisServerTest {
+
+    private static List<byte[]> command(String... parts) {
+        return Arrays.stream(parts).map(part -> part.getBytes(StandardCharsets.UTF_8)).toList();
+    }
+
+    private static String string(Object reply) {
+        return reply == null ? null : new String((byte[]) reply, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> strings(Object reply) {
+        return ((List<?>) reply).stream().map(EmbeddedRedisServerTest::string).toList();
+    }
+
+    /**
+     * run the redis.call on the keyspace, the failed command is replied as the error same as the server
+     */
+    private static Function<List<byte[]>, Object> call(Keyspace keyspace) {
+        return command -> {
+            try {
+                return keyspace.execute(command);
+            } catch (RespReply.RespException e) {
+                return new RespReply.Error(e.getMessage());
+            }
+        };
+    }
+
+    private static String encode(Object reply, int protocol) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RespCodec.write(out, reply, protocol);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void respCodec() throws IOException {
+        InputStream in = new ByteArrayInputStream("*2\r\n$3\r\nGET\r\n$4\r\nk\r\nv\r\nPING  hello\r\n".getBytes(StandardCharsets.UTF_8));
+        List<byte[]> command = RespCodec.readCommand(in);
+        assert command.size() == 2 && "GET".equals(string(command.get(0)));
+        // the bulk string is binary safe
+        assert "k\r\nv".equals(string(command.get(1)));
+        List<byte[]> inline = RespCodec.readCommand(in);
+        assert inline.size() == 2 && "PING".equals(string(inline.get(0))) && "hello".equals(string(inline.get(1)));
+        assert RespCodec.readCommand(in) == null;
+        assertThrows(IOException.class, () -> RespCodec.readCommand(new ByteArrayInputStream("*1\r\n+GET\r\n".getBytes(StandardCharsets.UTF_8))));
+
+        assert "+OK\r\n".equals(encode(RespReply.OK, 2));
+        assert "-ERR fail\r\n".equals(encode(new RespReply.Error("ERR fail"), 2));
+        assert ":42\r\n".equals(encode(42L, 2));
+        assert "$5\r\nvalue\r\n".equals(encode("value", 2));
+        assert "$-1\r\n".equals(encode(null, 2));
+        assert "_\r\n".equals(encode(null, 3));
+        assert "*2\r\n:1\r\n$-1\r\n".equals(encode(Arrays.asList(1L, null), 2));
+        Map<String, Long> map = new LinkedHashMap<>();
+        map.put("a", 1L);
+        assert "*2\r\n$1\r\na\r\n:1\r\n".equals(encode(map, 2));
+        assert "%1\r\n$1\r\na\r\n:1\r\n".equals(encode(map, 3));
+        assert ">1\r\n$1\r\na\r\n".equals(encode(new RespReply.Push(List.of("a")), 3));
+        assert "*1\r\n$1\r\na\r\n".equals(encode(new RespReply.Push(List.of("a")), 2));
+    }
+
+    @Test
+    void keyspaceString() throws InterruptedException {
+        Keyspace keyspace = new Keyspace();
+        assert keyspace.execute(command("GET", "key")) == null;
+        assert keyspace.execute(command("SET", "key", "value")) == RespReply.OK;
+        assert "value".equals(string(keyspace.execute(command("GET", "key"))));
+        // NX is not set on the existed key, XX is not set on the missed key
+        assert keyspace.execute(command("SET", "key", "other", "NX")) == null;
+        assert keyspace.execute(command("SET", "missKey", "other", "XX")) == null;
+        assert "value".equals(string(keyspace.execute(command("SET", "key", "value2", "GET"))));
+        assert strings(keyspace.execute(command("MGET", "key", "missKey"))).equals(Arrays.asList("value2", null));
+        assertThrows(RespReply.RespException.class, () -> keyspace.execute(command("SET", "key", "value", "PX", "0")));
+        assertThrows(RespReply.RespException.class, () -> keyspace.execute(command("GET")));
+        assertThrows(RespReply.RespException.class, () -> keyspace.execute(command("NOSUCHCOMMAND")));
+
+        // INCR keep the ttl, and reject the value which is not an integer
+        assert (Long) keyspace.execute(command("INCR", "counter")) == 1L;
+        assert (Long) keyspace.execute(command("INCRBY", "counter", "41")) == 42L;
+        assert "42".equals(string(keyspace.execute(command("GET", "counter"))));
+        assertThrows(RespReply.RespException.class, () -> keyspace.execute(command("INCR", "key")));
+        assert (Long) keyspace.execute(command("PEXPIRE", "counter", "10000")) == 1L;
+        keyspace.execute(command("INCR", "counter"));
+        assert (Long) keyspace.execute(command("PTTL", "counter")) > 0;
+
+        // the ttl and the expire
+        assert (Long) keyspace.execute(command("PTTL", "key")) == -1L;
+        assert (Long) keyspace.execute(command("PTTL", "missKey")) == -2L;
+        assert (Long) keyspace.execute(command("PEXPIRE", "missKey", "100")) == 0L;
+        assert (Long) keyspace.execute(command("PEXPIRE", "key", "100", "XX")) == 0L;
+        assert (Long) keyspace.execute(command("PEXPIRE", "key", "100", "NX")) == 1L;
+        assert (Long) keyspace.execute(command("PEXPIRE", "key", "50", "GT")) == 0L;
+        keyspace.execute(command("SET", "pxKey", "value", "PX", "100"));
+        long pttl = (Long) keyspace.execute(command("PTTL", "pxKey"));
+        assert pttl > 0 && pttl <= 100;
+        Thread.sleep(Duration.ofMillis(150));
+        assert keyspace.execute(command("GET", "key")) == null;
+        assert keyspace.execute(command("GET", "pxKey")) == null;
+        assert (Long) keyspace.execute(command("EXISTS", "key", "pxKey", "counter")) == 1L;
+        assert (Long) keyspace.execute(command("DEL", "counter", "missKey")) == 1L;
+        assert (Long) keyspace.execute(command("DBSIZE")) == 0L;
+    }
+
+    @Test
+    void keyspaceSetAndSortedSet() {
+        Keyspace keyspace = new Keyspace();
+        assert (Long) keyspace.execute(command("SADD", "set", "a", "b", "a")) == 2L;
+        assert (Long) keyspace.execute(command("SISMEMBER", "set", "a")) == 1L;
+        assert (Long) keyspace.execute(command("SREM", "set", "a", "c")) == 1L;
+        assert strings(keyspace.execute(command("SMEMBERS", "set"))).equals(List.of("b"));
+        assert (Long) keyspace.execute(command("SCARD", "set")) == 1L;
+        keyspace.execute(command("SET", "string", "value"));
+        assertThrows(RespReply.RespException.class, () -> keyspace.execute(command("SADD", "string", "a")));
+        assertThrows(RespReply.RespException.class, () -> keyspace.execute(command("GET", "set")));
+
+        assert (Long) keyspace.execute(command("ZADD", "zset", "3", "c", "1", "a", "2", "b")) == 3L;
+        // the score of the existed member is updated
+        assert (Long) keyspace.execute(command("ZADD", "zset", "4", "a")) == 0L;
+        assert "4".equals(string(keyspace.execute(command("ZSCORE", "zset", "a"))));
+        assert keyspace.execute(command("ZSCORE", "zset", "missMember")) == null;
+        assert strings(keyspace.execute(command("ZRANGEBYSCORE", "zset", "-inf", "+inf"))).equals(List.of("b", "c", "a"));
+        assert strings(keyspace.execute(command("ZRANGEBYSCORE", "zset", "(2", "3"))).equals(List.of("c"));
+        assertThrows(RespReply.RespException.class, () -> keyspace.execute(command("ZRANGEBYSCORE", "zset", "x", "3")));
+        assert (Long) keyspace.execute(command("ZREMRANGEBYSCORE", "zset", "-inf", "3")) == 2L;
+        assert (Long) keyspace.execute(command("ZCARD", "zset")) == 1L;
+        assert (Long) keyspace.execute(command("ZREM", "zset", "a")) == 1L;
+        // the empty sorted set is removed
+        assert (Long) keyspace.execute(command("EXISTS", "zset")) == 0L;
+        assertThrows(RespReply.RespException.class, () -> keyspace.execute(command("ZADD", "string", "1", "a")));
+    }
+
+    @Test
+    void keyspaceScan() {
+        Keyspace keyspace = new Keyspace();
+        for (int i = 0; i < 25; i++) {
+            keyspace.execute(command("SET", "key" + i, "value"));
+            keyspace.execute(command("SADD", "set" + i, "a"));
+        }
+        List<String> keys = new ArrayList<>();
+        String cursor = "0";
+        int round = 0;
+        do {
+            List<?> reply = (List<?>) keyspace.execute(command("SCAN", cursor, "MATCH", "key*", "COUNT", "10"));
+            cursor = string(reply.get(0));
+            keys.addAll(strings(reply.get(1)));
+            round++;
+        } while (!"0".equals(cursor));
+        assert keys.size() == 25 && keys.stream().allMatch(key -> key.startsWith("key"));
+        assert round == 5;
+        List<?> reply = (List<?>) keyspace.execute(command("SCAN", "0", "COUNT", "100", "TYPE", "set"));
+        assert "0".equals(string(reply.get(0))) && ((List<?>) reply.get(1)).size() == 25;
+        assert strings(keyspace.execute(command("KEYS", "key1?"))).size() == 10;
+
+        // the modified keys is drained for the client side tracking, null after the flush
+        keyspace.drainModifiedKeys();
+        keyspace.execute(command("DEL", "key1"));
+        assert keyspace.drainModifiedKeys().equals(List.of("key1"));
+        keyspace.execute(command("FLUSHALL"));
+        assert keyspace.drainModifiedKeys() == null;
+        assert (Long) keyspace.execute(command("DBSIZE")) == 0L;
+    }
+
+    @Test
+    void luaScripting() {
+        Keyspace keyspace = new Keyspace();
+        LuaScripting luaScripting = new LuaScripting();
+        String script = """
+                redis.call('SET', KEYS[1], ARGV[1])
+                local missed = redis.call('GET', 'missKey')
+                local fail = redis.pcall('INCR', KEYS[1])
+                return {redis.call('GET', KEYS[1]), tonumber(ARGV[2]) + 1, missed == false and 1 or 0, fail['err'], redis.status_reply('DONE')}
+                """;
+        String sha = luaScripting.load(script);
+        assert sha.equals(LuaScripting.sha1(script)) && luaScripting.exists(sha.toUpperCase());
+        List<?> reply = (List<?>) luaScripting.evalSha(sha, command("key"), command("value", "41"), call(keyspace));
+        assert "value".equals(string(reply.get(0)));
+        assert (Long) reply.get(1) == 42L;
+        assert (Long) reply.get(2) == 1L;
+        assert string(reply.get(3)).startsWith("ERR value is not an integer");
+        assert new RespReply.Status("DONE").equals(reply.get(4));
+
+        // the error of redis.call fail the script, the NOSCRIPT after the flush
+        String failScript = "return redis.call('INCR', KEYS[1])";
+        Object error = luaScripting.evalSha(luaScripting.load(failScript), command("key"), List.of(), call(keyspace));
+        assert error instanceof RespReply.Error e && e.message().startsWith("ERR");
+        assertThrows(RespReply.RespException.class, () -> luaScripting.load("return {"));
+        luaScripting.flush();
+        Object noScript = luaScripting.evalSha(sha, command("key"), List.of(), call(keyspace));
+        assert noScript instanceof RespReply.Error e && e.message().startsWith("NOSCRIPT");
+    }
+
+    @Test
+    void serverCommand() throws IOException {
+        try (EmbeddedRedisServer server = EmbeddedRedisServer.Builder.newBuilder().build();
+             Socket socket = new Socket(server.getHost(), server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            InputStream in = socket.getInputStream();
+            out.write("*3\r\n$3\r\nSET\r\n$3\r\nkey\r\n$5\r\nvalue\r\n*2\r\n$3\r\nGET\r\n$3\r\nkey\r\nPING\r\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            String expected = "+OK\r\n$5\r\nvalue\r\n+PONG\r\n";
+            assert expected.equals(new String(in.readNBytes(expected.length()), StandardCharsets.UTF_8));
+
+            // the script is run on the keyspace of the server, only the keyspace command is allowed
+            String sha = string(server.execute(null, command("SCRIPT", "LOAD", "return redis.call('GET', KEYS[1])")));
+            assert "value".equals(string(server.execute(null, command("EVALSHA", sha, "1", "key"))));
+            assert "value".equals(string(server.execute(null, command("EVAL", "return redis.call('GET', KEYS[1])", "1", "key"))));
+            assert server.execute(null, command("EVAL", "return redis.call('PUBLISH', 'channel', 'message')", "0")) instanceof RespReply.Error;
+            assert server.execute(null, command("EVAL", "return 1", "2", "key")) instanceof RespReply.Error;
+            server.execute(null, command("SCRIPT", "FLUSH"));
+            Object noScript = server.execute(null, command("EVALSHA", sha, "1", "key"));
+            assert noScript instanceof RespReply.Error e && e.message().startsWith("NOSCRIPT");
+
+            server.flushAll();
+            assert server.execute(null, command("GET", "key")) == null;
+            assert server.getCommandCount() > 0 && server.getConnectionCount() == 1;
+        }
+    }
+}
@@ -19,20 +19,59 @@ package org.cache.keeper.test;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.cache.keeper.core.CacheKeeper;
+import org.cache.keeper.core.ICacheReloader;
+import org.cache.keeper.core.bloom.LocalBloomFilter;
+import org.cache.keeper.core.cacheoperator.LeaseReadResult;
+import org.cache.keeper.core.cacheoperator.memory.InMemoryCacheOperator;
+import org.cache.keeper.core.cacheoperator.nearcache.NearCacheConfiguration;
+import org.cache.keeper.core.cacheoperator.nearcache.NearCacheOperator;
+import org.cache.keeper.core.cacheoperator.redis.LeaseSweeperConfiguration;
+import org.cache.keeper.core.cacheoperator.redis.RedisBloomFilter;
 import org.cache.keeper.core.cacheoperator.redis.RedisCacheOperator;
+import org.cache.keeper.core.cacheoperator.redis.RedisInvalidationBus;
+import org.cache.keeper.core.cacheoperator.redis.RedisKeys;
+import org.cache.keeper.core.cacheoperator.redis.SharedResourceRegistry;
+import org.cache.keeper.core.cacheoperator.redis.WriteCoalescingConfiguration;
+import org.cache.keeper.core.cacheoperator.redis.WriteCoalescingStats;
 import org.cache.keeper.core.cacheoperator.redis.jedis.JedisConfiguration;
 import org.cache.keeper.core.cacheoperator.redis.jedis.JedisImpl;
+import org.cache.keeper.core.cacheoperator.redis.lettuce.LettuceConfiguration;
+import org.cache.keeper.core.cacheoperator.redis.redisson.RedissonConfiguration;
+import org.cache.keeper.core.codec.CompactBinarySerializer;
+import org.cache.keeper.core.codec.ISerializer;
+import org.cache.keeper.core.codec.StringSerializer;
+import org.cache.keeper.core.codec.compression.CompressionAlgorithm;
+import org.cache.keeper.core.codec.compression.CompressionConfiguration;
+import org.cache.keeper.core.codec.compression.CompressionSerializer;
+import org.cache.keeper.core.codec.compression.CompressionStats;
 import org.cache.keeper.core.config.CacheKeeperConfiguration;
 import org.cache.keeper.core.config.CachePenetrationStrategy;
+import org.cache.keeper.core.config.NegativeCacheConfiguration;
+import org.cache.keeper.core.ttl.ITtlPolicy;
+import org.cache.keeper.core.ttl.JitterTtlPolicy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
+import java.io.ObjectInputFilter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -219,4 +258,1256 @@ class CoreTest {
         assert Objects.equals(testKey, "testValue");
     }
 
+    @Test
+    void readCacheSingleFlight() throws InterruptedException {
+        RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .build())
+                .build();
+
+        CacheKeeperConfiguration<String, String> config = CacheKeeperConfiguration.Builder.newBuilder()
+                .cacheExpireTime(10L)
+                .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                .cachePenetrationStrategy(CachePenetrationStrategy.NONE)
+                .singleFlightWaitTimeMs(5000L)
+                .cacheOperator(cacheOperator)
+                .build();
+        CacheKeeper<String, String> cacheKeeper = CacheKeeper.Builder.newBuilder()
+                .config(config)
+                .build();
+        AtomicInteger reloadCacheCount = new AtomicInteger(0);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+                String value = cacheKeeper.readCache("singleFlightKey", key -> {
+                    reloadCacheCount.incrementAndGet();
+                    try {
+                        Thread.sleep(Duration.ofMillis(500));
+                    } catch (InterruptedException e) {
+                        // ignore
+                    }
+                    return "value";
+                });
+                assert Objects.equals(value, "value");
+            }));
+        }
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assert reloadCacheCount.get() == 1;
+        assert cacheKeeper.getSingleFlightStats().getCoalescedCount() > 0;
+    }
+
+    @Test
+    void writeCacheAfterLeaseCleared() {
+        RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .build())
+                .build();
+        // the lease is valid
+        assert !cacheOperator.readCacheOrAcquireLease("leaseKey", "lease1").isHit();
+        cacheOperator.writeCache("leaseKey", "value1", "lease1", 10L, TimeUnit.SECONDS);
+        assert Objects.equals(cacheOperator.readCache("leaseKey"), "value1");
+        // the lease is cleared by delete
+        assert !cacheOperator.readCacheOrAcquireLease("clearedLeaseKey", "lease2").isHit();
+        cacheOperator.deleteCacheAndClearAllLeaseId("clearedLeaseKey");
+        cacheOperator.writeCache("clearedLeaseKey", "value2", "lease2", 10L, TimeUnit.SECONDS);
+        assert cacheOperator.readCache("clearedLeaseKey") == null;
+    }
+
+    @Test
+    void deleteCacheFencesLeases() {
+        RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .build())
+                .useLuaSha(true)
+                .build();
+        // all leases acquired before the delete are rejected, by the read, the save or the refresh
+        assert !cacheOperator.readCacheOrAcquireLease("fenceKey", "lease1").isHit();
+        assert !cacheOperator.readCacheOrAcquireLease("fenceKey", "lease2").isHit();
+        cacheOperator.deleteCacheAndClearAllLeaseId("fenceKey");
+        assert !cacheOperator.writeCache("fenceKey", "oldValue", "lease1", 10L, TimeUnit.SECONDS);
+        assert !cacheOperator.writeCacheAsync("fenceKey", "oldValue", "lease2", 10L, TimeUnit.SECONDS).join();
+        assert cacheOperator.readCache("fenceKey") == null;
+
+        // the lease ids acquired again after the delete are new leases
+        assert !cacheOperator.readCacheOrAcquireLease("fenceKey", "lease1").isHit();
+        assert !cacheOperator.readCacheOrAcquireLease("fenceKey", "lease3").isHit();
+        assert cacheOperator.writeCache("fenceKey", "value", "lease1", 10L, TimeUnit.SECONDS);
+        assert "value".equals(cacheOperator.readCache("fenceKey"));
+
+        // the token is increased by each delete, and kept until the old leases expired
+        byte[] versionKey = RedisKeys.versionKey("fenceKey".getBytes());
+        cacheOperator.deleteCacheAndClearAllLeaseIdAsync("fenceKey").join();
+        assert cacheOperator.readCache("fenceKey") == null;
+        assert "2".equals(new String(cacheOperator.getRedisClient().get(versionKey)));
+        assert (Long) cacheOperator.getRedisClient().evalLua("return redis.call('PTTL', KEYS[1])",
+                new byte[][]{versionKey}, new byte[0][]) > 0;
+        assert !cacheOperator.writeCache("fenceKey", "oldValue", "lease3", 10L, TimeUnit.SECONDS);
+        cacheOperator.close();
+    }
+
+    @Test
+    void leaseSavedLateAfterDelete() throws InterruptedException {
+        RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .build())
+                .leaseExpireTimeMs(1000L)
+                .useLuaSha(true)
+                .build();
+        // the token outlives the delete ttl while a lease saved with it is alive
+        cacheOperator.deleteCacheAndClearAllLeaseId("lateLeaseKey");
+        Thread.sleep(Duration.ofMillis(600));
+        assert !cacheOperator.readCacheOrAcquireLease("lateLeaseKey", "lease1").isHit();
+        Thread.sleep(Duration.ofMillis(600));
+        assert cacheOperator.writeCache("lateLeaseKey", "value", "lease1", 10L, TimeUnit.SECONDS);
+        assert "value".equals(cacheOperator.readCache("lateLeaseKey"));
+
+        // the same for the lease acquired by the read
+        cacheOperator.deleteCacheAndClearAllLeaseId("lateLeaseKey");
+        Thread.sleep(Duration.ofMillis(600));
+        assert !cacheOperator.readCacheOrAcquireLease("lateLeaseKey", "lease2").isHit();
+        Thread.sleep(Duration.ofMillis(600));
+        assert cacheOperator.writeCache("lateLeaseKey", "value2", "lease2", 10L, TimeUnit.SECONDS);
+        assert "value2".equals(cacheOperator.readCache("lateLeaseKey"));
+        cacheOperator.close();
+    }
+
+    @Test
+    void readCacheOrAcquireLease() {
+        RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .build())
+                .useLuaSha(true)
+                .build();
+        // miss, the lease is saved
+        LeaseReadResult<String> miss = cacheOperator.readCacheOrAcquireLease("readOrLeaseKey", "lease1");
+        assert !miss.isHit();
+        assert Objects.equals(miss.getLeaseId(), "lease1");
+        cacheOperator.writeCache("readOrLeaseKey", "value", miss.getLeaseId(), 10L, TimeUnit.SECONDS);
+        // hit
+        LeaseReadResult<String> hit = cacheOperator.readCacheOrAcquireLease("readOrLeaseKey", "lease2");
+        assert hit.isHit();
+        assert Objects.equals(hit.getValue(), "value");
+    }
+
+    @Test
+    void leaseKeyInSameSlot() {
+        for (String key : List.of("user:1", "order:{42}:detail", "{tenant}:profile", "a{b")) {
+            byte[] cacheKey = key.getBytes();
+            byte[] leaseKey = RedisKeys.leaseKey(cacheKey);
+            assert RedisKeys.slot(cacheKey) == RedisKeys.slot(leaseKey) : key;
+            assert RedisKeys.slot(cacheKey) == RedisKeys.slot(RedisKeys.versionKey(cacheKey)) : key;
+            assert !Arrays.equals(cacheKey, leaseKey);
+        }
+        // the hash tag of the cache key is kept
+        assert "order:{42}:detail:cache_keeper_lease".equals(new String(RedisKeys.leaseKey("order:{42}:detail".getBytes())));
+        assert "{user:1}:cache_keeper_lease".equals(new String(RedisKeys.leaseKey("user:1".getBytes())));
+        // same as CLUSTER KEYSLOT
+        assert RedisKeys.slot("user:1".getBytes()) == 10778;
+        assert RedisKeys.slot("{user:1}:cache_keeper_lease".getBytes()) == 10778;
+    }
+
+    @Test
+    void readCacheWithNearCache() {
+        RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .build())
+                .build();
+
+        CacheKeeperConfiguration<String, String> config = CacheKeeperConfiguration.Builder.newBuilder()
+                .cacheExpireTime(10L)
+                .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                .cachePenetrationStrategy(CachePenetrationStrategy.NONE)
+                .nearCache(NearCacheConfiguration.Builder.newBuilder()
+                        .maximumSize(100L)
+                        .build())
+                .cacheOperator(cacheOperator)
+                .build();
+        CacheKeeper<String, String> cacheKeeper = CacheKeeper.Builder.newBuilder()
+                .config(config)
+                .build();
+        cacheKeeper.readCache("nearKey", key -> "value");
+        // the redis value is changed, the near cache still hit
+        JedisImpl<String, String> jedisClient = (JedisImpl<String, String>) cacheOperator.getRedisClient();
+        jedisClient.set("nearKey", "redisValue");
+        assert Objects.equals(cacheKeeper.readCache("nearKey", key -> "value"), "value");
+        assert cacheKeeper.getNearCacheStats().getHitCount() == 1;
+        // delete invalidate the near cache
+        cacheKeeper.deleteCache("nearKey");
+        assert Objects.equals(cacheKeeper.readCache("nearKey", key -> "newValue"), "newValue");
+    }
+
+    @Test
+    void nearCacheInvalidationBus() throws InterruptedException {
+        for (RedisInvalidationBus.InvalidationMode mode : RedisInvalidationBus.InvalidationMode.values()) {
+            RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                    .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                    .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                            .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                            .standaloneHost(redis.getHost())
+                            .standalonePort(redis.getFirstMappedPort())
+                            .build())
+                    .build();
+            // two nodes
+            RedisInvalidationBus bus1 = RedisInvalidationBus.Builder.newBuilder()
+                    .redisClient(cacheOperator.getRedisClient())
+                    .invalidationMode(mode)
+                    .keyPrefix("busKey")
+                    .build();
+            RedisInvalidationBus bus2 = RedisInvalidationBus.Builder.newBuilder()
+                    .redisClient(cacheOperator.getRedisClient())
+                    .invalidationMode(mode)
+                    .keyPrefix("busKey")
+                    .build();
+            NearCacheOperator<String, String> node1 = new NearCacheOperator<>(cacheOperator,
+                    NearCacheConfiguration.Builder.newBuilder().invalidationBus(bus1).build(), 10_000L);
+            NearCacheOperator<String, String> node2 = new NearCacheOperator<>(cacheOperator,
+                    NearCacheConfiguration.Builder.newBuilder().invalidationBus(bus2).build(), 10_000L);
+            // wait the subscription ready
+            Thread.sleep(Duration.ofMillis(500));
+            JedisImpl<String, String> jedisClient = (JedisImpl<String, String>) cacheOperator.getRedisClient();
+            jedisClient.set("busKey", "value");
+            assert Objects.equals(node1.readCache("busKey"), "value");
+            assert node1.getNearCache().size() == 1;
+            node2.deleteCacheAndClearAllLeaseId("busKey");
+            long deadline = System.currentTimeMillis() + 5000;
+            while (node1.getNearCache().size() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(Duration.ofMillis(10));
+            }
+            assert node1.getNearCache().size() == 0 : "near cache is not invalidated in mode " + mode;
+            bus1.close();
+            bus2.close();
+            // the tracking without the key prefix push every key of the redis
+            assertThrows(IllegalArgumentException.class, () -> RedisInvalidationBus.Builder.newBuilder()
+                    .redisClient(cacheOperator.getRedisClient())
+                    .invalidationMode(RedisInvalidationBus.InvalidationMode.TRACKING)
+                    .build());
+        }
+    }
+
+    @Test
+    void nearCacheInvalidationWithBinaryKey() throws InterruptedException {
+        for (RedisInvalidationBus.InvalidationMode mode : RedisInvalidationBus.InvalidationMode.values()) {
+            RedisCacheOperator<Long, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                    .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                    .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                            .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                            .standaloneHost(redis.getHost())
+                            .standalonePort(redis.getFirstMappedPort())
+                            .build())
+                    .build();
+            RedisInvalidationBus bus1 = RedisInvalidationBus.Builder.newBuilder()
+                    .redisClient(cacheOperator.getRedisClient())
+                    .invalidationMode(mode)
+                    .keyPrefix("\u0004")
+                    .build();
+            RedisInvalidationBus bus2 = RedisInvalidationBus.Builder.newBuilder()
+                    .redisClient(cacheOperator.getRedisClient())
+                    .invalidationMode(mode)
+                    .keyPrefix("\u0004")
+                    .build();
+            NearCacheOperator<Long, String> node1 = new NearCacheOperator<>(cacheOperator,
+                    NearCacheConfiguration.Builder.newBuilder().invalidationBus(bus1).build(), 10_000L);
+            NearCacheOperator<Long, String> node2 = new NearCacheOperator<>(cacheOperator,
+                    NearCacheConfiguration.Builder.newBuilder().invalidationBus(bus2).build(), 10_000L);
+            node1.initSerializer(new CompactBinarySerializer<>(), new StringSerializer<>());
+            node2.initSerializer(new CompactBinarySerializer<>(), new StringSerializer<>());
+            Thread.sleep(Duration.ofMillis(500));
+            // the serialized keys are not valid UTF-8, and differ only in the byte which is not
+            for (long key : new long[]{64L, 65L}) {
+                cacheOperator.deleteCacheAndClearAllLeaseId(key);
+                assert !cacheOperator.readCacheOrAcquireLease(key, "lease").isHit();
+                assert cacheOperator.writeCache(key, "value" + key, "lease", 10L, TimeUnit.SECONDS);
+            }
+            // wait the invalidation of the write
+            Thread.sleep(Duration.ofMillis(200));
+            assert Objects.equals(node1.readCache(64L), "value64");
+            assert Objects.equals(node1.readCache(65L), "value65");
+            assert node1.getNearCache().size() == 2;
+            node2.deleteCacheAndClearAllLeaseId(64L);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (node1.getNearCache().size() > 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(Duration.ofMillis(10));
+            }
+            assert node1.getNearCache().size() == 1 : "near cache is not invalidated in mode " + mode;
+            assert node1.readCache(64L) == null;
+            assert Objects.equals(node1.readCache(65L), "value65");
+            bus1.close();
+            bus2.close();
+            cacheOperator.close();
+        }
+    }
+
+    @Test
+    void readCacheAll() {
+        RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .build())
+                .build();
+
+        CacheKeeperConfiguration<String, String> config = CacheKeeperConfiguration.Builder.newBuilder()
+                .cacheExpireTime(10L)
+                .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                .cachePenetrationStrategy(CachePenetrationStrategy.NONE)
+                .cacheOperator(cacheOperator)
+                .build();
+        CacheKeeper<String, String> cacheKeeper = CacheKeeper.Builder.newBuilder()
+                .config(config)
+                .build();
+        JedisImpl<String, String> jedisClient = (JedisImpl<String, String>) cacheOperator.getRedisClient();
+        jedisClient.set("batchKey1", "cached1");
+        AtomicInteger reloadCacheCount = new AtomicInteger(0);
+        List<String> keys = List.of("batchKey1", "batchKey2", "batchKey3", "batchKey4");
+        Map<String, String> values = cacheKeeper.readCacheAll(keys, missKeys -> {
+            reloadCacheCount.incrementAndGet();
+            assert missKeys.size() == 3;
+            // batchKey4 is not exist in db
+            return Map.of("batchKey2", "value2", "batchKey3", "value3");
+        });
+        assert reloadCacheCount.get() == 1;
+        assert values.equals(Map.of("batchKey1", "cached1", "batchKey2", "value2", "batchKey3", "value3"));
+        // all reloaded keys are written
+        values = cacheKeeper.readCacheAll(keys, missKeys -> {
+            reloadCacheCount.incrementAndGet();
+            assert missKeys.equals(List.of("batchKey4"));
+            return Map.of();
+        });
+        assert reloadCacheCount.get() == 2;
+        assert values.size() == 3;
+    }
+
+    @Test
+    void readCacheWithBinarySerializer() {
+        RedisCacheOperator<String, Map<String, Object>> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .build())
+                .build();
+
+        CacheKeeperConfiguration<String, Map<String, Object>> config = CacheKeeperConfiguration.Builder.newBuilder()
+                .cacheExpireTime(10L)
+                .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                .cachePenetrationStrategy(CachePenetrationStrategy.WRITE_NULL_SOME_TIME)
+                .missCacheNullValueTimeMs(10_000L)
+                .valueSerializer(new CompactBinarySerializer<Map<String, Object>>())
+                .cacheOperator(cacheOperator)
+                .build();
+        CacheKeeper<String, Map<String, Object>> cacheKeeper = CacheKeeper.Builder.newBuilder()
+                .config(config)
+                .build();
+        Map<String, Object> user = Map.of("id", 42L, "name", "keeper", "tags", List.of("a", "b"), "score", 9.5d);
+        assert user.equals(cacheKeeper.readCache("binaryKey", key -> user));
+        // read back from redis, not reloaded again
+        assert user.equals(cacheKeeper.readCache("binaryKey", key -> Map.of()));
+        assert user.equals(cacheOperator.readCache("binaryKey"));
+
+        AtomicInteger reloadCacheCount = new AtomicInteger(0);
+        Map<String, Map<String, Object>> values = cacheKeeper.readCacheAll(List.of("binaryKey", "binaryKey2"), missKeys -> {
+            reloadCacheCount.incrementAndGet();
+            return Map.of();
+        });
+        assert values.equals(Map.of("binaryKey", user));
+        // the null value is cached, hit but not returned
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cacheOperator.getRedisClient().get("binaryKey2".getBytes()) == null && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        values = cacheKeeper.readCacheAll(List.of("binaryKey", "binaryKey2"), missKeys -> {
+            reloadCacheCount.incrementAndGet();
+            return Map.of();
+        });
+        assert values.equals(Map.of("binaryKey", user));
+        assert reloadCacheCount.get() == 1;
+
+        // the java serialization fallback is disabled by default, and only the allowed class is read when it is enabled
+        Date date = new Date(42L);
+        assertThrows(IllegalArgumentException.class, () -> new CompactBinarySerializer<Date>().serialize(date));
+        CompactBinarySerializer<Date> javaSerializer = CompactBinarySerializer.Builder.newBuilder()
+                .javaSerializationFilter(ObjectInputFilter.Config.createFilter("java.util.Date;!*"))
+                .build();
+        byte[] bytes = javaSerializer.serialize(date);
+        assert date.equals(javaSerializer.deserialize(ByteBuffer.wrap(bytes)));
+        assertThrows(IllegalArgumentException.class, () -> new CompactBinarySerializer<Date>().deserialize(ByteBuffer.wrap(bytes)));
+        CompactBinarySerializer<Date> rejectSerializer = CompactBinarySerializer.Builder.newBuilder()
+                .javaSerializationFilter(ObjectInputFilter.Config.createFilter("!*"))
+                .build();
+        assertThrows(IllegalArgumentException.class, () -> rejectSerializer.deserialize(ByteBuffer.wrap(bytes)));
+    }
+
+    @Test
+    void readCacheWithCompression() {
+        RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .build())
+                .build();
+
+        CacheKeeperConfiguration<String, String> config = CacheKeeperConfiguration.Builder.newBuilder()
+                .cacheExpireTime(10L)
+                .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                .cachePenetrationStrategy(CachePenetrationStrategy.NONE)
+                .compression(CompressionConfiguration.Builder.newBuilder()
+                        .algorithm(CompressionAlgorithm.LZ4)
+                        .thresholdBytes(1024)
+                        .build())
+                .cacheOperator(cacheOperator)
+                .build();
+        CacheKeeper<String, String> cacheKeeper = CacheKeeper.Builder.newBuilder()
+                .config(config)
+                .build();
+        StringBuilder aggregate = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            aggregate.append("{\"id\":").append(i).append(",\"name\":\"item").append(i).append("\",\"status\":\"ACTIVE\"},");
+        }
+        String largeValue = aggregate.toString();
+        assert largeValue.equals(cacheKeeper.readCache("largeKey", key -> largeValue));
+        byte[] stored = cacheOperator.getRedisClient().get("largeKey".getBytes());
+        assert stored[0] == CompressionSerializer.HEADER;
+        assert stored.length < largeValue.length() / 4;
+        assert largeValue.equals(cacheKeeper.readCache("largeKey", key -> "reloaded"));
+        // the small value is written as it is
+        assert "small".equals(cacheKeeper.readCache("smallKey", key -> "small"));
+        assert "small".equals(cacheOperator.getRedisClient().get("smallKey"));
+
+        CompressionStats stats = cacheKeeper.getCompressionStats();
+        assert stats.getCompressedCount() == 1;
+        assert stats.getSkippedCount() == 1;
+        assert stats.getDecompressedCount() == 1;
+        assert stats.bytesSaved() == largeValue.length() - stored.length;
+
+        // round trip of the random, repeated and incompressible value with all algorithms
+        Random random = new Random(7);
+        for (CompressionAlgorithm algorithm : CompressionAlgorithm.values()) {
+            CompressionSerializer<byte[]> serializer = new CompressionSerializer<>(new CompactBinarySerializer<>(),
+                    CompressionConfiguration.Builder.newBuilder().algorithm(algorithm).thresholdBytes(16).build());
+            for (int i = 0; i < 200; i++) {
+                byte[] value = new byte[random.nextInt(100_000)];
+                int alphabet = 1 + random.nextInt(i % 2 == 0 ? 4 : 256);
+                for (int j = 0; j < value.length; j++) {
+                    value[j] = (byte) random.nextInt(alphabet);
+                }
+                byte[] serialized = serializer.serialize(value);
+                assert Arrays.equals(value, serializer.deserialize(ByteBuffer.wrap(serialized)));
+            }
+            assert serializer.getStats().getCompressedCount() > 0;
+            assert serializer.getStats().getIncompressibleCount() > 0;
+        }
+    }
+
+    @Test
+    void multiInstanceCacheKeeper() {
+        JedisConfiguration sharedConfiguration = JedisConfiguration.Builder.newBuilder()
+                .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                .standaloneHost(redis.getHost())
+                .standalonePort(redis.getFirstMappedPort())
+                .build();
+        // the hot region and the cold region share the pool, the other region use another database
+        RedisCacheOperator<String, String> hotOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(sharedConfiguration)
+                .build();
+        RedisCacheOperator<String, Long> coldOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(sharedConfiguration)
+                .build();
+        RedisCacheOperator<String, String> otherOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .standaloneDatabase(1)
+                        .build())
+                .build();
+        assert (Object) hotOperator != coldOperator;
+        assert SharedResourceRegistry.getInstance().referenceCount(sharedConfiguration) == 2;
+
+        CacheKeeper<String, String> hotCacheKeeper = CacheKeeper.Builder.newBuilder()
+                .config(CacheKeeperConfiguration.Builder.newBuilder()
+                        .cacheExpireTime(10L)
+                        .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                        .cachePenetrationStrategy(CachePenetrationStrategy.NONE)
+                        .cacheOperator(hotOperator)
+                        .build())
+                .build();
+        CacheKeeper<String, Long> coldCacheKeeper = CacheKeeper.Builder.newBuilder()
+                .config(CacheKeeperConfiguration.Builder.newBuilder()
+                        .cacheExpireTime(1L)
+                        .cacheExpireTimeUnit(TimeUnit.HOURS)
+                        .cachePenetrationStrategy(CachePenetrationStrategy.NONE)
+                        .valueSerializer(new CompactBinarySerializer<Long>())
+                        .cacheOperator(coldOperator)
+                        .build())
+                .build();
+        CacheKeeper<String, String> otherCacheKeeper = CacheKeeper.Builder.newBuilder()
+                .config(CacheKeeperConfiguration.Builder.newBuilder()
+                        .cacheExpireTime(10L)
+                        .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                        .cachePenetrationStrategy(CachePenetrationStrategy.NONE)
+                        .cacheOperator(otherOperator)
+                        .build())
+                .build();
+        assert hotCacheKeeper != otherCacheKeeper;
+        assert "hot".equals(hotCacheKeeper.readCache("hotKey", key -> "hot"));
+        assert coldCacheKeeper.readCache("coldKey", key -> 42L) == 42L;
+        assert "other".equals(otherCacheKeeper.readCache("hotKey", key -> "other"));
+        // each keeper keep its own config
+        assert "hot".equals(hotCacheKeeper.readCache("hotKey", key -> "reloaded"));
+        assert coldCacheKeeper.readCache("coldKey", key -> 0L) == 42L;
+        assert "other".equals(otherCacheKeeper.readCache("hotKey", key -> "reloaded"));
+
+        // the shared pool is closed by the last keeper
+        hotCacheKeeper.close();
+        assert SharedResourceRegistry.getInstance().referenceCount(sharedConfiguration) == 1;
+        assert coldCacheKeeper.readCache("coldKey", key -> 0L) == 42L;
+        coldCacheKeeper.close();
+        assert SharedResourceRegistry.getInstance().referenceCount(sharedConfiguration) == 0;
+        assert "other".equals(otherCacheKeeper.readCache("hotKey", key -> "reloaded"));
+        otherCacheKeeper.close();
+    }
+
+    @Test
+    void readCacheAsync() {
+        RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .build())
+                .build();
+
+        CacheKeeperConfiguration<String, String> config = CacheKeeperConfiguration.Builder.newBuilder()
+                .cacheExpireTime(10L)
+                .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                .cachePenetrationStrategy(CachePenetrationStrategy.NONE)
+                .cacheOperator(cacheOperator)
+                .build();
+        CacheKeeper<String, String> cacheKeeper = CacheKeeper.Builder.newBuilder()
+                .config(config)
+                .build();
+        AtomicInteger reloadCacheCount = new AtomicInteger(0);
+        CompletableFuture<String> db = new CompletableFuture<>();
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(cacheKeeper.readCacheAsync("asyncKey", key -> {
+                reloadCacheCount.incrementAndGet();
+                return db;
+            }));
+        }
+        // the reload is not finished, no caller is blocked
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cacheKeeper.getSingleFlightStats().getLeaderCount() + cacheKeeper.getSingleFlightStats().getCoalescedCount() < 10
+                && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        db.complete("asyncValue");
+        for (CompletableFuture<String> future : futures) {
+            assert "asyncValue".equals(future.join());
+        }
+        assert reloadCacheCount.get() == 1;
+        JedisImpl<String, String> jedisClient = (JedisImpl<String, String>) cacheOperator.getRedisClient();
+        assert "asyncValue".equals(jedisClient.get("asyncKey"));
+
+        cacheKeeper.deleteCacheAsync("asyncKey").join();
+        assert jedisClient.get("asyncKey") == null;
+        String value = cacheKeeper.readCacheAsync("asyncKey", key -> CompletableFuture.completedFuture("newValue")).join();
+        assert "newValue".equals(value);
+    }
+
+    @Test
+    void staleWhileRevalidate() throws InterruptedException {
+        RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .build())
+                .build();
+
+        CacheKeeperConfiguration<String, String> config = CacheKeeperConfiguration.Builder.newBuilder()
+                .cacheExpireTime(1L)
+                .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                .staleWhileRevalidateTimeMs(10000L)
+                .cachePenetrationStrategy(CachePenetrationStrategy.NONE)
+                .cacheOperator(cacheOperator)
+                .build();
+        CacheKeeper<String, String> cacheKeeper = CacheKeeper.Builder.newBuilder()
+                .config(config)
+                .build();
+        assert "old".equals(cacheKeeper.readCache("staleKey", key -> "old"));
+        Thread.sleep(1100);
+
+        // the stale value is returned at once, only one refresh in the background
+        AtomicInteger reloadCacheCount = new AtomicInteger(0);
+        CountDownLatch refreshLatch = new CountDownLatch(1);
+        for (int i = 0; i < 20; i++) {
+            long start = System.currentTimeMillis();
+            String value = cacheKeeper.readCache("staleKey", key -> {
+                reloadCacheCount.incrementAndGet();
+                try {
+                    Thread.sleep(Duration.ofMillis(500));
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+                refreshLatch.countDown();
+                return "new";
+            });
+            assert "old".equals(value);
+            assert System.currentTimeMillis() - start < 400;
+        }
+        assert refreshLatch.await(5, TimeUnit.SECONDS);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!"new".equals(cacheKeeper.readCache("staleKey", key -> "reloaded"))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assert "new".equals(cacheKeeper.readCache("staleKey", key -> "reloaded"));
+        assert reloadCacheCount.get() == 1;
+
+        // the stale value is not returned by the batch read without the lease
+        Thread.sleep(1100);
+        assert cacheOperator.readCacheAll(List.of("staleKey")).isEmpty();
+        LeaseReadResult<String> stale = cacheOperator.readCacheOrAcquireLease("staleKey", "lease1");
+        assert stale.isHit() && stale.isStale();
+        assert "new".equals(stale.getValue());
+        LeaseReadResult<String> refreshing = cacheOperator.readCacheOrAcquireLease("staleKey", "lease2");
+        assert refreshing.isHit() && !refreshing.isStale();
+        cacheKeeper.close();
+    }
+
+    @Test
+    void earlyRefresh() throws InterruptedException {
+        RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .build())
+                .build();
+
+        CacheKeeperConfiguration<String, String> config = CacheKeeperConfiguration.Builder.newBuilder()
+                .cacheExpireTime(10L)
+                .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                .earlyRefreshBeta(1000.0)
+                .cachePenetrationStrategy(CachePenetrationStrategy.NONE)
+                .cacheOperator(cacheOperator)
+                .build();
+        CacheKeeper<String, String> cacheKeeper = CacheKeeper.Builder.newBuilder()
+                .config(config)
+                .build();
+        AtomicInteger reloadCacheCount = new AtomicInteger(0);
+        ICacheReloader<String, String> slowReloader = key -> {
+            try {
+                Thread.sleep(Duration.ofMillis(100));
+            } catch (InterruptedException e) {
+                // ignore
+            }
+            return "value" + reloadCacheCount.incrementAndGet();
+        };
+        assert "value1".equals(cacheKeeper.readCache("earlyKey", slowReloader));
+
+        // the slow reload with the large beta is refreshed long before expired, the old value is returned meanwhile
+        for (int i = 0; i < 20; i++) {
+            assert "value1".equals(cacheKeeper.readCache("earlyKey", slowReloader));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!"value2".equals(cacheOperator.readCache("earlyKey")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assert "value2".equals(cacheOperator.readCache("earlyKey"));
+        assert reloadCacheCount.get() == 2;
+
+        // the fast reload is not refreshed early
+        cacheKeeper.deleteCache("earlyKey");
+        assert "fast".equals(cacheKeeper.readCache("earlyKey", key -> "fast"));
+        for (int i = 0; i < 20; i++) {
+            assert "fast".equals(cacheKeeper.readCache("earlyKey", key -> "refreshed"));
+        }
+
+        // the plain value shorter than the header of its flags is not read as the envelope
+        byte[] shortValue = {(byte) 0xFE, (byte) 0xC0, 'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j'};
+        String plainValue = new String(shortValue, StandardCharsets.UTF_8);
+        cacheOperator.getRedisClient().evalLua("return redis.call('SET', KEYS[1], ARGV[1])",
+                new byte[][]{"shortKey".getBytes()}, new byte[][]{shortValue});
+        assert plainValue.equals(cacheOperator.readCache("shortKey"));
+        assert plainValue.equals(cacheOperator.readCacheAll(List.of("shortKey")).get("shortKey"));
+        LeaseReadResult<String> result = cacheOperator.readCacheOrAcquireLease("shortKey", "lease");
+        assert result.isHit() && !result.isStale() && plainValue.equals(result.getValue());
+        cacheKeeper.close();
+    }
+
+    @Test
+    void ttlPolicy() throws InterruptedException {
+        // the jitter is never earlier than the ttl
+        JitterTtlPolicy<String, String> jitterTtlPolicy = new JitterTtlPolicy<>(0.5);
+        long minExpireTimeMs = Long.MAX_VALUE;
+        long maxExpireTimeMs = 0;
+        for (int i = 0; i < 1000; i++) {
+            long expireTimeMs = jitterTtlPolicy.expireTimeMs("key", "value", 10000L);
+            minExpireTimeMs = Math.min(minExpireTimeMs, expireTimeMs);
+            maxExpireTimeMs = Math.max(maxExpireTimeMs, expireTimeMs);
+        }
+        assert minExpireTimeMs >= 10000L && maxExpireTimeMs <= 15000L;
+        assert maxExpireTimeMs - minExpireTimeMs > 1000L;
+        assertThrows(IllegalArgumentException.class, () -> new JitterTtlPolicy<>(0));
+
+        RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .build())
+                .build();
+        // the hot key live longer, the null value live shorter
+        ITtlPolicy<String, String> perKeyTtlPolicy = (key, value, baseExpireTimeMs) -> {
+            if (value == null) {
+                return 1000L;
+            }
+            return key.startsWith("hot") ? baseExpireTimeMs * 10 : baseExpireTimeMs;
+        };
+        CacheKeeperConfiguration<String, String> config = CacheKeeperConfiguration.Builder.newBuilder()
+                .cacheExpireTime(1L)
+                .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                .cachePenetrationStrategy(CachePenetrationStrategy.WRITE_NULL_SOME_TIME)
+                .missCacheNullValueTimeMs(10000L)
+                .ttlPolicy(new JitterTtlPolicy<>(0.1, perKeyTtlPolicy))
+                .nearCache(NearCacheConfiguration.Builder.newBuilder()
+                        .maximumSize(100L)
+                        .build())
+                .cacheOperator(cacheOperator)
+                .build();
+        CacheKeeper<String, String> cacheKeeper = CacheKeeper.Builder.newBuilder()
+                .config(config)
+                .build();
+        assert "hot".equals(cacheKeeper.readCache("hotTtlKey", key -> "hot"));
+        assert "cold".equals(cacheKeeper.readCache("coldTtlKey", key -> "cold"));
+        assert cacheKeeper.readCache("nullTtlKey", key -> null) == null;
+        Map<String, String> values = cacheKeeper.readCacheAll(List.of("hotTtlBulkKey", "coldTtlBulkKey"),
+                keys -> Map.of("hotTtlBulkKey", "hot", "coldTtlBulkKey", "cold"));
+        assert values.size() == 2;
+        Thread.sleep(300);
+        assert cacheOperator.readCacheAll(List.of("nullTtlKey")).containsKey("nullTtlKey");
+        Thread.sleep(2000);
+        // the cold key and the null value expired in redis and the near cache
+        assert "hot".equals(cacheKeeper.readCache("hotTtlKey", key -> "reloaded"));
+        assert "hot".equals(cacheKeeper.readCache("hotTtlBulkKey", key -> "reloaded"));
+        assert "reloaded".equals(cacheKeeper.readCache("coldTtlKey", key -> "reloaded"));
+        assert "reloaded".equals(cacheKeeper.readCache("coldTtlBulkKey", key -> "reloaded"));
+        assert "reloaded".equals(cacheKeeper.readCache("nullTtlKey", key -> "reloaded"));
+        cacheKeeper.close();
+    }
+
+    @Test
+    void readCacheWithBloomFilter() throws InterruptedException {
+        RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .build())
+                .build();
+        assertThrows(IllegalArgumentException.class, () -> CacheKeeperConfiguration.Builder.newBuilder()
+                .cacheExpireTime(10L)
+                .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                .cachePenetrationStrategy(CachePenetrationStrategy.BLOOM_FILTER)
+                .cacheOperator(cacheOperator)
+                .build());
+
+        // the local filter and the filter in redis have the same false positive
+        List<String> db = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            db.add("bloomKey" + i);
+        }
+        LocalBloomFilter<String> localBloomFilter = new LocalBloomFilter<>(1000, 0.01);
+        localBloomFilter.scheduleRebuild(() -> new ArrayList<>(db).stream(), 100L);
+        RedisBloomFilter<String> redisBloomFilter = new RedisBloomFilter<>(cacheOperator.getRedisClient(), "bloomFilter", 1000, 0.01);
+        redisBloomFilter.build(db.stream());
+        int falsePositiveCount = 0;
+        for (int i = 0; i < 1000; i++) {
+            assert localBloomFilter.mightContain("bloomKey" + i) && redisBloomFilter.mightContain("bloomKey" + i);
+            boolean mightContain = localBloomFilter.mightContain("missKey" + i);
+            assert mightContain == redisBloomFilter.mightContain("missKey" + i);
+            falsePositiveCount += mightContain ? 1 : 0;
+        }
+        assert falsePositiveCount < 50;
+        // the put during the build is kept after the building filter replace the filter
+        redisBloomFilter.build(db.stream().peek(key -> {
+            if (key.equals("bloomKey0")) {
+                redisBloomFilter.put("putDuringBuild");
+            }
+        }));
+        assert redisBloomFilter.mightContain("putDuringBuild") && redisBloomFilter.mightContain("bloomKey999");
+
+        CacheKeeperConfiguration<String, String> config = CacheKeeperConfiguration.Builder.newBuilder()
+                .cacheExpireTime(10L)
+                .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                .cachePenetrationStrategy(CachePenetrationStrategy.BLOOM_FILTER)
+                .bloomFilter(localBloomFilter)
+                .cacheOperator(cacheOperator)
+                .build();
+        CacheKeeper<String, String> cacheKeeper = CacheKeeper.Builder.newBuilder()
+                .config(config)
+                .build();
+        AtomicInteger reloadCacheCount = new AtomicInteger(0);
+        ICacheReloader<String, String> reloader = key -> {
+            reloadCacheCount.incrementAndGet();
+            return db.contains(key) ? "value" : null;
+        };
+        assert "value".equals(cacheKeeper.readCache("bloomKey1", reloader));
+        assert reloadCacheCount.get() == 1;
+        // the impossible key is not read from the redis and the db
+        String missKey = "";
+        for (int i = 0; localBloomFilter.mightContain(missKey); i++) {
+            missKey = "missKey" + i;
+        }
+        assert cacheKeeper.readCache(missKey, reloader) == null;
+        assert cacheKeeper.readCacheAsync(missKey, key -> CompletableFuture.completedFuture("value")).join() == null;
+        assert cacheKeeper.readCacheAll(List.of(missKey), keys -> Map.of()).isEmpty();
+        assert reloadCacheCount.get() == 1;
+        assert cacheOperator.readCacheAll(List.of(missKey)).isEmpty();
+        assert cacheOperator.getRedisClient().get(RedisKeys.leaseKey(missKey.getBytes())) == null;
+
+        // the key inserted to the db is added by the delete
+        db.add(missKey);
+        cacheKeeper.deleteCache(missKey);
+        assert "value".equals(cacheKeeper.readCache(missKey, reloader));
+        assert reloadCacheCount.get() == 2;
+
+        // the key deleted from the db is removed by the rebuild
+        db.remove("bloomKey1");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (localBloomFilter.mightContain("bloomKey1") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assert !localBloomFilter.mightContain("bloomKey1");
+        redisBloomFilter.putAll(List.of("addedKey1", "addedKey2"));
+        assert redisBloomFilter.mightContain("addedKey1") && redisBloomFilter.mightContain("addedKey2");
+        cacheKeeper.close();
+
+        // the key is hashed by the key serializer of the cache, not by its toString
+        ISerializer<long[]> arraySerializer = new ISerializer<>() {
+            @Override
+            public byte[] serialize(long[] object) {
+                ByteBuffer buffer = ByteBuffer.allocate(object.length * Long.BYTES);
+                buffer.asLongBuffer().put(object);
+                return buffer.array();
+            }
+
+            @Override
+            public long[] deserialize(ByteBuffer buffer) {
+                long[] object = new long[buffer.remaining() / Long.BYTES];
+                buffer.asLongBuffer().get(object);
+                return object;
+            }
+        };
+        LocalBloomFilter<long[]> arrayBloomFilter = new LocalBloomFilter<>(1000, 0.01);
+        CacheKeeperConfiguration.Builder.newBuilder()
+                .cacheExpireTime(10L)
+                .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                .cachePenetrationStrategy(CachePenetrationStrategy.BLOOM_FILTER)
+                .keySerializer(arraySerializer)
+                .bloomFilter(arrayBloomFilter)
+                .cacheOperator(InMemoryCacheOperator.Builder.newBuilder().build())
+                .build();
+        arrayBloomFilter.put(new long[]{1L, 2L});
+        assert arrayBloomFilter.mightContain(new long[]{1L, 2L});
+    }
+
+    @Test
+    void readNullCacheWithNegativeCache() throws InterruptedException {
+        RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .build())
+                .build();
+
+        CacheKeeperConfiguration<String, String> config = CacheKeeperConfiguration.Builder.newBuilder()
+                .cacheExpireTime(10L)
+                .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                .cachePenetrationStrategy(CachePenetrationStrategy.WRITE_NULL_SOME_TIME)
+                .missCacheNullValueTimeMs(10_000L)
+                .negativeCache(NegativeCacheConfiguration.Builder.newBuilder()
+                        .expireTimeMs(500L)
+                        .build())
+                .cacheOperator(cacheOperator)
+                .build();
+        CacheKeeper<String, String> cacheKeeper = CacheKeeper.Builder.newBuilder()
+                .config(config)
+                .build();
+        AtomicInteger reloadCacheCount = new AtomicInteger(0);
+        ICacheReloader<String, String> nullReloader = key -> {
+            reloadCacheCount.incrementAndGet();
+            return null;
+        };
+        assert cacheKeeper.readCache("negativeKey", nullReloader) == null;
+        // the repeated read is answered in process
+        for (int i = 0; i < 100; i++) {
+            assert cacheKeeper.readCache("negativeKey", nullReloader) == null;
+        }
+        assert cacheKeeper.readCacheAll(List.of("negativeKey"), keys -> Map.of()).isEmpty();
+        assert reloadCacheCount.get() == 1;
+        assert cacheKeeper.getNegativeCacheStats().getHitCount() >= 101;
+
+        // the null value is the tombstone in redis, the empty string is a real value
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cacheOperator.getRedisClient().get("negativeKey".getBytes()) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assert Arrays.equals(cacheOperator.getRedisClient().get("negativeKey".getBytes()), new byte[]{(byte) 0xFF});
+        assert "".equals(cacheKeeper.readCache("emptyKey", key -> ""));
+        assert "".equals(cacheKeeper.readCache("emptyKey", key -> "reloaded"));
+
+        // the negative cache expired, the tombstone is read from redis without reload
+        Thread.sleep(600);
+        assert cacheKeeper.readCache("negativeKey", nullReloader) == null;
+        assert reloadCacheCount.get() == 1;
+
+        // the delete clear the negative cache
+        cacheKeeper.deleteCache("negativeKey");
+        assert "value".equals(cacheKeeper.readCache("negativeKey", key -> "value"));
+        cacheKeeper.close();
+    }
+
+    @Test
+    void writeCacheWithMillisecondTtlAndCoalescing() throws InterruptedException {
+        RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .build())
+                .useLuaSha(true)
+                .writeCoalescing(WriteCoalescingConfiguration.Builder.newBuilder()
+                        .maxBatchSize(16)
+                        .maxDelayMicros(5000L)
+                        .maxWaitMillis(5000L)
+                        .build())
+                .build();
+        // the ttl under one second is kept
+        assert !cacheOperator.readCacheOrAcquireLease("pxKey", "lease").isHit();
+        assert cacheOperator.writeCache("pxKey", "value", "lease", 300L, TimeUnit.MILLISECONDS);
+        assert "value".equals(cacheOperator.readCache("pxKey"));
+        Thread.sleep(Duration.ofMillis(500));
+        assert cacheOperator.readCache("pxKey") == null;
+
+        // the writes of the concurrent reloads are sent together
+        int writerCount = 48;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger writtenCount = new AtomicInteger(0);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < writerCount; i++) {
+            String key = "coalescedKey" + i;
+            threads.add(Thread.ofPlatform().start(() -> {
+                assert !cacheOperator.readCacheOrAcquireLease(key, "lease").isHit();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (cacheOperator.writeCache(key, "value", "lease", 10L, TimeUnit.SECONDS)) {
+                    writtenCount.incrementAndGet();
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assert writtenCount.get() == writerCount;
+        assert "value".equals(cacheOperator.readCache("coalescedKey0"));
+        WriteCoalescingStats stats = cacheOperator.getWriteCoalescingStats();
+        assert stats.getWriteCount() == writerCount + 1;
+        assert stats.getFlushCount() < stats.getWriteCount();
+        assert stats.getFailedFlushCount() == 0;
+
+        // the lease is still checked
+        assert !cacheOperator.writeCacheAsync("coalescedKey0", "oldValue", "lease", 10L, TimeUnit.SECONDS).join();
+
+        // the writes of a key are run in the submit order, across the batches
+        int writeCount = 200;
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < writeCount; i++) {
+            assert !cacheOperator.readCacheOrAcquireLease("orderedKey", "lease" + i).isHit();
+        }
+        long flushCount = stats.getFlushCount();
+        for (int i = 0; i < writeCount; i++) {
+            futures.add(cacheOperator.writeCacheAsync("orderedKey", "value" + i, "lease" + i, 10L, TimeUnit.SECONDS));
+        }
+        futures.forEach(future -> {
+            assert future.join();
+        });
+        assert ("value" + (writeCount - 1)).equals(cacheOperator.readCache("orderedKey"));
+        assert stats.getFlushCount() - flushCount < writeCount;
+        assert stats.getFlushCount() - flushCount >= writeCount / 16;
+        cacheOperator.close();
+    }
+
+    @Test
+    void leaseExpireAndSweep() throws InterruptedException {
+        RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .build())
+                .useLuaSha(true)
+                .leaseExpireTimeMs(1000L)
+                .build();
+        String leaseCount = "return redis.call('ZCARD', KEYS[1])";
+        byte[] leaseKey = RedisKeys.leaseKey("sweepKey".getBytes());
+        // the expired lease can not write, even the lease set is kept by the new lease
+        assert !cacheOperator.readCacheOrAcquireLease("sweepKey", "crashedLease").isHit();
+        Thread.sleep(Duration.ofMillis(600));
+        assert !cacheOperator.readCacheOrAcquireLease("sweepKey", "aliveLease").isHit();
+        Thread.sleep(Duration.ofMillis(600));
+        assert !cacheOperator.writeCache("sweepKey", "oldValue", "crashedLease", 10L, TimeUnit.SECONDS);
+        assert cacheOperator.readCache("sweepKey") == null;
+
+        // the expired lease is removed by the sweep, the alive one is kept
+        assert (Long) cacheOperator.getRedisClient().evalLua(leaseCount, new byte[][]{leaseKey}, new byte[0][]) == 2L;
+        assert cacheOperator.sweepExpiredLeases() >= 1;
+        assert (Long) cacheOperator.getRedisClient().evalLua(leaseCount, new byte[][]{leaseKey}, new byte[0][]) == 1L;
+        assert cacheOperator.writeCache("sweepKey", "value", "aliveLease", 10L, TimeUnit.SECONDS);
+        assert "value".equals(cacheOperator.readCache("sweepKey"));
+
+        // the lease set saved by the old version is replaced
+        byte[] legacyLeaseKey = RedisKeys.leaseKey("legacyLeaseKey".getBytes());
+        cacheOperator.getRedisClient().evalLua("return redis.call('SADD', KEYS[1], 'legacyLease')", new byte[][]{legacyLeaseKey}, new byte[0][]);
+        assert !cacheOperator.writeCache("legacyLeaseKey", "oldValue", "legacyLease", 10L, TimeUnit.SECONDS);
+        assert !cacheOperator.readCacheOrAcquireLease("legacyLeaseKey", "newLease").isHit();
+        assert cacheOperator.writeCache("legacyLeaseKey", "value", "newLease", 10L, TimeUnit.SECONDS);
+        cacheOperator.close();
+
+        // the background sweeper
+        RedisCacheOperator<String, String> sweepingCacheOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                        .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .build())
+                .leaseExpireTimeMs(1000L)
+                .leaseSweeper(LeaseSweeperConfiguration.Builder.newBuilder()
+                        .intervalMs(100L)
+                        .scanCount(10)
+                        .batchPauseMs(0L)
+                        .build())
+                .build();
+        byte[] sweeperLeaseKey = RedisKeys.leaseKey("sweeperKey".getBytes());
+        assert !sweepingCacheOperator.readCacheOrAcquireLease("sweeperKey", "crashedLease").isHit();
+        Thread.sleep(Duration.ofMillis(600));
+        assert !sweepingCacheOperator.readCacheOrAcquireLease("sweeperKey", "aliveLease").isHit();
+        Thread.sleep(Duration.ofMillis(800));
+        assert (Long) sweepingCacheOperator.getRedisClient().evalLua(leaseCount, new byte[][]{sweeperLeaseKey}, new byte[0][]) == 1L;
+        sweepingCacheOperator.close();
+        assertThrows(IllegalArgumentException.class, () -> LeaseSweeperConfiguration.Builder.newBuilder().scanCount(0).build());
+    }
+
+    @Test
+    void readCacheWithLettuce() throws InterruptedException {
+        RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                .redisClientType(RedisCacheOperator.RedisClientType.LETTUCE)
+                .redisConfiguration(LettuceConfiguration.Builder.newBuilder()
+                        .connectionMode(LettuceConfiguration.ConnectionMode.STANDALONE)
+                        .standaloneHost(redis.getHost())
+                        .standalonePort(redis.getFirstMappedPort())
+                        .build())
+                .useLuaSha(true)
+                .build();
+
+        CacheKeeperConfiguration<String, String> config = CacheKeeperConfiguration.Builder.newBuilder()
+                .cacheExpireTime(10L)
+                .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                .cachePenetrationStrategy(CachePenetrationStrategy.NONE)
+                .cacheOperator(cacheOperator)
+                .build();
+        CacheKeeper<String, String> cacheKeeper = CacheKeeper.Builder.newBuilder()
+                .config(config)
+                .build();
+        // many threads share the multiplexed connection
+        AtomicInteger readCacheCount = new AtomicInteger(0);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                String value = cacheKeeper.readCache("lettuceKey", key -> "value");
+                if ("value".equals(value)) {
+                    readCacheCount.incrementAndGet();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assert readCacheCount.get() == 100;
+        assert "value".equals(cacheOperator.getRedisClient().get("lettuceKey"));
+
+        Map<String, String> values = cacheKeeper.readCacheAll(List.of("lettuceKey", "lettuceKey2"),
+                missKeys -> Map.of("lettuceKey2", "value2"));
+        assert values.equals(Map.of("lettuceKey", "value", "lettuceKey2", "value2"));
+
+        cacheKeeper.deleteCacheAsync("lettuceKey").join();
+        assert cacheOperator.getRedisClient().get("lettuceKey") == null;
+        String value = cacheKeeper.readCacheAsync("lettuceKey", key -> CompletableFuture.completedFuture("newValue")).join();
+        assert "newValue".equals(value);
+
+        // the lease keys are found by the scan of the sweeper
+        assert !cacheOperator.readCacheOrAcquireLease("lettuceLeaseKey", "lettuceLease").isHit();
+        List<byte[]> leaseKeys = new ArrayList<>();
+        cacheOperator.getRedisClient().scan(RedisKeys.leaseKeyPattern(), 2, leaseKeys::addAll);
+        assert leaseKeys.stream().anyMatch(key -> Arrays.equals(key, RedisKeys.leaseKey("lettuceLeaseKey".getBytes())));
+
+        for (RedisInvalidationBus.InvalidationMode mode : List.of(RedisInvalidationBus.InvalidationMode.TRACKING,
+                RedisInvalidationBus.InvalidationMode.PUBSUB)) {
+            RedisInvalidationBus bus1 = RedisInvalidationBus.Builder.newBuilder()
+                    .redisClient(cacheOperator.getRedisClient())
+                    .invalidationMode(mode)
+                    .keyPrefix("lettuceKey")
+                    .build();
+            RedisInvalidationBus bus2 = RedisInvalidationBus.Builder.newBuilder()
+                    .redisClient(cacheOperator.getRedisClient())
+                    .invalidationMode(mode)
+                    .keyPrefix("lettuceKey")
+                    .build();
+            NearCacheOperator<String, String> node1 = new NearCacheOperator<>(cacheOperator,
+                    NearCacheConfiguration.Builder.newBuilder().invalidationBus(bus1).build(), 10_000L);
+            NearCacheOperator<String, String> node2 = new NearCacheOperator<>(cacheOperator,
+                    NearCacheConfiguration.Builder.newBuilder().invalidationBus(bus2).build(), 10_000L);
+            assert Objects.equals(node1.readCache("lettuceKey"), "newValue");
+            node2.deleteCacheAndClearAllLeaseId("lettuceKey");
+            long deadline = System.currentTimeMillis() + 5000;
+            while (node1.getNearCache().size() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(Duration.ofMillis(10));
+            }
+            assert node1.getNearCache().size() == 0 : "near cache is not invalidated in mode " + mode;
+            bus1.close();
+            bus2.close();
+            cacheOperator.getRedisClient().set("lettuceKey", "newValue");
+        }
+    }
+
+    @Test
+    void readCacheWithRedisson() throws InterruptedException {
+        Config redissonConfig = new Config();
+        redissonConfig.useSingleServer().setAddress("redis://" + redis.getHost() + ":" + redis.getFirstMappedPort());
+        RedissonClient redissonClient = Redisson.create(redissonConfig);
+        try {
+            RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                    .redisClientType(RedisCacheOperator.RedisClientType.REDISSON)
+                    .redisConfiguration(RedissonConfiguration.Builder.newBuilder()
+                            .redissonClient(redissonClient)
+                            .build())
+                    .useLuaSha(true)
+                    .build();
+
+            CacheKeeperConfiguration<String, String> config = CacheKeeperConfiguration.Builder.newBuilder()
+                    .cacheExpireTime(10L)
+                    .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                    .cachePenetrationStrategy(CachePenetrationStrategy.NONE)
+                    .cacheOperator(cacheOperator)
+                    .build();
+            CacheKeeper<String, String> cacheKeeper = CacheKeeper.Builder.newBuilder()
+                    .config(config)
+                    .build();
+            assert "value".equals(cacheKeeper.readCache("redissonKey", key -> "value"));
+            assert "value".equals(cacheOperator.getRedisClient().get("redissonKey"));
+            // the key which is not UTF-8 can not be named by redisson
+            assertThrows(IllegalArgumentException.class, () -> cacheOperator.initSerializer(
+                    new CompactBinarySerializer<>(), new StringSerializer<>()));
+            assert "value".equals(cacheKeeper.readCache("redissonKey", key -> "otherValue"));
+
+            // the script cache is flushed, the sha must fallback to the script
+            redissonClient.getScript().scriptFlush();
+            Map<String, String> values = cacheKeeper.readCacheAll(List.of("redissonKey", "redissonKey2", "redissonKey3"),
+                    missKeys -> Map.of("redissonKey2", "value2"));
+            assert values.equals(Map.of("redissonKey", "value", "redissonKey2", "value2"));
+            assert "value2".equals(cacheOperator.getRedisClient().get("redissonKey2"));
+
+            cacheKeeper.deleteCacheAsync("redissonKey").join();
+            assert cacheOperator.getRedisClient().get("redissonKey") == null;
+            String value = cacheKeeper.readCacheAsync("redissonKey", key -> CompletableFuture.completedFuture("newValue")).join();
+            assert "newValue".equals(value);
+
+            // the lease keys are found by the scan of the sweeper
+            assert !cacheOperator.readCacheOrAcquireLease("redissonLeaseKey", "redissonLease").isHit();
+            List<byte[]> leaseKeys = new ArrayList<>();
+            cacheOperator.getRedisClient().scan(RedisKeys.leaseKeyPattern(), 2, leaseKeys::addAll);
+            assert leaseKeys.stream().anyMatch(key -> Arrays.equals(key, RedisKeys.leaseKey("redissonLeaseKey".getBytes())));
+
+            // no client side tracking, fallback to pub/sub
+            RedisInvalidationBus bus1 = RedisInvalidationBus.Builder.newBuilder()
+                    .redisClient(cacheOperator.getRedisClient())
+                    .build();
+            RedisInvalidationBus bus2 = RedisInvalidationBus.Builder.newBuilder()
+                    .redisClient(cacheOperator.getRedisClient())
+                    .build();
+            NearCacheOperator<String, String> node1 = new NearCacheOperator<>(cacheOperator,
+                    NearCacheConfiguration.Builder.newBuilder().invalidationBus(bus1).build(), 10_000L);
+            NearCacheOperator<String, String> node2 = new NearCacheOperator<>(cacheOperator,
+                    NearCacheConfiguration.Builder.newBuilder().invalidationBus(bus2).build(), 10_000L);
+            assert Objects.equals(node1.readCache("redissonKey"), "newValue");
+            node2.deleteCacheAndClearAllLeaseId("redissonKey");
+            long deadline = System.currentTimeMillis() + 5000;
+            while (node1.getNearCache().size() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(Duration.ofMillis(10));
+            }
+            assert node1.getNearCache().size() == 0;
+            bus1.close();
+            bus2.close();
+        } finally {
+            redissonClient.shutdown();
+        }
+    }
+
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cache.keeper.test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.cache.keeper.core.CacheKeeper;
+import org.cache.keeper.core.cacheoperator.LeaseReadResult;
+import org.cache.keeper.core.cacheoperator.redis.RedisCacheOperator;
+import org.cache.keeper.core.cacheoperator.redis.jedis.JedisConfiguration;
+import org.cache.keeper.core.config.CacheKeeperConfiguration;
+import org.cache.keeper.core.config.CachePenetrationStrategy;
+import org.cache.keeper.embedded.redis.EmbeddedRedisServer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * core test on the embedded redis, no docker is needed
+ */
+class EmbeddedRedisTest {
+
+    @Test
+    void readCacheWithEmbeddedRedis() {
+        try (EmbeddedRedisServer server = EmbeddedRedisServer.Builder.newBuilder().build()) {
+            RedisCacheOperator<String, String> cacheOperator = RedisCacheOperator.Builder.newBuilder()
+                    .redisClientType(RedisCacheOperator.RedisClientType.JEDIS)
+                    .redisConfiguration(JedisConfiguration.Builder.newBuilder()
+                            .connectionMode(JedisConfiguration.ConnectionMode.STANDALONE)
+                            .standaloneHost(server.getHost())
+                            .standalonePort(server.getPort())
+                            .build())
+                    .useLuaSha(true)
+                    .build();
+            CacheKeeperConfiguration<String, String> config = CacheKeeperConfiguration.Builder.newBuilder()
+                    .cacheExpireTime(10L)
+                    .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                    .cachePenetrationStrategy(CachePenetrationStrategy.NONE)
+                    .cacheOperator(cacheOperator)
+                    .build();
+            CacheKeeper<String, String> cacheKeeper = CacheKeeper.Builder.newBuilder()
+                    .config(config)
+                    .build();
+            assert "value".equals(cacheKeeper.readCache("embeddedKey", key -> "value"));
+            assert "value".equals(cacheKeeper.readCache("embeddedKey", key -> "otherValue"));
+            assert "value".equals(cacheOperator.getRedisClient().get("embeddedKey"));
+
+            // the lease script run in the pipeline
+            Map<String, String> values = cacheKeeper.readCacheAll(List.of("embeddedKey", "embeddedKey2", "embeddedKey3"),
+                    missKeys -> Map.of("embeddedKey2", "value2"));
+            assert values.equals(Map.of("embeddedKey", "value", "embeddedKey2", "value2"));
+
+            // the write after the delete is rejected by the lease
+            LeaseReadResult<String> result = cacheOperator.readCacheOrAcquireLease("embeddedLeaseKey", "lease1");
+            assert !result.isHit();
+            cacheOperator.deleteCacheAndClearAllLeaseId("embeddedLeaseKey");
+            assert !cacheOperator.writeCache("embeddedLeaseKey", "oldValue", "lease1", 10L, TimeUnit.SECONDS);
+
+            // the latency of each round trip
+            server.injectLatency(50);
+            long start = System.currentTimeMillis();
+            assert "value".equals(cacheKeeper.readCache("embeddedKey", key -> "otherValue"));
+            assert System.currentTimeMillis() - start >= 50;
+
+            // the command fail, and the server recover after the fault is cleared
+            server.clearFaults();
+            server.injectFailure(EmbeddedRedisServer.FailureMode.ERROR, 1);
+            assertThrows(RuntimeException.class, () -> cacheKeeper.readCache("embeddedKey", key -> "otherValue"));
+            server.clearFaults();
+            assert "value".equals(cacheKeeper.readCache("embeddedKey", key -> "otherValue"));
+            assert server.getCommandCount() > 0;
+            cacheKeeper.close();
+        }
+    }
+}
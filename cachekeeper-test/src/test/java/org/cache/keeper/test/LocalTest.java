@@ -0,0 +1,195 @@
+/*
+ * Copyright 2025 [cache keeper]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cache.keeper.test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.cache.keeper.core.CacheKeeper;
+import org.cache.keeper.core.cacheoperator.LeaseReadResult;
+import org.cache.keeper.core.cacheoperator.SoftExpire;
+import org.cache.keeper.core.cacheoperator.memory.InMemoryCacheOperator;
+import org.cache.keeper.core.cacheoperator.nearcache.NearCacheConfiguration;
+import org.cache.keeper.core.cacheoperator.nearcache.NearCacheOperator;
+import org.cache.keeper.core.codec.CompactBinarySerializer;
+import org.cache.keeper.core.codec.compression.CompressionAlgorithm;
+import org.cache.keeper.core.codec.compression.CompressionConfiguration;
+import org.cache.keeper.core.codec.compression.CompressionSerializer;
+import org.cache.keeper.core.config.CacheKeeperConfiguration;
+import org.cache.keeper.core.config.CachePenetrationStrategy;
+import org.cache.keeper.core.lease.CompactLeaseIdGenerator;
+import org.cache.keeper.core.lease.ILeaseIdGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * test without redis, no docker is needed
+ */
+class LocalTest {
+
+    @Test
+    void readCacheWithInMemory() throws InterruptedException {
+        InMemoryCacheOperator<String, String> cacheOperator = InMemoryCacheOperator.Builder.newBuilder()
+                .leaseExpireTimeMs(1000L)
+                .tickMs(10L)
+                .build();
+        CacheKeeperConfiguration<String, String> config = CacheKeeperConfiguration.Builder.newBuilder()
+                .cacheExpireTime(200L)
+                .cacheExpireTimeUnit(TimeUnit.MILLISECONDS)
+                .cachePenetrationStrategy(CachePenetrationStrategy.WRITE_NULL_SOME_TIME)
+                .missCacheNullValueTimeMs(200L)
+                .cacheOperator(cacheOperator)
+                .build();
+        CacheKeeper<String, String> cacheKeeper = CacheKeeper.Builder.newBuilder()
+                .config(config)
+                .build();
+        assert "value".equals(cacheKeeper.readCache("memoryKey", key -> "value"));
+        assert "value".equals(cacheKeeper.readCache("memoryKey", key -> "otherValue"));
+        assert cacheKeeper.readCache("memoryNullKey", key -> null) == null;
+        assert cacheOperator.readCacheOrAcquireLease("memoryNullKey", "lease").isHit();
+
+        // the write with the lease read before the delete is rejected
+        LeaseReadResult<String> result = cacheOperator.readCacheOrAcquireLease("memoryLeaseKey", "lease1");
+        assert !result.isHit();
+        cacheOperator.deleteCacheAndClearAllLeaseId("memoryLeaseKey");
+        assert !cacheOperator.writeCache("memoryLeaseKey", "oldValue", "lease1", 10L, TimeUnit.SECONDS);
+        assert cacheOperator.readCache("memoryLeaseKey") == null;
+
+        // only one reader get the stale value with the lease
+        assert !cacheOperator.readCacheOrAcquireLease("memoryStaleKey", "lease2").isHit();
+        assert cacheOperator.writeCache("memoryStaleKey", "value", "lease2", 10L, TimeUnit.SECONDS, SoftExpire.of(50L, 0L));
+        assert cacheOperator.readCacheOrAcquireLease("memoryStaleKey", "lease3").isHit();
+        Thread.sleep(Duration.ofMillis(100));
+        LeaseReadResult<String> stale = cacheOperator.readCacheOrAcquireLease("memoryStaleKey", "lease4");
+        assert stale.isStale() && "value".equals(stale.getValue());
+        LeaseReadResult<String> other = cacheOperator.readCacheOrAcquireLease("memoryStaleKey", "lease5");
+        assert other.isHit() && !other.isStale();
+        assert !cacheOperator.readCacheAll(List.of("memoryStaleKey")).containsKey("memoryStaleKey");
+        assert cacheOperator.writeCache("memoryStaleKey", "newValue", "lease4", 10L, TimeUnit.SECONDS);
+        assert "newValue".equals(cacheOperator.readCacheAll(List.of("memoryStaleKey")).get("memoryStaleKey"));
+
+        // the expired value is removed by the timer wheel
+        cacheOperator.deleteCacheAndClearAllLeaseId("memoryStaleKey");
+        Thread.sleep(Duration.ofMillis(1200));
+        assert cacheOperator.readCache("memoryKey") == null;
+        assert cacheOperator.size() == 0;
+        cacheKeeper.close();
+    }
+
+    @Test
+    void compactLeaseId() throws InterruptedException {
+        assertThrows(IllegalArgumentException.class, () -> new CompactLeaseIdGenerator(""));
+        assertThrows(IllegalArgumentException.class, () -> new CompactLeaseIdGenerator("node.1"));
+        // the ids of the nodes with the prefix of different length are not mixed up
+        assert !new CompactLeaseIdGenerator("a").generateLeaseId().equals(new CompactLeaseIdGenerator("aA").generateLeaseId());
+        assert new CompactLeaseIdGenerator("node1").generateLeaseId().startsWith("node1");
+
+        // unique and short in many threads
+        CompactLeaseIdGenerator generator = new CompactLeaseIdGenerator();
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int j = 0; j < 50000; j++) {
+                    String id = generator.generateLeaseId();
+                    assert id.length() < 32;
+                    ids.add(id);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assert ids.size() == 200000;
+        assert !new CompactLeaseIdGenerator().generateLeaseId().equals(new CompactLeaseIdGenerator().generateLeaseId());
+
+        // the cache keeper takes the lease id from the configured generator
+        AtomicInteger generatedCount = new AtomicInteger(0);
+        ILeaseIdGenerator countingGenerator = () -> "counted" + generatedCount.incrementAndGet();
+        CacheKeeperConfiguration<String, String> config = CacheKeeperConfiguration.Builder.newBuilder()
+                .cacheExpireTime(10L)
+                .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                .cacheOperator(InMemoryCacheOperator.Builder.newBuilder().build())
+                .leaseIdGenerator(countingGenerator)
+                .build();
+        CacheKeeper<String, String> cacheKeeper = CacheKeeper.Builder.newBuilder()
+                .config(config)
+                .build();
+        assert "value".equals(cacheKeeper.readCache("leaseIdKey", key -> "value"));
+        assert generatedCount.get() == 1;
+        assertThrows(IllegalArgumentException.class, () -> CacheKeeperConfiguration.Builder.newBuilder()
+                .cacheExpireTime(10L)
+                .cacheExpireTimeUnit(TimeUnit.SECONDS)
+                .leaseIdGenerator(null)
+                .build());
+        cacheKeeper.close();
+    }
+
+    @Test
+    void nearCacheExpireWithRemoteCache() throws InterruptedException {
+        InMemoryCacheOperator<String, String> cacheOperator = InMemoryCacheOperator.Builder.newBuilder().build();
+        NearCacheOperator<String, String> nearCacheOperator = new NearCacheOperator<>(cacheOperator,
+                NearCacheConfiguration.Builder.newBuilder().build(), 10_000L);
+        // the value read is kept in the near cache until its soft expire, not the expire time of the near cache
+        assert !cacheOperator.readCacheOrAcquireLease("softKey", "lease1").isHit();
+        assert cacheOperator.writeCache("softKey", "value", "lease1", 10L, TimeUnit.SECONDS, SoftExpire.of(100L, 0L));
+        LeaseReadResult<String> result = nearCacheOperator.readCacheOrAcquireLease("softKey", "lease2");
+        assert result.isHit() && result.getExpireTimeMs() <= 100L;
+        assert "value".equals(nearCacheOperator.getNearCache().get("softKey"));
+        Thread.sleep(Duration.ofMillis(150));
+        assert nearCacheOperator.getNearCache().get("softKey") == null;
+        assert nearCacheOperator.readCacheOrAcquireLease("softKey", "lease3").isStale();
+
+        // the value read is kept until the ttl of the remote cache
+        assert !cacheOperator.readCacheOrAcquireLease("ttlKey", "lease1").isHit();
+        assert cacheOperator.writeCache("ttlKey", "value", "lease1", 100L, TimeUnit.MILLISECONDS);
+        assert nearCacheOperator.readCacheOrAcquireLease("ttlKey", "lease2").isHit();
+        Thread.sleep(Duration.ofMillis(150));
+        assert nearCacheOperator.getNearCache().get("ttlKey") == null;
+        nearCacheOperator.close();
+    }
+
+    @Test
+    void decompressWithUntrustedLength() {
+        byte[] value = new byte[4096];
+        CompressionSerializer<byte[]> serializer = new CompressionSerializer<>(new CompactBinarySerializer<>(),
+                CompressionConfiguration.Builder.newBuilder().thresholdBytes(16).build());
+        byte[] serialized = serializer.serialize(value);
+        assert Arrays.equals(value, serializer.deserialize(ByteBuffer.wrap(serialized)));
+        // the value longer than the max is rejected before it is decompressed
+        CompressionSerializer<byte[]> smallSerializer = new CompressionSerializer<>(new CompactBinarySerializer<>(),
+                CompressionConfiguration.Builder.newBuilder().thresholdBytes(16).maxDecompressedBytes(1024).build());
+        assertThrows(IllegalArgumentException.class, () -> smallSerializer.deserialize(ByteBuffer.wrap(serialized)));
+        assertThrows(IllegalArgumentException.class, () -> CompressionConfiguration.Builder.newBuilder()
+                .maxDecompressedBytes(0)
+                .build());
+        // the original length out of the ratio of the algorithm is rejected before it is allocated
+        for (CompressionAlgorithm algorithm : CompressionAlgorithm.values()) {
+            byte[] forged = {CompressionSerializer.HEADER, (byte) algorithm.getId(), (byte) 0xFF, (byte) 0xFF, 0x3F, 0x10, 0x00};
+            assertThrows(IllegalArgumentException.class, () -> serializer.deserialize(ByteBuffer.wrap(forged)));
+        }
+    }
+
+}